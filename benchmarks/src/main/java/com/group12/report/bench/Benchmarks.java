@@ -0,0 +1,44 @@
+package com.group12.report.bench;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogManager;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line
+ * ({@code -p scale=1}, {@code -f 1}, a benchmark regex, ...) and defaults to
+ * throughput plus average time in microseconds. The GC profiler is always on,
+ * so every result comes with its allocation rate per operation.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() { }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        // The DAOs log at INFO; keep benchmark output readable.
+        LogManager.getLogManager().reset();
+
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class);
+        if (cli.getBenchModes().isEmpty()) options.mode(Mode.Throughput).mode(Mode.AverageTime);
+        if (!cli.getTimeUnit().hasValue()) options.timeUnit(TimeUnit.MICROSECONDS);
+        if (!cli.getWarmupIterations().hasValue()) options.warmupIterations(3);
+        if (!cli.getWarmupTime().hasValue()) options.warmupTime(TimeValue.seconds(2));
+        if (!cli.getMeasurementIterations().hasValue()) options.measurementIterations(5);
+        if (!cli.getMeasurementTime().hasValue()) options.measurementTime(TimeValue.seconds(2));
+        if (!cli.getForkCount().hasValue()) options.forks(1);
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+package com.group12.report.bench;
+
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.data_access.CountryDAO;
+import com.group12.report.data_access.PopulationDAO;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Query plus row mapping in the DAOs, against {@link WorldDatabase}:
+ * every city and every country (the "all ..." reports without a display
+ * limit), and the city / non-city rollup behind reports 23-26 and 29-31.
+ */
+@State(Scope.Benchmark)
+public class DaoBenchmark {
+
+    CityDAO cities;
+    CountryDAO countries;
+    PopulationDAO population;
+
+    @Setup(Level.Trial)
+    public void setUp(WorldDatabase world) {
+        cities = new CityDAO(world.pool);
+        countries = new CountryDAO(world.pool);
+        population = new PopulationDAO(world.pool);
+    }
+
+    @Benchmark
+    public List<City> fetchCities() {
+        return cities.getAllCitiesByPopulation(null);
+    }
+
+    @Benchmark
+    public List<City> fetchCitiesInContinent() {
+        return cities.getCitiesByContinent("Asia", null);
+    }
+
+    @Benchmark
+    public List<Country> fetchCountries() {
+        return countries.getAllCountriesByPopulation(null);
+    }
+
+    /** Re-reads and re-aggregates the per-country city sums, as a cold start does. */
+    @Benchmark
+    public List<Population> fetchBreakdownPopulation() {
+        population.refreshRollup();
+        return population.getPopulationByCountry();
+    }
+}
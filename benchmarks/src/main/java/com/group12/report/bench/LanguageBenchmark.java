@@ -0,0 +1,40 @@
+package com.group12.report.bench;
+
+import com.group12.report.data_access.LanguageDAO;
+import com.group12.report.models.Language;
+import com.group12.report.snapshot.LanguageTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Language aggregation: the GROUP BY that builds the ranked language table,
+ * and the report 32 lookup once the table is built.
+ */
+@State(Scope.Benchmark)
+public class LanguageBenchmark {
+
+    LanguageDAO languages;
+
+    @Setup(Level.Trial)
+    public void setUp(WorldDatabase world) {
+        languages = new LanguageDAO(world.pool);
+    }
+
+    /** Query, aggregate and rank every language. */
+    @Benchmark
+    public LanguageTable aggregateLanguages() {
+        languages.refreshLanguages();
+        return languages.languageTable();
+    }
+
+    /** Report 32 from the already-built table. */
+    @Benchmark
+    public List<Language> selectReportedLanguages() {
+        return languages.getLanguagesBySpeakerCount(WorldDatabase.REPORTED_LANGUAGES);
+    }
+}
@@ -0,0 +1,48 @@
+package com.group12.report.bench;
+
+import com.group12.report.models.City;
+import com.group12.report.models.Population;
+import com.group12.report.reports.CityReport;
+import com.group12.report.reports.PopulationReport;
+import com.group12.report.reports.ReportOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Rendering whole tables, with no display limit, into an output that hands
+ * each block to a {@link Blackhole}. The rows come from the snapshot, so only
+ * the formatting is measured.
+ */
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    List<City> cities;
+    List<Population> countries;
+    CityReport cityReport;
+    PopulationReport populationReport;
+
+    @Setup(Level.Trial)
+    public void setUp(WorldDatabase world, Blackhole blackhole) {
+        cities = world.snapshot.cities(com.group12.report.snapshot.Scope.WORLD, null, null);
+        countries = world.snapshot.populationByCountry();
+        ReportOutput output = text -> blackhole.consume(text.length());
+        cityReport = new CityReport(Integer.MAX_VALUE, output);
+        populationReport = new PopulationReport(Integer.MAX_VALUE, output);
+    }
+
+    @Benchmark
+    public void displayCities() {
+        cityReport.displayCities(cities, "All cities");
+    }
+
+    @Benchmark
+    public void displayPopulations() {
+        populationReport.displayPopulations(countries, "Population of each country");
+    }
+}
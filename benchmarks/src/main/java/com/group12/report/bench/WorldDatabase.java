@@ -0,0 +1,165 @@
+package com.group12.report.bench;
+
+import com.group12.report.db.ConnectionPool;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A synthetic world database held in an in-memory H2 instance (MySQL mode),
+ * plus the same rows as a {@link WorldSnapshot}.
+ *
+ * <p>{@code scale} multiplies the size of the real {@code world} database:
+ * 239 countries, 4,079 cities and 984 language rows at scale 1. Names, sizes
+ * and populations come from a fixed seed, so every run sees the same data. The
+ * DAOs reach the database through the application's own {@link ConnectionPool},
+ * just as they reach MySQL.</p>
+ */
+@State(Scope.Benchmark)
+public class WorldDatabase {
+
+    static final String[] CONTINENTS = {
+            "Asia", "Europe", "North America", "Africa", "Oceania", "Antarctica", "South America"
+    };
+    static final int REGIONS_PER_CONTINENT = 4;
+    static final int COUNTRIES = 239;
+    static final int CITIES = 4_079;
+    static final int LANGUAGE_ROWS = 984;
+    static final int LANGUAGES = 457;
+
+    /** The five languages App reports on; they are given to many countries. */
+    static final List<String> REPORTED_LANGUAGES = List.of("English", "Chinese", "Hindi", "Spanish", "Arabic");
+
+    @Param({"1", "10", "50"})
+    public int scale;
+
+    public ConnectionPool pool;
+    public WorldSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:world" + scale + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        pool = ConnectionPool.builder(url, "sa", "").maxSize(4).build();
+
+        WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+        try (Connection con = pool.getConnection()) {
+            createTables(con);
+            generate(con, builder);
+        }
+        snapshot = builder.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection con = pool.getConnection(); Statement st = con.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+        pool.close();
+    }
+
+    private static void createTables(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("""
+                    CREATE TABLE country (
+                      Code VARCHAR(8) PRIMARY KEY, Name VARCHAR(52) NOT NULL, Continent VARCHAR(20) NOT NULL,
+                      Region VARCHAR(26) NOT NULL, Population INT NOT NULL, Capital INT)""");
+            st.execute("""
+                    CREATE TABLE city (
+                      ID INT PRIMARY KEY, Name VARCHAR(35) NOT NULL, CountryCode VARCHAR(8) NOT NULL,
+                      District VARCHAR(20) NOT NULL, Population INT NOT NULL)""");
+            st.execute("CREATE INDEX city_country ON city (CountryCode)");
+            st.execute("""
+                    CREATE TABLE countrylanguage (
+                      CountryCode VARCHAR(8) NOT NULL, Language VARCHAR(30) NOT NULL,
+                      IsOfficial CHAR(1) NOT NULL, Percentage DECIMAL(4,1) NOT NULL,
+                      PRIMARY KEY (CountryCode, Language))""");
+        }
+    }
+
+    private void generate(Connection con, WorldSnapshot.RowSink snapshot) throws SQLException {
+        SplittableRandom random = new SplittableRandom(12);
+        int countries = COUNTRIES * scale;
+        int cities = CITIES * scale;
+        int languageRows = LANGUAGE_ROWS * scale;
+
+        // Every country gets at least one city, its capital; the rest are spread at random.
+        int[] cityCountry = new int[cities];
+        for (int i = 0; i < cities; i++) cityCountry[i] = i < countries ? i : random.nextInt(countries);
+
+        List<Object[]> countryRows = new ArrayList<>(countries);
+        for (int c = 0; c < countries; c++) {
+            int continent = random.nextInt(CONTINENTS.length);
+            int region = continent * REGIONS_PER_CONTINENT + random.nextInt(REGIONS_PER_CONTINENT);
+            long population = random.nextInt(4) == 0 ? random.nextLong(1_000, 200_000)
+                                                     : random.nextLong(200_000, Math.max(400_000, 1_200_000_000L / scale));
+            countryRows.add(new Object[] { code(c), "Country " + c, CONTINENTS[continent],
+                    "Region " + region, population, c + 1 });
+        }
+        insert(con, "INSERT INTO country VALUES (?, ?, ?, ?, ?, ?)", countryRows);
+        for (Object[] r : countryRows) {
+            snapshot.addCountry((String) r[0], (String) r[1], (String) r[2], (String) r[3], (Long) r[4], (Integer) r[5]);
+        }
+
+        List<Object[]> cityRows = new ArrayList<>(cities);
+        for (int i = 0; i < cities; i++) {
+            int c = cityCountry[i];
+            // Heavy-tailed, like real city sizes: most are small, a few are huge.
+            long population = (long) (1_000 * Math.pow(10, 4 * random.nextDouble() * random.nextDouble()));
+            cityRows.add(new Object[] { i + 1, "City " + i, code(c), "District " + c % 97 + "-" + i % 9, population });
+        }
+        insert(con, "INSERT INTO city VALUES (?, ?, ?, ?, ?)", cityRows);
+        for (Object[] r : cityRows) {
+            snapshot.addCity((Integer) r[0], (String) r[1], (String) r[2], (String) r[3], (Long) r[4]);
+        }
+
+        List<Object[]> languageRowList = new ArrayList<>(languageRows);
+        for (int i = 0; i < languageRows; i++) {
+            // Row i belongs to country i % countries; the language number keeps (country, language) unique.
+            int c = i % countries;
+            int n = i / countries;
+            String language = n < REPORTED_LANGUAGES.size() && random.nextBoolean()
+                    ? REPORTED_LANGUAGES.get((n + c) % REPORTED_LANGUAGES.size())
+                    : "Language " + (c * 7 + n) % LANGUAGES + "/" + n;
+            double percentage = random.nextInt(1_000) / 10.0;
+            languageRowList.add(new Object[] { code(c), language, n == 0 ? "T" : "F", percentage });
+        }
+        insert(con, "INSERT INTO countrylanguage VALUES (?, ?, ?, ?)", languageRowList);
+        for (Object[] r : languageRowList) {
+            snapshot.addLanguage((String) r[0], (String) r[1], "T".equals(r[2]), (Double) r[3]);
+        }
+    }
+
+    private static void insert(Connection con, String sql, List<Object[]> rows) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            int batched = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) ps.setObject(i + 1, row[i]);
+                ps.addBatch();
+                if (++batched % 1_000 == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /** Country code: base-26 letters, three or more. */
+    private static String code(int n) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('A' + n % 26));
+            n /= 26;
+        } while (n > 0 || sb.length() < 3);
+        return sb.reverse().toString();
+    }
+}
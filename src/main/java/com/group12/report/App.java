@@ -1,12 +1,46 @@
 package com.group12.report;
 
+import com.group12.report.cache.QueryCache;
 import com.group12.report.data_access.*;
+import com.group12.report.db.ConnectionPool;
+import com.group12.report.db.IndexCheck;
+import com.group12.report.db.ReadinessProbe;
+import com.group12.report.export.ExportFormat;
+import com.group12.report.export.ReportExporter;
+import com.group12.report.metrics.QueryMetrics;
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Population;
 import com.group12.report.reports.*;
+import com.group12.report.runner.LimitedRows;
+import com.group12.report.runner.ReportRunner;
+import com.group12.report.server.ReportServer;
+import com.group12.report.snapshot.ChangeFeed;
+import com.group12.report.snapshot.ChangeLog;
+import com.group12.report.snapshot.ChangeSet;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.SnapshotFile;
+import com.group12.report.snapshot.WorldSnapshot;
+import com.group12.report.snapshot.WorldSqlLoader;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,8 +48,22 @@ public class App {
     private static final Logger LOGGER = Logger.getLogger(App.class.getName());
     public Connection con = null;
 
+    /** Pool every DAO borrows from; {@link #con} is one connection held from it for direct callers. */
+    public ConnectionPool pool = null;
+
+    /** Phase timings for this run, logged once startup is complete. */
+    public final StartupTimings timings = new StartupTimings();
+
     /**
      * Connect to the MySQL database.
+     *
+     * <p>Creates the connection pool (sized by {@code report.pool.*} system properties)
+     * and borrows one connection from it to confirm the database is reachable. The
+     * first attempt is made straight away; failures are retried with exponential
+     * backoff and jitter until {@code delay} milliseconds have passed.</p>
+     *
+     * @param location Host and port of the MySQL server.
+     * @param delay    Total time budget in milliseconds to wait for the database.
      */
     public void connect(String location, int delay) {
         try {
@@ -24,32 +72,41 @@ public class App {
             LOGGER.log(Level.SEVERE, "Could not load SQL driver", e);
             System.exit(-1);
         }
+        timings.mark("driver");
 
-        int retries = 15;
-        for (int i = 0; i < retries; ++i) {
-            LOGGER.info("Connecting to database...");
-            try {
-                Thread.sleep(10000);
-
-                con = DriverManager.getConnection(
-                        "jdbc:mysql://" + location + "/world?useSSL=false&allowPublicKeyRetrieval=true",
+        pool = ConnectionPool.builder(
+                        "jdbc:mysql://" + location + "/world?useSSL=false&allowPublicKeyRetrieval=true"
+                                + "&connectTimeout=5000&useCursorFetch=true&useServerPrepStmts=true",
                         "root",
-                        "example"
-                );
+                        "example")
+                .maxSize(Integer.getInteger("report.pool.maxSize", 10))
+                .idleTimeout(Duration.ofMillis(Long.getLong("report.pool.idleTimeoutMs", 600_000L)))
+                .maxLifetime(Duration.ofMillis(Long.getLong("report.pool.maxLifetimeMs", 1_800_000L)))
+                .statementCacheSize(Integer.getInteger("report.pool.statementCacheSize", 64))
+                .build();
 
-                LOGGER.info("Successfully connected to the database");
-                break;
-            }
-            catch (SQLException sqle) {
-                final int attempt = i;
-                LOGGER.log(Level.WARNING, () ->
-                        "Failed to connect to database attempt " + attempt + ": " + sqle.getMessage()
-                );
-            }
-            catch (InterruptedException ie) {
-                LOGGER.log(Level.WARNING, () -> "Thread interrupted unexpectedly");
-            }
+        ReadinessProbe probe = new ReadinessProbe(
+                Long.getLong("report.connect.initialBackoffMs", 100L),
+                Long.getLong("report.connect.maxBackoffMs", 5_000L),
+                delay);
 
+        LOGGER.info("Connecting to database...");
+        try {
+            con = probe.await(pool::getConnection);
+            long ms = timings.mark("connect");
+            LOGGER.info(() -> String.format(
+                    "Successfully connected to the database after %d attempt(s) in %d ms",
+                    probe.getAttempts(), ms
+            ));
+        } catch (SQLException sqle) {
+            timings.mark("connect");
+            LOGGER.log(Level.SEVERE, () -> String.format(
+                    "Database not ready after %d attempt(s) within %d ms: %s",
+                    probe.getAttempts(), delay, sqle.getMessage()
+            ));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, () -> "Thread interrupted unexpectedly");
         }
     }
 
@@ -65,6 +122,9 @@ public class App {
                 LOGGER.log(Level.WARNING, "Error closing connection to database", e);
             }
         }
+        if (pool != null) {
+            pool.close();
+        }
     }
 
     public static void main(String[] args) {
@@ -73,122 +133,368 @@ public class App {
         System.setProperty("java.util.logging.SimpleFormatter.format", "%4$s: %5$s%n");
 
         App app = new App();
+        // Non-zero when the run produced incomplete output, e.g. an export whose query failed.
+        int exitStatus = 0;
 
         try {
-            if (args.length < 1) {
-                app.connect("localhost:33060", 30000);
+            // Offline mode (-Dreport.snapshot.file=<path> or -Dreport.snapshot.sql=<world.sql>):
+            // answer every report from a snapshot file written by an earlier run, or from
+            // the SQL dump itself; MySQL is never contacted.
+            String snapshotFile = System.getProperty("report.snapshot.file");
+            String dumpFile = System.getProperty("report.snapshot.sql");
+            WorldSnapshot snapshot;
+            // Server mode against MySQL follows the world_change log written by the triggers in
+            // world-db/world_changes.sql every report.refreshMs (0 turns it off).
+            ChangeLog changeLog = null;
+            long changePosition = 0;
+            if (snapshotFile != null) {
+                snapshot = SnapshotFile.open(Path.of(snapshotFile));
+                app.timings.mark("snapshot-file");
+            } else if (dumpFile != null) {
+                snapshot = WorldSqlLoader.load(Path.of(dumpFile));
+                app.timings.mark("snapshot-sql");
             } else {
-                app.connect("db:3306", 10000);
+                // args: [location] [max wait in ms], e.g. "db:3306 120000" from the Dockerfile.
+                if (args.length < 1) {
+                    app.connect("localhost:33060", 30000);
+                } else {
+                    app.connect(args[0], args.length > 1 ? Integer.parseInt(args[1]) : 30000);
+                }
+
+                if (app.con == null) {
+                    LOGGER.severe("No database connection; skipping reports");
+                    return;
+                }
+
+                // -Dreport.indexes=warn|create|off: check that the indexes in world-db/world_indexes.sql
+                // exist (creating any that are missing with "create") and that the main queries use them.
+                IndexCheck.verify(app.con, IndexCheck.Mode.parse(System.getProperty("report.indexes", "warn")));
+                app.timings.mark("indexes");
+
+                // Export mode (-Dreport.export.format=csv|ndjson): stream every row of the
+                // selected reports to report.export.dir (or stdout) instead of printing tables.
+                String exportFormat = System.getProperty("report.export.format");
+                if (exportFormat != null) {
+                    try {
+                        export(app, ExportFormat.parse(exportFormat));
+                    } catch (IOException e) {
+                        LOGGER.log(Level.SEVERE, e, () -> "Export failed: " + e.getMessage());
+                        exitStatus = 1;
+                    }
+                    return;
+                }
+
+                // -Dreport.snapshot.write=<path> saves the three tables for later offline runs.
+                String writeTo = System.getProperty("report.snapshot.write");
+                if (writeTo != null) {
+                    SnapshotFile.write(app.con, Path.of(writeTo));
+                    app.timings.mark("snapshot-write");
+                }
+
+                // The log position is read before the snapshot, so no change made during the load is missed.
+                if (System.getProperty("report.server.port") != null && Long.getLong("report.refreshMs", 5_000L) > 0) {
+                    try {
+                        ChangeLog log = new ChangeLog(app.pool,
+                                Duration.ofMillis(Long.getLong("report.refreshGapMs", 10_000L)));
+                        changePosition = log.position();
+                        changeLog = log;
+                    } catch (SQLException e) {
+                        LOGGER.warning(() -> "No world_change log (run world_changes.sql); refresh is off: " + e.getMessage());
+                    }
+                }
+
+                // Snapshot mode (-Dreport.snapshot=true): bulk-load city/country/countrylanguage
+                // once and answer every report below from memory instead of one query each.
+                snapshot = Boolean.getBoolean("report.snapshot")
+                        ? WorldSnapshot.load(app.con)
+                        : null;
+                if (snapshot != null) app.timings.mark("snapshot");
             }
+            app.timings.log();
+
+            // Every query below starts on its own virtual thread (at most report.concurrency
+            // at once); the runner prints the results in the numbered order.
+            // One pooled connection is held by app.con, so leave it out of the default.
+            int concurrency = Integer.getInteger("report.concurrency", app.pool != null
+                    ? Math.max(1, app.pool.getMaxSize() - 1)
+                    : Runtime.getRuntime().availableProcessors());
+
+            // A query repeated with the same arguments is answered from memory until
+            // report.cache.ttlMs has passed (0 turns the cache off).
+            QueryCache cache = QueryCache.builder()
+                    .ttl(Duration.ofMillis(Long.getLong("report.cache.ttlMs", 300_000L)))
+                    .maxEntries(Integer.getInteger("report.cache.maxEntries", 1000))
+                    .maxBytes(Long.getLong("report.cache.maxBytes", 16L * 1024 * 1024))
+                    .build();
+
+            // Every DAO query records its latency, rows, bytes and errors. They are published
+            // over JMX (report.metrics.jmx=false turns that off) and logged every
+            // report.metrics.logIntervalMs (0 turns the periodic summary off) and once at the end.
+            QueryMetrics metrics = QueryMetrics.shared();
+            if (Boolean.parseBoolean(System.getProperty("report.metrics.jmx", "true"))) metrics.publishToJmx();
+            long metricsLogMs = Long.getLong("report.metrics.logIntervalMs", 60_000L);
+            ScheduledExecutorService metricsLog = metricsLogMs > 0 ? metrics.logEvery(Duration.ofMillis(metricsLogMs)) : null;
+
+            // Server mode (-Dreport.server.port=8080): serve every report as JSON over HTTP
+            // until the JVM is stopped, instead of printing them once.
+            String serverPort = System.getProperty("report.server.port");
+            if (serverPort != null) {
+                AtomicReference<ReportDaos> daos = new AtomicReference<>(
+                        snapshot != null ? ReportDaos.of(snapshot) : ReportDaos.pooled(app.pool, cache));
+                ChangeFeed feed = null;
+                if (changeLog != null) {
+                    // A snapshot is patched with just the changed rows and swapped in; without one,
+                    // only the cached queries, rollup and language table that read a changed table are dropped.
+                    // After a skipped gap in the log the snapshot is reloaded, or the whole cache dropped.
+                    AtomicReference<WorldSnapshot> current = new AtomicReference<>(snapshot);
+                    Consumer<ChangeSet> apply = snapshot != null
+                            ? changes -> daos.set(ReportDaos.of(current.updateAndGet(s ->
+                                    changes.gapSkipped() ? reloadSnapshot(app.pool) : s.apply(changes))))
+                            : changes -> daos.get().refresh(changes, cache);
+                    feed = ChangeFeed.start(changeLog, changePosition,
+                            Duration.ofMillis(Long.getLong("report.refreshMs", 5_000L)), apply);
+                }
+                try {
+                    serve(daos::get, Integer.parseInt(serverPort),
+                            Duration.ofMillis(Long.getLong("report.timeoutMs", 60_000L)));
+                } finally {
+                    if (feed != null) feed.close();
+                }
+                return;
+            }
+
+            // report.output=stdout writes each finished table straight to standard output;
+            // by default every table goes to the log as a single record.
+            ReportOutput output = "stdout".equalsIgnoreCase(System.getProperty("report.output", "log"))
+                    ? ReportOutput.to(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16))
+                    : ReportOutput.log(Logger.getLogger(ReportOutput.class.getPackageName()));
+
+            // Each report's queries get report.timeoutMs once they start (0 = no limit); a watchdog
+            // cancels the statement when time is up and the report is shown as timed out.
+            Duration reportTimeout = Duration.ofMillis(Long.getLong("report.timeoutMs", 60_000L));
+            Consumer<String> timedOut = title -> output.write(
+                    "Timed out after " + reportTimeout.toMillis() + " ms: " + title + "\n");
+
+            try (ReportRunner runner = new ReportRunner(concurrency, reportTimeout, timedOut)) {
+
+                // Country
+                CountryDAO dao = snapshot != null ? new CountryDAO(snapshot) : new CountryDAO(app.pool, cache);
+                CountryReport countryReport = new CountryReport(10, output);
+
+                runner.add(() -> countryReport.printCategory("Country Report"));
+                addCountryReport(runner, countryReport, dao::getAllCountriesByPopulation,
+                        () -> dao.countCountries(Scope.WORLD, null),
+                        "1. All countries in the world organized by largest to smallest population");
+                addCountryReport(runner, countryReport, limit -> dao.getCountriesByContinent("Asia", limit),
+                        () -> dao.countCountries(Scope.CONTINENT, "Asia"),
+                        "2. All countries in a continent (Asia)");
+                addCountryReport(runner, countryReport, limit -> dao.getCountriesByRegion("Southeast Asia", limit),
+                        () -> dao.countCountries(Scope.REGION, "Southeast Asia"),
+                        "3. All countries in a region (Southeast Asia)");
+                addCountryReport(runner, countryReport, dao::getTop10CountriesInWorld,
+                        "4. Top 10 populated countries in the world");
+                addCountryReport(runner, countryReport, dao::getTop10CountriesInEurope,
+                        "5. Top 10 populated countries in Europe");
+                addCountryReport(runner, countryReport, dao::getTop10CountriesInWesternEurope,
+                        "6. Top 10 populated countries in Western Europe");
+
+                // City
+                CityDAO cityDAO = snapshot != null ? new CityDAO(snapshot) : new CityDAO(app.pool, cache);
+                CityReport cityReport = new CityReport(10, output);
+
+                runner.add(() -> cityReport.printCategory("City Report"));
+                addCityReport(runner, cityReport, cityDAO::getAllCitiesByPopulation,
+                        () -> cityDAO.countCities(Scope.WORLD, null),
+                        "7. All Cities in the World Organized by Largest to Smallest Population");
+                addCityReport(runner, cityReport, limit -> cityDAO.getCitiesByContinent("Asia", limit),
+                        () -> cityDAO.countCities(Scope.CONTINENT, "Asia"),
+                        "8. All Cities in Asia Organized by Largest to Smallest Population");
+                addCityReport(runner, cityReport, limit -> cityDAO.getCitiesByRegion("Southeast Asia", limit),
+                        () -> cityDAO.countCities(Scope.REGION, "Southeast Asia"),
+                        "9. All Cities in Southeast Asia Organized by Largest to Smallest Population");
+                addCityReport(runner, cityReport, limit -> cityDAO.getCitiesByDistrict("California", limit),
+                        () -> cityDAO.countCities(Scope.DISTRICT, "California"),
+                        "10. All Cities in California Organized by Largest to Smallest Population");
+                addCityReport(runner, cityReport, limit -> cityDAO.getCitiesByCountry("Myanmar", limit),
+                        () -> cityDAO.countCities(Scope.COUNTRY, "Myanmar"),
+                        "11. All Cities in Myanmar Organized by Largest to Smallest Population");
+
+                addCityReport(runner, cityReport, cityDAO::getTop10CitiesInWorld,
+                        "12. Top 10 Populated Cities in the World");
+                addCityReport(runner, cityReport, cityDAO::getTop10CitiesInContinent,
+                        "13. Top 10 Populated Cities in a Continent (Asia)");
+                addCityReport(runner, cityReport, cityDAO::getTop10CitiesInRegion,
+                        "14. Top 10 Populated Cities in a Region (Southeast Asia)");
+                addCityReport(runner, cityReport, cityDAO::getTop10CitiesInCountry,
+                        "15. Top 10 Populated Cities in a Country (Myanmar)");
+                addCityReport(runner, cityReport, cityDAO::getTop10CitiesInDistrict,
+                        "16. Top 10 Populated Cities in a District (California)");
+
+                // Capital
+                CapitalDAO capitalDAO = snapshot != null ? new CapitalDAO(snapshot) : new CapitalDAO(app.pool, cache);
+                CapitalReport capitalReport = new CapitalReport(10, output);
+
+                runner.add(() -> capitalReport.printCategory("Capital Report"));
+                addCapitalReport(runner, capitalReport, capitalDAO::getAllCapitalsByPopulation,
+                        () -> capitalDAO.countCapitals(Scope.WORLD, null),
+                        "17. All Capital Cities in the World Organized by Population (Largest to Smallest)");
+                addCapitalReport(runner, capitalReport, limit -> capitalDAO.getCapitalsByContinent("Asia", limit),
+                        () -> capitalDAO.countCapitals(Scope.CONTINENT, "Asia"),
+                        "18. All Capital Cities in a Continent Organized by Population (Asia)");
+                addCapitalReport(runner, capitalReport, limit -> capitalDAO.getCapitalsByRegion("Southeast Asia", limit),
+                        () -> capitalDAO.countCapitals(Scope.REGION, "Southeast Asia"),
+                        "19. All Capital Cities in a Region Organized by Population (Southeast Asia)");
+
+                addCapitalReport(runner, capitalReport, capitalDAO::getTop10CapitalsInWorld,
+                        "20. Top 10 Populated Capital Cities in the World");
+                addCapitalReport(runner, capitalReport, capitalDAO::getTop10CapitalsInContinent,
+                        "21. Top 10 Populated Capital Cities in a Continent (Asia)");
+                addCapitalReport(runner, capitalReport, capitalDAO::getTop10CapitalsInRegion,
+                        "22. Top 10 Populated Capital Cities in a Region (Southeast Asia)");
+
+
+                // Population
+                PopulationDAO popDAO = snapshot != null ? new PopulationDAO(snapshot) : new PopulationDAO(app.pool, cache);
+                PopulationReport popReport = new PopulationReport(10, output);
+
+                runner.add(() -> popReport.printCategory("Population Report"));
+
+                addPopulationReport(runner, popReport, popDAO::getWorldPopulation,
+                        "23. Population of the World");
+                addPopulationReport(runner, popReport, popDAO::getPopulationByContinent,
+                        "24. Population of Each Continent");
+                addPopulationReport(runner, popReport, popDAO::getPopulationByRegion,
+                        "25. Population of Each Region");
+                addPopulationReport(runner, popReport, popDAO::getPopulationByCountry,
+                        "26. Population of Each Country");
+
+                runner.add("27. Population of Each District in Myanmar", () -> popDAO.getPopulationByDistrict("Myanmar"),
+                        rows -> popReport.displayDistrictPopulations(rows, "27. Population of Each District in Myanmar"));
+
+                runner.add("28. Population of Each City",
+                        () -> LimitedRows.fetch(popReport.getDisplayLimit(), popDAO::getPopulationByCity,
+                                () -> cityDAO.countCities(Scope.WORLD, null)),
+                        r -> popReport.displayCityPopulations(r.rows(), r.total(), "28. Population of Each City"));
 
-            // Country
-            CountryDAO dao = new CountryDAO(app.con);
-            CountryReport countryReport = new CountryReport(10);
-
-            countryReport.printCategory("Country Report");
-            countryReport.displayCountries(dao.getAllCountriesByPopulation(null),
-                    "1. All countries in the world organized by largest to smallest population");
-            countryReport.displayCountries(dao.getCountriesByContinent("Asia", null),
-                    "2. All countries in a continent (Asia)");
-            countryReport.displayCountries(dao.getCountriesByRegion("Southeast Asia", null),
-                    "3. All countries in a region (Southeast Asia)");
-            countryReport.displayCountries(dao.getTop10CountriesInWorld(),
-                    "4. Top 10 populated countries in the world");
-            countryReport.displayCountries(dao.getTop10CountriesInEurope(),
-                    "5. Top 10 populated countries in Europe");
-            countryReport.displayCountries(dao.getTop10CountriesInWesternEurope(),
-                    "6. Top 10 populated countries in Western Europe");
-
-            // City
-            CityDAO cityDAO = new CityDAO(app.con);
-            CityReport cityReport = new CityReport(10);
-
-            cityReport.printCategory("City Report");
-            cityReport.displayCities(cityDAO.getAllCitiesByPopulation(null),
-                    "7. All Cities in the World Organized by Largest to Smallest Population");
-            cityReport.displayCities(cityDAO.getCitiesByContinent("Asia", null),
-                    "8. All Cities in Asia Organized by Largest to Smallest Population");
-            cityReport.displayCities(cityDAO.getCitiesByRegion("Southeast Asia", null),
-                    "9. All Cities in Southeast Asia Organized by Largest to Smallest Population");
-            cityReport.displayCities(cityDAO.getCitiesByDistrict("California", null),
-                    "10. All Cities in California Organized by Largest to Smallest Population");
-            cityReport.displayCities(cityDAO.getCitiesByCountry("Myanmar", null),
-                    "11. All Cities in Myanmar Organized by Largest to Smallest Population");
-
-            cityReport.displayCities(cityDAO.getTop10CitiesInWorld(),
-                    "12. Top 10 Populated Cities in the World");
-            cityReport.displayCities(cityDAO.getTop10CitiesInContinent(),
-                    "13. Top 10 Populated Cities in a Continent (Asia)");
-            cityReport.displayCities(cityDAO.getTop10CitiesInRegion(),
-                    "14. Top 10 Populated Cities in a Region (Southeast Asia)");
-            cityReport.displayCities(cityDAO.getTop10CitiesInCountry(),
-                    "15. Top 10 Populated Cities in a Country (Myanmar)");
-            cityReport.displayCities(cityDAO.getTop10CitiesInDistrict(),
-                    "16. Top 10 Populated Cities in a District (California)");
-
-            // Capital
-            CapitalDAO capitalDAO = new CapitalDAO(app.con);
-            CapitalReport capitalReport = new CapitalReport(10);
-
-            capitalReport.printCategory("Capital Report");
-            capitalReport.displayCapitals(capitalDAO.getAllCapitalsByPopulation(null),
-                    "17. All Capital Cities in the World Organized by Population (Largest to Smallest)");
-            capitalReport.displayCapitals(capitalDAO.getCapitalsByContinent("Asia", null),
-                    "18. All Capital Cities in a Continent Organized by Population (Asia)");
-            capitalReport.displayCapitals(capitalDAO.getCapitalsByRegion("Southeast Asia", null),
-                    "19. All Capital Cities in a Region Organized by Population (Southeast Asia)");
-
-            capitalReport.displayCapitals(capitalDAO.getTop10CapitalsInWorld(),
-                    "20. Top 10 Populated Capital Cities in the World");
-            capitalReport.displayCapitals(capitalDAO.getTop10CapitalsInContinent(),
-                    "21. Top 10 Populated Capital Cities in a Continent (Asia)");
-            capitalReport.displayCapitals(capitalDAO.getTop10CapitalsInRegion(),
-                    "22. Top 10 Populated Capital Cities in a Region (Southeast Asia)");
-
-
-            // Population
-            PopulationDAO popDAO = new PopulationDAO(app.con);
-            PopulationReport popReport = new PopulationReport(10);
-
-            popReport.printCategory("Population Report");
-
-            popReport.displayPopulations(popDAO.getWorldPopulation(),
-                    "23. Population of the World");
-            popReport.displayPopulations(popDAO.getPopulationByContinent(),
-                    "24. Population of Each Continent");
-            popReport.displayPopulations(popDAO.getPopulationByRegion(),
-                    "25. Population of Each Region");
-            popReport.displayPopulations(popDAO.getPopulationByCountry(),
-                    "26. Population of Each Country");
-
-            popReport.displayDistrictPopulations(popDAO.getPopulationByDistrict("Myanmar"),
-                    "27. Population of Each District in Myanmar");
-
-            popReport.displayCityPopulations(popDAO.getPopulationByCity(),
-                    "28. Population of Each City");
-
-            popReport.displayPopulations(popDAO.getCityVsNonCityByContinent(),
-                    "29. City vs Non-City Population by Continent");
-            popReport.displayPopulations(popDAO.getCityVsNonCityByRegion(),
-                    "30. City vs Non-City Population by Region");
-            popReport.displayPopulations(popDAO.getCityVsNonCityByCountry(),
-                    "31. City vs Non-City Population by Country");
-
-            // Language
-            LanguageDAO languageDAO = new LanguageDAO(app.con);
-            LanguageReport languageReport = new LanguageReport(10);
-            languageReport.printCategory("Language Report");
-
-            List<String> langs = List.of("English", "Chinese", "Hindi", "Spanish", "Arabic");
-            languageReport.displayLanguages(
-                    languageDAO.getLanguagesBySpeakerCount(langs),
-                    "32. Languages by Number of Speakers"
-            );
+                addPopulationReport(runner, popReport, popDAO::getCityVsNonCityByContinent,
+                        "29. City vs Non-City Population by Continent");
+                addPopulationReport(runner, popReport, popDAO::getCityVsNonCityByRegion,
+                        "30. City vs Non-City Population by Region");
+                addPopulationReport(runner, popReport, popDAO::getCityVsNonCityByCountry,
+                        "31. City vs Non-City Population by Country");
+
+                // Language
+                LanguageDAO languageDAO = snapshot != null ? new LanguageDAO(snapshot) : new LanguageDAO(app.pool, cache);
+                LanguageReport languageReport = new LanguageReport(10, output);
+                runner.add(() -> languageReport.printCategory("Language Report"));
+
+                List<String> langs = List.of("English", "Chinese", "Hindi", "Spanish", "Arabic");
+                runner.add("32. Languages by Number of Speakers",
+                        () -> languageDAO.getLanguagesBySpeakerCount(langs),
+                        rows -> languageReport.displayLanguages(rows, "32. Languages by Number of Speakers"));
+
+                runner.run();
+            }
+            if (cache.isEnabled()) LOGGER.info(cache.stats());
+            if (metricsLog != null) metricsLog.shutdown();
+            LOGGER.info(metrics.summary());
 
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, e, () -> "Startup error: " + e.getMessage());
         } finally {
             app.disconnect();
+            if (exitStatus != 0) System.exit(exitStatus);
+        }
+    }
+
+    /**
+     * Reads the three tables again, for when the change log may have missed a change.
+     *
+     * @throws IllegalStateException If they cannot be read; the change feed retries the same changes.
+     */
+    private static WorldSnapshot reloadSnapshot(ConnectionPool pool) {
+        try (Connection con = pool.getConnection()) {
+            return WorldSnapshot.load(con);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not reload the world snapshot", e);
+        }
+    }
+
+    /**
+     * Runs the HTTP report server on {@code port} and blocks until the JVM shuts down.
+     */
+    private static void serve(Supplier<ReportDaos> daos, int port, Duration timeout) throws IOException, InterruptedException {
+        ReportServer server = ReportServer.start(new InetSocketAddress(port), daos, timeout);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "report-server-stop"));
+        LOGGER.info(() -> "Serving reports on http://localhost:" + server.port() + "/");
+        server.awaitClose();
+    }
+
+    /**
+     * Exports the reports listed in {@code report.export.reports} (all 32 by default)
+     * as one file each under {@code report.export.dir}, or one after another to
+     * standard output when no directory is set.
+     */
+    private static void export(App app, ExportFormat format) throws IOException {
+        List<ReportQueries.Query> reports = new ArrayList<>();
+        String selected = System.getProperty("report.export.reports", "").trim();
+        if (selected.isEmpty()) {
+            reports.addAll(ReportQueries.all());
+        } else {
+            for (String number : selected.split(",")) {
+                reports.add(ReportQueries.get(Integer.parseInt(number.trim())));
+            }
         }
+
+        ReportExporter exporter = new ReportExporter(app.pool, format, Boolean.getBoolean("report.export.gzip"));
+        String dir = System.getProperty("report.export.dir");
+        long start = System.nanoTime();
+        long rows = dir == null
+                ? exporter.exportTo(System.out, reports)
+                : exporter.exportTo(Path.of(dir), reports);
+        LOGGER.info(String.format("Exported %d report(s), %d rows, in %d ms",
+                reports.size(), rows, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    // Small adapters so each numbered report above stays a single line.
+
+    private static void addCountryReport(ReportRunner runner, CountryReport report,
+                                         Supplier<List<Country>> query, String title) {
+        runner.add(title, query, rows -> report.displayCountries(rows, title));
+    }
+
+    // "All ..." reports only print the display limit: fetch that many rows plus a COUNT(*).
+
+    private static void addCountryReport(ReportRunner runner, CountryReport report,
+                                         IntFunction<List<Country>> query, LongSupplier count, String title) {
+        runner.add(title, () -> LimitedRows.fetch(report.getDisplayLimit(), query, count),
+                r -> report.displayCountries(r.rows(), r.total(), title));
+    }
+
+    private static void addCityReport(ReportRunner runner, CityReport report,
+                                      IntFunction<List<City>> query, LongSupplier count, String title) {
+        runner.add(title, () -> LimitedRows.fetch(report.getDisplayLimit(), query, count),
+                r -> report.displayCities(r.rows(), r.total(), title));
+    }
+
+    private static void addCapitalReport(ReportRunner runner, CapitalReport report,
+                                         IntFunction<List<Capital>> query, LongSupplier count, String title) {
+        runner.add(title, () -> LimitedRows.fetch(report.getDisplayLimit(), query, count),
+                r -> report.displayCapitals(r.rows(), r.total(), title));
+    }
+
+    private static void addCityReport(ReportRunner runner, CityReport report,
+                                      Supplier<List<City>> query, String title) {
+        runner.add(title, query, rows -> report.displayCities(rows, title));
+    }
+
+    private static void addCapitalReport(ReportRunner runner, CapitalReport report,
+                                         Supplier<List<Capital>> query, String title) {
+        runner.add(title, query, rows -> report.displayCapitals(rows, title));
+    }
+
+    private static void addPopulationReport(ReportRunner runner, PopulationReport report,
+                                            Supplier<List<Population>> query, String title) {
+        runner.add(title, query, rows -> report.displayPopulations(rows, title));
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.group12.report;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Records how long each startup phase took (driver load, waiting for MySQL,
+ * snapshot load, ...) so slow container cold starts can be pinned on a phase.
+ */
+public class StartupTimings {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupTimings.class.getName());
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final long start = System.nanoTime();
+    private long last = start;
+
+    /**
+     * Ends the current phase and starts the next one.
+     *
+     * @param name Label for the phase that just finished.
+     * @return Duration of that phase in milliseconds.
+     */
+    public long mark(String name) {
+        long now = System.nanoTime();
+        long ms = (now - last) / 1_000_000;
+        phases.merge(name, ms, Long::sum);
+        last = now;
+        return ms;
+    }
+
+    /** Milliseconds recorded for a phase, or 0 if it never ran. */
+    public long get(String name) {
+        return phases.getOrDefault(name, 0L);
+    }
+
+    /** Logs every phase plus the total on one line. */
+    public void log() {
+        StringBuilder sb = new StringBuilder("Startup timings:");
+        phases.forEach((name, ms) -> sb.append(' ').append(name).append('=').append(ms).append(" ms,"));
+        sb.append(" total=").append((last - start) / 1_000_000).append(" ms");
+        LOGGER.info(sb::toString);
+    }
+}
@@ -0,0 +1,318 @@
+package com.group12.report.cache;
+
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+import com.group12.report.snapshot.LanguageTable;
+import com.group12.report.snapshot.PopulationRollup;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of DAO query results, keyed by SQL text plus bound parameters.
+ *
+ * <p>The SQL text identifies the DAO method (each method has its own statement),
+ * and the parameters are everything bound into it: continent, region, district,
+ * country, limit or language list. Repeating a report with the same arguments is
+ * then answered from memory instead of another round trip to MySQL.</p>
+ *
+ * <p>Entries expire {@code ttl} after they were loaded. The cache is bounded by
+ * both an entry count and an estimated byte size; when either is exceeded the
+ * least recently used entries are dropped. Concurrent misses on the same key
+ * share one load. Empty lists and zero counts are never stored, because that is
+ * how the DAOs report a failed query. A load that was running when matching entries
+ * were invalidated is returned to its callers but not stored, since it may have read
+ * the data from before the change.</p>
+ *
+ * <p>Cached lists are read-only and shared between callers.</p>
+ */
+public final class QueryCache {
+
+    private static final QueryCache DISABLED = new QueryCache(Duration.ZERO, 0, 0, System::nanoTime);
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LongSupplier clock;
+
+    /** Access-ordered, so iteration starts at the least recently used entry. Guarded by this. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    /** Bumped by every invalidation; a load stores its result only if it is unchanged. Guarded by this. */
+    private long generation;
+
+    private final Map<Key, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private QueryCache(Duration ttl, int maxEntries, long maxBytes, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** A cache that stores nothing; every call goes to the loader. */
+    public static QueryCache disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return ttlNanos > 0 && maxEntries > 0 && maxBytes > 0;
+    }
+
+    /**
+     * Returns the cached result for {@code sql} with {@code params}, or runs
+     * {@code loader} and caches what it returns.
+     *
+     * @param sql    Statement text, which identifies the query.
+     * @param params Values bound into it; may contain nulls and nested lists.
+     * @param loader Runs the query on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String sql, List<?> params, Supplier<V> loader) {
+        if (!isEnabled()) return loader.get();
+
+        Key key = new Key(sql, Arrays.asList(params.toArray()));
+        Object cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return (V) cached;
+        }
+        misses.increment();
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            return (V) running.join();
+            // Another thread is already running this query; wait for its answer.
+        }
+
+        long started = generation();
+        try {
+            V value = freeze(loader.get());
+            store(key, value, started);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    /** Drops every entry. */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        bytes = 0;
+        generation++;
+        loading.clear();
+    }
+
+    /**
+     * Drops the entries whose SQL matches, e.g. {@code sql -> sql.contains("FROM city")}.
+     *
+     * @return How many entries were dropped.
+     */
+    public synchronized int invalidateIf(Predicate<String> sql) {
+        generation++;
+        // Later misses start a fresh load instead of waiting on one that may read stale rows.
+        loading.keySet().removeIf(key -> sql.test(key.sql()));
+        int removed = 0;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (sql.test(e.getKey().sql())) {
+                bytes -= e.getValue().bytes;
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Estimated heap size of the cached results. */
+    public synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Entries dropped to stay within the entry or byte budget. */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** Entries dropped because their TTL ran out. */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /** One-line summary for the log. */
+    public String stats() {
+        return String.format("Query cache: %d hits, %d misses, %d evictions, %d expired, %d entries (~%d KB)",
+                getHits(), getMisses(), getEvictions(), getExpirations(), size(), estimatedBytes() / 1024);
+    }
+
+    private synchronized Object lookup(Key key) {
+        Entry e = entries.get(key);
+        if (e == null) return null;
+        if (clock.getAsLong() - e.loadedAt >= ttlNanos) {
+            entries.remove(key);
+            bytes -= e.bytes;
+            expirations.increment();
+            return null;
+        }
+        return e.value;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void store(Key key, Object value, long loadedInGeneration) {
+        if (isEmptyResult(value) || generation != loadedInGeneration) return;
+        long size = weigh(key, value);
+        if (size > maxBytes) return;
+        // Bigger than the whole budget: caching it would only evict everything else.
+
+        Entry old = entries.put(key, new Entry(value, size, clock.getAsLong()));
+        if (old != null) bytes -= old.bytes;
+        bytes += size;
+
+        Iterator<Entry> it = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            bytes -= eldest.bytes;
+            evictions.increment();
+        }
+    }
+
+    private static <V> V freeze(V value) {
+        @SuppressWarnings("unchecked")
+        V copy = value instanceof List<?> list ? (V) List.copyOf(list) : value;
+        return copy;
+    }
+
+    private static boolean isEmptyResult(Object value) {
+        return value == null
+                || value instanceof Collection<?> c && c.isEmpty()
+                || value instanceof Number n && n.longValue() == 0;
+    }
+
+    // ======================== SIZE ESTIMATE ========================
+
+    /** Rough retained size: object headers, fields and string characters. */
+    static long weigh(Key key, Object value) {
+        return 64 + str(key.sql()) + 16L * key.params().size() + estimateBytes(value);
+    }
+
+    /**
+     * Rough retained size of a DAO result: a list of model objects, one model object,
+     * a population rollup, a language table, or a boxed count.
+     * Shared with the query metrics so "bytes materialised" means the same thing there.
+     */
+    public static long estimateBytes(Object value) {
+        if (value instanceof Collection<?> rows) {
+            long size = 40 + 8L * rows.size();
+            for (Object row : rows) size += weighRow(row);
+            return size;
+        }
+        if (value instanceof PopulationRollup r) {
+            return estimateBytes(r.continents()) + estimateBytes(r.regions()) + estimateBytes(r.countries());
+        }
+        if (value instanceof LanguageTable t) {
+            return t.size() == 0 ? 40 : estimateBytes(t.ranking(0, t.size()));
+        }
+        return value instanceof Number ? 24 : weighRow(value);
+    }
+
+    private static long weighRow(Object row) {
+        if (row instanceof City c) return 32 + str(c.getName()) + str(c.getCountry()) + str(c.getDistrict());
+        if (row instanceof Country c) return 48 + str(c.getCode()) + str(c.getName()) + str(c.getContinent())
+                + str(c.getRegion()) + str(c.getCapitalName());
+        if (row instanceof Capital c) return 24 + str(c.getName()) + str(c.getCountry());
+        if (row instanceof Population p) return 72 + str(p.getName());
+        if (row instanceof Language l) return 32 + str(l.getName());
+        return 64;
+    }
+
+    private static long str(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+
+    record Key(String sql, List<Object> params) { }
+
+    private record Entry(Object value, long bytes, long loadedAt) { }
+
+    public static final class Builder {
+        private Duration ttl = Duration.ofMinutes(5);
+        private int maxEntries = 1000;
+        private long maxBytes = 16L * 1024 * 1024;
+        private LongSupplier clock = System::nanoTime;
+
+        /** How long a result stays valid; zero disables the cache. */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /** Budget for the estimated size of all cached results. */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /** Nanosecond time source; tests substitute a manual clock. */
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public QueryCache build() {
+            if (ttl.isNegative() || maxEntries < 0 || maxBytes < 0) {
+                throw new IllegalArgumentException("ttl, maxEntries and maxBytes must not be negative");
+            }
+            return new QueryCache(ttl, maxEntries, maxBytes, clock);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.group12.report.data_access;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.ConnectionPool;
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+import com.group12.report.snapshot.Scope;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking front for the five DAOs: every report method returns a
+ * {@link CompletableFuture} and runs on an executor, so a caller can start several
+ * reports at once and combine them without managing threads, e.g.
+ *
+ * <pre>{@code
+ * CompletableFuture<List<Country>> asia = async.getCountriesByContinent("Asia", 10);
+ * CompletableFuture<List<Population>> regions = async.getPopulationByRegion();
+ * CompletableFuture<List<Language>> ranking = async.getLanguageRanking(0, 5);
+ * CompletableFuture.allOf(asia, regions, ranking).join();
+ * }</pre>
+ *
+ * <p>Each method calls the DAO method of the same name, so results, caching,
+ * metrics and error handling are the same: a failed query still completes with
+ * an empty list, and an invalid argument completes the future exceptionally.
+ * Anything not mirrored here, such as the fixed top-10 reports, goes through
+ * {@link #submit(Function)}.</p>
+ *
+ * <p>At most {@code maxConcurrency} queries run at once; the rest wait on the
+ * executor for a slot, so a fan-out never asks the connection pool for more
+ * connections than it has. The DAOs are looked up once per call, so with a
+ * refreshed snapshot behind them a call finishes on the one it started with.</p>
+ */
+public final class AsyncReportDaos implements AutoCloseable {
+
+    private final Supplier<ReportDaos> daos;
+    private final Executor executor;
+    private final Semaphore slots;
+
+    /** Set when this object created the executor and so must shut it down. */
+    private final ExecutorService owned;
+
+    /**
+     * @param daos           DAOs to run the queries on, looked up for each call.
+     * @param executor       Runs the blocking DAO calls; left running by {@link #close()}.
+     * @param maxConcurrency Maximum number of queries in flight at once (at least 1).
+     */
+    public AsyncReportDaos(Supplier<ReportDaos> daos, Executor executor, int maxConcurrency) {
+        this(daos, executor, maxConcurrency, null);
+    }
+
+    private AsyncReportDaos(Supplier<ReportDaos> daos, Executor executor, int maxConcurrency, ExecutorService owned) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        this.daos = daos;
+        this.executor = executor;
+        this.slots = new Semaphore(maxConcurrency);
+        this.owned = owned;
+    }
+
+    /**
+     * Pooled DAOs on a virtual thread per call, with as many queries in flight as
+     * the pool has connections; {@link #close()} stops the threads, not the pool.
+     */
+    public static AsyncReportDaos pooled(ConnectionPool pool, QueryCache cache) {
+        ReportDaos daos = ReportDaos.pooled(pool, cache);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        return new AsyncReportDaos(() -> daos, executor, pool.getMaxSize(), executor);
+    }
+
+    /**
+     * Runs {@code query} against the DAOs once a slot is free.
+     *
+     * @return A future completed with the query's result, or with the exception it threw.
+     */
+    public <T> CompletableFuture<T> submit(Function<ReportDaos, T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(query, result));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /** Waits for a slot, then runs one call on the executor's thread. */
+    private <T> void run(Function<ReportDaos, T> query, CompletableFuture<T> result) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        try {
+            result.complete(query.apply(daos.get()));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            slots.release();
+        }
+    }
+
+    // ========================= COUNTRIES =========================
+
+    public CompletableFuture<List<Country>> getAllCountriesByPopulation(Integer limit) {
+        return submit(d -> d.countries().getAllCountriesByPopulation(limit));
+    }
+
+    public CompletableFuture<List<Country>> getCountriesByContinent(String continent, Integer limit) {
+        return submit(d -> d.countries().getCountriesByContinent(continent, limit));
+    }
+
+    public CompletableFuture<List<Country>> getCountriesByRegion(String region, Integer limit) {
+        return submit(d -> d.countries().getCountriesByRegion(region, limit));
+    }
+
+    public CompletableFuture<List<Country>> getTopCountries(Scope scope, String value, int n) {
+        return submit(d -> d.countries().getTopCountries(scope, value, n));
+    }
+
+    public CompletableFuture<Page<Country>> getCountriesPage(String token, int size) {
+        return submit(d -> d.countries().getCountriesPage(token, size));
+    }
+
+    public CompletableFuture<Long> countCountries(Scope scope, String value) {
+        return submit(d -> d.countries().countCountries(scope, value));
+    }
+
+    // ========================= CITIES =========================
+
+    public CompletableFuture<List<City>> getAllCitiesByPopulation(Integer limit) {
+        return submit(d -> d.cities().getAllCitiesByPopulation(limit));
+    }
+
+    public CompletableFuture<List<City>> getCitiesByContinent(String continent, Integer limit) {
+        return submit(d -> d.cities().getCitiesByContinent(continent, limit));
+    }
+
+    public CompletableFuture<List<City>> getCitiesByRegion(String region, Integer limit) {
+        return submit(d -> d.cities().getCitiesByRegion(region, limit));
+    }
+
+    public CompletableFuture<List<City>> getCitiesByCountry(String country, Integer limit) {
+        return submit(d -> d.cities().getCitiesByCountry(country, limit));
+    }
+
+    public CompletableFuture<List<City>> getCitiesByDistrict(String district, Integer limit) {
+        return submit(d -> d.cities().getCitiesByDistrict(district, limit));
+    }
+
+    public CompletableFuture<List<City>> getTopCities(Scope scope, String value, int n) {
+        return submit(d -> d.cities().getTopCities(scope, value, n));
+    }
+
+    public CompletableFuture<Page<City>> getCitiesPage(String token, int size) {
+        return submit(d -> d.cities().getCitiesPage(token, size));
+    }
+
+    public CompletableFuture<Long> countCities(Scope scope, String value) {
+        return submit(d -> d.cities().countCities(scope, value));
+    }
+
+    // ========================= CAPITALS =========================
+
+    public CompletableFuture<List<Capital>> getAllCapitalsByPopulation(Integer limit) {
+        return submit(d -> d.capitals().getAllCapitalsByPopulation(limit));
+    }
+
+    public CompletableFuture<List<Capital>> getCapitalsByContinent(String continent, Integer limit) {
+        return submit(d -> d.capitals().getCapitalsByContinent(continent, limit));
+    }
+
+    public CompletableFuture<List<Capital>> getCapitalsByRegion(String region, Integer limit) {
+        return submit(d -> d.capitals().getCapitalsByRegion(region, limit));
+    }
+
+    public CompletableFuture<List<Capital>> getTopCapitals(Scope scope, String value, int n) {
+        return submit(d -> d.capitals().getTopCapitals(scope, value, n));
+    }
+
+    public CompletableFuture<Page<Capital>> getCapitalsPage(String token, int size) {
+        return submit(d -> d.capitals().getCapitalsPage(token, size));
+    }
+
+    public CompletableFuture<Long> countCapitals(Scope scope, String value) {
+        return submit(d -> d.capitals().countCapitals(scope, value));
+    }
+
+    // ========================= POPULATION =========================
+
+    public CompletableFuture<List<Population>> getWorldPopulation() {
+        return submit(d -> d.population().getWorldPopulation());
+    }
+
+    public CompletableFuture<List<Population>> getPopulationByContinent() {
+        return submit(d -> d.population().getPopulationByContinent());
+    }
+
+    public CompletableFuture<List<Population>> getPopulationByRegion() {
+        return submit(d -> d.population().getPopulationByRegion());
+    }
+
+    public CompletableFuture<List<Population>> getPopulationByCountry() {
+        return submit(d -> d.population().getPopulationByCountry());
+    }
+
+    public CompletableFuture<List<Population>> getPopulationByDistrict(String countryName) {
+        return submit(d -> d.population().getPopulationByDistrict(countryName));
+    }
+
+    public CompletableFuture<List<Population>> getPopulationByCity(Integer limit) {
+        return submit(d -> d.population().getPopulationByCity(limit));
+    }
+
+    public CompletableFuture<List<Population>> getCityVsNonCityByContinent() {
+        return submit(d -> d.population().getCityVsNonCityByContinent());
+    }
+
+    public CompletableFuture<List<Population>> getCityVsNonCityByRegion() {
+        return submit(d -> d.population().getCityVsNonCityByRegion());
+    }
+
+    public CompletableFuture<List<Population>> getCityVsNonCityByCountry() {
+        return submit(d -> d.population().getCityVsNonCityByCountry());
+    }
+
+    // ========================= LANGUAGES =========================
+
+    public CompletableFuture<List<Language>> getLanguagesBySpeakerCount(List<String> languages) {
+        return submit(d -> d.languages().getLanguagesBySpeakerCount(languages));
+    }
+
+    public CompletableFuture<List<Language>> getLanguageRanking(int offset, int limit) {
+        return submit(d -> d.languages().getLanguageRanking(offset, limit));
+    }
+
+    /**
+     * Stops the executor if {@link #pooled} created it, once the calls already
+     * submitted have finished; a caller's executor is left alone.
+     */
+    @Override
+    public void close() {
+        if (owned != null) owned.shutdown();
+    }
+}
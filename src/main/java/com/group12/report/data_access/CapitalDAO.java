@@ -1,9 +1,19 @@
 package com.group12.report.data_access;
 
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
 import com.group12.report.models.Capital;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,8 +30,30 @@ import java.util.logging.Logger;
 public class CapitalDAO {
 
     private static final Logger LOGGER = Logger.getLogger(CapitalDAO.class.getName());
-    /** Database connection used to execute SQL queries */
-    private final Connection con;
+
+    /** Maps one row of the shared capital projection (Name, Country, Population). */
+    static final RowMapper<Capital> CAPITAL_ROW = rs -> new Capital(
+            rs.getString("Name"),
+            rs.getString("Country"),
+            rs.getLong("Population")
+    );
+
+    /** Latency, rows and errors per query shape, published over JMX (see QueryMetrics) */
+    private static final Map<Scope, QueryMetric> LIST_METRICS = ScopeMetrics.of("capital.list");
+    private static final Map<Scope, QueryMetric> COUNT_METRICS = ScopeMetrics.of("capital.count");
+    private static final QueryMetric PAGE_METRIC = QueryMetrics.shared().metric("capital.page");
+
+    /** Source of connections; each query borrows one and returns it when done */
+    private final DataSource dataSource;
+
+    /** In-memory snapshot used instead of SQL when set */
+    private final WorldSnapshot snapshot;
+
+    /** Shared top-N engine backing every getTop* method */
+    private final TopN topN;
+
+    /** Results of earlier list and count queries, keyed by SQL and bound values */
+    private final QueryCache cache;
 
     /**
      * Constructs a CapitalDAO with an active database connection.
@@ -29,7 +61,42 @@ public class CapitalDAO {
      * @param con Active SQL connection to be used for queries.
      */
     public CapitalDAO(Connection con) {
-        this.con = con;
+        this(new SharedConnectionDataSource(con));
+    }
+
+    /**
+     * Constructs a CapitalDAO that borrows a connection from the data source for each query.
+     *
+     * @param dataSource Connection pool (or any other data source) to borrow from.
+     */
+    public CapitalDAO(DataSource dataSource) {
+        this(dataSource, QueryCache.disabled());
+    }
+
+    /**
+     * Constructs a CapitalDAO that borrows a connection per query and answers repeated
+     * queries from a result cache.
+     *
+     * @param dataSource Connection pool (or any other data source) to borrow from.
+     * @param cache      Result cache shared with the other DAOs.
+     */
+    public CapitalDAO(DataSource dataSource, QueryCache cache) {
+        this.dataSource = dataSource;
+        this.snapshot = null;
+        this.cache = cache;
+        this.topN = new TopN(dataSource, cache);
+    }
+
+    /**
+     * Constructs a CapitalDAO that answers every query from an in-memory snapshot.
+     *
+     * @param snapshot World data bulk-loaded once at startup.
+     */
+    public CapitalDAO(WorldSnapshot snapshot) {
+        this.dataSource = null;
+        this.snapshot = snapshot;
+        this.cache = QueryCache.disabled();
+        this.topN = new TopN(snapshot);
     }
 
     /**
@@ -39,6 +106,8 @@ public class CapitalDAO {
      * @return A list of {@link Capital} objects sorted by population descending.
      */
     public List<Capital> getAllCapitalsByPopulation(Integer limit) {
+        if (snapshot != null) return snapshot.capitals(Scope.WORLD, null, limit);
+
         String sql = """
             SELECT ci.Name AS Name, co.Name AS Country, ci.Population
             FROM country co
@@ -46,10 +115,36 @@ public class CapitalDAO {
             ORDER BY ci.Population DESC
         """;
 
-        // Append limit to SQL if valid
-        if (limit != null && limit > 0) sql += " LIMIT ?";
+        return fetchCapitals(LIST_METRICS.get(Scope.WORLD), sql, limit);
+    }
+
+    /**
+     * Retrieves one page of all capital cities by population (largest first). Ties are
+     * broken by the code of the country, since one city can be the capital of more than
+     * one country. Each page seeks straight past the previous page's last row, so deep
+     * pages cost the same as the first.
+     *
+     * @param token {@link Page#next()} of the previous page; null for the first page.
+     * @param size  Rows per page (at least 1).
+     * @return The page, with the token for the next one.
+     * @throws IllegalArgumentException If the token is not one this method handed out.
+     */
+    public Page<Capital> getCapitalsPage(String token, int size) {
+        if (snapshot != null) {
+            Keyset.checkSize(size);
+            Keyset.Cursor after = Keyset.CAPITAL.decode(token);
+            return Keyset.CAPITAL.page(after == null
+                    ? snapshot.capitalsAfter(null, null, size)
+                    : snapshot.capitalsAfter(after.population(), after.key(), size));
+        }
+
+        String sql = """
+            SELECT ci.Name AS Name, co.Name AS Country, ci.Population, co.Code AS PageKey
+            FROM country co
+            JOIN city ci ON ci.ID = co.Capital
+        """;
 
-        return fetchCapitals(sql, limit);
+        return Keyset.CAPITAL.query(dataSource, PAGE_METRIC, sql, CAPITAL_ROW, token, size);
     }
 
     /**
@@ -60,6 +155,8 @@ public class CapitalDAO {
      * @return A list of {@link Capital} objects sorted by population descending.
      */
     public List<Capital> getCapitalsByContinent(String continent, Integer limit) {
+        if (snapshot != null) return snapshot.capitals(Scope.CONTINENT, continent, limit);
+
         String sql = """
             SELECT ci.Name AS Name, co.Name AS Country, ci.Population
             FROM country co
@@ -68,7 +165,7 @@ public class CapitalDAO {
             ORDER BY ci.Population DESC
         """;
 
-        return fetchCapitals(sql, limit, continent);
+        return fetchCapitals(LIST_METRICS.get(Scope.CONTINENT), sql, limit, continent);
     }
 
     /**
@@ -79,6 +176,8 @@ public class CapitalDAO {
      * @return A list of {@link Capital} objects sorted by population descending.
      */
     public List<Capital> getCapitalsByRegion(String region, Integer limit) {
+        if (snapshot != null) return snapshot.capitals(Scope.REGION, region, limit);
+
         String sql = """
             SELECT ci.Name AS Name, co.Name AS Country, ci.Population
             FROM country co
@@ -87,80 +186,92 @@ public class CapitalDAO {
             ORDER BY ci.Population DESC
         """;
 
-        return fetchCapitals(sql, limit, region);
+        return fetchCapitals(LIST_METRICS.get(Scope.REGION), sql, limit, region);
     }
 
     /**
-     * Executes the given SQL query and maps the result set into a list of {@link Capital} objects.
+     * Counts the capital cities in a scope, so a report can show "top N of M"
+     * after fetching only N rows.
      *
-     * @param sql   The SQL query string to execute.
-     * @param limit Optional limit value to bind in the prepared statement.
-     * @param param Optional parameters (e.g., continent or region names) to bind to the query.
-     * @return A list of populated {@link Capital} objects.
+     * @param scope Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value Continent, region, country or district name; ignored for WORLD.
+     * @return Number of rows the matching list query would return without a limit.
      */
+    public long countCapitals(Scope scope, String value) {
+        if (snapshot != null) return snapshot.countCapitals(scope, value);
+
+        String filter = switch (scope) {
+            case WORLD -> "";
+            case CONTINENT -> " WHERE co.Continent = ?";
+            case REGION -> " WHERE co.Region = ?";
+            case COUNTRY -> " WHERE co.Name = ?";
+            case DISTRICT -> " WHERE ci.District = ?";
+        };
+        String sql = "SELECT COUNT(*) FROM country co JOIN city ci ON ci.ID = co.Capital" + filter;
+
+        return scope == Scope.WORLD
+                ? RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql)
+                : RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql, value);
+    }
 
-    // ===================== TOP 10 CAPITAL CITY REPORTS (NEW) =====================
+    // ===================== TOP N CAPITAL CITY REPORTS =====================
+
+    /**
+     * Retrieves the {@code n} most populated capital cities in a scope.
+     *
+     * @param scope Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value Continent, region, country or district name; ignored for WORLD.
+     * @param n     How many capitals to return (at least 1).
+     * @return Up to {@code n} {@link Capital} objects sorted by population descending.
+     */
+    public List<Capital> getTopCapitals(Scope scope, String value, int n) {
+        return topN.top(TopN.CAPITAL, scope, value, n);
+    }
 
     /**
      * Top 10 populated capital cities in the world.
      */
     public List<Capital> getTop10CapitalsInWorld() {
-        String sql = """
-        SELECT ci.Name AS Name, co.Name AS Country, ci.Population
-        FROM country co
-        JOIN city ci ON ci.ID = co.Capital
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCapitalQuery(sql);
+        return getTopCapitals(Scope.WORLD, null, 10);
     }
 
     /**
      * Top 10 populated capital cities in a continent (Asia).
      */
     public List<Capital> getTop10CapitalsInContinent() {
-        String sql = """
-        SELECT ci.Name AS Name, co.Name AS Country, ci.Population
-        FROM country co
-        JOIN city ci ON ci.ID = co.Capital
-        WHERE co.Continent = 'Asia'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCapitalQuery(sql);
+        return getTopCapitals(Scope.CONTINENT, "Asia", 10);
     }
 
     /**
      * Top 10 populated capital cities in a region (Southeast Asia).
      */
     public List<Capital> getTop10CapitalsInRegion() {
-        String sql = """
-        SELECT ci.Name AS Name, co.Name AS Country, ci.Population
-        FROM country co
-        JOIN city ci ON ci.ID = co.Capital
-        WHERE co.Region = 'Southeast Asia'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCapitalQuery(sql);
+        return getTopCapitals(Scope.REGION, "Southeast Asia", 10);
     }
 
-
     /**
      * Executes the given SQL query and maps the result set into a list of {@link Capital} objects.
      *
+     * @param metric Where the query's latency, row count and errors are recorded.
      * @param sql   The SQL query string to execute.
      * @param limit Optional limit value to bind in the prepared statement.
      * @param param Optional parameters (e.g., continent or region names) to bind to the query.
      * @return A list of populated {@link Capital} objects.
      */
-    private List<Capital> fetchCapitals(String sql, Integer limit, String... param) {
+    private List<Capital> fetchCapitals(QueryMetric metric, String sql, Integer limit, String... param) {
+        if (limit != null && limit > 0) sql += " LIMIT ?";
+        // Appended here so every caller gets it, not just the unfiltered query.
+
+        String query = sql;
+        return cache.get(query, Arrays.asList(limit, Arrays.asList(param)), () -> queryCapitals(metric, query, limit, param));
+    }
+
+    private List<Capital> queryCapitals(QueryMetric metric, String sql, Integer limit, String... param) {
         List<Capital> out = new ArrayList<>();
+        long start = metric.start();
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
 
             for (int i = 0; i < param.length; i++) {
                 ps.setString(i + 1, param[i]);
@@ -172,41 +283,18 @@ public class CapitalDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    out.add(new Capital(
-                            rs.getString("Name"),
-                            rs.getString("Country"),
-                            rs.getLong("Population")
-                    ));
+                    out.add(CAPITAL_ROW.map(rs));
                 }
             }
 
+            metric.success(start, out);
         } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
             // Replaced System.err with logger
             LOGGER.log(Level.SEVERE, "Failed to get capital report", e);
         }
 
         return out;
     }
-
-    private List<Capital> executeFixedCapitalQuery(String sql) {
-        List<Capital> out = new ArrayList<>();
-
-        try (PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                out.add(new Capital(
-                        rs.getString("Name"),
-                        rs.getString("Country"),
-                        rs.getLong("Population")
-                ));
-            }
-
-        } catch (SQLException e) {
-            // Replaced System.err with logger
-            LOGGER.log(Level.SEVERE, "Failed to execute Top10 capital query", e);
-        }
-
-        return out;
-    }
 }
\ No newline at end of file
@@ -1,11 +1,22 @@
 package com.group12.report.data_access;
 
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
 import com.group12.report.models.City;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * @author 40794374PhoneMyatKyaw
@@ -14,13 +25,53 @@ public class CityDAO {
 
     private static final Logger LOGGER = Logger.getLogger(CityDAO.class.getName());
 
-    private final Connection con;
-    // Holds a live JDBC connection used for all queries in this DAO.
+    static final RowMapper<City> CITY_ROW = rs -> new City(
+            rs.getString("Name"),
+            rs.getString("Country"),
+            rs.getString("District"),
+            rs.getLong("Population")
+    );
+    // Shared row mapping for the list queries and the streaming scan.
+
+    private static final Map<Scope, QueryMetric> LIST_METRICS = ScopeMetrics.of("city.list");
+    private static final Map<Scope, QueryMetric> COUNT_METRICS = ScopeMetrics.of("city.count");
+    private static final Map<Scope, QueryMetric> STREAM_METRICS = ScopeMetrics.of("city.stream");
+    private static final QueryMetric PAGE_METRIC = QueryMetrics.shared().metric("city.page");
+    // Latency, rows and errors per query shape, published over JMX (see QueryMetrics).
+
+    /** The city page select; {@link Keyset} adds the seek condition, the (Population, ID) order and the LIMIT. */
+    static final String PAGE_SELECT = """
+            SELECT ci.Name, co.Name AS Country, ci.District, ci.Population, ci.ID AS PageKey
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode""";
+
+    private final DataSource dataSource;
+    // Source of connections; each query borrows one and returns it when done.
+
+    private final WorldSnapshot snapshot;
+    // When set, every query is answered from the in-memory snapshot instead of SQL.
+
+    private final TopN topN;
+    // Shared top-N engine backing every getTop* method.
+
+    private final QueryCache cache;
+    // Results of earlier list and count queries, keyed by SQL and bound values.
 
-    public CityDAO(Connection con) { this.con = con; }
-    // Dependency-inject the connection so the caller controls lifecycle (open/close, pooling, etc.).
+    public CityDAO(Connection con) { this(new SharedConnectionDataSource(con)); }
+    // Dependency-inject a single connection; the caller still controls its lifecycle.
+
+    public CityDAO(DataSource dataSource) { this(dataSource, QueryCache.disabled()); }
+    // Pooled mode: connections are borrowed per query, so many threads can share this DAO.
+
+    public CityDAO(DataSource dataSource, QueryCache cache) { this.dataSource = dataSource; this.snapshot = null; this.cache = cache; this.topN = new TopN(dataSource, cache); }
+    // Pooled mode with repeated queries answered from the shared result cache.
+
+    public CityDAO(WorldSnapshot snapshot) { this.dataSource = null; this.snapshot = snapshot; this.cache = QueryCache.disabled(); this.topN = new TopN(snapshot); }
+    // Snapshot mode: no connection needed, the data was bulk-loaded once at startup.
 
     public List<City> getAllCitiesByPopulation(Integer limit) {
+        if (snapshot != null) return snapshot.cities(Scope.WORLD, null, limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
@@ -29,14 +80,34 @@ public class CityDAO {
         """;
         // Base query: all cities joined to their country, ordered by population (largest first).
 
-        if (limit != null && limit > 0) sql += " LIMIT ?";
-        // Append LIMIT only when a positive limit is provided (keeps SQL valid and parameterized).
-
-        return fetchCities(sql, limit);
+        return fetchCities(LIST_METRICS.get(Scope.WORLD), sql, limit);
         // Delegate to shared fetch logic that binds parameters and maps rows -> City objects.
     }
 
+    /**
+     * One page of all cities by population (largest first, ties by city ID), for walking
+     * the whole list a page at a time. Each page seeks straight past the previous
+     * page's last row, so page 500 costs the same as page 1.
+     * @param token {@link Page#next()} of the previous page; null for the first page
+     * @param size Rows per page (at least 1)
+     * @return The page, with the token for the next one
+     * @throws IllegalArgumentException If the token is not one this method handed out
+     */
+    public Page<City> getCitiesPage(String token, int size) {
+        if (snapshot != null) {
+            Keyset.checkSize(size);
+            Keyset.Cursor after = Keyset.CITY.decode(token);
+            return Keyset.CITY.page(after == null
+                    ? snapshot.citiesAfter(null, 0, size)
+                    : snapshot.citiesAfter(after.population(), after.intKey(), size));
+        }
+
+        return Keyset.CITY.query(dataSource, PAGE_METRIC, PAGE_SELECT, CITY_ROW, token, size);
+    }
+
     public List<City> getCitiesByContinent(String continent, Integer limit) {
+        if (snapshot != null) return snapshot.cities(Scope.CONTINENT, continent, limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
@@ -46,11 +117,13 @@ public class CityDAO {
         """;
         // Filter by continent using a positional parameter to avoid SQL injection.
 
-        return fetchCities(sql, limit, continent);
+        return fetchCities(LIST_METRICS.get(Scope.CONTINENT), sql, limit, continent);
         // Pass the filter value so fetchCities can bind it, then (optionally) the LIMIT.
     }
 
     public List<City> getCitiesByRegion(String region, Integer limit) {
+        if (snapshot != null) return snapshot.cities(Scope.REGION, region, limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
@@ -60,11 +133,13 @@ public class CityDAO {
         """;
         // Region-level filter; same projection/order as other queries for consistency.
 
-        return fetchCities(sql, limit, region);
+        return fetchCities(LIST_METRICS.get(Scope.REGION), sql, limit, region);
         // Reuse the same mapping/binding routine.
     }
 
     public List<City> getCitiesByDistrict(String district, Integer limit) {
+        if (snapshot != null) return snapshot.cities(Scope.DISTRICT, district, limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
@@ -74,11 +149,13 @@ public class CityDAO {
         """;
         // District filter applied on the city table.
 
-        return fetchCities(sql, limit, district);
+        return fetchCities(LIST_METRICS.get(Scope.DISTRICT), sql, limit, district);
         // Bind the district value and (optional) limit.
     }
 
     public List<City> getCitiesByCountry(String country, Integer limit) {
+        if (snapshot != null) return snapshot.cities(Scope.COUNTRY, country, limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
@@ -88,97 +165,129 @@ public class CityDAO {
         """;
         // Country filter by country name (exact match as stored in the DB).
 
-        return fetchCities(sql, limit, country);
+        return fetchCities(LIST_METRICS.get(Scope.COUNTRY), sql, limit, country);
         // Execute with parameter binding and return mapped results.
     }
 
-    // ======================== TOP 10 CITY REPORTS (WITH SQL) ========================
+    // ======================== TOP N CITY REPORTS ========================
+
+    /**
+     * The {@code n} most populated cities in a scope, e.g. (CONTINENT, "Asia", 10).
+     * @param scope Level to filter on (WORLD ignores {@code value})
+     * @param value Continent, region, country or district name
+     * @param n How many cities to return (at least 1)
+     * @return Up to n City objects, largest first
+     */
+    public List<City> getTopCities(Scope scope, String value, int n) {
+        return topN.top(TopN.CITY, scope, value, n);
+    }
 
     /**
      * Top 10 cities in the world.
      */
     public List<City> getTop10CitiesInWorld() {
-        String sql = """
-        SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
-        FROM city ci
-        JOIN country co ON co.Code = ci.CountryCode
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCityQuery(sql);
+        return getTopCities(Scope.WORLD, null, 10);
     }
 
     /**
-     * Top 10 cities in a continent (hard-coded: Asia)
+     * Top 10 cities in a continent (Asia)
      */
     public List<City> getTop10CitiesInContinent() {
-        String sql = """
-        SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
-        FROM city ci
-        JOIN country co ON co.Code = ci.CountryCode
-        WHERE co.Continent = 'Asia'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCityQuery(sql);
+        return getTopCities(Scope.CONTINENT, "Asia", 10);
     }
 
     /**
-     * Top 10 cities in a region (hard-coded: Southeast Asia)
+     * Top 10 cities in a region (Southeast Asia)
      */
     public List<City> getTop10CitiesInRegion() {
-        String sql = """
-        SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
-        FROM city ci
-        JOIN country co ON co.Code = ci.CountryCode
-        WHERE co.Region = 'Southeast Asia'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCityQuery(sql);
+        return getTopCities(Scope.REGION, "Southeast Asia", 10);
     }
 
     /**
-     * Top 10 cities in a country (hard-coded: Myanmar)
+     * Top 10 cities in a country (Myanmar)
      */
     public List<City> getTop10CitiesInCountry() {
-        String sql = """
-        SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
-        FROM city ci
-        JOIN country co ON co.Code = ci.CountryCode
-        WHERE co.Name = 'Myanmar'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
-
-        return executeFixedCityQuery(sql);
+        return getTopCities(Scope.COUNTRY, "Myanmar", 10);
     }
 
     /**
-     * Top 10 cities in a district (hard-coded: California)
+     * Top 10 cities in a district (California)
      */
     public List<City> getTop10CitiesInDistrict() {
+        return getTopCities(Scope.DISTRICT, "California", 10);
+    }
+
+    /**
+     * Number of cities in a scope, for "Showing top N of M" when only N rows were fetched.
+     * @param scope Level to filter on (WORLD ignores {@code value})
+     * @param value Continent, region, country or district name
+     * @return Row count the matching list query would return without a limit
+     */
+    public long countCities(Scope scope, String value) {
+        if (snapshot != null) return snapshot.countCities(scope, value);
+
         String sql = """
-        SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
-        FROM city ci
-        JOIN country co ON co.Code = ci.CountryCode
-        WHERE ci.District = 'California'
-        ORDER BY ci.Population DESC
-        LIMIT 10;
-    """;
+            SELECT COUNT(*)
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+        """ + scopeFilter(scope);
+        return scope == Scope.WORLD
+                ? RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql)
+                : RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql, value);
+    }
 
-        return executeFixedCityQuery(sql);
+    // ======================== STREAMING CITY SCAN ========================
+
+    /**
+     * Streams every city in a scope, largest population first, without building a list.
+     *
+     * Rows come from a server-side cursor a batch at a time, so memory stays bounded however
+     * big the result is. The stream holds a pooled connection until it is closed, so always
+     * use try-with-resources; closing early stops the query instead of reading the rest.
+     * @param scope Level to filter on (WORLD ignores {@code value})
+     * @param value Continent, region, country or district name
+     * @return Lazily-read stream of City objects
+     */
+    public Stream<City> streamCities(Scope scope, String value) {
+        if (snapshot != null) return snapshot.cities(scope, value, null).stream();
+
+        String sql = """
+            SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+        """ + scopeFilter(scope) + " ORDER BY ci.Population DESC";
+        // Same projection and order as the list queries; only the WHERE clause varies.
+
+        return scope == Scope.WORLD
+                ? ResultSetStream.open(dataSource, STREAM_METRICS.get(scope), sql, CITY_ROW)
+                : ResultSetStream.open(dataSource, STREAM_METRICS.get(scope), sql, CITY_ROW, value);
     }
 
+    private static String scopeFilter(Scope scope) {
+        return switch (scope) {
+            case WORLD -> "";
+            case CONTINENT -> "WHERE co.Continent = ?";
+            case REGION -> "WHERE co.Region = ?";
+            case COUNTRY -> "WHERE co.Name = ?";
+            case DISTRICT -> "WHERE ci.District = ?";
+        };
+    }
 
     // Shared logic
-    private List<City> fetchCities(String sql, Integer limit, String... param) {
+    private List<City> fetchCities(QueryMetric metric, String sql, Integer limit, String... param) {
+        if (limit != null && limit > 0) sql += " LIMIT ?";
+        // Appended here so every caller gets it, not just the unfiltered query.
+
+        String query = sql;
+        return cache.get(query, Arrays.asList(limit, Arrays.asList(param)), () -> queryCities(metric, query, limit, param));
+    }
+
+    private List<City> queryCities(QueryMetric metric, String sql, Integer limit, String... param) {
         List<City> out = new ArrayList<>();
+        long start = metric.start();
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
 
             for (int i = 0; i < param.length; i++) {
                 ps.setString(i + 1, param[i]);
@@ -190,42 +299,17 @@ public class CityDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    out.add(new City(
-                            rs.getString("Name"),
-                            rs.getString("Country"),
-                            rs.getString("District"),
-                            rs.getLong("Population")
-                    ));
+                    out.add(CITY_ROW.map(rs));
                 }
             }
+            metric.success(start, out);
         } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
             // replaced System.err with logger
             LOGGER.log(Level.SEVERE, "Failed to get city report", e);
         }
 
         return out;
     }
-
-    private List<City> executeFixedCityQuery(String sql) {
-        List<City> out = new ArrayList<>();
-
-        try (PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                out.add(new City(
-                        rs.getString("Name"),
-                        rs.getString("Country"),
-                        rs.getString("District"),
-                        rs.getLong("Population")
-                ));
-            }
-
-        } catch (SQLException e) {
-            // replaced System.err with logger
-            LOGGER.log(Level.SEVERE, "Failed to execute Top10 city query", e);
-        }
-
-        return out;
-    }
 }
\ No newline at end of file
@@ -1,9 +1,19 @@
 package com.group12.report.data_access;
 
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
 import com.group12.report.models.Country;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,11 +27,45 @@ public class CountryDAO {
 
     private static final Logger LOGGER = Logger.getLogger(CountryDAO.class.getName());
 
-    /** Holds a live JDBC connection used for all queries in this DAO. */
-    private final Connection con;
+    /** Maps one row of the shared country projection (with the capital's name). */
+    static final RowMapper<Country> COUNTRY_ROW = rs -> new Country(
+            rs.getString("Code"),
+            rs.getString("Name"),
+            rs.getString("Continent"),
+            rs.getString("Region"),
+            rs.getLong("Population"),
+            (Integer) rs.getObject("CapitalId"),
+            rs.getString("CapitalName")
+    );
 
-    /** Dependency-inject the connection so the caller manages lifecycle. */
-    public CountryDAO(Connection con) { this.con = con; }
+    /** Latency, rows and errors per query shape, published over JMX (see QueryMetrics). */
+    private static final Map<Scope, QueryMetric> LIST_METRICS = ScopeMetrics.of("country.list");
+    private static final Map<Scope, QueryMetric> COUNT_METRICS = ScopeMetrics.of("country.count");
+    private static final QueryMetric PAGE_METRIC = QueryMetrics.shared().metric("country.page");
+
+    /** Source of connections; each query borrows one and returns it when done. */
+    private final DataSource dataSource;
+
+    /** When set, every query is answered from the in-memory snapshot instead of SQL. */
+    private final WorldSnapshot snapshot;
+
+    /** Shared top-N engine backing every getTop* method. */
+    private final TopN topN;
+
+    /** Results of earlier list and count queries, keyed by SQL and bound values. */
+    private final QueryCache cache;
+
+    /** Dependency-inject a single connection; the caller manages its lifecycle. */
+    public CountryDAO(Connection con) { this(new SharedConnectionDataSource(con)); }
+
+    /** Pooled mode: connections are borrowed per query, so many threads can share this DAO. */
+    public CountryDAO(DataSource dataSource) { this(dataSource, QueryCache.disabled()); }
+
+    /** Pooled mode with repeated queries answered from the shared result cache. */
+    public CountryDAO(DataSource dataSource, QueryCache cache) { this.dataSource = dataSource; this.snapshot = null; this.cache = cache; this.topN = new TopN(dataSource, cache); }
+
+    /** Snapshot mode: no connection needed, the data was bulk-loaded once at startup. */
+    public CountryDAO(WorldSnapshot snapshot) { this.dataSource = null; this.snapshot = snapshot; this.cache = QueryCache.disabled(); this.topN = new TopN(snapshot); }
 
     // ========================= MAIN REPORT METHODS =========================
 
@@ -31,6 +75,8 @@ public class CountryDAO {
      * @param limit Optional limit (null or <= 0 means no limit).
      */
     public List<Country> getAllCountriesByPopulation(Integer limit) {
+        if (snapshot != null) return snapshot.countries(Scope.WORLD, null, limit);
+
         String sql = """
             SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
                    c.Capital AS CapitalId, cap.Name AS CapitalName
@@ -40,13 +86,37 @@ public class CountryDAO {
         """;
         // Base query: all countries with their capital name, ordered by population.
 
-        if (limit != null && limit > 0) {
-            sql += " LIMIT ?";
+        return fetchCountries(LIST_METRICS.get(Scope.WORLD), sql, limit);
+        // Delegate to shared logic that binds optional limit and maps rows -> Country objects.
+    }
+
+    /**
+     * One page of all countries by population (largest first, ties by country code).
+     * Each page seeks straight past the previous page's last row instead of skipping
+     * rows with an OFFSET, so deep pages cost the same as the first.
+     *
+     * @param token {@link Page#next()} of the previous page; null for the first page.
+     * @param size  Rows per page (at least 1).
+     * @throws IllegalArgumentException If the token is not one this method handed out.
+     */
+    public Page<Country> getCountriesPage(String token, int size) {
+        if (snapshot != null) {
+            Keyset.checkSize(size);
+            Keyset.Cursor after = Keyset.COUNTRY.decode(token);
+            return Keyset.COUNTRY.page(after == null
+                    ? snapshot.countriesAfter(null, null, size)
+                    : snapshot.countriesAfter(after.population(), after.key(), size));
         }
-        // Append LIMIT only when a positive limit is provided.
 
-        return fetchCountries(sql, limit);
-        // Delegate to shared logic that binds optional limit and maps rows -> Country objects.
+        String sql = """
+            SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
+                   c.Capital AS CapitalId, cap.Name AS CapitalName, c.Code AS PageKey
+            FROM country c
+            LEFT JOIN city cap ON cap.ID = c.Capital
+        """;
+        // Keyset adds the seek condition, the (Population, Code) order and the LIMIT.
+
+        return Keyset.COUNTRY.query(dataSource, PAGE_METRIC, sql, COUNTRY_ROW, token, size);
     }
 
     /**
@@ -56,6 +126,8 @@ public class CountryDAO {
      * @param limit Optional limit (null or <= 0 means no limit).
      */
     public List<Country> getCountriesByContinent(String continent, Integer limit) {
+        if (snapshot != null) return snapshot.countries(Scope.CONTINENT, continent, limit);
+
         String sql = """
             SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
                    c.Capital AS CapitalId, cap.Name AS CapitalName
@@ -66,7 +138,7 @@ public class CountryDAO {
         """;
         // Filter by continent using a bind parameter to avoid SQL injection.
 
-        return fetchCountries(sql, limit, continent);
+        return fetchCountries(LIST_METRICS.get(Scope.CONTINENT), sql, limit, continent);
         // Bind the continent and (optionally) the limit, then map into Country objects.
     }
 
@@ -77,6 +149,8 @@ public class CountryDAO {
      * @param limit Optional limit (null or <= 0 means no limit).
      */
     public List<Country> getCountriesByRegion(String region, Integer limit) {
+        if (snapshot != null) return snapshot.countries(Scope.REGION, region, limit);
+
         String sql = """
             SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
                    c.Capital AS CapitalId, cap.Name AS CapitalName
@@ -87,68 +161,84 @@ public class CountryDAO {
         """;
         // Filter by region in the WHERE clause.
 
-        return fetchCountries(sql, limit, region);
+        return fetchCountries(LIST_METRICS.get(Scope.REGION), sql, limit, region);
         // Bind the region and (optional) limit, then map results.
     }
 
-    // ======================== TOP 10 COUNTRY REPORTS ========================
+    /**
+     * Number of countries in a scope, for "Showing top N of M" when only N rows were fetched.
+     *
+     * @param scope WORLD, CONTINENT, REGION or COUNTRY.
+     * @param value Continent, region or country name; ignored for WORLD.
+     */
+    public long countCountries(Scope scope, String value) {
+        if (snapshot != null) return snapshot.countCountries(scope, value);
+
+        String filter = switch (scope) {
+            case WORLD -> "";
+            case CONTINENT -> " WHERE c.Continent = ?";
+            case REGION -> " WHERE c.Region = ?";
+            case COUNTRY -> " WHERE c.Name = ?";
+            case DISTRICT -> throw new IllegalArgumentException("Countries have no district");
+        };
+        String sql = "SELECT COUNT(*) FROM country c" + filter;
+        // No capital join needed: it is a LEFT JOIN, so it never changes the row count.
+
+        return scope == Scope.WORLD
+                ? RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql)
+                : RowCount.query(dataSource, cache, COUNT_METRICS.get(scope), sql, value);
+    }
+
+    // ======================== TOP N COUNTRY REPORTS ========================
+
+    /**
+     * The {@code n} most populated countries in a scope, e.g. (REGION, "Western Europe", 10).
+     *
+     * @param scope WORLD, CONTINENT, REGION or COUNTRY.
+     * @param value Continent, region or country name; ignored for WORLD.
+     * @param n     How many countries to return (at least 1).
+     */
+    public List<Country> getTopCountries(Scope scope, String value, int n) {
+        return topN.top(TopN.COUNTRY, scope, value, n);
+    }
 
     /**
      * Top 10 populated countries in the world.
      */
     public List<Country> getTop10CountriesInWorld() {
-        String sql = """
-            SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
-                   c.Capital AS CapitalId, cap.Name AS CapitalName
-            FROM country c
-            LEFT JOIN city cap ON cap.ID = c.Capital
-            ORDER BY c.Population DESC
-            LIMIT 10
-        """;
-
-        return executeFixedCountryQuery(sql);
+        return getTopCountries(Scope.WORLD, null, 10);
     }
 
     /**
-     * Top 10 populated countries in a continent (hard-coded 'Europe').
+     * Top 10 populated countries in a continent ('Europe').
      */
     public List<Country> getTop10CountriesInEurope() {
-        String sql = """
-            SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
-                   c.Capital AS CapitalId, cap.Name AS CapitalName
-            FROM country c
-            LEFT JOIN city cap ON cap.ID = c.Capital
-            WHERE c.Continent = 'Europe'
-            ORDER BY c.Population DESC
-            LIMIT 10
-        """;
-
-        return executeFixedCountryQuery(sql);
+        return getTopCountries(Scope.CONTINENT, "Europe", 10);
     }
 
     /**
-     * Top 10 populated countries in a region (hard-coded 'Western Europe').
+     * Top 10 populated countries in a region ('Western Europe').
      */
     public List<Country> getTop10CountriesInWesternEurope() {
-        String sql = """
-            SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
-                   c.Capital AS CapitalId, cap.Name AS CapitalName
-            FROM country c
-            LEFT JOIN city cap ON cap.ID = c.Capital
-            WHERE c.Region = 'Western Europe'
-            ORDER BY c.Population DESC
-            LIMIT 10
-        """;
-
-        return executeFixedCountryQuery(sql);
+        return getTopCountries(Scope.REGION, "Western Europe", 10);
     }
 
     // ========================= SHARED HELPER METHODS =========================
 
-    private List<Country> fetchCountries(String sql, Integer limit, String... params) {
+    private List<Country> fetchCountries(QueryMetric metric, String sql, Integer limit, String... params) {
+        if (limit != null && limit > 0) sql += " LIMIT ?";
+        // Appended here so every caller gets it, not just the unfiltered query.
+
+        String query = sql;
+        return cache.get(query, Arrays.asList(limit, Arrays.asList(params)), () -> queryCountries(metric, query, limit, params));
+    }
+
+    private List<Country> queryCountries(QueryMetric metric, String sql, Integer limit, String... params) {
         List<Country> out = new ArrayList<>();
+        long start = metric.start();
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
 
             for (int i = 0; i < params.length; i++) {
                 ps.setString(i + 1, params[i]);
@@ -160,49 +250,18 @@ public class CountryDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    out.add(new Country(
-                            rs.getString("Code"),
-                            rs.getString("Name"),
-                            rs.getString("Continent"),
-                            rs.getString("Region"),
-                            rs.getLong("Population"),
-                            (Integer) rs.getObject("CapitalId"),
-                            rs.getString("CapitalName")
-                    ));
+                    out.add(COUNTRY_ROW.map(rs));
                 }
             }
 
+            metric.success(start, out);
         } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
 
             LOGGER.log(Level.SEVERE, "Failed to get country report", e);
         }
 
         return out;
     }
-
-    private List<Country> executeFixedCountryQuery(String sql) {
-        List<Country> out = new ArrayList<>();
-
-        try (PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            while (rs.next()) {
-                out.add(new Country(
-                        rs.getString("Code"),
-                        rs.getString("Name"),
-                        rs.getString("Continent"),
-                        rs.getString("Region"),
-                        rs.getLong("Population"),
-                        (Integer) rs.getObject("CapitalId"),
-                        rs.getString("CapitalName")
-                ));
-            }
-
-        } catch (SQLException e) {
-
-            LOGGER.log(Level.SEVERE, "Failed to execute fixed country query", e);
-        }
-
-        return out;
-    }
 }
\ No newline at end of file
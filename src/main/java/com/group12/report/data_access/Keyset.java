@@ -0,0 +1,169 @@
+package com.group12.report.data_access;
+
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.snapshot.SeekPage;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keyset ("seek") pagination over one of the population-ordered listings.
+ *
+ * <p>Rows are ordered by population, largest first, then by a unique key (city ID
+ * or country code). A page token holds the population and key of the previous
+ * page's last row, and the next page is read with
+ * {@code WHERE Population < ? OR (Population = ? AND key > ?)} instead of an
+ * {@code OFFSET}, so the database starts at that row rather than sorting and
+ * skipping everything before it. One extra row is fetched to tell whether another
+ * page follows.</p>
+ *
+ * <p>Tokens are Base64url text naming the listing they belong to; a token from
+ * another listing, or one that has been edited, is rejected with
+ * {@link IllegalArgumentException}. Pages are not cached: each is a single range
+ * read, and a walk through the whole listing would only fill the cache.</p>
+ */
+final class Keyset {
+
+    private static final Logger LOGGER = Logger.getLogger(Keyset.class.getName());
+
+    /** Cities, ties by {@code city.ID}. */
+    static final Keyset CITY = new Keyset("city", "ci.Population", "ci.ID", true);
+
+    /** Countries, ties by {@code country.Code}. */
+    static final Keyset COUNTRY = new Keyset("country", "c.Population", "c.Code", false);
+
+    /** Capitals, ties by the code of the country each is the capital of. */
+    static final Keyset CAPITAL = new Keyset("capital", "ci.Population", "co.Code", false);
+
+    /** Where a page starts: just after the row with this population and key. */
+    record Cursor(long population, String key) {
+        int intKey() {
+            return Integer.parseInt(key);
+        }
+    }
+
+    private final String listing;
+    private final String populationColumn;
+    private final String keyColumn;
+    private final boolean numericKey;
+
+    private Keyset(String listing, String populationColumn, String keyColumn, boolean numericKey) {
+        this.listing = listing;
+        this.populationColumn = populationColumn;
+        this.keyColumn = keyColumn;
+        this.numericKey = numericKey;
+    }
+
+    static void checkSize(int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+    }
+
+    // ======================== TOKENS ========================
+
+    String encode(long population, String key) {
+        String text = listing + ':' + population + ':' + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token A token from an earlier page of this listing; null or empty for the first page.
+     * @return The cursor, or null for the first page.
+     * @throws IllegalArgumentException If the token is malformed or from another listing.
+     */
+    Cursor decode(String token) {
+        if (token == null || token.isEmpty()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length == 3 && parts[0].equals(listing) && !parts[2].isEmpty()) {
+                Cursor cursor = new Cursor(Long.parseLong(parts[1]), parts[2]);
+                if (numericKey) cursor.intKey();
+                return cursor;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64, or a number that does not parse; reported below like any other bad token.
+        }
+        throw new IllegalArgumentException("Invalid page token for " + listing + " pages");
+    }
+
+    /** A snapshot page with its key turned into the next page's token. */
+    <T> Page<T> page(SeekPage<T> seek) {
+        return new Page<>(seek.rows(), seek.more() ? encode(seek.lastPopulation(), seek.lastKey()) : null);
+    }
+
+    // ======================== SQL ========================
+
+    /**
+     * The page statement for {@code select}: with {@code seek}, the population, the
+     * population again and the key of the previous page's last row, then the row limit.
+     */
+    String sql(String select, boolean seek) {
+        return select
+                + (seek ? " WHERE (" + populationColumn + " < ? OR ("
+                        + populationColumn + " = ? AND " + keyColumn + " > ?))" : "")
+                + " ORDER BY " + populationColumn + " DESC, " + keyColumn + " LIMIT ?";
+    }
+
+    /**
+     * Reads one page from the database.
+     *
+     * @param select {@code SELECT ... FROM ...} without WHERE or ORDER BY; it must
+     *               return a {@code Population} column and the key column as {@code PageKey}.
+     * @param token  Token of the previous page; null or empty for the first page.
+     * @param size   Page size (at least 1).
+     */
+    <T> Page<T> query(DataSource dataSource, QueryMetric metric, String select, RowMapper<T> mapper,
+                      String token, int size) {
+        checkSize(size);
+        Cursor after = decode(token);
+
+        String sql = sql(select, after != null);
+
+        List<T> rows = new ArrayList<>();
+        long lastPopulation = 0;
+        String lastKey = null;
+        boolean more = false;
+        long start = metric.start();
+
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            int i = 1;
+            if (after != null) {
+                ps.setLong(i++, after.population());
+                ps.setLong(i++, after.population());
+                if (numericKey) ps.setInt(i++, after.intKey());
+                else ps.setString(i++, after.key());
+            }
+            ps.setLong(i, size + 1L);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rows.size() == size) {
+                        more = true;
+                        break;
+                    }
+                    rows.add(mapper.map(rs));
+                    lastPopulation = rs.getLong("Population");
+                    lastKey = rs.getString("PageKey");
+                }
+            }
+            metric.success(start, rows);
+        } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
+            LOGGER.log(Level.SEVERE, "Failed to get " + listing + " page", e);
+            return new Page<>(List.of(), null);
+        }
+
+        return new Page<>(rows, more ? encode(lastPopulation, lastKey) : null);
+    }
+}
@@ -1,6 +1,14 @@
 package com.group12.report.data_access;
 
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
 import com.group12.report.models.Language;
+import com.group12.report.snapshot.LanguageTable;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,8 +27,35 @@ public class LanguageDAO {
 
     private static final Logger LOGGER = Logger.getLogger(LanguageDAO.class.getName());
 
-    // Database connection instance shared with this DAO.
-    private final Connection con;
+    // Latency, rows and errors of the language aggregation, published over JMX (see QueryMetrics).
+    private static final QueryMetric TABLE_METRIC = QueryMetrics.shared().metric("language.table");
+
+    // Speakers, percent of world and country count of every language, in one pass.
+    private static final String TABLE_SQL = """
+            SELECT cl.Language,
+                ROUND(SUM(c.Population * cl.Percentage / 100)) AS Speakers,
+                ROUND(100 * SUM(c.Population * cl.Percentage / 100) / (
+                    SELECT SUM(Population) FROM country
+                ), 2) AS PercentOfWorld,
+                COUNT(*) AS Countries
+            FROM countrylanguage cl
+            JOIN country c ON c.Code = cl.CountryCode
+            GROUP BY cl.Language
+        """;
+
+    // Source of connections; each query borrows one and returns it when done.
+    private final DataSource dataSource;
+
+    // In-memory snapshot used instead of SQL when set.
+    private final WorldSnapshot snapshot;
+
+    // Every language with speakers, percent of world and country count, read by one
+    // query. Kept in the query cache, so it expires with every other result; only held
+    // here, for the life of the DAO, when the cache is disabled. Guarded by this.
+    private LanguageTable table;
+
+    // Holds the language table between calls when enabled.
+    private final QueryCache cache;
 
     /**
      * Constructor to initialize LanguageDAO with a database connection.
@@ -28,7 +63,40 @@ public class LanguageDAO {
      * @param con The active SQL Connection object.
      */
     public LanguageDAO(Connection con) {
-        this.con = con;
+        this(new SharedConnectionDataSource(con));
+    }
+
+    /**
+     * Constructor for pooled use: a connection is borrowed for each query.
+     *
+     * @param dataSource The connection pool to borrow from.
+     */
+    public LanguageDAO(DataSource dataSource) {
+        this(dataSource, QueryCache.disabled());
+    }
+
+    /**
+     * Constructor for pooled use with a query cache, which holds the language table
+     * until its TTL passes.
+     *
+     * @param dataSource The connection pool to borrow from.
+     * @param cache      Cache for the language table.
+     */
+    public LanguageDAO(DataSource dataSource, QueryCache cache) {
+        this.dataSource = dataSource;
+        this.snapshot = null;
+        this.cache = cache;
+    }
+
+    /**
+     * Constructor for snapshot mode, where the data was bulk-loaded once at startup.
+     *
+     * @param snapshot The in-memory world snapshot.
+     */
+    public LanguageDAO(WorldSnapshot snapshot) {
+        this.dataSource = null;
+        this.snapshot = snapshot;
+        this.cache = QueryCache.disabled();
     }
 
     /**
@@ -36,50 +104,83 @@ public class LanguageDAO {
      * - Total number of speakers worldwide.
      * - Percentage of world population speaking each language.
      *
-     * The method performs aggregation using population data
-     * from the `country` table and the `Percentage` column from `countrylanguage`.
+     * Served from the language table, so the aggregation over the `country` and
+     * `countrylanguage` tables only runs when the table is missing or has expired.
      *
      * @param languages A list of language names to include in the report.
      * @return A list of Language model objects containing the query results.
      */
     public List<Language> getLanguagesBySpeakerCount(List<String> languages) {
-        String placeholders = String.join(",", languages.stream().map(l -> "?").toList());
+        LanguageTable t = languageTable();
+        return t == null ? new ArrayList<>() : t.select(languages);
+    }
 
-        String sql = """
-            SELECT cl.Language,
-                ROUND(SUM(c.Population * cl.Percentage / 100)) AS Speakers,
-                ROUND(100 * SUM(c.Population * cl.Percentage / 100) / (
-                    SELECT SUM(Population) FROM country
-                ), 2) AS PercentOfWorld
-            FROM countrylanguage cl
-            JOIN country c ON c.Code = cl.CountryCode
-            WHERE cl.Language IN (%s)
-            GROUP BY cl.Language
-            ORDER BY Speakers DESC
-        """.formatted(placeholders);
+    /**
+     * Retrieves one page of the complete language ranking, most spoken first.
+     *
+     * @param offset Number of languages to skip from the top.
+     * @param limit  Page size.
+     * @return Up to {@code limit} languages, each with its country count; empty if the query fails.
+     * @throws IllegalArgumentException If {@code offset < 0} or {@code limit < 1}.
+     */
+    public List<Language> getLanguageRanking(int offset, int limit) {
+        LanguageTable t = languageTable();
+        return t == null ? new ArrayList<>() : t.ranking(offset, limit);
+    }
 
-        List<Language> out = new ArrayList<>();
+    /**
+     * Returns the language table, running the aggregation query if there is none yet
+     * or it has expired. Reports started together share one query instead of each running it.
+     *
+     * @return The table, or null if the query failed (so the next call retries)
+     */
+    public LanguageTable languageTable() {
+        if (snapshot != null) return snapshot.languageTable();
+        if (cache.isEnabled()) return cache.get(TABLE_SQL, List.of(), this::loadTable);
+        synchronized (this) {
+            if (table == null) {
+                table = loadTable();
+            }
+            return table;
+        }
+    }
 
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+    /**
+     * Drops the cached language table so the next language report re-reads the tables.
+     */
+    public synchronized void refreshLanguages() {
+        table = null;
+        cache.invalidateIf(TABLE_SQL::equals);
+    }
 
-            for (int i = 0; i < languages.size(); i++) {
-                ps.setString(i + 1, languages.get(i));
-            }
+    private LanguageTable loadTable() {
+        LanguageTable.Builder builder = new LanguageTable.Builder();
+        long start = TABLE_METRIC.start();
+        long rows = 0;
+        long bytes = 0;
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(TABLE_SQL);
+             ResultSet rs = ps.executeQuery()) {
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    out.add(new Language(
-                            rs.getString("Language"),
-                            rs.getLong("Speakers"),
-                            rs.getDouble("PercentOfWorld")
-                    ));
-                }
+            while (rs.next()) {
+                Language language = new Language(
+                        rs.getString("Language"),
+                        rs.getLong("Speakers"),
+                        rs.getDouble("PercentOfWorld"),
+                        rs.getInt("Countries")
+                );
+                builder.add(language);
+                rows++;
+                bytes += QueryCache.estimateBytes(language);
             }
+            TABLE_METRIC.success(start, rows, bytes);
+            return builder.build();
         } catch (SQLException e) {
+            TABLE_METRIC.failure(start);
+            QueryDeadline.recordFailure(e);
 
             LOGGER.log(Level.SEVERE, "Failed to get language report", e);
+            return null;
         }
-
-        return out;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.group12.report.data_access;
+
+import java.util.List;
+
+/**
+ * One page of a population-ordered listing, with the token that fetches the next.
+ *
+ * <p>Tokens are opaque: pass {@link #next()} back to the same DAO method unchanged.
+ * They carry the sort key of this page's last row, so the next page starts right
+ * after it however far into the listing it is, and rows added or removed meanwhile
+ * shift nothing.</p>
+ *
+ * @param rows Rows of this page, largest population first.
+ * @param next Token for the following page, or null if this is the last.
+ * @param <T>  Model type of the rows.
+ */
+public record Page<T>(List<T> rows, String next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
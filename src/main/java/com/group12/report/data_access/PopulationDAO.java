@@ -1,11 +1,22 @@
 package com.group12.report.data_access;
 
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
 import com.group12.report.models.Population;
+import com.group12.report.snapshot.PopulationRollup;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * @author 40779661 Ann Min Nyo
@@ -17,8 +28,45 @@ public class PopulationDAO {
 
     private static final Logger LOGGER = Logger.getLogger(PopulationDAO.class.getName());
 
-    private final Connection con;
-    public PopulationDAO(Connection con) { this.con = con; }
+    // Latency, rows and errors per query, published over JMX (see QueryMetrics).
+    private static final QueryMetric DISTRICT_METRIC = QueryMetrics.shared().metric("population.district");
+    private static final QueryMetric CITY_METRIC = QueryMetrics.shared().metric("population.city");
+    private static final QueryMetric CITY_STREAM_METRIC = QueryMetrics.shared().metric("population.city.stream");
+    private static final QueryMetric ROLLUP_METRIC = QueryMetrics.shared().metric("population.rollup");
+
+    // Every country with the summed population of its cities; the rollup is aggregated from it.
+    private static final String ROLLUP_SQL = """
+            SELECT c.Name, c.Continent, c.Region, c.Population,
+                   COALESCE(cp.CityPopulation, 0) AS CityPopulation
+            FROM country c
+            LEFT JOIN (
+                SELECT CountryCode, SUM(Population) AS CityPopulation
+                FROM city
+                GROUP BY CountryCode
+            ) cp ON cp.CountryCode = c.Code
+        """;
+
+    // Source of connections; each query borrows one and returns it when done.
+    private final DataSource dataSource;
+
+    // When set, every query is answered from the in-memory snapshot instead of SQL.
+    private final WorldSnapshot snapshot;
+
+    // World/continent/region/country breakdowns shared by the seven breakdown reports,
+    // read by one query. Kept in the query cache, so it expires with every other result;
+    // only held here, for the life of the DAO, when the cache is disabled. Guarded by this.
+    private PopulationRollup rollup;
+
+    // Results of earlier rollup, district and city queries, keyed by SQL and bound values.
+    private final QueryCache cache;
+
+    public PopulationDAO(Connection con) { this(new SharedConnectionDataSource(con)); }
+
+    public PopulationDAO(DataSource dataSource) { this(dataSource, QueryCache.disabled()); }
+
+    public PopulationDAO(DataSource dataSource, QueryCache cache) { this.dataSource = dataSource; this.snapshot = null; this.cache = cache; }
+
+    public PopulationDAO(WorldSnapshot snapshot) { this.dataSource = null; this.snapshot = snapshot; this.cache = QueryCache.disabled(); }
 
     /**
      * 1. Retrieves the total population of the world,
@@ -27,17 +75,8 @@ public class PopulationDAO {
      * @return List containing one Population object for the world
      */
     public List<Population> getWorldPopulation() {
-        String sql = """
-            SELECT 'World' AS Name,
-                   t.total_population AS TotalPopulation,
-                   c.city_population AS CityPopulation,
-                   ROUND(100 * c.city_population / t.total_population, 2) AS CityPopulationPercent,
-                   (t.total_population - c.city_population) AS NonCityPopulation,
-                   ROUND(100 * (t.total_population - c.city_population) / t.total_population, 2) AS NonCityPopulationPercent
-            FROM (SELECT SUM(Population) AS total_population FROM country) t,
-                 (SELECT SUM(Population) AS city_population FROM city) c
-        """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.worldPopulation();
+        return fromRollup(r -> List.of(r.world()));
     }
 
     /**
@@ -49,27 +88,8 @@ public class PopulationDAO {
 
 
     public List<Population> getPopulationByContinent() {
-        String sql = """
-            SELECT tp.Continent AS Name,
-                   tp.TotalPopulation,
-                   COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-                   ROUND(100 * COALESCE(cp.CityPopulation, 0) / tp.TotalPopulation, 2) AS CityPopulationPercent,
-                   (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-                   ROUND(100 * (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) / tp.TotalPopulation, 2) AS NonCityPopulationPercent
-            FROM (
-                SELECT Continent, SUM(Population) AS TotalPopulation
-                FROM country
-                GROUP BY Continent
-            ) tp
-            LEFT JOIN (
-                SELECT c.Continent, SUM(ci.Population) AS CityPopulation
-                FROM country c
-                JOIN city ci ON ci.CountryCode = c.Code
-                GROUP BY c.Continent
-            ) cp ON cp.Continent = tp.Continent
-            ORDER BY tp.TotalPopulation DESC
-        """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByContinent();
+        return fromRollup(PopulationRollup::continents);
     }
     /**
      * 3. Retrieves population details for each region.
@@ -77,27 +97,8 @@ public class PopulationDAO {
      * @return List of Population objects representing each region
      */
     public List<Population> getPopulationByRegion() {
-        String sql = """
-            SELECT tp.Region AS Name,
-                   tp.TotalPopulation,
-                   COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-                   ROUND(100 * COALESCE(cp.CityPopulation, 0) / tp.TotalPopulation, 2) AS CityPopulationPercent,
-                   (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-                   ROUND(100 * (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) / tp.TotalPopulation, 2) AS NonCityPopulationPercent
-            FROM (
-                SELECT Region, SUM(Population) AS TotalPopulation
-                FROM country
-                GROUP BY Region
-            ) tp
-            LEFT JOIN (
-                SELECT c.Region, SUM(ci.Population) AS CityPopulation
-                FROM country c
-                JOIN city ci ON ci.CountryCode = c.Code
-                GROUP BY c.Region
-            ) cp ON cp.Region = tp.Region
-            ORDER BY tp.TotalPopulation DESC
-        """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByRegion();
+        return fromRollup(PopulationRollup::regions);
     }
 
     /**
@@ -106,22 +107,8 @@ public class PopulationDAO {
      * @return List of Population objects representing each country
      */
     public List<Population> getPopulationByCountry() {
-        String sql = """
-            SELECT c.Name AS Name,
-                   c.Population AS TotalPopulation,
-                   COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-                   ROUND(100 * COALESCE(cp.CityPopulation, 0) / c.Population, 2) AS CityPopulationPercent,
-                   (c.Population - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-                   ROUND(100 * (c.Population - COALESCE(cp.CityPopulation, 0)) / c.Population, 2) AS NonCityPopulationPercent
-            FROM country c
-            LEFT JOIN (
-                SELECT CountryCode, SUM(Population) AS CityPopulation
-                FROM city
-                GROUP BY CountryCode
-            ) cp ON cp.CountryCode = c.Code
-            ORDER BY c.Population DESC
-        """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByCountry();
+        return fromRollup(PopulationRollup::countries);
     }
 
     /**
@@ -131,6 +118,8 @@ public class PopulationDAO {
      * @return List of Population objects representing districts
      */
     public List<Population> getPopulationByDistrict(String countryName) {
+        if (snapshot != null) return snapshot.populationByDistrict(countryName);
+
         String sql = """
             SELECT ci.District, SUM(ci.Population) AS Population
             FROM city ci
@@ -139,9 +128,14 @@ public class PopulationDAO {
             GROUP BY ci.District
             ORDER BY Population DESC
         """;
+        return cache.get(sql, Arrays.asList(countryName), () -> queryDistricts(sql, countryName));
+    }
 
+    private List<Population> queryDistricts(String sql, String countryName) {
         List<Population> out = new ArrayList<>();
-        try (PreparedStatement ps = con.prepareStatement(sql)) {
+        long start = DISTRICT_METRIC.start();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setString(1, countryName);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -151,7 +145,10 @@ public class PopulationDAO {
                     ));
                 }
             }
+            DISTRICT_METRIC.success(start, out);
         } catch (SQLException e) {
+            DISTRICT_METRIC.failure(start);
+            QueryDeadline.recordFailure(e);
             // was System.err.println(...)
             LOGGER.log(Level.SEVERE, "Failed to get district population", e);
         }
@@ -165,25 +162,50 @@ public class PopulationDAO {
      * @return List of Population objects representing each city
      */
     public List<Population> getPopulationByCity() {
+        return getPopulationByCity(null);
+    }
+
+    /**
+     * 6a. Same as {@link #getPopulationByCity()}, but only the largest {@code limit} cities.
+     *
+     * @param limit Optional limit (null or <= 0 means no limit).
+     * @return List of Population objects representing each city
+     */
+    public List<Population> getPopulationByCity(Integer limit) {
+        if (snapshot != null) return snapshot.populationByCity(limit);
+
         String sql = """
             SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
             FROM city ci
             JOIN country co ON co.Code = ci.CountryCode
             ORDER BY ci.Population DESC
         """;
+        if (limit != null && limit > 0) sql += " LIMIT ?";
+
+        String query = sql;
+        return cache.get(query, Arrays.asList(limit), () -> queryCityPopulations(query, limit));
+    }
 
+    private List<Population> queryCityPopulations(String sql, Integer limit) {
         List<Population> out = new ArrayList<>();
-        try (PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                out.add(new Population(
-                        rs.getString("Name"),
-                        rs.getString("Country"),
-                        rs.getString("District"),
-                        rs.getLong("Population")
-                ));
+        long start = CITY_METRIC.start();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            if (limit != null && limit > 0) ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new Population(
+                            rs.getString("Name"),
+                            rs.getString("Country"),
+                            rs.getString("District"),
+                            rs.getLong("Population")
+                    ));
+                }
             }
+            CITY_METRIC.success(start, out);
         } catch (SQLException e) {
+            CITY_METRIC.failure(start);
+            QueryDeadline.recordFailure(e);
             // was System.err.println(...)
             LOGGER.log(Level.SEVERE, "Failed to get city population", e);
         }
@@ -191,30 +213,94 @@ public class PopulationDAO {
     }
 
     /**
-     * Shared helper method used to execute SQL queries that return
-     * total, city, and non-city population breakdowns.
-     * @param sql SQL query string
-     * @return List of Population objects
+     * 6b. Streams population information for all cities, largest first, without building a list.
+     *
+     * Rows are read from a server-side cursor in batches, so memory stays bounded however
+     * big the city table grows. The stream holds a pooled connection until it is closed,
+     * so always use try-with-resources; closing early stops the query.
+     * @return Lazily-read stream of Population objects representing each city
      */
-    private List<Population> fetchBreakdownPopulation(String sql) {
-        List<Population> out = new ArrayList<>();
-        try (PreparedStatement ps = con.prepareStatement(sql);
+    public Stream<Population> streamPopulationByCity() {
+        if (snapshot != null) return snapshot.populationByCity().stream();
+
+        String sql = """
+            SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+            ORDER BY ci.Population DESC
+        """;
+        return ResultSetStream.open(dataSource, CITY_STREAM_METRIC, sql, rs -> new Population(
+                rs.getString("Name"),
+                rs.getString("Country"),
+                rs.getString("District"),
+                rs.getLong("Population")
+        ));
+    }
+
+    /**
+     * Serves one level of the rollup, loading it on first use.
+     * @param level Picks the world, continent, region or country rows
+     * @return The rows for that level, or an empty list if the rollup query failed
+     */
+    private List<Population> fromRollup(Function<PopulationRollup, List<Population>> level) {
+        PopulationRollup r = rollup();
+        return r == null ? new ArrayList<>() : level.apply(r);
+    }
+
+    /**
+     * Returns the cached rollup, running the rollup query if there is none yet or it
+     * has expired. Reports started together share one query instead of each running it.
+     */
+    private PopulationRollup rollup() {
+        if (cache.isEnabled()) return cache.get(ROLLUP_SQL, List.of(), this::loadRollup);
+        synchronized (this) {
+            if (rollup == null) {
+                rollup = loadRollup();
+            }
+            return rollup;
+        }
+    }
+
+    /**
+     * Drops the cached rollup so the next breakdown report re-reads the tables.
+     */
+    public synchronized void refreshRollup() {
+        rollup = null;
+        cache.invalidateIf(ROLLUP_SQL::equals);
+    }
+
+    /**
+     * Reads every country with the summed population of its cities in one query and
+     * aggregates world, continent, region and country totals from it in a single pass.
+     * @return The rollup, or null if the query failed (so the next call retries)
+     */
+    private PopulationRollup loadRollup() {
+        PopulationRollup.Builder builder = new PopulationRollup.Builder();
+        long start = ROLLUP_METRIC.start();
+        long rows = 0;
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(ROLLUP_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                out.add(new Population(
+                builder.addCountry(
                         rs.getString("Name"),
-                        rs.getLong("TotalPopulation"),
-                        rs.getLong("CityPopulation"),
-                        rs.getDouble("CityPopulationPercent"),
-                        rs.getLong("NonCityPopulation"),
-                        rs.getDouble("NonCityPopulationPercent")
-                ));
+                        rs.getString("Continent"),
+                        rs.getString("Region"),
+                        rs.getLong("Population"),
+                        rs.getLong("CityPopulation")
+                );
+                rows++;
             }
         } catch (SQLException e) {
+            ROLLUP_METRIC.failure(start);
+            QueryDeadline.recordFailure(e);
             // was System.err.println(...)
             LOGGER.log(Level.SEVERE, "Failed to get breakdown population", e);
+            return null;
         }
-        return out;
+        PopulationRollup built = builder.build();
+        ROLLUP_METRIC.success(start, rows, QueryCache.estimateBytes(built));
+        return built;
     }
 
     /**
@@ -223,27 +309,8 @@ public class PopulationDAO {
      * @return List of Population objects by continent
      */
     public List<Population> getCityVsNonCityByContinent() {
-        String sql = """
-        SELECT tp.Continent AS Name,
-               tp.TotalPopulation,
-               COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-               ROUND(100 * COALESCE(cp.CityPopulation, 0) / tp.TotalPopulation, 2) AS CityPopulationPercent,
-               (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-               ROUND(100 * (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) / tp.TotalPopulation, 2) AS NonCityPopulationPercent
-        FROM (
-            SELECT Continent, SUM(Population) AS TotalPopulation
-            FROM country
-            GROUP BY Continent
-        ) tp
-        LEFT JOIN (
-            SELECT c.Continent, SUM(ci.Population) AS CityPopulation
-            FROM country c
-            JOIN city ci ON ci.CountryCode = c.Code
-            GROUP BY c.Continent
-        ) cp ON cp.Continent = tp.Continent
-        ORDER BY tp.TotalPopulation DESC
-    """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByContinent();
+        return fromRollup(PopulationRollup::continents);
     }
 
     /**
@@ -252,27 +319,8 @@ public class PopulationDAO {
      * @return List of Population objects by region
      */
     public List<Population> getCityVsNonCityByRegion() {
-        String sql = """
-        SELECT tp.Region AS Name,
-               tp.TotalPopulation,
-               COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-               ROUND(100 * COALESCE(cp.CityPopulation, 0) / tp.TotalPopulation, 2) AS CityPopulationPercent,
-               (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-               ROUND(100 * (tp.TotalPopulation - COALESCE(cp.CityPopulation, 0)) / tp.TotalPopulation, 2) AS NonCityPopulationPercent
-        FROM (
-            SELECT Region, SUM(Population) AS TotalPopulation
-            FROM country
-            GROUP BY Region
-        ) tp
-        LEFT JOIN (
-            SELECT c.Region, SUM(ci.Population) AS CityPopulation
-            FROM country c
-            JOIN city ci ON ci.CountryCode = c.Code
-            GROUP BY c.Region
-        ) cp ON cp.Region = tp.Region
-        ORDER BY tp.TotalPopulation DESC
-    """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByRegion();
+        return fromRollup(PopulationRollup::regions);
     }
 
     /**
@@ -280,21 +328,7 @@ public class PopulationDAO {
      * @return List of Population objects by country
      */
     public List<Population> getCityVsNonCityByCountry() {
-        String sql = """
-        SELECT c.Name AS Name,
-               c.Population AS TotalPopulation,
-               COALESCE(cp.CityPopulation, 0) AS CityPopulation,
-               ROUND(100 * COALESCE(cp.CityPopulation, 0) / c.Population, 2) AS CityPopulationPercent,
-               (c.Population - COALESCE(cp.CityPopulation, 0)) AS NonCityPopulation,
-               ROUND(100 * (c.Population - COALESCE(cp.CityPopulation, 0)) / c.Population, 2) AS NonCityPopulationPercent
-        FROM country c
-        LEFT JOIN (
-            SELECT CountryCode, SUM(Population) AS CityPopulation
-            FROM city
-            GROUP BY CountryCode
-        ) cp ON cp.CountryCode = c.Code
-        ORDER BY c.Population DESC
-    """;
-        return fetchBreakdownPopulation(sql);
+        if (snapshot != null) return snapshot.populationByCountry();
+        return fromRollup(PopulationRollup::countries);
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.group12.report.data_access;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.snapshot.ChangeSet;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
+import java.util.Set;
+
+/**
+ * One DAO of each kind, all reading from the same place, for code that serves
+ * every report (such as the HTTP server) rather than one category.
+ *
+ * @param countries  Country reports.
+ * @param cities     City reports.
+ * @param capitals   Capital city reports.
+ * @param population Population reports.
+ * @param languages  Language reports.
+ */
+public record ReportDaos(CountryDAO countries, CityDAO cities, CapitalDAO capitals,
+                         PopulationDAO population, LanguageDAO languages) {
+
+    /** DAOs that borrow a connection from {@code dataSource} per query and share {@code cache}. */
+    public static ReportDaos pooled(DataSource dataSource, QueryCache cache) {
+        return new ReportDaos(new CountryDAO(dataSource, cache), new CityDAO(dataSource, cache),
+                new CapitalDAO(dataSource, cache), new PopulationDAO(dataSource, cache),
+                new LanguageDAO(dataSource, cache));
+    }
+
+    /** DAOs that answer every query from an in-memory snapshot. */
+    public static ReportDaos of(WorldSnapshot snapshot) {
+        return new ReportDaos(new CountryDAO(snapshot), new CityDAO(snapshot),
+                new CapitalDAO(snapshot), new PopulationDAO(snapshot), new LanguageDAO(snapshot));
+    }
+
+    /**
+     * Drops what these DAOs hold that {@code changes} has made stale: the entries of
+     * {@code cache} whose SQL reads a changed table, and the population rollup and
+     * language table when a table they are aggregated from changed. After a skipped
+     * gap in the change log ({@link ChangeSet#gapSkipped()}) everything is dropped.
+     */
+    public void refresh(ChangeSet changes, QueryCache cache) {
+        if (changes.gapSkipped()) {
+            cache.invalidateAll();
+            population.refreshRollup();
+            languages.refreshLanguages();
+            return;
+        }
+        cache.invalidateIf(changes::affects);
+        Set<String> tables = changes.tables();
+        if (tables.contains("country") || tables.contains("city")) population.refreshRollup();
+        if (tables.contains("country") || tables.contains("countrylanguage")) languages.refreshLanguages();
+    }
+}
@@ -0,0 +1,165 @@
+package com.group12.report.data_access;
+
+import com.group12.report.snapshot.Scope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SQL behind each of the 32 numbered reports, without display limits, for
+ * callers that read the rows themselves instead of going through a DAO.
+ *
+ * <p>The statements are the ones the DAOs run, with the console's 10-row cap
+ * taken off. The top-10 reports keep their {@code LIMIT} because the limit is the
+ * report. The population breakdowns (23-26 and 29-31) are computed by GROUP BY
+ * here. The DAOs get the same numbers from a rollup built in Java.</p>
+ */
+public final class ReportQueries {
+
+    /**
+     * One numbered report.
+     *
+     * @param number Report number as printed by App (1-32).
+     * @param name   Short file-friendly name, e.g. {@code cities-asia}.
+     * @param sql    Statement to run.
+     * @param params Values bound to its placeholders, in order.
+     */
+    public record Query(int number, String name, String sql, List<Object> params) {
+        public Query {
+            params = Collections.unmodifiableList(new ArrayList<>(params));
+        }
+    }
+
+    private static final String BREAKDOWN = """
+            SELECT %s AS Name,
+                SUM(t.Population) AS TotalPopulation,
+                SUM(t.CityPopulation) AS CityPopulation,
+                COALESCE(ROUND(100 * SUM(t.CityPopulation) / SUM(t.Population), 2), 0) AS CityPopulationPercent,
+                SUM(t.Population) - SUM(t.CityPopulation) AS NonCityPopulation,
+                COALESCE(ROUND(100 * (SUM(t.Population) - SUM(t.CityPopulation)) / SUM(t.Population), 2), 0)
+                    AS NonCityPopulationPercent
+            FROM (
+                SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
+                       COALESCE(cp.CityPopulation, 0) AS CityPopulation
+                FROM country c
+                LEFT JOIN (
+                    SELECT CountryCode, SUM(Population) AS CityPopulation
+                    FROM city
+                    GROUP BY CountryCode
+                ) cp ON cp.CountryCode = c.Code
+            ) t
+            %s
+            ORDER BY TotalPopulation DESC
+            """;
+
+    private static final String DISTRICTS = """
+            SELECT ci.District, SUM(ci.Population) AS Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+            WHERE co.Name = ?
+            GROUP BY ci.District
+            ORDER BY Population DESC
+            """;
+
+    private static final String CITY_POPULATIONS = """
+            SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+            ORDER BY ci.Population DESC
+            """;
+
+    private static final String LANGUAGES = """
+            SELECT cl.Language,
+                ROUND(SUM(c.Population * cl.Percentage / 100)) AS Speakers,
+                ROUND(100 * SUM(c.Population * cl.Percentage / 100) / (
+                    SELECT SUM(Population) FROM country
+                ), 2) AS PercentOfWorld,
+                COUNT(*) AS Countries
+            FROM countrylanguage cl
+            JOIN country c ON c.Code = cl.CountryCode
+            WHERE cl.Language IN (?, ?, ?, ?, ?)
+            GROUP BY cl.Language
+            ORDER BY Speakers DESC, cl.Language
+            """;
+
+    private static final List<Query> ALL = List.of(
+            all(1, "countries-world", TopN.COUNTRY, Scope.WORLD, null),
+            all(2, "countries-asia", TopN.COUNTRY, Scope.CONTINENT, "Asia"),
+            all(3, "countries-southeast-asia", TopN.COUNTRY, Scope.REGION, "Southeast Asia"),
+            top(4, "top10-countries-world", TopN.COUNTRY, Scope.WORLD, null),
+            top(5, "top10-countries-europe", TopN.COUNTRY, Scope.CONTINENT, "Europe"),
+            top(6, "top10-countries-western-europe", TopN.COUNTRY, Scope.REGION, "Western Europe"),
+
+            all(7, "cities-world", TopN.CITY, Scope.WORLD, null),
+            all(8, "cities-asia", TopN.CITY, Scope.CONTINENT, "Asia"),
+            all(9, "cities-southeast-asia", TopN.CITY, Scope.REGION, "Southeast Asia"),
+            all(10, "cities-california", TopN.CITY, Scope.DISTRICT, "California"),
+            all(11, "cities-myanmar", TopN.CITY, Scope.COUNTRY, "Myanmar"),
+            top(12, "top10-cities-world", TopN.CITY, Scope.WORLD, null),
+            top(13, "top10-cities-asia", TopN.CITY, Scope.CONTINENT, "Asia"),
+            top(14, "top10-cities-southeast-asia", TopN.CITY, Scope.REGION, "Southeast Asia"),
+            top(15, "top10-cities-myanmar", TopN.CITY, Scope.COUNTRY, "Myanmar"),
+            top(16, "top10-cities-california", TopN.CITY, Scope.DISTRICT, "California"),
+
+            all(17, "capitals-world", TopN.CAPITAL, Scope.WORLD, null),
+            all(18, "capitals-asia", TopN.CAPITAL, Scope.CONTINENT, "Asia"),
+            all(19, "capitals-southeast-asia", TopN.CAPITAL, Scope.REGION, "Southeast Asia"),
+            top(20, "top10-capitals-world", TopN.CAPITAL, Scope.WORLD, null),
+            top(21, "top10-capitals-asia", TopN.CAPITAL, Scope.CONTINENT, "Asia"),
+            top(22, "top10-capitals-southeast-asia", TopN.CAPITAL, Scope.REGION, "Southeast Asia"),
+
+            breakdown(23, "population-world", "'World'", ""),
+            breakdown(24, "population-continents", "t.Continent", "GROUP BY t.Continent"),
+            breakdown(25, "population-regions", "t.Region", "GROUP BY t.Region"),
+            breakdown(26, "population-countries", "t.Name", "GROUP BY t.Code, t.Name"),
+            new Query(27, "population-districts-myanmar", DISTRICTS, List.of("Myanmar")),
+            new Query(28, "population-cities", CITY_POPULATIONS, List.of()),
+            breakdown(29, "city-vs-non-city-continents", "t.Continent", "GROUP BY t.Continent"),
+            breakdown(30, "city-vs-non-city-regions", "t.Region", "GROUP BY t.Region"),
+            breakdown(31, "city-vs-non-city-countries", "t.Name", "GROUP BY t.Code, t.Name"),
+
+            new Query(32, "languages", LANGUAGES, List.of("English", "Chinese", "Hindi", "Spanish", "Arabic"))
+    );
+
+    private ReportQueries() { }
+
+    /** Every report, in report-number order. */
+    public static List<Query> all() {
+        return ALL;
+    }
+
+    /**
+     * One report by number.
+     *
+     * @throws IllegalArgumentException If there is no report {@code number}.
+     */
+    public static Query get(int number) {
+        if (number < 1 || number > ALL.size()) {
+            throw new IllegalArgumentException("No report " + number + "; reports are numbered 1-" + ALL.size());
+        }
+        return ALL.get(number - 1);
+    }
+
+    /**
+     * The statement behind {@code /cities/page} for a page after the first, with a
+     * sample cursor (just past a city of a million) and 100 rows. It is not a numbered
+     * report, so its number is 0; the index check explains it with the reports.
+     */
+    public static Query cityPage() {
+        return new Query(0, "cities-page", Keyset.CITY.sql(CityDAO.PAGE_SELECT, true),
+                List.of(1_000_000L, 1_000_000L, 1, 101L));
+    }
+
+    private static Query all(int number, String name, TopN.Entity<?> entity, Scope scope, String value) {
+        return new Query(number, name, entity.listSql(scope), scope == Scope.WORLD ? List.of() : List.of(value));
+    }
+
+    private static Query top(int number, String name, TopN.Entity<?> entity, Scope scope, String value) {
+        return new Query(number, name, entity.sql(scope), scope == Scope.WORLD ? List.of(10) : List.of(value, 10));
+    }
+
+    private static Query breakdown(int number, String name, String nameColumn, String groupBy) {
+        return new Query(number, name, String.format(BREAKDOWN, nameColumn, groupBy), List.of());
+    }
+}
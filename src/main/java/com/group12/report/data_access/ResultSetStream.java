@@ -0,0 +1,122 @@
+package com.group12.report.data_access;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.metrics.QueryMetric;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Turns a query into a lazily-read {@link Stream} so large scans never sit in memory all at once.
+ *
+ * <p>The statement is opened with a positive fetch size. With {@code useCursorFetch=true}
+ * on the JDBC URL (as App sets it) MySQL keeps the result in a server-side cursor and
+ * sends {@value #FETCH_SIZE} rows per round trip, so the client only ever holds one batch.
+ * Closing the stream early closes the cursor on the server; the remaining rows are never
+ * sent. Without cursor fetch the driver falls back to buffering the whole result.</p>
+ *
+ * <p>The returned stream owns a pooled connection until it is closed, so callers must use
+ * try-with-resources. A failure while reading is logged and simply ends the stream,
+ * matching how the list-returning DAO methods return an empty list on error; it is
+ * also passed to {@link QueryDeadline#recordFailure}, so a caller that has already
+ * written some rows can tell a cut-short stream from a complete one.</p>
+ *
+ * <p>The query's metric is recorded when the stream is closed, so its latency covers
+ * the whole scan, including the time the caller spent on each row.</p>
+ */
+final class ResultSetStream {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultSetStream.class.getName());
+
+    /** Rows fetched per server round trip. */
+    static final int FETCH_SIZE = 1_000;
+
+    private ResultSetStream() { }
+
+    static <T> Stream<T> open(DataSource dataSource, QueryMetric metric, String sql, RowMapper<T> mapper, String... params) {
+        long start = metric.start();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs;
+        try {
+            con = dataSource.getConnection();
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
+            LOGGER.log(Level.SEVERE, "Failed to open streaming query", e);
+            closeQuietly(null, ps, con);
+            return Stream.empty();
+        }
+
+        final Connection c = con;
+        final PreparedStatement s = ps;
+        Rows<T> rows = new Rows<>(rs, mapper);
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            if (rows.failed) metric.failure(start);
+            else metric.success(start, rows.count, rows.bytes);
+            closeQuietly(rs, s, c);
+        });
+    }
+
+    /** Reads one row per advance, counting rows and their estimated size for the metric. */
+    private static final class Rows<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        long count;
+        long bytes;
+        boolean failed;
+
+        Rows(ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (failed || !rs.next()) return false;
+                T row = mapper.map(rs);
+                count++;
+                bytes += QueryCache.estimateBytes(row);
+                action.accept(row);
+                return true;
+            } catch (SQLException e) {
+                failed = true;
+                QueryDeadline.recordFailure(e);
+                LOGGER.log(Level.SEVERE, "Failed while streaming query results", e);
+                return false;
+            }
+        }
+    }
+
+    private static void closeQuietly(ResultSet rs, PreparedStatement ps, Connection con) {
+        try {
+            if (rs != null) rs.close();
+            if (ps != null) ps.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error closing streaming query", e);
+        }
+        try {
+            if (con != null) con.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error returning streaming connection", e);
+        }
+    }
+}
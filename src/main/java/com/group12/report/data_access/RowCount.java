@@ -0,0 +1,52 @@
+package com.group12.report.data_access;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.metrics.QueryMetric;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a single-value {@code SELECT COUNT(*)} query for the DAOs' count methods.
+ *
+ * <p>A failed count is logged and reported as 0, the same way the list
+ * queries return an empty list; reports then fall back to the rows they have.</p>
+ */
+final class RowCount {
+
+    private static final Logger LOGGER = Logger.getLogger(RowCount.class.getName());
+
+    private RowCount() { }
+
+    static long query(DataSource dataSource, QueryCache cache, QueryMetric metric, String sql, String... params) {
+        return cache.get(sql, Arrays.asList(params), () -> query(dataSource, metric, sql, params));
+    }
+
+    static long query(DataSource dataSource, QueryMetric metric, String sql, String... params) {
+        long start = metric.start();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                metric.success(start, 1, 24);
+                return count;
+            }
+        } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
+            LOGGER.log(Level.SEVERE, "Failed to count report rows", e);
+            return 0;
+        }
+    }
+}
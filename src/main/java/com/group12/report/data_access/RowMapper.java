@@ -0,0 +1,14 @@
+package com.group12.report.data_access;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to a model object.
+ *
+ * @param <T> Model type produced for each row.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,27 @@
+package com.group12.report.data_access;
+
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
+import com.group12.report.snapshot.Scope;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Looks up one {@link QueryMetric} per scope level, named {@code <prefix>.<scope>}
+ * (e.g. {@code city.list.continent}), so a DAO method picks its metric with a
+ * map lookup instead of building the name on every query.
+ */
+final class ScopeMetrics {
+
+    private ScopeMetrics() { }
+
+    static Map<Scope, QueryMetric> of(String prefix) {
+        Map<Scope, QueryMetric> metrics = new EnumMap<>(Scope.class);
+        for (Scope scope : Scope.values()) {
+            metrics.put(scope, QueryMetrics.shared().metric(prefix + "." + scope.name().toLowerCase(Locale.ROOT)));
+        }
+        return metrics;
+    }
+}
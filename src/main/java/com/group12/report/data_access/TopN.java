@@ -0,0 +1,201 @@
+package com.group12.report.data_access;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One query facility for every "top N by population" report.
+ *
+ * <p>A request is (entity, scope level, scope value, N). The SQL text depends only on
+ * the entity and the scope level, and the scope value and N are bound as parameters,
+ * so there are just a dozen distinct statements. The pool's statement cache prepares
+ * each of them once. Any N and any continent, region, country or district can then be
+ * served without new code.</p>
+ *
+ * <p>In snapshot mode the rows are already sorted by population, so the in-memory
+ * answer is a filtered walk that stops after N matches.</p>
+ */
+public final class TopN {
+
+    private static final Logger LOGGER = Logger.getLogger(TopN.class.getName());
+
+    /** Countries, with their capital's name; no DISTRICT scope. */
+    public static final Entity<Country> COUNTRY = new Entity<>("country", """
+            SELECT c.Code, c.Name, c.Continent, c.Region, c.Population,
+                   c.Capital AS CapitalId, cap.Name AS CapitalName
+            FROM country c
+            LEFT JOIN city cap ON cap.ID = c.Capital
+            """, "ORDER BY c.Population DESC",
+            filters("c.Continent", "c.Region", "c.Name", null),
+            CountryDAO.COUNTRY_ROW, WorldSnapshot::countries);
+
+    /** Cities with their country and district. */
+    public static final Entity<City> CITY = new Entity<>("city", """
+            SELECT ci.Name, co.Name AS Country, ci.District, ci.Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+            """, "ORDER BY ci.Population DESC",
+            filters("co.Continent", "co.Region", "co.Name", "ci.District"),
+            CityDAO.CITY_ROW, WorldSnapshot::cities);
+
+    /** Capital cities with the country they are the capital of. */
+    public static final Entity<Capital> CAPITAL = new Entity<>("capital", """
+            SELECT ci.Name AS Name, co.Name AS Country, ci.Population
+            FROM country co
+            JOIN city ci ON ci.ID = co.Capital
+            """, "ORDER BY ci.Population DESC",
+            filters("co.Continent", "co.Region", "co.Name", "ci.District"),
+            CapitalDAO.CAPITAL_ROW, WorldSnapshot::capitals);
+
+    private final DataSource dataSource;
+    private final WorldSnapshot snapshot;
+    private final QueryCache cache;
+
+    /** Runs the top-N queries against MySQL, borrowing a connection per query. */
+    public TopN(DataSource dataSource) {
+        this(dataSource, QueryCache.disabled());
+    }
+
+    /** Runs the top-N queries against MySQL, answering repeats from {@code cache}. */
+    public TopN(DataSource dataSource, QueryCache cache) {
+        this.dataSource = dataSource;
+        this.snapshot = null;
+        this.cache = cache;
+    }
+
+    /** Answers the top-N queries from an in-memory snapshot. */
+    public TopN(WorldSnapshot snapshot) {
+        this.dataSource = null;
+        this.snapshot = snapshot;
+        this.cache = QueryCache.disabled();
+    }
+
+    /**
+     * The {@code n} most populated rows of {@code entity} within a scope, largest first.
+     *
+     * @param entity COUNTRY, CITY or CAPITAL.
+     * @param scope  Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value  Continent, region, country or district name; ignored for WORLD.
+     * @param n      How many rows to return (at least 1).
+     * @return Up to {@code n} rows; empty if the query fails.
+     * @throws IllegalArgumentException If {@code n < 1} or the entity cannot be filtered by {@code scope}.
+     */
+    public <T> List<T> top(Entity<T> entity, Scope scope, String value, int n) {
+        if (n < 1) throw new IllegalArgumentException("n must be at least 1");
+        String sql = entity.sql(scope);
+
+        if (snapshot != null) return entity.inMemory.top(snapshot, scope, value, n);
+
+        return cache.get(sql, Arrays.asList(value, n), () -> query(entity, sql, scope, value, n));
+    }
+
+    private <T> List<T> query(Entity<T> entity, String sql, Scope scope, String value, int n) {
+        List<T> out = new ArrayList<>(Math.min(n, 256));
+        QueryMetric metric = entity.metrics.get(scope);
+        long start = metric.start();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            int i = 1;
+            if (scope != Scope.WORLD) ps.setString(i++, value);
+            ps.setInt(i, n);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(entity.mapper.map(rs));
+                }
+            }
+            metric.success(start, out);
+        } catch (SQLException e) {
+            metric.failure(start);
+            QueryDeadline.recordFailure(e);
+            LOGGER.log(Level.SEVERE, "Failed to get top " + n + " " + entity.name + " report", e);
+        }
+        return out;
+    }
+
+    private static Map<Scope, String> filters(String continent, String region, String country, String district) {
+        Map<Scope, String> columns = new EnumMap<>(Scope.class);
+        columns.put(Scope.CONTINENT, continent);
+        columns.put(Scope.REGION, region);
+        columns.put(Scope.COUNTRY, country);
+        if (district != null) columns.put(Scope.DISTRICT, district);
+        return columns;
+    }
+
+    /** Same answer from the snapshot, which keeps its rows sorted by population. */
+    @FunctionalInterface
+    interface SnapshotQuery<T> {
+        List<T> top(WorldSnapshot snapshot, Scope scope, String value, Integer limit);
+    }
+
+    /**
+     * A kind of row the engine can rank. The SQL for every supported scope is
+     * built once here, so the same text (and the same cached statement) is used
+     * for every request at that scope.
+     *
+     * @param <T> Model type the rows are mapped to.
+     */
+    public static final class Entity<T> {
+        private final String name;
+        private final Map<Scope, String> sqlByScope = new EnumMap<>(Scope.class);
+        private final Map<Scope, String> listSqlByScope = new EnumMap<>(Scope.class);
+        private final Map<Scope, QueryMetric> metrics;
+        private final RowMapper<T> mapper;
+        private final SnapshotQuery<T> inMemory;
+
+        private Entity(String name, String select, String orderBy, Map<Scope, String> filterColumns,
+                       RowMapper<T> mapper, SnapshotQuery<T> inMemory) {
+            this.name = name;
+            this.mapper = mapper;
+            this.inMemory = inMemory;
+            this.metrics = ScopeMetrics.of(name + ".top");
+
+            listSqlByScope.put(Scope.WORLD, select + orderBy);
+            filterColumns.forEach((scope, column) ->
+                    listSqlByScope.put(scope, select + "WHERE " + column + " = ? " + orderBy));
+            listSqlByScope.forEach((scope, sql) -> sqlByScope.put(scope, sql + " LIMIT ?"));
+        }
+
+        /** Top-N statement: the scope value (unless WORLD), then N. */
+        String sql(Scope scope) {
+            return lookup(sqlByScope, scope);
+        }
+
+        /** Same statement without the LIMIT, for every row in the scope. */
+        String listSql(Scope scope) {
+            return lookup(listSqlByScope, scope);
+        }
+
+        private String lookup(Map<Scope, String> statements, Scope scope) {
+            String sql = statements.get(scope);
+            if (sql == null) {
+                throw new IllegalArgumentException("Cannot rank " + name + " rows by " + scope);
+            }
+            return sql;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.group12.report.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small bounded JDBC connection pool.
+ *
+ * <p>Callers borrow with {@link #getConnection()} and give the connection back by
+ * closing it, so the usual try-with-resources pattern in the DAOs works unchanged.
+ * At most {@code maxSize} connections exist at once; a borrower waits up to
+ * {@code borrowTimeout} for one to be returned before failing.</p>
+ *
+ * <p>Health is handled in three places:</p>
+ * <ul>
+ *     <li>on borrow, a connection that has been idle for a while is checked with
+ *     {@link Connection#isValid(int)} and replaced if the check fails;</li>
+ *     <li>on return, a connection past {@code maxLifetime} is closed instead of reused;</li>
+ *     <li>a background housekeeper closes connections idle longer than
+ *     {@code idleTimeout} or older than {@code maxLifetime}.</li>
+ * </ul>
+ *
+ * <p>Each physical connection also keeps a {@link StatementCache}, so
+ * {@code prepareStatement(sql)} on a borrowed connection reuses the statement
+ * prepared by an earlier borrower instead of preparing it again.</p>
+ *
+ * <p>Statements created on a borrowed connection are attached to the calling
+ * thread's {@link QueryDeadline}, if it has one.</p>
+ */
+public final class ConnectionPool extends BaseDataSource implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /** Connections used more recently than this are trusted without a validation round trip. */
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    /** One permit per connection that may be handed out. */
+    private final Semaphore permits;
+
+    /** Idle connections, most recently returned first (LIFO keeps the hot ones warm). */
+    private final ConcurrentLinkedDeque<Entry> idle = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ScheduledExecutorService housekeeper;
+
+    private ConnectionPool(Builder b) {
+        this.url = b.url;
+        this.user = b.user;
+        this.password = b.password;
+        this.maxSize = b.maxSize;
+        this.borrowTimeoutNanos = b.borrowTimeout.toNanos();
+        this.idleTimeoutNanos = b.idleTimeout.toNanos();
+        this.maxLifetimeNanos = b.maxLifetime.toNanos();
+        this.validationTimeoutSeconds = b.validationTimeoutSeconds;
+        this.statementCacheSize = b.statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodMs = Math.max(1_000, Math.min(b.idleTimeout.toMillis(), b.maxLifetime.toMillis()) / 2);
+        housekeeper.scheduleWithFixedDelay(this::evict, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder(String url, String user, String password) {
+        return new Builder(url, user, password);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout if all are in use.
+     * Closing the returned connection gives it back to the pool.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) throw new SQLException("Connection pool is closed");
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out waiting for a pooled connection (" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            Entry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return proxy(entry);
+                }
+                discard(entry);
+            }
+            return proxy(open());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Number of connections currently borrowed. */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /** Number of open connections waiting in the pool. */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** Number of physical connections currently open, borrowed or idle. */
+    public int getTotalCount() {
+        return total.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** Prepared statements served from a connection's statement cache. */
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    /** Prepared statements that had to be prepared on the server. */
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    /** Closes every idle connection; borrowed ones are closed as they are returned. */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        housekeeper.shutdownNow();
+
+        Entry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+        LOGGER.info(() -> String.format(
+                "Connection pool closed (statement cache: %d hits, %d misses)",
+                getStatementCacheHits(), getStatementCacheMisses()
+        ));
+    }
+
+    // ========================= INTERNALS =========================
+
+    private Entry open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        StatementCache statements = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementHits, statementMisses)
+                : null;
+        return new Entry(physical, statements);
+    }
+
+    private boolean isUsable(Entry entry) {
+        long now = System.nanoTime();
+        if (now - entry.createdAt > maxLifetimeNanos) return false;
+        if (now - entry.lastUsed < VALIDATION_BYPASS_NANOS) return true;
+        try {
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** Called when a borrower closes its proxy. */
+    private void release(Entry entry) {
+        try {
+            boolean reusable = !closed.get()
+                    && !entry.physical.isClosed()
+                    && System.nanoTime() - entry.createdAt <= maxLifetimeNanos;
+
+            if (reusable && !entry.physical.getAutoCommit()) {
+                // Never hand the next borrower someone else's half-finished transaction.
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+
+            if (reusable) {
+                if (entry.statements != null) entry.statements.reset();
+                entry.lastUsed = System.nanoTime();
+                idle.offerFirst(entry);
+            } else {
+                discard(entry);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Dropping pooled connection that failed on return", e);
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(Entry entry) {
+        total.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    /** Housekeeper task: drop idle connections past idleTimeout or maxLifetime. */
+    private void evict() {
+        long now = System.nanoTime();
+        Iterator<Entry> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if ((now - entry.lastUsed > idleTimeoutNanos || now - entry.createdAt > maxLifetimeNanos)
+                    && idle.removeFirstOccurrence(entry)) {
+                discard(entry);
+            }
+        }
+    }
+
+    private Connection proxy(Entry entry) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        // Identity is the proxy's own, so a lease equals itself; only toString is passed on.
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> method.invoke(entry.physical, args);
+                        };
+                    }
+                    String name = method.getName();
+                    if ("close".equals(name) && method.getParameterCount() == 0) {
+                        if (returned.compareAndSet(false, true)) release(entry);
+                        return null;
+                    }
+                    if ("isClosed".equals(name) && method.getParameterCount() == 0) {
+                        return returned.get() || entry.physical.isClosed();
+                    }
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if ("prepareStatement".equals(name) && method.getParameterCount() == 1
+                            && entry.statements != null) {
+                        return QueryDeadline.attach(entry.statements.prepare((String) args[0], (Connection) proxy));
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(entry.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result instanceof Statement st ? QueryDeadline.attach(st) : result;
+                });
+    }
+
+    /** A physical connection, its statement cache, and the timestamps used for lifetime and idle checks. */
+    private static final class Entry {
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.nanoTime();
+        volatile long lastUsed = createdAt;
+
+        Entry(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    // ========================= BUILDER =========================
+
+    /** Pool settings; every value has a default suitable for the report app. */
+    public static final class Builder {
+        private final String url;
+        private final String user;
+        private final String password;
+        private int maxSize = 10;
+        private Duration borrowTimeout = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private int validationTimeoutSeconds = 5;
+        private int statementCacheSize = 64;
+
+        private Builder(String url, String user, String password) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+        }
+
+        /** Upper bound on open connections (borrowed + idle). */
+        public Builder maxSize(int maxSize) {
+            if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /** How long {@link ConnectionPool#getConnection()} waits when the pool is exhausted. */
+        public Builder borrowTimeout(Duration borrowTimeout) {
+            this.borrowTimeout = borrowTimeout;
+            return this;
+        }
+
+        /** Idle connections unused for longer than this are closed by the housekeeper. */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /** Connections older than this are retired even if they are healthy. */
+        public Builder maxLifetime(Duration maxLifetime) {
+            this.maxLifetime = maxLifetime;
+            return this;
+        }
+
+        /** Timeout passed to {@link Connection#isValid(int)} when validating on borrow. */
+        public Builder validationTimeoutSeconds(int seconds) {
+            this.validationTimeoutSeconds = seconds;
+            return this;
+        }
+
+        /** Prepared statements cached per connection; 0 turns the cache off. */
+        public Builder statementCacheSize(int statementCacheSize) {
+            if (statementCacheSize < 0) throw new IllegalArgumentException("statementCacheSize must not be negative");
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        public ConnectionPool build() {
+            return new ConnectionPool(this);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.group12.report.db;
+
+import com.group12.report.data_access.ReportQueries;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks at startup that the indexes the report queries rely on exist, and that
+ * MySQL actually plans the main queries with them.
+ *
+ * <p>{@link #REQUIRED} lists the indexes that {@code world-db/world_indexes.sql}
+ * creates. {@link #missing} reads {@code information_schema.STATISTICS} and
+ * matches them by table and columns (in order, with direction), not by name, so an
+ * equivalent index created under another name counts. {@link #verify} logs a warning
+ * for each missing one or, in {@link Mode#CREATE}, creates it.</p>
+ *
+ * <p>{@link #explain} runs {@code EXPLAIN} for one query of each access path
+ * ({@link #PLANS}) and reports whether the expected indexes were chosen, under
+ * whatever names {@link #matches} found them. The queries are the DAOs' own
+ * statements with sample values, taken from {@link ReportQueries}, so a change to a
+ * DAO query is checked as it runs. On a table as small as {@code country} the
+ * optimizer may still prefer a scan; the plan check says so rather than failing.</p>
+ */
+public final class IndexCheck {
+
+    private static final Logger LOGGER = Logger.getLogger(IndexCheck.class.getName());
+
+    private static final String STATISTICS_SQL = """
+            SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME, COLLATION
+            FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE()
+            ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX
+            """;
+
+    /** What to do about missing indexes. */
+    public enum Mode {
+
+        /** Skip the check. */
+        OFF,
+
+        /** Log each missing index and each plan that does not use its index. */
+        WARN,
+
+        /** As {@link #WARN}, but create missing indexes first. */
+        CREATE;
+
+        /**
+         * Case-insensitive lookup, e.g. for a system property.
+         *
+         * @throws IllegalArgumentException If {@code name} is not a mode.
+         */
+        public static Mode parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * One index a report query relies on.
+     *
+     * @param table   Table it belongs to.
+     * @param name    Name it is created under.
+     * @param columns Key parts in order, each a column name optionally followed by {@code DESC}.
+     */
+    public record Index(String table, String name, List<String> columns) {
+
+        /** The {@code CREATE INDEX} statement, as in {@code world_indexes.sql}. */
+        public String ddl() {
+            List<String> parts = new ArrayList<>();
+            for (String column : columns) {
+                String[] words = column.split(" ");
+                parts.add("`" + words[0] + "`" + (words.length > 1 ? " " + words[1] : ""));
+            }
+            return "CREATE INDEX `" + name + "` ON `" + table + "` (" + String.join(", ", parts) + ")";
+        }
+
+        /** Column names and directions, e.g. {@code population desc,id asc}; reversed flips every direction. */
+        String signature(boolean reversed) {
+            List<String> parts = new ArrayList<>();
+            for (String column : columns) {
+                String[] words = column.toLowerCase(Locale.ROOT).split(" ");
+                boolean desc = words.length > 1 && words[1].equals("desc");
+                parts.add(words[0] + (desc != reversed ? " desc" : " asc"));
+            }
+            return String.join(",", parts);
+        }
+    }
+
+    /**
+     * A query whose plan should use {@code indexes}.
+     *
+     * @param name    Label for the log: the DAO metric it stands for.
+     * @param sql     Query to explain, as the DAO prepares it.
+     * @param params  Sample values for its placeholders, in order.
+     * @param indexes Names (as in {@link #REQUIRED}, or {@code PRIMARY}) of the indexes that
+     *                should each appear as a chosen key.
+     */
+    public record PlanCheck(String name, String sql, List<Object> params, List<String> indexes) {
+        public PlanCheck {
+            params = Collections.unmodifiableList(new ArrayList<>(params));
+            indexes = List.copyOf(indexes);
+        }
+    }
+
+    /**
+     * What {@code EXPLAIN} said about a {@link PlanCheck}.
+     *
+     * @param check    The query explained.
+     * @param expected The check's indexes under the names they exist as.
+     * @param ok       Whether every expected index was chosen.
+     * @param detail   One {@code table: access key (extra)} entry per plan row.
+     */
+    public record Plan(PlanCheck check, List<String> expected, boolean ok, String detail) { }
+
+    /** Every index in {@code world-db/world_indexes.sql}. */
+    public static final List<Index> REQUIRED = List.of(
+            new Index("country", "idx_country_population", List.of("Population DESC", "Code")),
+            new Index("country", "idx_country_continent_population", List.of("Continent", "Population DESC")),
+            new Index("country", "idx_country_region_population", List.of("Region", "Population DESC")),
+            new Index("country", "idx_country_name", List.of("Name")),
+            new Index("city", "idx_city_population", List.of("Population DESC", "ID")),
+            new Index("city", "idx_city_district_population",
+                    List.of("District", "Population DESC", "Name", "CountryCode")),
+            new Index("city", "idx_city_country_population",
+                    List.of("CountryCode", "Population DESC", "Name", "District")),
+            new Index("countrylanguage", "idx_countrylanguage_language",
+                    List.of("Language", "CountryCode", "Percentage"))
+    );
+
+    /** One DAO query per access path, with the indexes its plan should use. */
+    public static final List<PlanCheck> PLANS = List.of(
+            plan("country.top.world", ReportQueries.get(4), "idx_country_population"),
+            plan("country.top.continent", ReportQueries.get(5), "idx_country_continent_population"),
+            plan("country.top.region", ReportQueries.get(6), "idx_country_region_population"),
+            plan("city.page", ReportQueries.cityPage(), "idx_city_population"),
+            plan("city.top.continent", ReportQueries.get(13),
+                    "idx_country_continent_population", "idx_city_country_population"),
+            plan("city.top.region", ReportQueries.get(14),
+                    "idx_country_region_population", "idx_city_country_population"),
+            plan("city.top.country", ReportQueries.get(15), "idx_country_name", "idx_city_country_population"),
+            plan("city.top.district", ReportQueries.get(16), "idx_city_district_population"),
+            plan("capital.top.world", ReportQueries.get(20), "PRIMARY"),
+            plan("capital.top.continent", ReportQueries.get(21), "idx_country_continent_population", "PRIMARY"),
+            plan("capital.top.region", ReportQueries.get(22), "idx_country_region_population", "PRIMARY"),
+            plan("language.speakers", ReportQueries.get(32), "idx_countrylanguage_language")
+    );
+
+    private IndexCheck() { }
+
+    /**
+     * Checks {@link #REQUIRED} and {@link #PLANS} over {@code con}, logging what it
+     * finds; in {@link Mode#CREATE} missing indexes are created first. Failures are
+     * logged, never thrown, so a read-only account only loses the check.
+     *
+     * @return Indexes still missing afterwards.
+     */
+    public static List<Index> verify(Connection con, Mode mode) {
+        if (mode == Mode.OFF) return List.of();
+        Map<String, String> names;
+        try {
+            names = matches(con, REQUIRED);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not read information_schema; index check skipped", e);
+            return List.of();
+        }
+        List<Index> missing = REQUIRED.stream().filter(index -> !names.containsKey(index.name())).toList();
+
+        List<Index> stillMissing = new ArrayList<>();
+        for (Index index : missing) {
+            if (mode == Mode.CREATE && create(con, index)) {
+                names.put(index.name(), index.name());
+                continue;
+            }
+            stillMissing.add(index);
+            LOGGER.warning(() -> "Missing index " + index.name() + " on " + index.table() + " "
+                    + index.columns() + "; run world-db/world_indexes.sql or start with -Dreport.indexes=create");
+        }
+        if (missing.isEmpty()) LOGGER.info(() -> "All " + REQUIRED.size() + " report indexes are present");
+
+        for (PlanCheck check : PLANS) {
+            try {
+                Plan plan = explain(con, check, names);
+                if (plan.ok()) {
+                    LOGGER.info(() -> "Plan " + check.name() + " uses " + plan.expected() + ": " + plan.detail());
+                } else {
+                    LOGGER.warning(() -> "Plan " + check.name() + " does not use " + plan.expected() + ": " + plan.detail());
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, e, () -> "Could not explain " + check.name());
+            }
+        }
+        return stillMissing;
+    }
+
+    /**
+     * The indexes in {@code wanted} with no match in the current schema.
+     *
+     * @throws SQLException If {@code information_schema} cannot be read.
+     */
+    public static List<Index> missing(Connection con, List<Index> wanted) throws SQLException {
+        Map<String, String> names = matches(con, wanted);
+        return wanted.stream().filter(index -> !names.containsKey(index.name())).toList();
+    }
+
+    /**
+     * For each index in {@code wanted} that the current schema has, under its own
+     * name or another, the name it exists as, keyed by {@link Index#name()}. An
+     * index of that name is preferred when several match.
+     *
+     * @throws SQLException If {@code information_schema} cannot be read.
+     */
+    public static Map<String, String> matches(Connection con, List<Index> wanted) throws SQLException {
+        // table -> index name -> signature, built up one key part at a time.
+        Map<String, Map<String, List<String>>> existing = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(STATISTICS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                existing.computeIfAbsent(rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT), t -> new HashMap<>())
+                        .computeIfAbsent(rs.getString("INDEX_NAME"), i -> new ArrayList<>())
+                        .add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT)
+                                + ("D".equals(rs.getString("COLLATION")) ? " desc" : " asc"));
+            }
+        }
+
+        Map<String, String> names = new HashMap<>();
+        for (Index index : wanted) {
+            for (Map.Entry<String, List<String>> candidate : existing.getOrDefault(index.table(), Map.of()).entrySet()) {
+                String signature = String.join(",", candidate.getValue());
+                // InnoDB can read an index backwards, so the fully reversed order serves the same sort.
+                if (!signature.startsWith(index.signature(false)) && !signature.startsWith(index.signature(true))) continue;
+                if (!names.containsKey(index.name()) || candidate.getKey().equals(index.name())) {
+                    names.put(index.name(), candidate.getKey());
+                }
+            }
+        }
+        return names;
+    }
+
+    /** As {@link #explain(Connection, PlanCheck, Map)}, for indexes that exist under their own names. */
+    public static Plan explain(Connection con, PlanCheck check) throws SQLException {
+        return explain(con, check, Map.of());
+    }
+
+    /**
+     * Runs {@code EXPLAIN} for {@code check} and compares the chosen keys with the expected ones.
+     *
+     * @param names The name each expected index exists as (from {@link #matches}); names
+     *              not in the map are expected as they are.
+     */
+    public static Plan explain(Connection con, PlanCheck check, Map<String, String> names) throws SQLException {
+        List<String> expected = check.indexes().stream().map(name -> names.getOrDefault(name, name)).toList();
+        List<String> keys = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN " + check.sql())) {
+            List<Object> params = check.params();
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String key = rs.getString("key");
+                    String extra = rs.getString("Extra");
+                    if (key != null) keys.add(key);
+                    rows.add(rs.getString("table") + ": " + rs.getString("type") + " " + (key == null ? "-" : key)
+                            + (extra == null || extra.isEmpty() ? "" : " (" + extra + ")"));
+                }
+            }
+        }
+        return new Plan(check, expected, keys.containsAll(expected), String.join("; ", rows));
+    }
+
+    private static PlanCheck plan(String name, ReportQueries.Query query, String... indexes) {
+        return new PlanCheck(name, query.sql(), query.params(), List.of(indexes));
+    }
+
+    private static boolean create(Connection con, Index index) {
+        long start = System.nanoTime();
+        try (Statement st = con.createStatement()) {
+            st.execute(index.ddl());
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Could not create index " + index.name());
+            return false;
+        }
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info(() -> "Created index " + index.name() + " on " + index.table() + " in " + ms + " ms");
+        return true;
+    }
+}
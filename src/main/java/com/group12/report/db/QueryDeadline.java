@@ -0,0 +1,141 @@
+package com.group12.report.db;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Time budget for the JDBC work of one report, shared by every statement it runs.
+ *
+ * <p>The report runner opens a deadline on the query's thread before calling the
+ * DAO. Each statement prepared on that thread through a {@link ConnectionPool} or
+ * {@link SharedConnectionDataSource} connection is then {@linkplain #attach attached}:
+ * it gets {@code setQueryTimeout} with the seconds remaining, and is remembered so
+ * that {@link #expire()} (called by the runner's watchdog when time is up) can stop
+ * it with {@link Statement#cancel()}. Once expired, preparing another statement on
+ * that thread fails straight away with a {@link SQLTimeoutException}, so a report
+ * that runs several queries stops at the next one.</p>
+ *
+ * <p>A cancelled statement fails in the DAO like any other SQLException, which the
+ * DAO logs and turns into an empty result; the runner checks {@link #isExpired()}
+ * to report it as timed out instead of as "no data". The DAOs also pass each
+ * failure to {@link #recordFailure}, so a caller holding the deadline can tell a
+ * failed query from an empty one through {@link #failure()}.</p>
+ */
+public final class QueryDeadline implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryDeadline.class.getName());
+
+    private static final ThreadLocal<QueryDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean unlimited;
+    private final Thread owner = Thread.currentThread();
+
+    /** Statements attached so far. Guarded by this. */
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean expired;
+
+    /** First query failure on the owning thread. Guarded by this. */
+    private SQLException failure;
+
+    private QueryDeadline(Duration timeout) {
+        this.unlimited = timeout.isZero();
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * Starts a deadline for the current thread; close it when the report's queries are done.
+     * A zero timeout sets no time limit, but still lets {@link #expire()} cancel the
+     * statements and collects {@link #failure()}.
+     */
+    public static QueryDeadline open(Duration timeout) {
+        QueryDeadline deadline = new QueryDeadline(timeout);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * Applies the current thread's deadline, if any, to a freshly prepared statement.
+     *
+     * @throws SQLTimeoutException If the deadline has already passed.
+     */
+    static <S extends Statement> S attach(S statement) throws SQLException {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline != null) deadline.register(statement);
+        return statement;
+    }
+
+    /**
+     * Notes a query that failed on the current thread, for {@link #failure()}; a no-op
+     * when the thread has no deadline. Called by the DAOs where they turn an
+     * SQLException into an empty result.
+     */
+    public static void recordFailure(SQLException e) {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            synchronized (deadline) {
+                if (deadline.failure == null) deadline.failure = e;
+            }
+        }
+    }
+
+    private void register(Statement statement) throws SQLException {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        synchronized (this) {
+            if (expired || !unlimited && remainingNanos <= 0) {
+                throw new SQLTimeoutException("Report deadline has passed");
+            }
+            statements.add(statement);
+        }
+        if (unlimited) return;
+        // Whole seconds only; round up so a short budget still gets a timeout, and let the watchdog be exact.
+        statement.setQueryTimeout((int) Math.max(1, (remainingNanos + 999_999_999) / 1_000_000_000));
+    }
+
+    /**
+     * Marks the deadline as passed and cancels every attached statement.
+     *
+     * @return false if it had already expired.
+     */
+    public boolean expire() {
+        List<Statement> toCancel;
+        synchronized (this) {
+            if (expired) return false;
+            expired = true;
+            toCancel = new ArrayList<>(statements);
+        }
+        for (Statement statement : toCancel) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Usually the statement has finished and been closed already.
+                LOGGER.log(Level.FINE, "Could not cancel statement", e);
+            }
+        }
+        return true;
+    }
+
+    public synchronized boolean isExpired() {
+        return expired || !unlimited && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /** The first query failure recorded on the owning thread, or null if every query succeeded. */
+    public synchronized SQLException failure() {
+        return failure;
+    }
+
+    /** Detaches the deadline from the thread that opened it. */
+    @Override
+    public void close() {
+        if (Thread.currentThread() == owner && CURRENT.get() == this) CURRENT.remove();
+        synchronized (this) {
+            statements.clear();
+        }
+    }
+}
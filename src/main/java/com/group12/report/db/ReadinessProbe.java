@@ -0,0 +1,83 @@
+package com.group12.report.db;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Waits for the database to accept connections.
+ *
+ * <p>The first attempt is made immediately, so startup costs nothing extra when
+ * MySQL is already up. After a failure the probe backs off exponentially
+ * (doubling up to {@code maxBackoffMs}) with "equal jitter" - a random wait
+ * between half and all of the current backoff - so several containers starting
+ * together do not retry in lockstep. It gives up once {@code deadlineMs} has
+ * passed and rethrows the last error.</p>
+ */
+public final class ReadinessProbe {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadinessProbe.class.getName());
+
+    /** One connection attempt; any {@link SQLException} counts as "not ready yet". */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T call() throws SQLException;
+    }
+
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long deadlineMs;
+    private int attempts;
+
+    /**
+     * @param initialBackoffMs Wait after the first failure (before jitter).
+     * @param maxBackoffMs     Upper bound for the doubling backoff.
+     * @param deadlineMs       Total time budget across all attempts and waits.
+     */
+    public ReadinessProbe(long initialBackoffMs, long maxBackoffMs, long deadlineMs) {
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Calls {@code attempt} until it succeeds or the deadline passes.
+     *
+     * @return Whatever the first successful attempt returned.
+     * @throws SQLException         The last failure, once the deadline has passed.
+     * @throws InterruptedException If interrupted while backing off.
+     */
+    public <T> T await(Attempt<T> attempt) throws SQLException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        long backoff = initialBackoffMs;
+        attempts = 0;
+
+        while (true) {
+            attempts++;
+            try {
+                return attempt.call();
+            } catch (SQLException e) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) throw e;
+
+                long sleepMs = Math.min(remainingMs,
+                        ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                final int failed = attempts;
+                LOGGER.log(Level.WARNING, () -> String.format(
+                        "Failed to connect to database attempt %d: %s (retrying in %d ms)",
+                        failed, e.getMessage(), sleepMs
+                ));
+
+                Thread.sleep(sleepMs);
+                backoff = Math.min(maxBackoffMs, backoff * 2);
+            }
+        }
+    }
+
+    /** Number of attempts made by the last {@link #await(Attempt)} call. */
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,43 @@
+package com.group12.report.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Adapts one caller-owned {@link Connection} to the {@link javax.sql.DataSource}
+ * interface the DAOs borrow from.
+ *
+ * <p>Every {@link #getConnection()} hands out the same connection behind a thin
+ * proxy whose {@code close()} does nothing, so the DAOs can use
+ * try-with-resources without closing a connection they do not own. Statements
+ * it creates are attached to the calling thread's {@link QueryDeadline}.</p>
+ */
+public class SharedConnectionDataSource extends BaseDataSource {
+
+    private final Connection con;
+
+    public SharedConnectionDataSource(Connection con) {
+        this.con = con;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return null;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(con, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result instanceof Statement st ? QueryDeadline.attach(st) : result;
+                });
+    }
+}
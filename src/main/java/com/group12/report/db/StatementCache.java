@@ -0,0 +1,185 @@
+package com.group12.report.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-connection cache of prepared statements, keyed by SQL text.
+ *
+ * <p>With {@code useServerPrepStmts=true} every {@code prepareStatement} is a
+ * COM_STMT_PREPARE round trip where MySQL parses and plans the query, and every
+ * {@code close()} frees it again. The DAOs prepare and close on every call, so
+ * this cache hands them a wrapper instead: closing the wrapper clears the
+ * parameters and keeps the server-side statement for the next borrower of the
+ * same physical connection.</p>
+ *
+ * <p>The least recently used statement is closed once more than {@code capacity}
+ * are cached. If the same SQL is prepared again while the cached copy is still in
+ * use, the second caller gets an ordinary uncached statement. Only one thread uses
+ * a pooled connection at a time, so the locking here is never contended.</p>
+ */
+final class StatementCache {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final Connection physical;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /** Access-ordered, so iteration starts at the least recently used statement. */
+    private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns a cached statement for {@code sql}, preparing it on a miss.
+     *
+     * @param owner Pooled connection proxy reported by {@link PreparedStatement#getConnection()},
+     *              so callers never see the physical connection.
+     */
+    synchronized PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Slot slot = slots.get(sql);
+        if (slot != null && !slot.inUse) {
+            hits.increment();
+            return checkout(slot, owner);
+        }
+
+        misses.increment();
+        PreparedStatement ps = physical.prepareStatement(sql);
+        if (slot != null) {
+            return ps;
+            // Same SQL is already checked out (e.g. nested use); this copy is not cached.
+        }
+
+        slot = new Slot(ps);
+        slots.put(sql, slot);
+        evictOverflow();
+        return checkout(slot, owner);
+    }
+
+    /** Called when the connection goes back to the pool: statements a borrower leaked become free again. */
+    synchronized void reset() {
+        for (Slot slot : slots.values()) {
+            if (slot.inUse) {
+                slot.lease++;
+                slot.inUse = false;
+                clear(slot);
+            }
+        }
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    private PreparedStatement checkout(Slot slot, Connection owner) {
+        slot.inUse = true;
+        final long lease = ++slot.lease;
+
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        // Identity is the proxy's own, so a lease equals itself; only toString is passed on.
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> method.invoke(slot.statement, args);
+                        };
+                    }
+                    String name = method.getName();
+                    boolean noArgs = method.getParameterCount() == 0;
+                    if ("close".equals(name) && noArgs) {
+                        checkin(slot, lease);
+                        return null;
+                    }
+                    if ("isClosed".equals(name) && noArgs) {
+                        return !isLeased(slot, lease) || slot.statement.isClosed();
+                    }
+                    if (!isLeased(slot, lease)) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    if ("getConnection".equals(name) && noArgs) {
+                        return owner;
+                    }
+                    try {
+                        return method.invoke(slot.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private synchronized boolean isLeased(Slot slot, long lease) {
+        return slot.inUse && slot.lease == lease;
+    }
+
+    private synchronized void checkin(Slot slot, long lease) {
+        if (!isLeased(slot, lease)) return;
+        slot.inUse = false;
+        if (slot.evicted || !clear(slot)) {
+            closeQuietly(slot);
+        }
+    }
+
+    /** Resets the statement for reuse, including any deadline's timeout; false if it is no longer usable. */
+    private boolean clear(Slot slot) {
+        try {
+            slot.statement.clearParameters();
+            slot.statement.setQueryTimeout(0);
+            return true;
+        } catch (SQLException e) {
+            slots.values().remove(slot);
+            slot.evicted = true;
+            return false;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Slot> it = slots.values().iterator();
+        while (slots.size() > capacity && it.hasNext()) {
+            Slot eldest = it.next();
+            it.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                closeQuietly(eldest);
+            }
+            // A statement still in use is closed when its borrower closes it.
+        }
+    }
+
+    private static void closeQuietly(Slot slot) {
+        try {
+            slot.statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+
+    /** A cached statement and who currently holds it. */
+    private static final class Slot {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+        long lease;
+
+        Slot(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
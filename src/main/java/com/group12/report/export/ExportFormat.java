@@ -0,0 +1,33 @@
+package com.group12.report.export;
+
+import java.util.Locale;
+
+/** File formats a report can be exported in. */
+public enum ExportFormat {
+
+    /** Header line of column labels, then one comma-separated line per row (RFC 4180 quoting, '\n' line ends). */
+    CSV("csv"),
+
+    /** One JSON object per line, keyed by column label; numeric columns are JSON numbers. */
+    NDJSON("ndjson");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /** File name extension, without the dot. */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Case-insensitive lookup, e.g. for a system property.
+     *
+     * @throws IllegalArgumentException If {@code name} is not a format.
+     */
+    public static ExportFormat parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
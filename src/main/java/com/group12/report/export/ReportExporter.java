@@ -0,0 +1,185 @@
+package com.group12.report.export;
+
+import com.group12.report.data_access.ReportQueries;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports whole reports, every row, from MySQL to files or a stream.
+ *
+ * <p>Each report's statement is run forward-only with a fetch size of
+ * {@value #FETCH_SIZE}. With {@code useCursorFetch=true} on the JDBC URL (as App
+ * sets it) the driver holds one batch of rows at a time. Rows go through a
+ * {@link ResultSetExporter} into a {@value #BUFFER_SIZE}-byte buffered writer,
+ * optionally gzipped. Exporting all 4,079 cities costs about as much memory as
+ * exporting ten.</p>
+ *
+ * <p>Unlike the DAOs, an export does not turn a failed query into an empty
+ * result: the rows already written would pass for a complete report. Each file is
+ * written under a temporary name and moved into place only once its query has
+ * finished, so a failed report leaves the previous file (or none) rather than a
+ * truncated one; the remaining reports are still exported, and the failure is
+ * thrown at the end. On a stream the export stops at the failed report, so a partial
+ * report is never followed by the next one. I/O errors on the output are thrown
+ * straight away, because later reports could not be written either.</p>
+ */
+public final class ReportExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportExporter.class.getName());
+
+    /** Rows fetched per server round trip. */
+    static final int FETCH_SIZE = 1_000;
+
+    /** Output buffer size in bytes (and chars, for the writer). */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+    private final ResultSetExporter exporter;
+    private final boolean gzip;
+
+    /**
+     * @param dataSource Where to run the report queries.
+     * @param format     CSV or NDJSON.
+     * @param gzip       Whether to gzip the output (and add {@code .gz} to file names).
+     */
+    public ReportExporter(DataSource dataSource, ExportFormat format, boolean gzip) {
+        this.dataSource = dataSource;
+        this.exporter = new ResultSetExporter(format);
+        this.gzip = gzip;
+    }
+
+    /**
+     * Writes each report to its own file in {@code directory}, named like
+     * {@code 07-cities-world.csv} (plus {@code .gz} when gzipping). The directory is
+     * created if needed, and existing files are replaced once the new one is complete.
+     *
+     * @return Total rows written.
+     * @throws IOException If a file cannot be created or written, or (after the other
+     *                     reports are done) if any report's query failed.
+     */
+    public long exportTo(Path directory, List<ReportQueries.Query> reports) throws IOException {
+        Files.createDirectories(directory);
+        long total = 0;
+        IOException failed = null;
+        for (ReportQueries.Query report : reports) {
+            Path file = directory.resolve(fileName(report));
+            Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                long rows;
+                try (Writer out = open(Files.newOutputStream(tmp))) {
+                    rows = export(report, out);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                total += rows;
+            } catch (SQLException e) {
+                IOException failure = failure(report, e);
+                if (failed == null) failed = failure;
+                else failed.addSuppressed(failure);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        if (failed != null) throw failed;
+        return total;
+    }
+
+    /**
+     * Writes the reports one after another to {@code stream}, e.g. standard output.
+     * Each CSV report starts with its own header line. The stream is flushed but
+     * not closed; with gzip the output is one gzip member.
+     *
+     * @return Total rows written.
+     * @throws IOException If writing fails, or if a report's query fails; the rows it
+     *                     had written are flushed, nothing follows them, and a gzip
+     *                     member is left without its trailer.
+     */
+    public long exportTo(OutputStream stream, List<ReportQueries.Query> reports) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(new UnclosedOutputStream(stream), BUFFER_SIZE)
+                                   : new UnclosedOutputStream(stream);
+        Writer out = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long total = 0;
+        for (ReportQueries.Query report : reports) {
+            try {
+                total += export(report, out);
+            } catch (SQLException e) {
+                out.flush();
+                stream.flush();
+                throw failure(report, e);
+            }
+        }
+        out.close();
+        stream.flush();
+        return total;
+    }
+
+    /** File name for one report, e.g. {@code 28-population-cities.ndjson.gz}. */
+    public String fileName(ReportQueries.Query report) {
+        return String.format("%02d-%s.%s%s", report.number(), report.name(),
+                exporter.format().extension(), gzip ? ".gz" : "");
+    }
+
+    private Writer open(OutputStream stream) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(stream, BUFFER_SIZE) : stream;
+        return new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private long export(ReportQueries.Query report, Writer out) throws IOException, SQLException {
+        long start = System.nanoTime();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(report.sql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(FETCH_SIZE);
+            List<Object> params = report.params();
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                long rows = exporter.write(rs, out);
+                LOGGER.info(() -> String.format("Exported report %d (%s): %d rows in %d ms",
+                        report.number(), report.name(), rows, (System.nanoTime() - start) / 1_000_000));
+                return rows;
+            }
+        }
+    }
+
+    private static IOException failure(ReportQueries.Query report, SQLException e) {
+        String message = "Failed to export report " + report.number() + " (" + report.name() + ")";
+        LOGGER.log(Level.SEVERE, message, e);
+        return new IOException(message, e);
+    }
+
+    /** Lets the writer chain be closed (finishing any gzip trailer) without closing the caller's stream. */
+    private static final class UnclosedOutputStream extends FilterOutputStream {
+        UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
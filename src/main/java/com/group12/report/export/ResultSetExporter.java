@@ -0,0 +1,179 @@
+package com.group12.report.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Copies a result set to a {@link Writer} as CSV or NDJSON, row by row.
+ *
+ * <p>Each cell is read with {@link ResultSet#getString} and written out
+ * straight away, escaped in place. No model objects are built, and only the
+ * current row is held, so memory stays flat however many rows the cursor
+ * returns. The column labels become the CSV header and the NDJSON keys. They
+ * are escaped once, up front.</p>
+ *
+ * <p>Numbers are written exactly as the driver formats them, e.g. MySQL's
+ * {@code DECIMAL} keeps its scale. A SQL {@code NULL} is an empty CSV field or
+ * a JSON {@code null}.</p>
+ */
+public final class ResultSetExporter {
+
+    private final ExportFormat format;
+
+    public ResultSetExporter(ExportFormat format) {
+        this.format = format;
+    }
+
+    public ExportFormat format() {
+        return format;
+    }
+
+    /**
+     * Writes every remaining row of {@code rs}, plus the CSV header line.
+     * Neither the result set nor the writer is closed or flushed.
+     *
+     * @return Number of rows written.
+     * @throws SQLException If reading the result set fails.
+     * @throws IOException  If writing fails.
+     */
+    public long write(ResultSet rs, Writer out) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] keys = new String[columns];
+        boolean[] numeric = new boolean[columns];
+        for (int i = 0; i < columns; i++) {
+            numeric[i] = isNumeric(meta.getColumnType(i + 1));
+        }
+
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < columns; i++) {
+                if (i > 0) out.write(',');
+                writeCsv(out, meta.getColumnLabel(i + 1));
+            }
+            out.write('\n');
+        } else {
+            for (int i = 0; i < columns; i++) {
+                StringBuilder key = new StringBuilder(i == 0 ? "{" : ",");
+                appendJsonString(key, meta.getColumnLabel(i + 1));
+                keys[i] = key.append(':').toString();
+            }
+        }
+
+        long rows = 0;
+        while (rs.next()) {
+            if (format == ExportFormat.CSV) {
+                for (int i = 0; i < columns; i++) {
+                    if (i > 0) out.write(',');
+                    String value = rs.getString(i + 1);
+                    if (value != null) writeCsv(out, value);
+                }
+                out.write('\n');
+            } else {
+                for (int i = 0; i < columns; i++) {
+                    out.write(keys[i]);
+                    String value = rs.getString(i + 1);
+                    if (value == null) {
+                        out.write("null");
+                    } else if (numeric[i] && isJsonNumber(value)) {
+                        out.write(value);
+                    } else {
+                        writeJsonString(out, value);
+                    }
+                }
+                out.write(columns == 0 ? "{}\n" : "}\n");
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    // ======================== CSV ========================
+
+    /** Writes {@code value}, quoted only if it contains a comma, quote or line break. */
+    static void writeCsv(Writer out, String value) throws IOException {
+        int n = value.length();
+        int i = 0;
+        while (i < n && !needsCsvQuotes(value.charAt(i))) i++;
+        if (i == n) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        int from = 0;
+        for (i = 0; i < n; i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, from, i + 1 - from);
+                out.write('"');
+                from = i + 1;
+            }
+        }
+        out.write(value, from, n - from);
+        out.write('"');
+    }
+
+    private static boolean needsCsvQuotes(char c) {
+        return c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+
+    // ======================== JSON ========================
+
+    /** Writes {@code value} as a quoted JSON string; also used by the HTTP server. */
+    public static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        int n = value.length();
+        int from = 0;
+        for (int i = 0; i < n; i++) {
+            String escape = jsonEscape(value.charAt(i));
+            if (escape != null) {
+                out.write(value, from, i - from);
+                out.write(escape);
+                from = i + 1;
+            }
+        }
+        out.write(value, from, n - from);
+        out.write('"');
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = jsonEscape(c);
+            if (escape != null) sb.append(escape);
+            else sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /** The escape sequence for {@code c}, or null if it can be written as is. */
+    private static String jsonEscape(char c) {
+        return switch (c) {
+            case '"' -> "\\\"";
+            case '\\' -> "\\\\";
+            case '\n' -> "\\n";
+            case '\r' -> "\\r";
+            case '\t' -> "\\t";
+            default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+        };
+    }
+
+    private static boolean isNumeric(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.DECIMAL, Types.NUMERIC, Types.REAL, Types.FLOAT, Types.DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+    /** Guards against values JSON cannot hold as numbers, such as NaN or Infinity. */
+    private static boolean isJsonNumber(String value) {
+        if (value.isEmpty()) return false;
+        char last = value.charAt(value.length() - 1);
+        return last >= '0' && last <= '9';
+    }
+}
@@ -0,0 +1,101 @@
+package com.group12.report.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in microseconds.
+ *
+ * <p>Values below 16 µs get a bucket each; above that every power of two is
+ * split into {@value #SUB_BUCKETS} equal buckets, so a recorded value is off by
+ * at most 1/{@value #SUB_BUCKETS} of itself. Anything beyond 2^36 µs (about 19
+ * hours) lands in the last bucket.</p>
+ *
+ * <p>Counts are kept in several stripes, each its own array, and a thread
+ * always records into the stripe picked by its id. Concurrent queries on
+ * different threads therefore rarely touch the same cache line, and recording
+ * is a single {@code getAndIncrement} with no lock. Reading sums the stripes;
+ * it is not atomic with respect to writers, which is fine for monitoring.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR = 16;
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+    static final int BUCKETS = LINEAR + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private static final int STRIPES =
+            Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new AtomicLongArray(BUCKETS);
+    }
+
+    /** Adds one observation. Negative values count as zero. */
+    public void record(long micros) {
+        stripes[stripe()].getAndIncrement(bucket(Math.max(0, micros)));
+    }
+
+    /**
+     * The value at quantile {@code q} (0..1), in microseconds: the midpoint of
+     * the bucket holding that observation, or 0 if nothing was recorded.
+     */
+    public long percentile(double q) {
+        long[] counts = counts();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) return (lowerBound(b) + upperBound(b)) / 2;
+        }
+        return lowerBound(BUCKETS - 1);
+    }
+
+    /** Observations recorded so far. */
+    public long count() {
+        long total = 0;
+        for (long c : counts()) total += c;
+        return total;
+    }
+
+    private long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes) {
+            for (int b = 0; b < BUCKETS; b++) counts[b] += stripe.get(b);
+        }
+        return counts;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    static int bucket(long micros) {
+        if (micros < LINEAR) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        return (1L << exponent) + ((long) sub << (exponent - SUB_BITS));
+    }
+
+    /** Exclusive upper bound of a bucket. */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket + 1;
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        return lowerBound(bucket) + (1L << (exponent - SUB_BITS));
+    }
+}
@@ -0,0 +1,108 @@
+package com.group12.report.metrics;
+
+import com.group12.report.cache.QueryCache;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, row, byte and error counts for one named DAO query.
+ *
+ * <p>A DAO takes {@link #start()} before borrowing a connection and calls
+ * {@link #success} or {@link #failure} when the query is done. Every counter
+ * is a {@link LongAdder}, {@link LongAccumulator} or {@link LatencyHistogram},
+ * all of which stripe their cells per thread, so recording never blocks and
+ * queries running in parallel do not contend on a shared field.</p>
+ */
+public final class QueryMetric implements QueryMetricMBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    QueryMetric(String name) {
+        this.name = name;
+    }
+
+    /** Timestamp to pass back to {@link #success} or {@link #failure}. */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /** Records a successful query that returned {@code result}: a list of rows, or a single value. */
+    public void success(long start, Object result) {
+        long n = result instanceof Collection<?> c ? c.size() : 1;
+        success(start, n, QueryCache.estimateBytes(result));
+    }
+
+    public void success(long start, long rowCount, long byteCount) {
+        rows.add(rowCount);
+        bytes.add(byteCount);
+        done(start);
+    }
+
+    /** Records a query that failed; its time still counts towards the latency. */
+    public void failure(long start) {
+        errors.increment();
+        done(start);
+    }
+
+    private void done(long start) {
+        long micros = (System.nanoTime() - start) / 1_000;
+        latency.record(micros);
+        maxMicros.accumulate(micros);
+        calls.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.percentile(0.50) / 1_000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.percentile(0.99) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxMicros.get() / 1_000.0;
+    }
+
+    /** One line for the log summary. */
+    public String summary() {
+        return String.format("%-24s %7d calls %4d errors %9d rows %8d KB  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms",
+                name, getCalls(), getErrors(), getRows(), getBytes() / 1024,
+                getP50Millis(), getP99Millis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,28 @@
+package com.group12.report.metrics;
+
+/**
+ * JMX view of one {@link QueryMetric}: what JConsole or VisualVM show under
+ * {@code com.group12.report:type=QueryMetric}.
+ */
+public interface QueryMetricMBean {
+
+    String getName();
+
+    /** Queries that completed, successfully or not. */
+    long getCalls();
+
+    /** Queries that failed with a SQLException. */
+    long getErrors();
+
+    /** Rows returned by the successful queries. */
+    long getRows();
+
+    /** Estimated bytes of the results built from those rows. */
+    long getBytes();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,112 @@
+package com.group12.report.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The set of named {@link QueryMetric}s, published over JMX and as a log summary.
+ *
+ * <p>DAOs look their metrics up once, in static fields, from {@link #shared()}.
+ * After {@link #publishToJmx()} every metric, including ones created later, is
+ * registered with the platform MBean server as
+ * {@code com.group12.report:type=QueryMetric,name=<name>}.
+ * {@link #logEvery} writes {@link #summary()} to the log on a daemon thread.</p>
+ */
+public final class QueryMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryMetrics.class.getName());
+
+    private static final QueryMetrics SHARED = new QueryMetrics();
+
+    static final String DOMAIN = "com.group12.report";
+
+    private final Map<String, QueryMetric> metrics = new ConcurrentHashMap<>();
+    private volatile MBeanServer server;
+
+    /** A registry of its own, separate from the one the DAOs use; handy in tests. */
+    public QueryMetrics() { }
+
+    /** The registry the DAOs record into. */
+    public static QueryMetrics shared() {
+        return SHARED;
+    }
+
+    /** The metric called {@code name}, created on first use. */
+    public QueryMetric metric(String name) {
+        QueryMetric m = metrics.get(name);
+        if (m != null) return m;
+        return metrics.computeIfAbsent(name, n -> {
+            QueryMetric created = new QueryMetric(n);
+            MBeanServer s = server;
+            if (s != null) register(s, created);
+            return created;
+        });
+    }
+
+    /** Every metric, sorted by name. */
+    public List<QueryMetric> all() {
+        List<QueryMetric> out = new ArrayList<>(metrics.values());
+        out.sort(Comparator.comparing(QueryMetric::getName));
+        return out;
+    }
+
+    /** Registers every metric with the platform MBean server, now and as they are created. */
+    public synchronized void publishToJmx() {
+        if (server != null) return;
+        MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+        server = s;
+        for (QueryMetric m : metrics.values()) register(s, m);
+    }
+
+    static ObjectName objectName(String metric) throws JMException {
+        return new ObjectName(DOMAIN + ":type=QueryMetric,name=" + ObjectName.quote(metric));
+    }
+
+    private static void register(MBeanServer s, QueryMetric m) {
+        try {
+            s.registerMBean(m, objectName(m.getName()));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another registry in this JVM (e.g. a test) got there first; keep its bean.
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not register query metric " + m.getName(), e);
+        }
+    }
+
+    /** Multi-line table of the metrics that have seen at least one call. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Query metrics:");
+        for (QueryMetric m : all()) {
+            if (m.getCalls() > 0) sb.append('\n').append(m.summary());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Logs {@link #summary()} every {@code interval} on a daemon thread until
+     * the returned executor is shut down.
+     */
+    public ScheduledExecutorService logEvery(Duration interval) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "query-metrics-log");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = interval.toMillis();
+        timer.scheduleAtFixedRate(() -> LOGGER.info(summary()), ms, ms, TimeUnit.MILLISECONDS);
+        return timer;
+    }
+}
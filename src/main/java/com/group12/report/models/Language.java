@@ -9,6 +9,7 @@ package com.group12.report.models;
  * - The language name.
  * - The total number of speakers worldwide.
  * - The percentage of the world population speaking the language.
+ * - The number of countries where it is spoken.
  */
 public class Language {
 
@@ -21,6 +22,9 @@ public class Language {
     /** The percentage of the total world population that speaks this language. */
     private final double percentOfWorld;
 
+    /** The number of countries that list this language; 0 when not known. */
+    private final int countryCount;
+
     /**
      * Constructs a new Language object.
      *
@@ -29,9 +33,22 @@ public class Language {
      * @param percentOfWorld The percentage of the world population speaking this language.
      */
     public Language(String name, long speakers, double percentOfWorld) {
+        this(name, speakers, percentOfWorld, 0);
+    }
+
+    /**
+     * Constructs a new Language object for the full language ranking.
+     *
+     * @param name           The name of the language.
+     * @param speakers       The total number of speakers (calculated sum).
+     * @param percentOfWorld The percentage of the world population speaking this language.
+     * @param countryCount   The number of countries where the language is spoken.
+     */
+    public Language(String name, long speakers, double percentOfWorld, int countryCount) {
         this.name = name;
         this.speakers = speakers;
         this.percentOfWorld = percentOfWorld;
+        this.countryCount = countryCount;
     }
 
     /**
@@ -60,4 +77,13 @@ public class Language {
     public double getPercentOfWorld() {
         return percentOfWorld;
     }
+
+    /**
+     * Retrieves the number of countries where this language is spoken.
+     *
+     * @return The country count, or 0 if it was not part of the query.
+     */
+    public int getCountryCount() {
+        return countryCount;
+    }
 }
@@ -17,16 +17,40 @@ public class CapitalReport {
 
     private static final Logger LOGGER = Logger.getLogger(CapitalReport.class.getName());
 
+    // Column layout shared by every capital table
+    private static final TableLayout TABLE = TableLayout.builder()
+            .text("Capital", 20).text("Country", 20).number("Population", 15)
+            .build();
+
     // The maximum number of capital records to display in the report
     private final int displayLimit;
 
+    // Buffers each table and writes it in one go
+    private final TableRenderer out;
+
     /**
      * Constructor to initialize the report with a specific display limit.
      *
      * @param displayLimit Maximum number of records to show per report
      */
     public CapitalReport(int displayLimit) {
+        this(displayLimit, ReportOutput.log(LOGGER));
+    }
+
+    /**
+     * Constructor that writes tables to the given output instead of the log.
+     *
+     * @param displayLimit Maximum number of records to show per report
+     * @param output       Where finished tables are written
+     */
+    public CapitalReport(int displayLimit, ReportOutput output) {
         this.displayLimit = displayLimit;
+        this.out = new TableRenderer(output);
+    }
+
+    /** Max rows printed per table; queries can fetch just this many. */
+    public int getDisplayLimit() {
+        return displayLimit;
     }
 
     /**
@@ -35,8 +59,9 @@ public class CapitalReport {
      * @param categoryName The name of the report category (e.g., "World", "Continent", "Region")
      */
     public void printCategory(String categoryName) {
-        LOGGER.info(" ");  // blank line before category
-        LOGGER.info("================   Capital Report   ================");
+        out.line(" ")  // blank line before category
+           .line("================   Capital Report   ================")
+           .flush();
     }
 
     /**
@@ -49,49 +74,39 @@ public class CapitalReport {
      * @param title    A title for the report (e.g., "Top Capital Cities in Asia")
      */
     public void displayCapitals(List<Capital> capitals, String title) {
+        displayCapitals(capitals, capitals == null ? 0 : capitals.size(), title);
+    }
+
+    /**
+     * Same table, for when only the displayed rows were fetched.
+     *
+     * @param capitals Rows to print (at most the display limit is used).
+     * @param total Number of rows the full query would return, for the "Showing top N of M" line.
+     * @param title Section title.
+     */
+    public void displayCapitals(List<Capital> capitals, long total, String title) {
 
         // Check if the list is null or empty
         if (capitals == null || capitals.isEmpty()) {
-            LOGGER.info(() -> "No capital cities to display for: " + title);
+            out.line("No capital cities to display for: " + title).flush();
             return;
         }
 
         // Print the report title
-        LOGGER.info(" ");        // blank line before title
-        LOGGER.info(title);      // print title
-        LOGGER.info(" ");        // blank line after title
+        out.line(" ").line(title).line(" ");
 
-
-        // Print the table header
-        LOGGER.info("+----------------------+----------------------+-----------------+");
-        LOGGER.info(() -> String.format(
-                "| %-20s | %-20s | %15s |",
-                "Capital", "Country", "Population"
-        ));
-        LOGGER.info("+----------------------+----------------------+-----------------+");
-
-        // Loop through and display up to 'displayLimit' number of records
+        // Print the table, up to 'displayLimit' number of records
+        out.begin(TABLE);
         for (int i = 0; i < Math.min(displayLimit, capitals.size()); i++) {
             Capital c = capitals.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-20s | %-20s | %,15d |",
-                    c.getName(),
-                    c.getCountry(),
-                    c.getPopulation()
-            ));
+            out.text(c.getName()).text(c.getCountry()).number(c.getPopulation());
         }
-
-
-        // Print table footer line
-        LOGGER.info("+----------------------+----------------------+-----------------+");
+        out.end();
 
         // Indicate if not all records are displayed
-        if (capitals.size() > displayLimit) {
-            final int total = capitals.size();
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d capital cities.",
-                    displayLimit, total
-            ));
+        if (total > displayLimit) {
+            out.line("Showing top " + displayLimit + " of " + total + " capital cities.");
         }
+        out.flush();
     }
 }
@@ -11,65 +11,76 @@ public class CityReport {
 
     private static final Logger LOGGER = Logger.getLogger(CityReport.class.getName());
 
+    private static final TableLayout TABLE = TableLayout.builder()
+            .text("City", 20).text("Country", 20).text("District", 20).number("Population", 15)
+            .build();
+    // Fixed-width ASCII table layout, built once and shared by every city table.
+
     // Max rows to print in the table (caps console output).
     private final int displayLimit;
 
+    // Buffers each table and writes it in one go.
+    private final TableRenderer out;
+
     // Default constructor: uses a sensible limit for readability.
     public CityReport(int displayLimit) {
+        this(displayLimit, ReportOutput.log(LOGGER));
+    }
+
+    // Same, but tables go to the given output instead of the log.
+    public CityReport(int displayLimit, ReportOutput output) {
         this.displayLimit = displayLimit;
+        this.out = new TableRenderer(output);
+    }
+
+    /** Max rows printed per table; queries can fetch just this many. */
+    public int getDisplayLimit() {
+        return displayLimit;
     }
 
 
     // Overloaded constructor: caller controls how many rows to show.
     public void printCategory(String categoryName) {
-        LOGGER.info(" ");  // blank line before category
-        LOGGER.info("================   City Report   ================");
+        out.line(" ")  // blank line before category
+           .line("================   City Report   ================")
+           .flush();
     }
 
     public void displayCities(List<City> cities, String title) {
+        displayCities(cities, cities == null ? 0 : cities.size(), title);
+    }
+
+    /**
+     * Same table, for when only the displayed rows were fetched.
+     *
+     * @param cities Rows to print (at most the display limit is used).
+     * @param total Number of rows the full query would return, for the "Showing top N of M" line.
+     * @param title Section title.
+     */
+    public void displayCities(List<City> cities, long total, String title) {
         if (cities == null || cities.isEmpty()) {
-            LOGGER.info(() -> "No cities to display for: " + title);
+            out.line("No cities to display for: " + title).flush();
             return;
         }
         // Defensive check: avoids NPE and informs user when there’s no data.
 
-        LOGGER.info(" ");        // blank line before title
-        LOGGER.info(title);      // print title
-        LOGGER.info(" ");        // blank line after title
-
+        out.line(" ").line(title).line(" ");
         // Prints a descriptive title for the current table (e.g., filter context).
 
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
-        LOGGER.info(() -> String.format(
-                "| %-20s | %-20s | %-20s | %15s |",
-                "City", "Country", "District", "Population"
-        ));
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
-        // Fixed-width ASCII table header for consistent alignment in consoles.
-
+        out.begin(TABLE);
         for (int i = 0; i < Math.min(displayLimit, cities.size()); i++) {
             City c = cities.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-20s | %-20s | %-20s | %,15d |",
-                    c.getName(),
-                    c.getCountry(),
-                    c.getDistrict(),
-                    c.getPopulation()
-            ));
+            out.text(c.getName()).text(c.getCountry()).text(c.getDistrict()).number(c.getPopulation());
             // Each row: left-align text columns to 20 chars; right-align population with grouping.
             // Values longer than 20 will be truncated visually by the console width.
         }
+        out.end();
 
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
-        // Table footer line for visual closure.
-
-        if (cities.size() > displayLimit) {
-            final int total = cities.size();
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d cities.",
-                    displayLimit, total
-            ));
+        if (total > displayLimit) {
+            out.line("Showing top " + displayLimit + " of " + total + " cities.");
             // Hint to user that more rows exist than displayed (basic pagination cue).
         }
+        out.flush();
+        // The whole table is written at once.
     }
 }
\ No newline at end of file
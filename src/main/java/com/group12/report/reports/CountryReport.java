@@ -14,20 +14,44 @@ public class CountryReport {
 
     private static final Logger LOGGER = Logger.getLogger(CountryReport.class.getName());
 
+    // Fixed-width ASCII table layout, built once and shared by every country table.
+    private static final TableLayout TABLE = TableLayout.builder()
+            .text("Code", 6).text("Name", 20).text("Continent", 15).text("Region", 25)
+            .number("Population", 15).text("Capital", 20)
+            .build();
+
     // Max rows to print in the table (caps console output).
     private final int displayLimit;
 
+    // Buffers each table and writes it in one go.
+    private final TableRenderer out;
+
     // Overloaded constructor: caller controls how many rows to show.
     public CountryReport(int displayLimit) {
+        this(displayLimit, ReportOutput.log(LOGGER));
+    }
+
+    /**
+     * @param displayLimit Max rows to print per table.
+     * @param output       Where finished tables are written.
+     */
+    public CountryReport(int displayLimit, ReportOutput output) {
         this.displayLimit = displayLimit;
+        this.out = new TableRenderer(output);
+    }
+
+    /** Max rows printed per table; queries can fetch just this many. */
+    public int getDisplayLimit() {
+        return displayLimit;
     }
 
     /**
      * Prints the category header for country reports.
      */
     public void printCategory(String categoryName) {
-        LOGGER.info(" ");  // blank line before category
-        LOGGER.info("================   Country Report   ================");
+        out.line(" ")  // blank line before category
+           .line("================   Country Report   ================")
+           .flush();
     }
 
     /**
@@ -37,50 +61,43 @@ public class CountryReport {
      * @param title     Section title (e.g., “All countries in the world…”).
      */
     public void displayCountries(List<Country> countries, String title) {
+        displayCountries(countries, countries == null ? 0 : countries.size(), title);
+    }
+
+    /**
+     * Same table, for when only the displayed rows were fetched.
+     *
+     * @param countries Rows to print (at most the display limit is used).
+     * @param total Number of rows the full query would return, for the "Showing top N of M" line.
+     * @param title Section title.
+     */
+    public void displayCountries(List<Country> countries, long total, String title) {
 
         if (countries == null || countries.isEmpty()) {
-            LOGGER.info(() -> "No countries to display for: " + title);
+            out.line("No countries to display for: " + title).flush();
             return;
         }
 
         // Prints a descriptive title for the current table (e.g., filter context).
-        LOGGER.info(" ");        // blank line before title
-        LOGGER.info(title);      // print title
-        LOGGER.info(" ");        // blank line after title
-
-
-        // Fixed-width ASCII table header for consistent alignment in consoles.
-        LOGGER.info("+--------+----------------------+-----------------+---------------------------+-----------------+----------------------+");
-        LOGGER.info(() -> String.format(
-                "| %-6s | %-20s | %-15s | %-25s | %15s | %-20s |",
-                "Code", "Name", "Continent", "Region", "Population", "Capital"
-        ));
-        LOGGER.info("+--------+----------------------+-----------------+---------------------------+-----------------+----------------------+");
+        out.line(" ").line(title).line(" ");
 
         // Loop through the list of countries, but only up to the display limit.
+        out.begin(TABLE);
         for (int i = 0; i < Math.min(displayLimit, countries.size()); i++) {
             Country c = countries.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-6s | %-20s | %-15s | %-25s | %,15d | %-20s |",
-                    c.getCode(),
-                    c.getName(),
-                    c.getContinent(),
-                    c.getRegion(),
-                    c.getPopulation(),
-                    c.getCapitalName()
-            ));
+            out.text(c.getCode())
+               .text(c.getName())
+               .text(c.getContinent())
+               .text(c.getRegion())
+               .number(c.getPopulation())
+               .text(c.getCapitalName());
         }
-
-        // Table footer line for visual closure.
-        LOGGER.info("+--------+----------------------+-----------------+---------------------------+-----------------+----------------------+");
+        out.end();
 
         // Hint to user that more rows exist than displayed (basic pagination cue).
-        if (countries.size() > displayLimit) {
-            final int total = countries.size();
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d countries.",
-                    displayLimit, total
-            ));
+        if (total > displayLimit) {
+            out.line("Showing top " + displayLimit + " of " + total + " countries.");
         }
+        out.flush();
     }
 }
@@ -17,15 +17,23 @@ public class LanguageReport {
 
     private static final Logger LOGGER = Logger.getLogger(LanguageReport.class.getName());
 
+    /** Column layout shared by every language table. */
+    private static final TableLayout TABLE = TableLayout.builder()
+            .text("Language", 20).number("Speakers", 15).percent("Percent of World", 20)
+            .build();
+
     /** The maximum number of language records to display in a report. */
     private final int displayLimit;
 
+    /** Buffers each table and writes it in one go. */
+    private final TableRenderer out;
+
     /**
      * Default constructor.
      * Initializes the report to show a maximum of 15 languages.
      */
     public LanguageReport() {
-        this.displayLimit = 15;
+        this(15);
     }
 
     /**
@@ -34,7 +42,18 @@ public class LanguageReport {
      * @param displayLimit The maximum number of rows to display in the output table.
      */
     public LanguageReport(int displayLimit) {
+        this(displayLimit, ReportOutput.log(LOGGER));
+    }
+
+    /**
+     * Constructor that writes tables to the given output instead of the log.
+     *
+     * @param displayLimit The maximum number of rows to display in the output table.
+     * @param output       Where finished tables are written.
+     */
+    public LanguageReport(int displayLimit, ReportOutput output) {
         this.displayLimit = displayLimit;
+        this.out = new TableRenderer(output);
     }
 
     /**
@@ -44,10 +63,10 @@ public class LanguageReport {
      *                     but can be used to show different report categories later).
      */
     public void printCategory(String categoryName) {
-        LOGGER.info(" ");  // blank line before category
-        LOGGER.info("================   Language Report   ================");
-        LOGGER.info(" ");  // blank line after category
-
+        out.line(" ")  // blank line before category
+           .line("================   Language Report   ================")
+           .line(" ")  // blank line after category
+           .flush();
     }
 
 
@@ -71,44 +90,27 @@ public class LanguageReport {
      */
     public void displayLanguages(List<Language> languages, String title) {
         if (languages == null || languages.isEmpty()) {
-            LOGGER.info(() -> "No language data to display for: " + title);
+            out.line("No language data to display for: " + title).flush();
             return;
         }
 
         // Print report title.
-        LOGGER.info(title);      // print title
-        LOGGER.info(" ");        // blank line after title
+        out.line(title).line(" ");
 
-
-        // Print table header with column borders.
-        LOGGER.info("+----------------------+-----------------+----------------------+");
-        LOGGER.info(() -> String.format(
-                "| %-20s | %15s | %20s |",
-                "Language", "Speakers", "Percent of World"
-        ));
-        LOGGER.info("+----------------------+-----------------+----------------------+");
-
-        // Loop through each language and display formatted data.
-        // Only show up to the display limit.
+        // Print the table, only up to the display limit.
+        out.begin(TABLE);
         for (int i = 0; i < Math.min(displayLimit, languages.size()); i++) {
             Language l = languages.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-20s | %,15d | %19.2f%% |",
-                    l.getName(),              // Language name
-                    l.getSpeakers(),          // Total speakers (formatted with commas)
-                    l.getPercentOfWorld()));   // Percentage of world population
+            out.text(l.getName())              // Language name
+               .number(l.getSpeakers())        // Total speakers (formatted with commas)
+               .percent(l.getPercentOfWorld()); // Percentage of world population
         }
-
-        // Print table footer line.
-        LOGGER.info("+----------------------+-----------------+----------------------+");
+        out.end();
 
         // If the data list exceeds the display limit, show an informational message.
         if (languages.size() > displayLimit) {
-            final int total = languages.size();
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d languages.",
-                    displayLimit, total
-            ));
+            out.line("Showing top " + displayLimit + " of " + languages.size() + " languages.");
         }
+        out.flush();
     }
 }
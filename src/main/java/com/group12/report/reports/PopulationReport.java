@@ -14,14 +14,29 @@ public class PopulationReport {
 
     private static final Logger LOGGER = Logger.getLogger(PopulationReport.class.getName());
 
+    // Column layouts, built once: breakdown, district and city tables.
+    private static final TableLayout BREAKDOWN_TABLE = TableLayout.builder()
+            .text("Name", 28).number("Total", 19).number("City", 19).percent("City %", 22)
+            .number("Non-City", 19).percent("Non-City %", 22)
+            .build();
+    private static final TableLayout DISTRICT_TABLE = TableLayout.builder()
+            .text("District", 20).number("Population", 15)
+            .build();
+    private static final TableLayout CITY_TABLE = TableLayout.builder()
+            .text("City", 20).text("Country", 20).text("District", 20).number("Population", 15)
+            .build();
+
     // The number of rows to display in reports (default: 15)
     private final int displayLimit;
 
+    // Buffers each table and writes it in one go.
+    private final TableRenderer out;
+
     /**
      * Default constructor that sets display limit to 15.
      */
     public PopulationReport() {
-        this.displayLimit = 15;
+        this(15);
     }
 
     /**
@@ -29,7 +44,22 @@ public class PopulationReport {
      * @param displayLimit Number of entries to show.
      */
     public PopulationReport(int displayLimit) {
+        this(displayLimit, ReportOutput.log(LOGGER));
+    }
+
+    /**
+     * Constructor that writes tables to the given output instead of the log.
+     * @param displayLimit Number of entries to show.
+     * @param output Where finished tables are written.
+     */
+    public PopulationReport(int displayLimit, ReportOutput output) {
         this.displayLimit = displayLimit;
+        this.out = new TableRenderer(output);
+    }
+
+    /** Max rows printed per table; queries can fetch just this many. */
+    public int getDisplayLimit() {
+        return displayLimit;
     }
 
     /**
@@ -38,8 +68,9 @@ public class PopulationReport {
      */
     @SuppressWarnings("PMD.SystemPrintln")
     public void printCategory(String categoryName) {
-        LOGGER.info(" ");  // blank line before category
-        LOGGER.info("================   Population Report   ================");
+        out.line(" ")  // blank line before category
+           .line("================   Population Report   ================")
+           .flush();
     }
 
     /**
@@ -49,43 +80,29 @@ public class PopulationReport {
      */
     public void displayPopulations(List<Population> populations, String title) {
         if (populations == null || populations.isEmpty()) {
-            LOGGER.info(() -> "No population data to display for: " + title);
+            out.line("No population data to display for: " + title).flush();
             return;
         }
 
         // Correct title spacing
-        LOGGER.info(" ");
-        LOGGER.info(title);
-        LOGGER.info(" ");
-
-        LOGGER.info("+------------------------------+---------------------+---------------------+------------------------+---------------------+------------------------+");
-        LOGGER.info(() -> String.format(
-                "| %-28s | %19s | %19s | %22s | %19s | %22s |",
-                "Name", "Total", "City", "City %", "Non-City", "Non-City %"
-        ));
-        LOGGER.info("+------------------------------+---------------------+---------------------+------------------------+---------------------+------------------------+");
+        out.line(" ").line(title).line(" ");
 
+        out.begin(BREAKDOWN_TABLE);
         for (int i = 0; i < Math.min(displayLimit, populations.size()); i++) {
             Population p = populations.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-28s | %,19d | %,19d | %21.2f%% | %,19d | %21.2f%% |",
-                    p.getName(),
-                    p.getTotalPopulation(),
-                    p.getCityPopulation(),
-                    p.getCityPopulationPercent(),
-                    p.getNonCityPopulation(),
-                    p.getNonCityPopulationPercent()
-            ));
+            out.text(p.getName())
+               .number(p.getTotalPopulation())
+               .number(p.getCityPopulation())
+               .percent(p.getCityPopulationPercent())
+               .number(p.getNonCityPopulation())
+               .percent(p.getNonCityPopulationPercent());
         }
-
-        LOGGER.info("+------------------------------+---------------------+---------------------+------------------------+---------------------+------------------------+");
+        out.end();
 
         if (populations.size() > displayLimit) {
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d entries.",
-                    displayLimit, populations.size()
-            ));
+            out.line("Showing top " + displayLimit + " of " + populations.size() + " entries.");
         }
+        out.flush();
     }
 
 
@@ -98,37 +115,23 @@ public class PopulationReport {
      */
     public void displayDistrictPopulations(List<Population> districts, String title) {
         if (districts == null || districts.isEmpty()) {
-            LOGGER.info(() -> "No district population data to display for: " + title);
+            out.line("No district population data to display for: " + title).flush();
             return;
         }
 
-        LOGGER.info(" ");
-        LOGGER.info(title);
-        LOGGER.info(" ");
-
-        LOGGER.info("+----------------------+-----------------+");
-        LOGGER.info(() -> String.format(
-                "| %-20s | %15s |",
-                "District", "Population"
-        ));
-        LOGGER.info("+----------------------+-----------------+");
+        out.line(" ").line(title).line(" ");
 
+        out.begin(DISTRICT_TABLE);
         for (int i = 0; i < Math.min(displayLimit, districts.size()); i++) {
             Population p = districts.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-20s | %,15d |",
-                    p.getDistrict(), p.getTotalPopulation()
-            ));
+            out.text(p.getDistrict()).number(p.getTotalPopulation());
         }
-
-        LOGGER.info("+----------------------+-----------------+");
+        out.end();
 
         if (districts.size() > displayLimit) {
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d districts.",
-                    displayLimit, districts.size()
-            ));
+            out.line("Showing top " + displayLimit + " of " + districts.size() + " districts.");
         }
+        out.flush();
     }
 
 
@@ -139,37 +142,34 @@ public class PopulationReport {
      * @param title Title of the report section.
      */
     public void displayCityPopulations(List<Population> cities, String title) {
+        displayCityPopulations(cities, cities == null ? 0 : cities.size(), title);
+    }
+
+    /**
+     * Same table, for when only the displayed rows were fetched.
+     *
+     * @param cities Rows to print (at most the display limit is used).
+     * @param total Number of rows the full query would return, for the "Showing top N of M" line.
+     * @param title Section title.
+     */
+    public void displayCityPopulations(List<Population> cities, long total, String title) {
         if (cities == null || cities.isEmpty()) {
-            LOGGER.info(() -> "No city population data to display for: " + title);
+            out.line("No city population data to display for: " + title).flush();
             return;
         }
 
-        LOGGER.info(" ");
-        LOGGER.info(title);
-        LOGGER.info(" ");
-
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
-        LOGGER.info(() -> String.format(
-                "| %-20s | %-20s | %-20s | %15s |",
-                "City", "Country", "District", "Population"
-        ));
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
+        out.line(" ").line(title).line(" ");
 
+        out.begin(CITY_TABLE);
         for (int i = 0; i < Math.min(displayLimit, cities.size()); i++) {
             Population p = cities.get(i);
-            LOGGER.info(() -> String.format(
-                    "| %-20s | %-20s | %-20s | %,15d |",
-                    p.getName(), p.getCountry(), p.getDistrict(), p.getTotalPopulation()
-            ));
+            out.text(p.getName()).text(p.getCountry()).text(p.getDistrict()).number(p.getTotalPopulation());
         }
+        out.end();
 
-        LOGGER.info("+----------------------+----------------------+----------------------+-----------------+");
-
-        if (cities.size() > displayLimit) {
-            LOGGER.info(() -> String.format(
-                    "Showing top %d of %d cities.",
-                    displayLimit, cities.size()
-            ));
+        if (total > displayLimit) {
+            out.line("Showing top " + displayLimit + " of " + total + " cities.");
         }
+        out.flush();
     }
 }
@@ -0,0 +1,48 @@
+package com.group12.report.reports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Where a rendered block of report text goes. A block is a whole table (or a
+ * heading), so each destination is written once per table rather than once per row.
+ */
+@FunctionalInterface
+public interface ReportOutput {
+
+    /**
+     * Writes one block of text. The sequence is only valid during the call;
+     * implementations that keep it must copy it.
+     */
+    void write(CharSequence text);
+
+    /** One {@code INFO} record per block, the way reports have always been shown. */
+    static ReportOutput log(Logger logger) {
+        return text -> {
+            if (!logger.isLoggable(Level.INFO)) return;
+            int end = text.length();
+            if (end > 0 && text.charAt(end - 1) == '\n') end--;
+            logger.info(text.subSequence(0, end).toString());
+        };
+    }
+
+    /**
+     * Appends each block to {@code writer} and flushes it, so a table reaches the
+     * underlying stream in one write when the writer is buffered.
+     *
+     * @throws UncheckedIOException From {@link #write} if the writer fails.
+     */
+    static ReportOutput to(Writer writer) {
+        return text -> {
+            try {
+                writer.append(text);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.group12.report.reports;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column widths and alignment for one fixed-width ASCII table.
+ *
+ * <p>The ruler line and the header line never change, so they are built once
+ * here; {@link TableRenderer} copies them into its buffer and pads each cell to
+ * the stored width. Layouts are immutable and shared as constants by the reports.</p>
+ */
+public final class TableLayout {
+
+    /** How a column's cells are written. */
+    enum Kind {
+        /** Left-aligned text, like {@code %-20s}. */
+        TEXT,
+        /** Right-aligned integer with thousands separators, like {@code %,15d}. */
+        NUMBER,
+        /** Right-aligned two-decimal value followed by '%', like {@code %21.2f%%}. */
+        PERCENT
+    }
+
+    final Kind[] kinds;
+    final int[] widths;
+    final String rule;
+    final String header;
+
+    private TableLayout(List<Kind> kinds, List<Integer> widths, List<String> headings) {
+        int n = kinds.size();
+        this.kinds = kinds.toArray(new Kind[0]);
+        this.widths = new int[n];
+
+        StringBuilder rule = new StringBuilder("+");
+        StringBuilder header = new StringBuilder("|");
+        for (int i = 0; i < n; i++) {
+            this.widths[i] = widths.get(i);
+            rule.append("-".repeat(this.widths[i] + 2)).append('+');
+            header.append(' ');
+            if (this.kinds[i] == Kind.TEXT) {
+                TableRenderer.padRight(header, headings.get(i), this.widths[i]);
+            } else {
+                TableRenderer.padLeft(header, headings.get(i), this.widths[i]);
+            }
+            header.append(" |");
+        }
+        this.rule = rule.toString();
+        this.header = header.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    int columns() {
+        return kinds.length;
+    }
+
+    /** Adds columns left to right. */
+    public static final class Builder {
+        private final List<Kind> kinds = new ArrayList<>();
+        private final List<Integer> widths = new ArrayList<>();
+        private final List<String> headings = new ArrayList<>();
+
+        public Builder text(String heading, int width) {
+            return add(Kind.TEXT, heading, width);
+        }
+
+        public Builder number(String heading, int width) {
+            return add(Kind.NUMBER, heading, width);
+        }
+
+        /** {@code width} includes the trailing '%'. */
+        public Builder percent(String heading, int width) {
+            return add(Kind.PERCENT, heading, width);
+        }
+
+        public TableLayout build() {
+            if (kinds.isEmpty()) throw new IllegalStateException("A table needs at least one column");
+            return new TableLayout(kinds, widths, headings);
+        }
+
+        private Builder add(Kind kind, String heading, int width) {
+            kinds.add(kind);
+            widths.add(width);
+            headings.add(heading);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.group12.report.runner;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * The rows a report will actually print, plus how many the full query would have returned.
+ *
+ * <p>Reports only show their {@code displayLimit} rows, so there is no point pulling
+ * thousands of rows over the wire to print ten. {@link #fetch} pushes the limit into the
+ * query ({@code LIMIT ?}) and gets the "of M" total from a separate {@code COUNT(*)}.
+ * When fewer rows than the limit come back, that already is the total and the count
+ * query is skipped.</p>
+ *
+ * @param rows  At most {@code limit} rows, in report order.
+ * @param total Number of rows the unlimited query would return.
+ * @param <T>   Model type of the rows.
+ */
+public record LimitedRows<T>(List<T> rows, long total) {
+
+    /**
+     * @param limit Row budget of the consumer (the report's display limit).
+     * @param query Runs the report query with the given {@code LIMIT}.
+     * @param count Counts the rows the unlimited query would return.
+     */
+    public static <T> LimitedRows<T> fetch(int limit, IntFunction<List<T>> query, LongSupplier count) {
+        List<T> rows = query.apply(limit);
+        if (rows.size() < limit) {
+            return new LimitedRows<>(rows, rows.size());
+        }
+        // A failed count comes back as 0; never claim fewer rows than were fetched.
+        return new LimitedRows<>(rows, Math.max(rows.size(), count.getAsLong()));
+    }
+}
@@ -0,0 +1,204 @@
+package com.group12.report.runner;
+
+import com.group12.report.db.QueryDeadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs report queries concurrently and prints the results in the order they were added.
+ *
+ * <p>Each report is split into a query (blocking JDBC work) and a render step
+ * (console output). Queries start on a virtual thread as soon as they are added,
+ * with at most {@code maxConcurrency} running at once so the connection pool is
+ * never oversubscribed. {@link #run()} then renders each result on the calling
+ * thread in the original numbered order, starting as soon as the first one is ready.</p>
+ *
+ * <p>Total wall-clock time is therefore close to the slowest query rather than
+ * the sum of all of them.</p>
+ *
+ * <p>With a timeout, each query runs under a {@link QueryDeadline} that starts when
+ * it gets a slot. A watchdog thread expires the deadline when time is up, which
+ * cancels the statement in flight, and the report is handed to the
+ * {@code timedOut} callback instead of its render step. The remaining reports
+ * carry on; the slot is freed once the cancelled query returns.</p>
+ */
+public final class ReportRunner implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportRunner.class.getName());
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots;
+    private final Duration timeout;
+    private final Consumer<String> timedOut;
+    private final ScheduledExecutorService watchdog;
+    private final List<Step<?>> steps = new ArrayList<>();
+    private int queryCount;
+    private int timeoutCount;
+
+    /**
+     * @param maxConcurrency Maximum number of queries in flight at once (at least 1).
+     */
+    public ReportRunner(int maxConcurrency) {
+        this(maxConcurrency, Duration.ZERO, null);
+    }
+
+    /**
+     * @param maxConcurrency Maximum number of queries in flight at once (at least 1).
+     * @param timeout        Time each query may run once started; zero for no limit.
+     * @param timedOut       Shows a timed-out report, given its title; called on the thread
+     *                       that calls {@link #run()}. Null just logs a warning.
+     */
+    public ReportRunner(int maxConcurrency, Duration timeout, Consumer<String> timedOut) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        if (timeout.isNegative()) throw new IllegalArgumentException("timeout must not be negative");
+        this.slots = new Semaphore(maxConcurrency);
+        this.timeout = timeout;
+        this.timedOut = timedOut != null ? timedOut : title -> { };
+        this.watchdog = timeout.isZero() ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "report-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Adds a report: the query starts straight away, the render step runs later in order.
+     *
+     * @param title  Report title, used in error messages.
+     * @param query  Blocking call that produces the report data.
+     * @param render Prints the data; always called on the thread that calls {@link #run()}.
+     */
+    public <T> void add(String title, Supplier<T> query, Consumer<T> render) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                result.complete(watchdog == null ? query.get() : runWithDeadline(query, result));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                slots.release();
+            }
+        });
+        steps.add(new Step<>(title, result, render));
+        queryCount++;
+    }
+
+    /**
+     * Runs {@code query} under a deadline. When it passes, the watchdog cancels the
+     * statement and fails {@code result} at once, without waiting for the query to return.
+     */
+    private <T> T runWithDeadline(Supplier<T> query, CompletableFuture<T> result) throws TimeoutException {
+        try (QueryDeadline deadline = QueryDeadline.open(timeout)) {
+            ScheduledFuture<?> alarm = watchdog.schedule(() -> {
+                deadline.expire();
+                result.completeExceptionally(timedOutError());
+            }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            try {
+                T value = query.get();
+                // A cancelled query usually comes back as an empty result, not an exception.
+                if (deadline.isExpired()) throw timedOutError();
+                return value;
+            } finally {
+                alarm.cancel(false);
+            }
+        }
+    }
+
+    private TimeoutException timedOutError() {
+        return new TimeoutException("timed out after " + timeout.toMillis() + " ms");
+    }
+
+    /**
+     * Adds an output-only step, such as a category header, at this position in the order.
+     */
+    public void add(Runnable render) {
+        steps.add(new Step<Void>(null, CompletableFuture.completedFuture(null), ignored -> render.run()));
+    }
+
+    /**
+     * Waits for each step in order and renders it. A failed query is logged and
+     * skipped, and a timed-out one is passed to the {@code timedOut} callback;
+     * the remaining reports still print.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        for (Step<?> step : steps) {
+            if (!step.render()) {
+                timeoutCount++;
+                timedOut.accept(step.title);
+            }
+        }
+        steps.clear();
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        final int reports = queryCount;
+        final int timeouts = timeoutCount;
+        LOGGER.info(() -> timeouts == 0
+                ? String.format("Ran %d reports in %d ms", reports, elapsedMs)
+                : String.format("Ran %d reports in %d ms (%d timed out)", reports, elapsedMs, timeouts));
+        queryCount = 0;
+        timeoutCount = 0;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        if (watchdog != null) watchdog.shutdownNow();
+    }
+
+    /** One queued query plus the render step waiting for its result. */
+    private static final class Step<T> {
+        private final String title;
+        private final Future<T> future;
+        private final Consumer<T> render;
+
+        Step(String title, Future<T> future, Consumer<T> render) {
+            this.title = title;
+            this.future = future;
+            this.render = render;
+        }
+
+        /** Renders the result once it is ready; false if the query timed out. */
+        boolean render() {
+            T result;
+            try {
+                result = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(Level.WARNING, () -> "Interrupted while waiting for: " + title);
+                return true;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException t) {
+                    LOGGER.warning(() -> "Report " + t.getMessage() + ": " + title);
+                    return false;
+                }
+                LOGGER.log(Level.SEVERE, e.getCause(), () -> "Report failed: " + title);
+                return true;
+            }
+            render.accept(result);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.group12.report.server;
+
+import com.group12.report.data_access.Page;
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.group12.report.export.ResultSetExporter.writeJsonString;
+
+/**
+ * Writes report rows as JSON, straight to the response writer.
+ *
+ * <p>Each model type has a fixed set of keys, named after its getters. Population
+ * rows only carry the fields their report fills in, so a district row has
+ * {@code district} and {@code population} and a breakdown row adds the city and
+ * non-city figures.</p>
+ */
+final class JsonRows {
+
+    private JsonRows() { }
+
+    /** Writes a JSON array, one row at a time as the stream yields them; returns the row count. */
+    static long writeArray(Writer out, Stream<?> rows) throws IOException {
+        long count = writeElements(out, rows);
+        endArray(out, count);
+        return count;
+    }
+
+    /**
+     * Writes the opening bracket and every row the stream yields, leaving the array
+     * open so the caller can decide whether the rows are complete; returns the row count.
+     */
+    static long writeElements(Writer out, Stream<?> rows) throws IOException {
+        long count = 0;
+        out.write('[');
+        for (Iterator<?> it = rows.iterator(); it.hasNext(); ) {
+            if (count++ > 0) out.write(',');
+            out.write('\n');
+            writeRow(out, it.next());
+        }
+        return count;
+    }
+
+    /** Closes an array that {@link #writeElements} wrote {@code count} rows into. */
+    static void endArray(Writer out, long count) throws IOException {
+        out.write(count > 0 ? "\n]\n" : "]\n");
+    }
+
+    /** {@code {"rows": [...], "next": token}}, with a null token on the last page. */
+    static void writePage(Writer out, Page<?> page) throws IOException {
+        out.write("{\"rows\":");
+        writeArray(out, page.rows().stream());
+        out.write(",\"next\":");
+        if (page.next() == null) out.write("null");
+        else writeJsonString(out, page.next());
+        out.write("}\n");
+    }
+
+    static void writeRow(Writer out, Object row) throws IOException {
+        if (row instanceof String s) {
+            writeJsonString(out, s);
+            return;
+        }
+        Fields f = new Fields(out);
+        switch (row) {
+            case Country c -> f.text("code", c.getCode()).text("name", c.getName())
+                    .text("continent", c.getContinent()).text("region", c.getRegion())
+                    .number("population", c.getPopulation()).text("capital", c.getCapitalName());
+            case City c -> f.text("name", c.getName()).text("country", c.getCountry())
+                    .text("district", c.getDistrict()).number("population", c.getPopulation());
+            case Capital c -> f.text("name", c.getName()).text("country", c.getCountry())
+                    .number("population", c.getPopulation());
+            case Population p -> f.optionalText("name", p.getName()).optionalText("country", p.getCountry())
+                    .optionalText("district", p.getDistrict()).number("population", p.getTotalPopulation())
+                    .optionalNumber("cityPopulation", p.getCityPopulation())
+                    .optionalNumber("cityPopulationPercent", p.getCityPopulationPercent())
+                    .optionalNumber("nonCityPopulation", p.getNonCityPopulation())
+                    .optionalNumber("nonCityPopulationPercent", p.getNonCityPopulationPercent());
+            case Language l -> f.text("name", l.getName()).number("speakers", l.getSpeakers())
+                    .number("percentOfWorld", l.getPercentOfWorld()).number("countries", l.getCountryCount());
+            default -> throw new IllegalArgumentException("No JSON form for " + row.getClass().getSimpleName());
+        }
+        f.end();
+    }
+
+    /** {@code {"key": value}} for a single value, such as a count or an error message. */
+    static void writeObject(Writer out, String key, Object value) throws IOException {
+        Fields f = new Fields(out);
+        if (value instanceof Number n) f.number(key, n);
+        else f.text(key, String.valueOf(value));
+        f.end();
+        out.write('\n');
+    }
+
+    /** Writes the members of one object, adding the braces and commas. */
+    private static final class Fields {
+        private final Writer out;
+        private boolean first = true;
+
+        Fields(Writer out) throws IOException {
+            this.out = out;
+            out.write('{');
+        }
+
+        private void key(String key) throws IOException {
+            if (!first) out.write(',');
+            first = false;
+            writeJsonString(out, key);
+            out.write(':');
+        }
+
+        Fields text(String key, String value) throws IOException {
+            key(key);
+            if (value == null) out.write("null");
+            else writeJsonString(out, value);
+            return this;
+        }
+
+        Fields number(String key, Number value) throws IOException {
+            key(key);
+            out.write(value.toString());
+            return this;
+        }
+
+        Fields optionalText(String key, String value) throws IOException {
+            return value == null ? this : text(key, value);
+        }
+
+        Fields optionalNumber(String key, Number value) throws IOException {
+            return value == null ? this : number(key, value);
+        }
+
+        void end() throws IOException {
+            out.write('}');
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.group12.report.server;
+
+import com.group12.report.snapshot.Scope;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Query-string parameters of one request. Every accessor throws
+ * {@link IllegalArgumentException} on a bad value, which the server sends back as a 400.
+ */
+final class Params {
+
+    /** Scope levels that can be given as a parameter, e.g. {@code ?continent=Asia}. */
+    private static final List<Scope> FILTERS = List.of(Scope.CONTINENT, Scope.REGION, Scope.COUNTRY, Scope.DISTRICT);
+
+    private final Map<String, String> values;
+    private final Scope scope;
+
+    private Params(Map<String, String> values) {
+        this.values = values;
+
+        Scope found = Scope.WORLD;
+        for (Scope s : FILTERS) {
+            if (values.containsKey(name(s))) {
+                if (found != Scope.WORLD) {
+                    throw new IllegalArgumentException("Give at most one of continent, region, country and district");
+                }
+                found = s;
+            }
+        }
+        this.scope = found;
+    }
+
+    /** Parses a raw (still percent-encoded) query string; null means no parameters. */
+    static Params parse(String rawQuery) {
+        Map<String, String> values = new HashMap<>();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String key = decode(eq < 0 ? pair : pair.substring(0, eq));
+                String value = eq < 0 ? "" : decode(pair.substring(eq + 1));
+                if (values.putIfAbsent(key, value) != null) {
+                    throw new IllegalArgumentException("Parameter " + key + " given more than once");
+                }
+            }
+        }
+        return new Params(values);
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    private static String name(Scope scope) {
+        return scope.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** The level named by the scope parameter, or WORLD if there is none. */
+    Scope scope() {
+        return scope;
+    }
+
+    /** The continent, region, country or district name; null for WORLD. */
+    String scopeValue() {
+        return scope == Scope.WORLD ? null : values.get(name(scope));
+    }
+
+    /** {@code limit} as a positive number, or null when absent. */
+    Integer limit() {
+        if (!values.containsKey("limit")) return null;
+        int limit = integer("limit", 0);
+        if (limit < 1) throw new IllegalArgumentException("limit must be at least 1");
+        return limit;
+    }
+
+    /** A page token; null when absent or empty, i.e. the first page. */
+    String token(String key) {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    int integer(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a whole number, not \"" + value + "\"");
+        }
+    }
+
+    String required(String key) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) throw new IllegalArgumentException("Missing parameter " + key);
+        return value;
+    }
+
+    /** A comma-separated parameter as a list; empty when absent. */
+    List<String> list(String key) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) return List.of();
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,335 @@
+package com.group12.report.server;
+
+import com.group12.report.data_access.CapitalDAO;
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.data_access.CountryDAO;
+import com.group12.report.data_access.Page;
+import com.group12.report.data_access.ReportDaos;
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.snapshot.Scope;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Serves every report as JSON over HTTP, for dashboards that poll reports
+ * instead of running the console app.
+ *
+ * <p>Built on the JDK's {@code com.sun.net.httpserver}; each request runs on its
+ * own virtual thread, and the DAOs borrow pooled connections (or read a snapshot)
+ * exactly as they do for the console reports, so the result cache and statement
+ * cache are shared by all requests. Responses are sent chunked and written row
+ * by row; the unlimited city lists come straight from a database cursor.</p>
+ *
+ * <p>Endpoints (all {@code GET}; scope is at most one of {@code continent},
+ * {@code region}, {@code country} or {@code district}):</p>
+ * <ul>
+ *     <li>{@code /countries}, {@code /cities}, {@code /capitals} - ordered by population,
+ *     optionally scoped, {@code limit} for the top N;</li>
+ *     <li>{@code /countries/count}, {@code /cities/count}, {@code /capitals/count};</li>
+ *     <li>{@code /countries/page}, {@code /cities/page}, {@code /capitals/page} - the whole
+ *     world list a page at a time: {@code limit} rows (default 100) after the {@code after}
+ *     token, answered as {@code {"rows": [...], "next": token}};</li>
+ *     <li>{@code /population/world}, {@code /population/continent}, {@code /population/region},
+ *     {@code /population/country} - totals with the city / non-city breakdown;</li>
+ *     <li>{@code /population/district?country=}, {@code /population/city?limit=};</li>
+ *     <li>{@code /languages?name=English,Chinese}, or the ranking with {@code offset} and {@code limit}.</li>
+ * </ul>
+ *
+ * <p>The DAOs are looked up once per request, so when the snapshot behind them is
+ * refreshed a request in flight finishes on the one it started with.</p>
+ *
+ * <p>Each request's queries share one {@link QueryDeadline}, which also collects
+ * their failures. A bad parameter is a 400, an unknown path a 404, a request that
+ * runs out of time a 504, one that cannot get a database connection a 503 and any
+ * other failed query a 500, each with an {@code {"error": ...}} body. A streamed list
+ * whose cursor fails after rows have gone out cannot change its status any more, so
+ * the response is cut off without closing the array or the chunked body.</p>
+ */
+public final class ReportServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportServer.class.getName());
+
+    private static final int BUFFER_SIZE = 1 << 14;
+
+    /** Rows per page when a page request gives no limit. */
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Answers one endpoint: a stream of rows, a page, or a single count. */
+    @FunctionalInterface
+    private interface Route {
+        Object answer(ReportDaos daos, Params params);
+    }
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final Supplier<ReportDaos> daos;
+    private final Duration timeout;
+    private final Map<String, Route> routes = new TreeMap<>();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private ReportServer(HttpServer http, ExecutorService executor, Supplier<ReportDaos> daos, Duration timeout) {
+        this.http = http;
+        this.executor = executor;
+        this.daos = daos;
+        this.timeout = timeout;
+
+        routes.put("/", (d, p) -> routes.keySet().stream());
+        routes.put("/countries", ReportServer::countries);
+        routes.put("/countries/count", (d, p) -> d.countries().countCountries(p.scope(), p.scopeValue()));
+        routes.put("/countries/page", (d, p) -> d.countries().getCountriesPage(p.token("after"), pageSize(p)));
+        routes.put("/cities", ReportServer::cities);
+        routes.put("/cities/count", (d, p) -> d.cities().countCities(p.scope(), p.scopeValue()));
+        routes.put("/cities/page", (d, p) -> d.cities().getCitiesPage(p.token("after"), pageSize(p)));
+        routes.put("/capitals", ReportServer::capitals);
+        routes.put("/capitals/count", (d, p) -> d.capitals().countCapitals(p.scope(), p.scopeValue()));
+        routes.put("/capitals/page", (d, p) -> d.capitals().getCapitalsPage(p.token("after"), pageSize(p)));
+        routes.put("/population/world", (d, p) -> d.population().getWorldPopulation().stream());
+        routes.put("/population/continent", (d, p) -> d.population().getPopulationByContinent().stream());
+        routes.put("/population/region", (d, p) -> d.population().getPopulationByRegion().stream());
+        routes.put("/population/country", (d, p) -> d.population().getPopulationByCountry().stream());
+        routes.put("/population/district", (d, p) -> d.population().getPopulationByDistrict(p.required("country")).stream());
+        routes.put("/population/city", ReportServer::cityPopulation);
+        routes.put("/languages", ReportServer::languages);
+    }
+
+    /**
+     * Starts serving on {@code address} (port 0 picks a free port).
+     *
+     * @param timeout Time each request's queries may take; zero for no limit.
+     * @throws IOException If the address cannot be bound.
+     */
+    public static ReportServer start(InetSocketAddress address, ReportDaos daos, Duration timeout) throws IOException {
+        return start(address, () -> daos, timeout);
+    }
+
+    /**
+     * Starts serving on {@code address}, asking {@code daos} for the DAOs at the start
+     * of every request, e.g. from a reference that a {@code ChangeFeed} swaps.
+     *
+     * @param timeout Time each request's queries may take; zero for no limit.
+     * @throws IOException If the address cannot be bound.
+     */
+    public static ReportServer start(InetSocketAddress address, Supplier<ReportDaos> daos, Duration timeout)
+            throws IOException {
+        HttpServer http = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(executor);
+        ReportServer server = new ReportServer(http, executor, daos, timeout);
+        http.createContext("/", server::handle);
+        http.start();
+        return server;
+    }
+
+    /** The port actually bound. */
+    public int port() {
+        return http.getAddress().getPort();
+    }
+
+    /** Blocks until {@link #close()} is called, e.g. from a shutdown hook. */
+    public void awaitClose() throws InterruptedException {
+        stopped.await();
+    }
+
+    /** Stops accepting requests and lets the ones in flight finish (for up to a second). */
+    @Override
+    public void close() {
+        http.stop(1);
+        executor.shutdown();
+        stopped.countDown();
+    }
+
+    // ======================== ROUTES ========================
+
+    private static Stream<?> countries(ReportDaos daos, Params p) {
+        CountryDAO dao = daos.countries();
+        Integer limit = p.limit();
+        return (switch (p.scope()) {
+            case WORLD -> dao.getAllCountriesByPopulation(limit);
+            case CONTINENT -> dao.getCountriesByContinent(p.scopeValue(), limit);
+            case REGION -> dao.getCountriesByRegion(p.scopeValue(), limit);
+            default -> dao.getTopCountries(p.scope(), p.scopeValue(), limit != null ? limit : Integer.MAX_VALUE);
+        }).stream();
+    }
+
+    private static Stream<?> cities(ReportDaos daos, Params p) {
+        CityDAO dao = daos.cities();
+        Integer limit = p.limit();
+        if (limit == null) return dao.streamCities(p.scope(), p.scopeValue());
+        return (switch (p.scope()) {
+            case WORLD -> dao.getAllCitiesByPopulation(limit);
+            case CONTINENT -> dao.getCitiesByContinent(p.scopeValue(), limit);
+            case REGION -> dao.getCitiesByRegion(p.scopeValue(), limit);
+            case COUNTRY -> dao.getCitiesByCountry(p.scopeValue(), limit);
+            case DISTRICT -> dao.getCitiesByDistrict(p.scopeValue(), limit);
+        }).stream();
+    }
+
+    private static Stream<?> capitals(ReportDaos daos, Params p) {
+        CapitalDAO dao = daos.capitals();
+        Integer limit = p.limit();
+        return (switch (p.scope()) {
+            case WORLD -> dao.getAllCapitalsByPopulation(limit);
+            case CONTINENT -> dao.getCapitalsByContinent(p.scopeValue(), limit);
+            case REGION -> dao.getCapitalsByRegion(p.scopeValue(), limit);
+            default -> dao.getTopCapitals(p.scope(), p.scopeValue(), limit != null ? limit : Integer.MAX_VALUE);
+        }).stream();
+    }
+
+    private static int pageSize(Params p) {
+        Integer limit = p.limit();
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    private static Stream<?> cityPopulation(ReportDaos daos, Params p) {
+        Integer limit = p.limit();
+        return limit == null
+                ? daos.population().streamPopulationByCity()
+                : daos.population().getPopulationByCity(limit).stream();
+    }
+
+    private static Stream<?> languages(ReportDaos daos, Params p) {
+        List<String> names = p.list("name");
+        if (!names.isEmpty()) return daos.languages().getLanguagesBySpeakerCount(names).stream();
+        Integer limit = p.limit();
+        return daos.languages().getLanguageRanking(p.integer("offset", 0), limit != null ? limit : Integer.MAX_VALUE).stream();
+    }
+
+    // ======================== HTTP ========================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange);
+        } catch (IncompleteResponse e) {
+            // Leaving the exchange open skips the final chunk; the HTTP server then drops
+            // the connection, so the client sees a broken response, not a short valid one.
+            LOGGER.log(Level.SEVERE, e, () -> "Aborted response: " + exchange.getRequestURI());
+            throw e;
+        }
+        exchange.close();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > 1 && path.endsWith("/")) path = path.substring(0, path.length() - 1);
+
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            sendError(exchange, 405, "Only GET is supported");
+            return;
+        }
+        Route route = routes.get(path);
+        if (route == null) {
+            sendError(exchange, 404, "No report at " + path);
+            return;
+        }
+
+        try (QueryDeadline deadline = QueryDeadline.open(timeout)) {
+            Object result = route.answer(daos.get(), Params.parse(exchange.getRequestURI().getRawQuery()));
+            if (result instanceof Stream<?> rows) {
+                try (rows) {
+                    // A list query has run by now; a cursor stream fails, if at all, while being written.
+                    if (failed(exchange, deadline)) return;
+                    Writer out = open(exchange, 200);
+                    long count = JsonRows.writeElements(out, rows);
+                    out.flush();
+                    if (deadline.isExpired() || deadline.failure() != null) {
+                        throw new IncompleteResponse(count, deadline.failure());
+                    }
+                    JsonRows.endArray(out, count);
+                    out.close();
+                }
+            } else if (result instanceof Page<?> page) {
+                if (failed(exchange, deadline)) return;
+                try (Writer out = open(exchange, 200)) {
+                    JsonRows.writePage(out, page);
+                }
+            } else {
+                if (failed(exchange, deadline)) return;
+                try (Writer out = open(exchange, 200)) {
+                    JsonRows.writeObject(out, "count", result);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, e, () -> "Request failed: " + exchange.getRequestURI());
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+
+    /**
+     * The DAOs answer a failed or cancelled query with an empty result; if the request's
+     * deadline saw one, send the error instead: 504 when it ran out of time, 503 when no
+     * database connection could be had, 500 for any other failure.
+     *
+     * @return Whether an error was sent.
+     */
+    private boolean failed(HttpExchange exchange, QueryDeadline deadline) {
+        SQLException failure = deadline.failure();
+        if (deadline.isExpired() || failure instanceof SQLTimeoutException) {
+            sendError(exchange, 504, timeout.isZero()
+                    ? "Report timed out"
+                    : "Report timed out after " + timeout.toMillis() + " ms");
+        } else if (failure != null && unavailable(failure)) {
+            sendError(exchange, 503, "Database unavailable");
+        } else if (failure != null) {
+            sendError(exchange, 500, "Report query failed");
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /** A failure to get or keep a connection, e.g. an exhausted pool or a database that is down. */
+    private static boolean unavailable(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+                || e instanceof SQLRecoverableException || state != null && state.startsWith("08");
+    }
+
+    /** Sends the status line and returns a writer for a chunked JSON body. */
+    private static Writer open(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try (Writer out = open(exchange, status)) {
+            JsonRows.writeObject(out, "error", message);
+        } catch (IOException e) {
+            // Headers were already sent, or the client went away; nothing more can be said.
+            LOGGER.log(Level.FINE, "Could not send error response", e);
+        }
+    }
+
+    /** A streamed list whose query failed after the 200 and some rows were sent. */
+    private static final class IncompleteResponse extends IOException {
+        IncompleteResponse(long rows, SQLException cause) {
+            super("Query failed after " + rows + " rows were sent", cause);
+        }
+    }
+}
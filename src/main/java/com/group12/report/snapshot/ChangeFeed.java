@@ -0,0 +1,106 @@
+package com.group12.report.snapshot;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls a {@link ChangeLog} on a daemon thread and hands each non-empty
+ * {@link ChangeSet} to a consumer, e.g. one that swaps in
+ * {@code snapshot.apply(changes)} or drops the cached queries the change affects.
+ *
+ * <p>A poll is one cheap indexed read of the log when nothing has changed. When
+ * something has, it reads batches until it has caught up. A failed poll is logged
+ * and retried at the next interval from the same position, so no change is lost.
+ * A set with {@link ChangeSet#gapSkipped()} is passed on even when it is empty.</p>
+ */
+public final class ChangeFeed implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeFeed.class.getName());
+
+    private final ChangeLog log;
+    private final Consumer<ChangeSet> consumer;
+    private final ScheduledExecutorService timer;
+    private long position;
+
+    private ChangeFeed(ChangeLog log, long position, Consumer<ChangeSet> consumer, ScheduledExecutorService timer) {
+        this.log = log;
+        this.position = position;
+        this.consumer = consumer;
+        this.timer = timer;
+    }
+
+    /**
+     * A feed that is only polled by calling {@link #poll()}.
+     *
+     * @param position Sequence number to read from, from {@link ChangeLog#position()}.
+     */
+    public static ChangeFeed manual(ChangeLog log, long position, Consumer<ChangeSet> consumer) {
+        return new ChangeFeed(log, position, consumer, null);
+    }
+
+    /**
+     * Starts polling every {@code interval}.
+     *
+     * @param position Sequence number to read from, from {@link ChangeLog#position()}.
+     */
+    public static ChangeFeed start(ChangeLog log, long position, Duration interval, Consumer<ChangeSet> consumer) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "world-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        ChangeFeed feed = new ChangeFeed(log, position, consumer, timer);
+        long ms = interval.toMillis();
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                feed.poll();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not read world changes; will retry", e);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Could not apply world changes; will retry", e);
+            }
+        }, ms, ms, TimeUnit.MILLISECONDS);
+        return feed;
+    }
+
+    /**
+     * Reads and passes on every change logged since the last poll.
+     *
+     * @return Number of changed rows passed to the consumer.
+     * @throws SQLException If the log cannot be read; the position is left where it was.
+     */
+    public synchronized int poll() throws SQLException {
+        int rows = 0;
+        while (true) {
+            ChangeSet changes = log.read(position, ChangeLog.DEFAULT_BATCH);
+            if (!changes.isEmpty() || changes.gapSkipped()) {
+                consumer.accept(changes);
+                rows += changes.size();
+            }
+            // Stop once the position no longer moves: caught up, or waiting on a gap.
+            if (changes.position() == position) break;
+            position = changes.position();
+        }
+        if (rows > 0) {
+            int applied = rows;
+            LOGGER.info(() -> "Applied " + applied + " changed world rows up to change " + position);
+        }
+        return rows;
+    }
+
+    /** Sequence number of the last change passed on. */
+    public synchronized long position() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        if (timer != null) timer.shutdownNow();
+    }
+}
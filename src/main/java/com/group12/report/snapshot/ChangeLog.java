@@ -0,0 +1,199 @@
+package com.group12.report.snapshot;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Reads the {@code world_change} table that the triggers in
+ * {@code world-db/world_changes.sql} fill on every insert, update and delete of
+ * {@code country}, {@code city} and {@code countrylanguage}.
+ *
+ * <p>Each log entry names a table and a primary key, nothing more. {@link #read}
+ * takes the entries after a sequence number, then re-reads just those rows by key
+ * from the three tables: a key that still has a row is added to the
+ * {@link ChangeSet} with its current values, and one that has none is a delete.
+ * Several changes to one row cost one read. Applying the same entries twice gives
+ * the same result, so reading an entry again is harmless.</p>
+ *
+ * <p>Sequence numbers are handed out when a row is written but become visible when
+ * its transaction commits, so a later number can be seen before an earlier one. When
+ * there is a gap, the rows after it are still returned, but {@link ChangeSet#position()}
+ * stops before the gap and the next read starts there again. A gap that is still open
+ * after {@code gapTimeout} is skipped with a warning and the set is marked
+ * {@link ChangeSet#gapSkipped()}: it is most likely a rolled-back write, but if it
+ * was a long transaction its rows are only picked up by a full reload.</p>
+ *
+ * <p>Not thread-safe; one {@link ChangeFeed} polls it.</p>
+ */
+public final class ChangeLog {
+
+    /** Entries read per {@link #read} call when the caller does not say. */
+    public static final int DEFAULT_BATCH = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeLog.class.getName());
+
+    private static final String ENTRIES_SQL =
+            "SELECT Seq, TableName, RowKey FROM world_change WHERE Seq > ? ORDER BY Seq LIMIT ?";
+
+    private final DataSource dataSource;
+    private final long gapTimeoutNanos;
+
+    /** First sequence number of the gap being waited on, and when it was first seen. */
+    private long gapAt = -1;
+    private long gapSince;
+
+    /**
+     * @param dataSource Connections to the {@code world} database.
+     * @param gapTimeout How long a gap in the sequence may stay open before it is skipped.
+     */
+    public ChangeLog(DataSource dataSource, Duration gapTimeout) {
+        this.dataSource = dataSource;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+    }
+
+    /**
+     * The newest sequence number in the log; read it before loading a snapshot, then
+     * pass it to {@link #read} so that nothing written during the load is missed.
+     *
+     * @throws SQLException If the log cannot be read, e.g. the migration has not been run.
+     */
+    public long position() throws SQLException {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT COALESCE(MAX(Seq), 0) FROM world_change");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * The rows changed by up to {@code max} log entries after {@code after}.
+     *
+     * @return The changes; {@link ChangeSet#position()} is where the next read should start.
+     * @throws SQLException If the log or the changed rows cannot be read.
+     */
+    public ChangeSet read(long after, int max) throws SQLException {
+        ChangeSet changes = new ChangeSet();
+        Set<String> countryCodes = new LinkedHashSet<>();
+        Set<Integer> cityIds = new LinkedHashSet<>();
+        Map<String, Set<String>> languages = new HashMap<>();
+        long position = after;
+
+        try (Connection con = dataSource.getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(ENTRIES_SQL)) {
+                ps.setLong(1, after);
+                ps.setInt(2, max);
+                try (ResultSet rs = ps.executeQuery()) {
+                    boolean contiguous = true;
+                    while (rs.next()) {
+                        long seq = rs.getLong("Seq");
+                        if (contiguous && seq != position + 1) {
+                            long from = position + 1;
+                            contiguous = gapExpired(from);
+                            if (contiguous) {
+                                changes.gapSkipped(true);
+                                LOGGER.warning(() -> "Change log entries " + from + ".." + (seq - 1) + " still missing after "
+                                        + gapTimeoutNanos / 1_000_000 + " ms; skipping them and reloading everything");
+                            }
+                        }
+                        if (contiguous) position = seq;
+
+                        String key = rs.getString("RowKey");
+                        switch (rs.getString("TableName")) {
+                            case "country" -> countryCodes.add(key);
+                            case "city" -> cityIds.add(Integer.valueOf(key));
+                            case "countrylanguage" -> {
+                                int colon = key.indexOf(':');
+                                languages.computeIfAbsent(key.substring(0, colon), k -> new HashSet<>())
+                                        .add(key.substring(colon + 1));
+                            }
+                            default -> { }
+                        }
+                    }
+                }
+            }
+
+            if (!countryCodes.isEmpty()) {
+                try (PreparedStatement ps = con.prepareStatement(
+                        WorldSnapshot.COUNTRY_SQL + " WHERE Code IN " + placeholders(countryCodes.size()))) {
+                    bind(ps, countryCodes);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) WorldSnapshot.addCountry(rs, changes);
+                    }
+                }
+                for (String code : countryCodes) {
+                    if (!changes.countries.containsKey(code)) changes.deleteCountry(code);
+                }
+            }
+
+            if (!cityIds.isEmpty()) {
+                try (PreparedStatement ps = con.prepareStatement(
+                        WorldSnapshot.CITY_SQL + " WHERE ID IN " + placeholders(cityIds.size()))) {
+                    bind(ps, cityIds);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) WorldSnapshot.addCity(rs, changes);
+                    }
+                }
+                for (int id : cityIds) {
+                    if (!changes.cities.containsKey(id)) changes.deleteCity(id);
+                }
+            }
+
+            if (!languages.isEmpty()) {
+                // By country (the leading primary-key column), keeping only the languages that changed.
+                try (PreparedStatement ps = con.prepareStatement(
+                        WorldSnapshot.LANGUAGE_SQL + " WHERE CountryCode IN " + placeholders(languages.size()))) {
+                    bind(ps, languages.keySet());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Set<String> wanted = languages.get(rs.getString("CountryCode"));
+                            if (wanted != null && wanted.contains(rs.getString("Language"))) {
+                                WorldSnapshot.addLanguage(rs, changes);
+                            }
+                        }
+                    }
+                }
+                languages.forEach((code, names) -> {
+                    for (String language : names) {
+                        if (!changes.languages.containsKey(new ChangeSet.LanguageKey(code, language))) {
+                            changes.deleteLanguage(code, language);
+                        }
+                    }
+                });
+            }
+        }
+        return changes.position(position);
+    }
+
+    /** Starts timing a gap the first time it is seen; true once it has been open for the timeout. */
+    private boolean gapExpired(long seq) {
+        long now = System.nanoTime();
+        if (gapAt != seq) {
+            gapAt = seq;
+            gapSince = now;
+        }
+        return now - gapSince >= gapTimeoutNanos;
+    }
+
+    private static String placeholders(int n) {
+        return "(" + String.join(",", Collections.nCopies(n, "?")) + ")";
+    }
+
+    private static void bind(PreparedStatement ps, Collection<?> values) throws SQLException {
+        int i = 1;
+        for (Object value : values) {
+            ps.setObject(i++, value);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.snapshot.WorldSnapshot.CityRow;
+import com.group12.report.snapshot.WorldSnapshot.CountryRow;
+import com.group12.report.snapshot.WorldSnapshot.LanguageRow;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Rows of {@code country}, {@code city} and {@code countrylanguage} that changed
+ * since a snapshot was taken, as they are now: each changed row is added with its
+ * current values, and each deleted row by its primary key. A later change to the
+ * same key replaces an earlier one.
+ *
+ * <p>{@link ChangeLog} fills one from the database's change log; tests and other
+ * sources can fill one by hand. Pass it to {@link WorldSnapshot#apply(ChangeSet)}.</p>
+ */
+public final class ChangeSet implements WorldSnapshot.RowSink {
+
+    /** Primary key of a {@code countrylanguage} row. */
+    record LanguageKey(String countryCode, String language) { }
+
+    /** Changed rows by primary key; a null value means the row was deleted. */
+    final Map<String, CountryRow> countries = new LinkedHashMap<>();
+    final Map<Integer, CityRow> cities = new LinkedHashMap<>();
+    final Map<LanguageKey, LanguageRow> languages = new LinkedHashMap<>();
+
+    private long position;
+    private boolean gapSkipped;
+
+    /** Matches any changed table name in SQL; built on first use, cleared by every change. */
+    private Pattern tablePattern;
+
+    @Override
+    public ChangeSet addCountry(String code, String name, String continent, String region,
+                                long population, Integer capitalId) {
+        countries.put(code, new CountryRow(code, name, continent, region, population, capitalId));
+        tablePattern = null;
+        return this;
+    }
+
+    @Override
+    public ChangeSet addCity(int id, String name, String countryCode, String district, long population) {
+        cities.put(id, new CityRow(id, name, countryCode, district, population));
+        tablePattern = null;
+        return this;
+    }
+
+    @Override
+    public ChangeSet addLanguage(String countryCode, String language, boolean official, double percentage) {
+        languages.put(new LanguageKey(countryCode, language),
+                new LanguageRow(countryCode, language, official, (int) Math.round(percentage * 10)));
+        tablePattern = null;
+        return this;
+    }
+
+    public ChangeSet deleteCountry(String code) {
+        countries.put(code, null);
+        tablePattern = null;
+        return this;
+    }
+
+    public ChangeSet deleteCity(int id) {
+        cities.put(id, null);
+        tablePattern = null;
+        return this;
+    }
+
+    public ChangeSet deleteLanguage(String countryCode, String language) {
+        languages.put(new LanguageKey(countryCode, language), null);
+        tablePattern = null;
+        return this;
+    }
+
+    /** Number of changed rows across the three tables. */
+    public int size() {
+        return countries.size() + cities.size() + languages.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Names of the tables with at least one changed row, e.g. for invalidating cached queries. */
+    public Set<String> tables() {
+        Set<String> tables = new TreeSet<>();
+        if (!countries.isEmpty()) tables.add("country");
+        if (!cities.isEmpty()) tables.add("city");
+        if (!languages.isEmpty()) tables.add("countrylanguage");
+        return tables;
+    }
+
+    /**
+     * Whether a query reads one of the changed tables, judged from its SQL text; for
+     * dropping just those entries from a result cache with {@code invalidateIf}. The
+     * table names are compiled into one pattern once, not on every call.
+     */
+    public boolean affects(String sql) {
+        if (isEmpty()) return false;
+        Pattern pattern = tablePattern;
+        if (pattern == null) {
+            pattern = Pattern.compile("\\b(" + String.join("|", tables()) + ")\\b", Pattern.CASE_INSENSITIVE);
+            tablePattern = pattern;
+        }
+        return pattern.matcher(sql).find();
+    }
+
+    /** Change-log sequence number this set brings a snapshot up to (0 if not read from a log). */
+    public long position() {
+        return position;
+    }
+
+    ChangeSet position(long position) {
+        this.position = position;
+        return this;
+    }
+
+    /**
+     * Whether the log read that filled this set skipped a gap that stayed open too
+     * long. The gap is usually a rolled-back write, but it can be a transaction that
+     * is still running, whose changes would then never be read; a consumer should
+     * reload everything rather than rely on this set alone.
+     */
+    public boolean gapSkipped() {
+        return gapSkipped;
+    }
+
+    ChangeSet gapSkipped(boolean gapSkipped) {
+        this.gapSkipped = gapSkipped;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return countries.size() + " countries, " + cities.size() + " cities, " + languages.size() + " languages";
+    }
+}
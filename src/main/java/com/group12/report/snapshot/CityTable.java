@@ -0,0 +1,307 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.models.City;
+import com.group12.report.models.Population;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Every city joined to its country, stored column by column.
+ *
+ * <p>A {@link City} per row costs an object header and three string references
+ * on top of the population, repeated for every city. Here each column is one
+ * primitive array instead: {@code long[]} populations, {@code int[]} ids, and
+ * {@code int} dictionary codes for country, continent, region and district, whose
+ * strings live once in a shared {@link StringDictionary}. Only city names, which
+ * are nearly all distinct, stay as a {@code String[]}.</p>
+ *
+ * <p>Rows are sorted by population, largest first (ties by ID), and a
+ * {@link ScopeIndex} built with them lists the rows of every continent, region,
+ * country and district in that order. {@link City} / {@link Population} objects
+ * are built only for the rows a report actually returns.</p>
+ *
+ * <p>A table is immutable once built and safe to share between threads.</p>
+ */
+public final class CityTable {
+
+    /** The {@code city ⋈ country} join the DAOs use, with the country's scope columns. */
+    static final String SQL = """
+            SELECT ci.ID, ci.Name, co.Name AS Country, co.Continent, co.Region,
+                   ci.District, ci.Population
+            FROM city ci
+            JOIN country co ON co.Code = ci.CountryCode
+            """;
+
+    private final StringDictionary dictionary;
+    private final int size;
+    private final int[] ids;
+    private final String[] names;
+    private final int[] countries;
+    private final int[] continents;
+    private final int[] regions;
+    private final int[] districts;
+    private final long[] populations;
+    private final ScopeIndex index;
+
+    private CityTable(StringDictionary dictionary, int size, int[] ids, String[] names, int[] countries,
+                      int[] continents, int[] regions, int[] districts, long[] populations) {
+        this.dictionary = dictionary;
+        this.size = size;
+        this.ids = ids;
+        this.names = names;
+        this.countries = countries;
+        this.continents = continents;
+        this.regions = regions;
+        this.districts = districts;
+        this.populations = populations;
+        // Already lower-cased, so the index's own case folding finds nothing to change.
+        this.index = new ScopeIndex(size, (scope, row) -> switch (scope) {
+            case WORLD -> null;
+            case CONTINENT -> dictionary.decodeFolded(continents[row]);
+            case REGION -> dictionary.decodeFolded(regions[row]);
+            case COUNTRY -> dictionary.decodeFolded(countries[row]);
+            case DISTRICT -> dictionary.decodeFolded(districts[row]);
+        });
+    }
+
+    /**
+     * Reads the {@code city ⋈ country} join over the given connection.
+     *
+     * @param con Open connection to the {@code world} database.
+     * @throws SQLException If the read fails.
+     */
+    public static CityTable load(Connection con) throws SQLException {
+        Builder builder = new Builder();
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(SQL)) {
+            while (rs.next()) {
+                builder.add(
+                        rs.getInt("ID"),
+                        rs.getString("Name"),
+                        rs.getString("Country"),
+                        rs.getString("Continent"),
+                        rs.getString("Region"),
+                        rs.getString("District"),
+                        rs.getLong("Population")
+                );
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public String country(int row) {
+        return dictionary.decode(countries[row]);
+    }
+
+    public String district(int row) {
+        return dictionary.decode(districts[row]);
+    }
+
+    public long population(int row) {
+        return populations[row];
+    }
+
+    /** Materialises one row for a city report. */
+    public City city(int row) {
+        return new City(names[row], country(row), district(row), populations[row]);
+    }
+
+    /** Materialises one row for the city population report. */
+    public Population cityPopulation(int row) {
+        return new Population(names[row], country(row), district(row), populations[row]);
+    }
+
+    /** Number of cities in a scope, read from the index. */
+    public int count(Scope scope, String value) {
+        return index.count(scope, value);
+    }
+
+    /** Passes the first {@code max} rows of a scope to {@code action}, largest first. */
+    void forEach(Scope scope, String value, int max, IntConsumer action) {
+        index.forEach(scope, value, max, action);
+    }
+
+    /**
+     * A new table without the rows whose ID is in {@code removed}, plus the rows of
+     * {@code added}. The kept rows are already in order, so they are merged with
+     * the (sorted) added rows in one pass instead of sorting the whole table again.
+     *
+     * <p>Still linear in the table: the column arrays and the scope index are
+     * rebuilt, since rows move. The dictionary is shared with this table when the
+     * added rows bring no new string, and copied otherwise; once strings no row
+     * uses any more outnumber the ones in use, the new table gets a compacted
+     * dictionary, so repeated patches do not grow it without bound. This table is
+     * unchanged.</p>
+     */
+    CityTable patch(Set<Integer> removed, Builder added) {
+        CityTable extra = added.build();
+        StringDictionary dict = dictionary.containsAll(extra.dictionary) ? dictionary : dictionary.copy();
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (!removed.contains(ids[row])) kept++;
+        }
+
+        int n = kept + extra.size;
+        int[] newIds = new int[n];
+        String[] newNames = new String[n];
+        int[] newCountries = new int[n];
+        int[] newContinents = new int[n];
+        int[] newRegions = new int[n];
+        int[] newDistricts = new int[n];
+        long[] newPopulations = new long[n];
+
+        int i = 0;
+        int j = 0;
+        for (int out = 0; out < n; out++) {
+            while (i < size && removed.contains(ids[i])) i++;
+            boolean takeOld = j == extra.size || i < size && (populations[i] > extra.populations[j]
+                    || populations[i] == extra.populations[j] && ids[i] < extra.ids[j]);
+            if (takeOld) {
+                newIds[out] = ids[i];
+                newNames[out] = names[i];
+                newCountries[out] = countries[i];
+                newContinents[out] = continents[i];
+                newRegions[out] = regions[i];
+                newDistricts[out] = districts[i];
+                newPopulations[out] = populations[i];
+                i++;
+            } else {
+                newIds[out] = extra.ids[j];
+                newNames[out] = extra.names[j];
+                newCountries[out] = dict.encode(extra.dictionary.decode(extra.countries[j]));
+                newContinents[out] = dict.encode(extra.dictionary.decode(extra.continents[j]));
+                newRegions[out] = dict.encode(extra.dictionary.decode(extra.regions[j]));
+                newDistricts[out] = dict.encode(extra.dictionary.decode(extra.districts[j]));
+                newPopulations[out] = extra.populations[j];
+                j++;
+            }
+        }
+        dict = compact(dict, newCountries, newContinents, newRegions, newDistricts);
+        return new CityTable(dict, n, newIds, newNames, newCountries, newContinents, newRegions,
+                newDistricts, newPopulations);
+    }
+
+    /**
+     * {@code dict}, or a new dictionary holding only the strings the columns use
+     * when those are fewer than half of it; the columns are re-coded in place.
+     */
+    private static StringDictionary compact(StringDictionary dict, int[]... columns) {
+        BitSet used = new BitSet(dict.size());
+        for (int[] column : columns) {
+            for (int code : column) {
+                if (code != StringDictionary.NULL) used.set(code);
+            }
+        }
+        if (used.cardinality() * 2 >= dict.size()) return dict;
+
+        StringDictionary compacted = new StringDictionary();
+        int[] recode = new int[dict.size()];
+        for (int code = used.nextSetBit(0); code >= 0; code = used.nextSetBit(code + 1)) {
+            recode[code] = compacted.encode(dict.decode(code));
+        }
+        for (int[] column : columns) {
+            for (int row = 0; row < column.length; row++) {
+                if (column[row] != StringDictionary.NULL) column[row] = recode[column[row]];
+            }
+        }
+        return compacted;
+    }
+
+    /** Distinct strings shared by the coded columns. */
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Collects joined city rows in any order and sorts them into columns.
+     * The built table shares this builder's dictionary, so use each builder once.
+     */
+    public static final class Builder {
+        private final StringDictionary dictionary = new StringDictionary();
+        private int size;
+        private int[] ids = new int[1024];
+        private String[] names = new String[1024];
+        private int[] countries = new int[1024];
+        private int[] continents = new int[1024];
+        private int[] regions = new int[1024];
+        private int[] districts = new int[1024];
+        private long[] populations = new long[1024];
+
+        public Builder add(int id, String name, String country, String continent, String region,
+                           String district, long population) {
+            if (size == ids.length) grow();
+            ids[size] = id;
+            names[size] = name;
+            countries[size] = dictionary.encode(country);
+            continents[size] = dictionary.encode(continent);
+            regions[size] = dictionary.encode(region);
+            districts[size] = dictionary.encode(district);
+            populations[size] = population;
+            size++;
+            return this;
+        }
+
+        public CityTable build() {
+            long[] pop = populations;
+            int[] id = ids;
+            int[] order = IntStream.range(0, size).boxed()
+                    .sorted(Comparator.comparingLong((Integer row) -> pop[row]).reversed()
+                            .thenComparingInt(row -> id[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            // Equal populations are ordered by primary key, so each row has a unique place for keyset pages.
+
+            int[] sortedIds = new int[size];
+            String[] sortedNames = new String[size];
+            int[] sortedCountries = new int[size];
+            int[] sortedContinents = new int[size];
+            int[] sortedRegions = new int[size];
+            int[] sortedDistricts = new int[size];
+            long[] sortedPopulations = new long[size];
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                sortedIds[i] = ids[row];
+                sortedNames[i] = names[row];
+                sortedCountries[i] = countries[row];
+                sortedContinents[i] = continents[row];
+                sortedRegions[i] = regions[row];
+                sortedDistricts[i] = districts[row];
+                sortedPopulations[i] = populations[row];
+            }
+            return new CityTable(dictionary, size, sortedIds, sortedNames, sortedCountries,
+                    sortedContinents, sortedRegions, sortedDistricts, sortedPopulations);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            countries = Arrays.copyOf(countries, capacity);
+            continents = Arrays.copyOf(continents, capacity);
+            regions = Arrays.copyOf(regions, capacity);
+            districts = Arrays.copyOf(districts, capacity);
+            populations = Arrays.copyOf(populations, capacity);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.models.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Speakers, percent of world and country count for every language in
+ * {@code countrylanguage}, aggregated once and kept ranked by speakers.
+ *
+ * <p>The speaker report used to re-run the aggregate over
+ * {@code countrylanguage ⋈ country} for the languages it was asked about. This
+ * table holds the answer for all of them. A named selection is a few map
+ * lookups, and a page of the full ranking is a sub-list.</p>
+ *
+ * <p>A table is immutable once built; the lists it returns are read-only and
+ * may be shared between threads.</p>
+ */
+public final class LanguageTable {
+
+    private static final Comparator<Language> MOST_SPOKEN_FIRST =
+            Comparator.comparingLong(Language::getSpeakers).reversed()
+                    .thenComparing(Language::getName);
+
+    /** Every language, most spoken first; ties in name order. */
+    private final List<Language> ranked;
+
+    /** Lower-cased name to position in {@link #ranked}. */
+    private final Map<String, Integer> positions;
+
+    private LanguageTable(List<Language> ranked) {
+        this.ranked = ranked;
+        this.positions = new HashMap<>(ranked.size() * 2);
+        for (int i = 0; i < ranked.size(); i++) {
+            positions.putIfAbsent(fold(ranked.get(i).getName()), i);
+        }
+    }
+
+    /** Number of distinct languages. */
+    public int size() {
+        return ranked.size();
+    }
+
+    /**
+     * One page of the full ranking.
+     *
+     * @param offset Languages to skip from the top (at least 0).
+     * @param limit  Page size (at least 1).
+     * @return Up to {@code limit} languages, most spoken first; empty past the end.
+     * @throws IllegalArgumentException If {@code offset < 0} or {@code limit < 1}.
+     */
+    public List<Language> ranking(int offset, int limit) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("offset must be at least 0 and limit at least 1");
+        }
+        if (offset >= ranked.size()) return List.of();
+        return ranked.subList(offset, (int) Math.min(ranked.size(), (long) offset + limit));
+    }
+
+    /**
+     * The named languages, most spoken first, matched case-insensitively.
+     * Names that are not in the table, and repeats, are left out.
+     */
+    public List<Language> select(Collection<String> names) {
+        int[] found = new int[names.size()];
+        int n = 0;
+        for (String name : names) {
+            Integer pos = name == null ? null : positions.get(fold(name));
+            if (pos != null) found[n++] = pos;
+        }
+        Arrays.sort(found, 0, n);
+
+        List<Language> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && found[i] == found[i - 1]) continue;
+            out.add(ranked.get(found[i]));
+        }
+        return out;
+    }
+
+    /**
+     * 1-based position of a language in the ranking.
+     *
+     * @return The rank, or 0 if the language is not in the table.
+     */
+    public int rankOf(String name) {
+        Integer pos = name == null ? null : positions.get(fold(name));
+        return pos == null ? 0 : pos + 1;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /** Collects one aggregated row per language, in any order. */
+    public static final class Builder {
+        private final List<Language> languages = new ArrayList<>();
+
+        public Builder add(Language language) {
+            languages.add(language);
+            return this;
+        }
+
+        public LanguageTable build() {
+            List<Language> sorted = new ArrayList<>(languages);
+            sorted.sort(MOST_SPOKEN_FIRST);
+            return new LanguageTable(List.copyOf(sorted));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.models.Population;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Total / city / non-city population for the world, every continent, every region
+ * and every country, computed together in one pass over the countries.
+ *
+ * <p>Each country row carries its own population and the summed population of
+ * its cities. Adding it to the world, its continent and its region at the same
+ * time builds the whole world &gt; continent &gt; region &gt; country tree at once,
+ * instead of one aggregate query per level. The seven breakdown reports all read
+ * from one rollup.</p>
+ *
+ * <p>A rollup is immutable once built; the lists it returns are read-only and
+ * may be shared between threads. When countries change, {@link #patch} makes a new
+ * rollup by taking the old rows' figures out of the world, continent and region
+ * totals and adding the new rows' in, without going over the other countries.</p>
+ */
+public final class PopulationRollup {
+
+    private static final Comparator<Population> LARGEST_FIRST =
+            Comparator.comparingLong(Population::getTotalPopulation).reversed();
+
+    private final Population world;
+    private final List<Population> continents;
+    private final List<Population> regions;
+    private final List<Population> countries;
+
+    /** Per continent and per region: total population, city population, number of countries. */
+    private final Map<String, long[]> continentTotals;
+    private final Map<String, long[]> regionTotals;
+
+    private PopulationRollup(Population world, List<Population> countries,
+                             Map<String, long[]> continentTotals, Map<String, long[]> regionTotals) {
+        this.world = world;
+        this.continents = level(continentTotals);
+        this.regions = level(regionTotals);
+        this.countries = countries;
+        this.continentTotals = continentTotals;
+        this.regionTotals = regionTotals;
+    }
+
+    /** The figures one country contributes to a rollup. */
+    record CountryTotals(String name, String continent, String region, long population, long cityPopulation) { }
+
+    /**
+     * A new rollup with the {@code removed} countries taken out and the {@code added}
+     * ones put in; an updated country is in both lists. Only the continents and
+     * regions those countries belong to are recomputed.
+     */
+    PopulationRollup patch(List<CountryTotals> removed, List<CountryTotals> added) {
+        long total = world.getTotalPopulation();
+        long city = world.getCityPopulation();
+        Map<String, long[]> continents = new LinkedHashMap<>(continentTotals);
+        Map<String, long[]> regions = new LinkedHashMap<>(regionTotals);
+        Set<String> gone = new HashSet<>();
+        for (CountryTotals c : removed) {
+            total -= c.population();
+            city -= c.cityPopulation();
+            adjust(continents, c.continent(), c, -1);
+            adjust(regions, c.region(), c, -1);
+            gone.add(c.name());
+        }
+
+        List<Population> kept = new ArrayList<>(countries.size());
+        for (Population p : countries) {
+            if (!gone.contains(p.getName())) kept.add(p);
+        }
+        List<Population> fresh = new ArrayList<>(added.size());
+        for (CountryTotals c : added) {
+            total += c.population();
+            city += c.cityPopulation();
+            adjust(continents, c.continent(), c, 1);
+            adjust(regions, c.region(), c, 1);
+            fresh.add(breakdown(c.name(), c.population(), c.cityPopulation()));
+        }
+        fresh.sort(LARGEST_FIRST);
+
+        return new PopulationRollup(breakdown("World", total, city),
+                SnapshotPatch.merge(kept, fresh, LARGEST_FIRST), continents, regions);
+    }
+
+    /** Copies the totals it changes, so the rollup being patched is left as it was. */
+    private static void adjust(Map<String, long[]> level, String key, CountryTotals c, int sign) {
+        long[] t = level.get(key);
+        t = t == null ? new long[3] : t.clone();
+        t[0] += sign * c.population();
+        t[1] += sign * c.cityPopulation();
+        t[2] += sign;
+        if (t[2] == 0) level.remove(key);
+        else level.put(key, t);
+    }
+
+    private static List<Population> level(Map<String, long[]> totals) {
+        List<Population> out = new ArrayList<>(totals.size());
+        totals.forEach((name, t) -> out.add(breakdown(name, t[0], t[1])));
+        out.sort(LARGEST_FIRST);
+        return List.copyOf(out);
+    }
+
+    /** Single "World" row. */
+    public Population world() {
+        return world;
+    }
+
+    /** One row per continent, largest total first. */
+    public List<Population> continents() {
+        return continents;
+    }
+
+    /** One row per region, largest total first. */
+    public List<Population> regions() {
+        return regions;
+    }
+
+    /** One row per country, largest total first. */
+    public List<Population> countries() {
+        return countries;
+    }
+
+    /** City / non-city row with both percentages, as the SQL reports compute them. */
+    static Population breakdown(String name, long total, long city) {
+        long nonCity = total - city;
+        return new Population(name, total, city, percent(city, total), nonCity, percent(nonCity, total));
+    }
+
+    /** ROUND(100 * part / total, 2), with MySQL's NULL-on-zero read back as 0. */
+    static double percent(long part, long total) {
+        return total == 0 ? 0.0 : round2(100.0 * part / total);
+    }
+
+    static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Accumulates countries one at a time. Ties in the sorted output keep the
+     * order in which countries (and so continents and regions) were first added.
+     */
+    public static final class Builder {
+        private long worldTotal;
+        private long worldCity;
+        private final Map<String, long[]> continents = new LinkedHashMap<>();
+        private final Map<String, long[]> regions = new LinkedHashMap<>();
+        private final List<Population> countries = new ArrayList<>();
+
+        /**
+         * @param name           Country name.
+         * @param continent      Continent the country belongs to.
+         * @param region         Region the country belongs to.
+         * @param population     Country population.
+         * @param cityPopulation Summed population of the country's cities.
+         */
+        public Builder addCountry(String name, String continent, String region,
+                                  long population, long cityPopulation) {
+            worldTotal += population;
+            worldCity += cityPopulation;
+            add(continents, continent, population, cityPopulation);
+            add(regions, region, population, cityPopulation);
+            countries.add(breakdown(name, population, cityPopulation));
+            return this;
+        }
+
+        public PopulationRollup build() {
+            List<Population> sortedCountries = new ArrayList<>(countries);
+            sortedCountries.sort(LARGEST_FIRST);
+            return new PopulationRollup(
+                    breakdown("World", worldTotal, worldCity),
+                    List.copyOf(sortedCountries),
+                    new LinkedHashMap<>(continents),
+                    new LinkedHashMap<>(regions)
+            );
+        }
+
+        private static void add(Map<String, long[]> level, String key, long population, long cityPopulation) {
+            long[] t = level.computeIfAbsent(key, k -> new long[3]);
+            t[0] += population;
+            t[1] += cityPopulation;
+            t[2]++;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.group12.report.snapshot;
+
+/**
+ * Geographic level a report can be restricted to.
+ *
+ * <p>{@link #WORLD} means "no filter"; the other levels are matched against the
+ * country's continent, region or name, or the city's district.</p>
+ */
+public enum Scope {
+    WORLD,
+    CONTINENT,
+    REGION,
+    COUNTRY,
+    DISTRICT
+}
@@ -0,0 +1,91 @@
+package com.group12.report.snapshot;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * For each scope level and each continent, region, country or district name, the
+ * positions of the matching rows in a list that is already sorted by population.
+ *
+ * <p>The positions are kept in ascending order, so they are also largest
+ * population first. "All X in Y" is then a walk over exactly the matching rows and
+ * "top N X in Y" stops after N, with no filtering and no sort at query time.</p>
+ *
+ * <p>Built once, together with the rows it points into, and read-only afterwards.
+ * Names are matched case-insensitively, as MySQL does.</p>
+ */
+final class ScopeIndex {
+
+    private static final int[] NONE = new int[0];
+
+    /** Name of the scope value a row belongs to, or null if the row has none at that level. */
+    @FunctionalInterface
+    interface Key {
+        String of(Scope scope, int row);
+    }
+
+    private final int size;
+    private final Map<Scope, Map<String, int[]>> rowsByScope = new EnumMap<>(Scope.class);
+
+    /**
+     * @param size Number of rows, in population order.
+     * @param key  Scope value of each row; a level that is always null is not indexed.
+     */
+    ScopeIndex(int size, Key key) {
+        this.size = size;
+        for (Scope scope : Scope.values()) {
+            if (scope != Scope.WORLD) rowsByScope.put(scope, group(size, scope, key));
+        }
+    }
+
+    /** Number of rows in the scope. */
+    int count(Scope scope, String value) {
+        return scope == Scope.WORLD ? size : rows(scope, value).length;
+    }
+
+    /** Passes up to {@code max} row positions in the scope to {@code action}, largest first. */
+    void forEach(Scope scope, String value, int max, IntConsumer action) {
+        if (scope == Scope.WORLD) {
+            for (int row = 0, end = Math.min(max, size); row < end; row++) action.accept(row);
+            return;
+        }
+        int[] rows = rows(scope, value);
+        for (int i = 0, end = Math.min(max, rows.length); i < end; i++) action.accept(rows[i]);
+    }
+
+    private int[] rows(Scope scope, String value) {
+        if (value == null) return NONE;
+        return rowsByScope.get(scope).getOrDefault(fold(value), NONE);
+    }
+
+    /** Two passes: count the rows per name, then fill exactly sized arrays in row order. */
+    private static Map<String, int[]> group(int size, Scope scope, Key key) {
+        Map<String, int[]> counts = new HashMap<>();
+        String[] keys = new String[size];
+        for (int row = 0; row < size; row++) {
+            String name = key.of(scope, row);
+            if (name == null) continue;
+            keys[row] = fold(name);
+            counts.computeIfAbsent(keys[row], k -> new int[1])[0]++;
+        }
+
+        Map<String, int[]> rows = new HashMap<>(counts.size() * 2);
+        counts.forEach((name, count) -> {
+            rows.put(name, new int[count[0]]);
+            count[0] = 0;
+            // Reused as the fill cursor below.
+        });
+        for (int row = 0; row < size; row++) {
+            if (keys[row] == null) continue;
+            rows.get(keys[row])[counts.get(keys[row])[0]++] = row;
+        }
+        return rows;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
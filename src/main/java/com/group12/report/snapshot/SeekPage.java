@@ -0,0 +1,50 @@
+package com.group12.report.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * One page of a population-ordered snapshot list, read by seeking past the sort
+ * key of the previous page's last row rather than by counting rows from the top.
+ *
+ * <p>The lists are sorted by population (largest first) with a unique tie-break,
+ * so the first row after a key is found by binary search and a deep page costs
+ * the same as the first.</p>
+ *
+ * @param rows           Rows of the page, in list order.
+ * @param more           Whether any rows follow the last one.
+ * @param lastPopulation Population of the last row (0 when the page is empty).
+ * @param lastKey        Tie-break key of the last row (null when the page is empty).
+ * @param <T>            Model type of the rows.
+ */
+public record SeekPage<T>(List<T> rows, boolean more, long lastPopulation, String lastKey) {
+
+    /**
+     * Position of the first row for which {@code after} holds; {@code after} must be
+     * false for some prefix of the rows and true for the rest.
+     */
+    static int firstAfter(int size, IntPredicate after) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (after.test(mid)) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /** Up to {@code size} rows of a list of {@code total} rows, starting at {@code from}. */
+    static <T> SeekPage<T> slice(int from, int size, int total, IntFunction<T> row,
+                                 IntToLongFunction population, IntFunction<String> key) {
+        int to = (int) Math.min(total, (long) from + size);
+        List<T> rows = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) rows.add(row.apply(i));
+        return to > from
+                ? new SeekPage<>(rows, to < total, population.applyAsLong(to - 1), key.apply(to - 1))
+                : new SeekPage<>(rows, false, 0, null);
+    }
+}
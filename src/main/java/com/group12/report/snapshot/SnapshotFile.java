@@ -0,0 +1,308 @@
+package com.group12.report.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Binary copy of the {@code country}, {@code city} and {@code countrylanguage}
+ * tables, so a {@link WorldSnapshot} can be built without MySQL.
+ *
+ * <p>Layout (big-endian):</p>
+ * <pre>
+ * header   int magic "WPRS", int version, int countries, int cities, int languages,
+ *          int strings, int stringBytes, int CRC32 of everything after the header
+ * strings  int[strings + 1] UTF-8 start offsets, byte[stringBytes]
+ * country  int[] code, name, continent, region, capital; long[] population
+ * city     int[] id, name, countryCode, district; long[] population
+ * language int[] countryCode, language, percent (tenths); byte[] official
+ * </pre>
+ *
+ * <p>Every text column is an {@code int} code into the string table, with -1 for
+ * {@code NULL}. Each distinct string is stored once. {@link #open} maps the file
+ * with {@link FileChannel#map} and checks its size and checksum. It decodes each
+ * distinct string once and reads the other columns straight from the mapping
+ * into a {@link WorldSnapshot.Builder}. No text is parsed.</p>
+ *
+ * <p>The version is raised whenever the layout changes. Files of any other
+ * version are rejected rather than misread.</p>
+ */
+public final class SnapshotFile {
+
+    private static final Logger LOGGER = Logger.getLogger(SnapshotFile.class.getName());
+
+    static final int MAGIC = 0x57505253; // "WPRS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8 * Integer.BYTES;
+
+    /** {@code country.Capital} is nullable; city ids are positive. */
+    static final int NO_CAPITAL = Integer.MIN_VALUE;
+
+    private SnapshotFile() { }
+
+    /**
+     * Reads the three world tables over {@code con} and writes them to {@code file}.
+     *
+     * @throws SQLException If a bulk read fails.
+     * @throws IOException  If the file cannot be written.
+     */
+    public static void write(Connection con, Path file) throws SQLException, IOException {
+        long start = System.nanoTime();
+        Writer writer = new Writer();
+        WorldSnapshot.read(con, writer);
+        writer.write(file);
+        LOGGER.info(() -> String.format("Wrote snapshot file %s (%d bytes) in %d ms",
+                file, writer.bytes, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Maps a snapshot file and builds a {@link WorldSnapshot} from it.
+     *
+     * @throws IOException If the file cannot be read, is not a snapshot file,
+     *                     has another version, is truncated or fails its checksum.
+     */
+    public static WorldSnapshot open(Path file) throws IOException {
+        long start = System.nanoTime();
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+
+        WorldSnapshot snapshot = read(map, file.toString()).build();
+        LOGGER.info(() -> String.format("Opened snapshot file %s (%d bytes) in %d ms",
+                file, map.capacity(), (System.nanoTime() - start) / 1_000_000));
+        return snapshot;
+    }
+
+    /** Checks and replays a whole snapshot file into a new builder. */
+    static WorldSnapshot.Builder read(ByteBuffer buf, String source) throws IOException {
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC) {
+            throw new IOException(source + " is not a world snapshot file");
+        }
+        int version = buf.getInt(4);
+        if (version != VERSION) {
+            throw new IOException(source + " has snapshot version " + version + "; expected " + VERSION);
+        }
+        int countries = buf.getInt(8);
+        int cities = buf.getInt(12);
+        int languages = buf.getInt(16);
+        int strings = buf.getInt(20);
+        int stringBytes = buf.getInt(24);
+        int crc = buf.getInt(28);
+
+        long expected = payloadBytes(countries, cities, languages, strings, stringBytes);
+        if (countries < 0 || cities < 0 || languages < 0 || strings < 0 || stringBytes < 0
+                || buf.capacity() != HEADER_BYTES + expected) {
+            throw new IOException(source + " is truncated or has a bad header");
+        }
+        CRC32 check = new CRC32();
+        check.update(buf.slice(HEADER_BYTES, (int) expected));
+        if ((int) check.getValue() != crc) {
+            throw new IOException(source + " failed its checksum");
+        }
+
+        int pos = HEADER_BYTES;
+        IntBuffer offsets = ints(buf, pos, strings + 1);
+        pos += (strings + 1) * Integer.BYTES;
+        String[] pool = new String[strings];
+        for (int i = 0; i < strings; i++) {
+            int from = offsets.get(i);
+            pool[i] = StandardCharsets.UTF_8.decode(buf.slice(pos + from, offsets.get(i + 1) - from)).toString();
+        }
+        pos += stringBytes;
+
+        WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+
+        IntBuffer code = ints(buf, pos, countries);
+        IntBuffer name = ints(buf, pos += countries * Integer.BYTES, countries);
+        IntBuffer continent = ints(buf, pos += countries * Integer.BYTES, countries);
+        IntBuffer region = ints(buf, pos += countries * Integer.BYTES, countries);
+        IntBuffer capital = ints(buf, pos += countries * Integer.BYTES, countries);
+        LongBuffer population = longs(buf, pos += countries * Integer.BYTES, countries);
+        pos += countries * Long.BYTES;
+        for (int row = 0; row < countries; row++) {
+            int cap = capital.get(row);
+            builder.addCountry(text(pool, code.get(row)), text(pool, name.get(row)),
+                    text(pool, continent.get(row)), text(pool, region.get(row)),
+                    population.get(row), cap == NO_CAPITAL ? null : cap);
+        }
+
+        IntBuffer id = ints(buf, pos, cities);
+        name = ints(buf, pos += cities * Integer.BYTES, cities);
+        IntBuffer countryCode = ints(buf, pos += cities * Integer.BYTES, cities);
+        IntBuffer district = ints(buf, pos += cities * Integer.BYTES, cities);
+        population = longs(buf, pos += cities * Integer.BYTES, cities);
+        pos += cities * Long.BYTES;
+        for (int row = 0; row < cities; row++) {
+            builder.addCity(id.get(row), text(pool, name.get(row)), text(pool, countryCode.get(row)),
+                    text(pool, district.get(row)), population.get(row));
+        }
+
+        countryCode = ints(buf, pos, languages);
+        IntBuffer language = ints(buf, pos += languages * Integer.BYTES, languages);
+        IntBuffer tenths = ints(buf, pos += languages * Integer.BYTES, languages);
+        pos += languages * Integer.BYTES;
+        for (int row = 0; row < languages; row++) {
+            builder.addLanguage(text(pool, countryCode.get(row)), text(pool, language.get(row)),
+                    buf.get(pos + row) != 0, tenths.get(row) / 10.0);
+        }
+        return builder;
+    }
+
+    private static long payloadBytes(int countries, int cities, int languages, int strings, int stringBytes) {
+        return (strings + 1L) * Integer.BYTES + stringBytes
+                + countries * (5L * Integer.BYTES + Long.BYTES)
+                + cities * (4L * Integer.BYTES + Long.BYTES)
+                + languages * (3L * Integer.BYTES + 1);
+    }
+
+    private static IntBuffer ints(ByteBuffer buf, int pos, int count) {
+        return buf.slice(pos, count * Integer.BYTES).asIntBuffer();
+    }
+
+    private static LongBuffer longs(ByteBuffer buf, int pos, int count) {
+        return buf.slice(pos, count * Long.BYTES).asLongBuffer();
+    }
+
+    private static String text(String[] pool, int code) throws IOException {
+        if (code == StringDictionary.NULL) return null;
+        if (code < 0 || code >= pool.length) throw new IOException("Snapshot string code out of range: " + code);
+        return pool[code];
+    }
+
+    /**
+     * Collects raw rows column by column and writes them as one snapshot file.
+     * Use each writer once.
+     */
+    public static final class Writer implements WorldSnapshot.RowSink {
+        private final StringDictionary strings = new StringDictionary();
+        private final Columns countries = new Columns(5, true);
+        private final Columns cities = new Columns(4, true);
+        private final Columns languages = new Columns(3, false);
+        private byte[] official = new byte[256];
+        private long bytes;
+
+        @Override
+        public Writer addCountry(String code, String name, String continent, String region,
+                                 long population, Integer capitalId) {
+            countries.add(population, strings.encode(code), strings.encode(name), strings.encode(continent),
+                    strings.encode(region), capitalId == null ? NO_CAPITAL : capitalId);
+            return this;
+        }
+
+        @Override
+        public Writer addCity(int id, String name, String countryCode, String district, long population) {
+            cities.add(population, id, strings.encode(name), strings.encode(countryCode), strings.encode(district));
+            return this;
+        }
+
+        @Override
+        public Writer addLanguage(String countryCode, String language, boolean official, double percentage) {
+            if (languages.size == this.official.length) this.official = Arrays.copyOf(this.official, languages.size * 2);
+            this.official[languages.size] = (byte) (official ? 1 : 0);
+            languages.add(0, strings.encode(countryCode), strings.encode(language), (int) Math.round(percentage * 10));
+            return this;
+        }
+
+        /**
+         * Writes the collected rows to {@code file}. The file is written next to
+         * the target and then moved into place, so readers never see half a file.
+         *
+         * @throws IOException If the file cannot be written.
+         */
+        public void write(Path file) throws IOException {
+            byte[][] encoded = new byte[strings.size()][];
+            int stringBytes = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.decode(i).getBytes(StandardCharsets.UTF_8);
+                stringBytes += encoded[i].length;
+            }
+
+            long payload = payloadBytes(countries.size, cities.size, languages.size, encoded.length, stringBytes);
+            if (HEADER_BYTES + payload > Integer.MAX_VALUE) throw new IOException("Snapshot too large");
+            ByteBuffer buf = ByteBuffer.allocate((int) (HEADER_BYTES + payload));
+            buf.putInt(MAGIC).putInt(VERSION)
+               .putInt(countries.size).putInt(cities.size).putInt(languages.size)
+               .putInt(encoded.length).putInt(stringBytes).putInt(0);
+
+            int offset = 0;
+            for (byte[] s : encoded) {
+                buf.putInt(offset);
+                offset += s.length;
+            }
+            buf.putInt(offset);
+            for (byte[] s : encoded) buf.put(s);
+
+            countries.putTo(buf);
+            cities.putTo(buf);
+            languages.putTo(buf);
+            buf.put(official, 0, languages.size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_BYTES, (int) payload));
+            buf.putInt(HEADER_BYTES - Integer.BYTES, (int) crc.getValue());
+            buf.flip();
+
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (buf.hasRemaining()) ch.write(buf);
+                    ch.force(true);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            bytes = buf.limit();
+        }
+    }
+
+    /** One table's {@code int} columns plus an optional {@code long} population column, grown as rows are added. */
+    private static final class Columns {
+        private final int[][] ints;
+        private long[] longs;
+        private int size;
+
+        Columns(int intColumns, boolean population) {
+            this.ints = new int[intColumns][256];
+            this.longs = population ? new long[256] : null;
+        }
+
+        void add(long population, int... values) {
+            if (size == ints[0].length) grow();
+            for (int c = 0; c < ints.length; c++) ints[c][size] = values[c];
+            if (longs != null) longs[size] = population;
+            size++;
+        }
+
+        void putTo(ByteBuffer buf) {
+            for (int[] column : ints) {
+                for (int row = 0; row < size; row++) buf.putInt(column[row]);
+            }
+            if (longs != null) {
+                for (int row = 0; row < size; row++) buf.putLong(longs[row]);
+            }
+        }
+
+        private void grow() {
+            int capacity = size * 2;
+            for (int c = 0; c < ints.length; c++) ints[c] = Arrays.copyOf(ints[c], capacity);
+            if (longs != null) longs = Arrays.copyOf(longs, capacity);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.snapshot.ChangeSet.LanguageKey;
+import com.group12.report.snapshot.PopulationRollup.CountryTotals;
+import com.group12.report.snapshot.WorldSnapshot.CapitalRow;
+import com.group12.report.snapshot.WorldSnapshot.CityRow;
+import com.group12.report.snapshot.WorldSnapshot.CountryRow;
+import com.group12.report.snapshot.WorldSnapshot.LanguageRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static com.group12.report.snapshot.WorldSnapshot.CAPITAL_ORDER;
+import static com.group12.report.snapshot.WorldSnapshot.COUNTRY_ORDER;
+import static com.group12.report.snapshot.WorldSnapshot.addSpeakers;
+
+/**
+ * Builds the snapshot that {@link WorldSnapshot#apply(ChangeSet)} returns.
+ *
+ * <p>A country is "dirty" when its own row changed, when one of its cities was
+ * added, removed or changed population, or when its capital city changed. Only
+ * dirty countries get new rows: their city population is moved by the difference
+ * the changed cities make, and their capital is looked up again. The sorted
+ * country, city and capital lists keep every other row in place and merge the
+ * new rows in. The population rollup and the language speaker totals are
+ * adjusted by taking the dirty rows' old figures out and putting the new ones in.</p>
+ *
+ * <p>Cities are listed under their country's name, continent and region, so a
+ * country whose labels change has all of its cities re-listed as well.</p>
+ *
+ * <p>Nothing reachable from the old snapshot is modified: maps are copied and
+ * changed rows and totals are replaced, never updated in place.</p>
+ *
+ * <p>The work that scales with the change is the re-join of the dirty rows,
+ * their sort and the rollup and speaker adjustments. The rest of an apply is
+ * still linear in the whole data set, with small constants and no re-sorting:
+ * the city and country maps are copied, the city columns, country and capital
+ * lists are rebuilt by merging, their scope indexes are rebuilt (on names folded
+ * once per distinct string), and every language is ranked again, since a change
+ * to any country's population moves every percent of world. That suits a change
+ * feed polled every few seconds; a much higher change rate needs persistent
+ * maps and per-key index patches instead.</p>
+ */
+final class SnapshotPatch {
+
+    private SnapshotPatch() { }
+
+    static WorldSnapshot apply(WorldSnapshot old, ChangeSet changes) {
+        Map<String, CountryRow> byCode = new HashMap<>(old.countriesByCode);
+        Map<Integer, CityRow> cityRows = new HashMap<>(old.cityRows);
+
+        // Cities: swap the raw rows and note how far each country's city population moves.
+        Map<String, Long> cityDelta = new HashMap<>();
+        for (Map.Entry<Integer, CityRow> e : changes.cities.entrySet()) {
+            CityRow before = old.cityRows.get(e.getKey());
+            CityRow after = e.getValue();
+            if (before != null) cityDelta.merge(before.countryCode, -before.population, Long::sum);
+            if (after != null) {
+                cityRows.put(after.id, after);
+                cityDelta.merge(after.countryCode, after.population, Long::sum);
+            } else {
+                cityRows.remove(e.getKey());
+            }
+        }
+
+        Set<String> dirty = new HashSet<>(changes.countries.keySet());
+        dirty.addAll(cityDelta.keySet());
+        if (!changes.cities.isEmpty()) {
+            for (CountryRow co : old.countriesByCode.values()) {
+                if (co.capitalId != null && changes.cities.containsKey(co.capitalId)) dirty.add(co.code);
+            }
+        }
+
+        // New rows for the dirty countries; a null source means the country is gone (or never existed).
+        Map<String, CountryRow> replaced = new HashMap<>();
+        Set<String> relabeled = new HashSet<>();
+        for (String code : dirty) {
+            CountryRow before = old.countriesByCode.get(code);
+            CountryRow source = changes.countries.containsKey(code) ? changes.countries.get(code) : before;
+            if (source == null) {
+                byCode.remove(code);
+                if (before != null) relabeled.add(code);
+                continue;
+            }
+            // A new country adopts any cities that already named it.
+            long cityPopulation = before != null
+                    ? before.cityPopulation + cityDelta.getOrDefault(code, 0L)
+                    : cityPopulationOf(cityRows, code);
+            CityRow capital = source.capitalId == null ? null : cityRows.get(source.capitalId);
+            CountryRow row = source.withTotals(capital == null ? null : capital.name, cityPopulation);
+            byCode.put(code, row);
+            replaced.put(code, row);
+            if (before == null || !before.sameLabels(row)) relabeled.add(code);
+        }
+
+        List<CountryRow> countries = merge(
+                filter(old.countries, co -> !dirty.contains(co.code)),
+                sorted(replaced.values(), COUNTRY_ORDER),
+                COUNTRY_ORDER);
+
+        // Re-list the changed cities, and every city of a country whose labels changed.
+        Set<Integer> relisted = new HashSet<>(changes.cities.keySet());
+        if (!relabeled.isEmpty()) {
+            for (CityRow ci : cityRows.values()) {
+                if (relabeled.contains(ci.countryCode)) relisted.add(ci.id);
+            }
+        }
+        CityTable.Builder added = new CityTable.Builder();
+        for (int id : relisted) {
+            CityRow ci = cityRows.get(id);
+            CountryRow co = ci == null ? null : byCode.get(ci.countryCode);
+            if (co != null) added.add(ci.id, ci.name, co.name, co.continent, co.region, ci.district, ci.population);
+        }
+        CityTable cities = old.cities.patch(relisted, added);
+
+        List<CapitalRow> newCapitals = new ArrayList<>();
+        for (CountryRow co : replaced.values()) {
+            CityRow capital = co.capitalId == null ? null : cityRows.get(co.capitalId);
+            if (capital != null) newCapitals.add(new CapitalRow(capital.name, capital.district, capital.population, co));
+        }
+        List<CapitalRow> capitals = merge(
+                filter(old.capitals, cap -> !dirty.contains(cap.country.code)),
+                sorted(newCapitals, CAPITAL_ORDER),
+                CAPITAL_ORDER);
+
+        List<CountryTotals> removedTotals = new ArrayList<>();
+        for (String code : dirty) {
+            CountryRow before = old.countriesByCode.get(code);
+            if (before != null) removedTotals.add(totals(before));
+        }
+        List<CountryTotals> addedTotals = new ArrayList<>();
+        for (CountryRow co : replaced.values()) addedTotals.add(totals(co));
+        PopulationRollup rollup = old.rollup.patch(removedTotals, addedTotals);
+
+        // Languages: re-count the rows of each country whose rows or population changed.
+        Map<String, Map<String, LanguageRow>> languageChanges = new HashMap<>();
+        for (Map.Entry<LanguageKey, LanguageRow> e : changes.languages.entrySet()) {
+            languageChanges.computeIfAbsent(e.getKey().countryCode(), k -> new LinkedHashMap<>())
+                    .put(e.getKey().language(), e.getValue());
+        }
+        Set<String> recount = new HashSet<>(changes.countries.keySet());
+        recount.addAll(languageChanges.keySet());
+
+        Map<String, List<LanguageRow>> languagesByCountry = new HashMap<>(old.languagesByCountry);
+        Map<String, long[]> languageTotals = new HashMap<>(old.languageTotals);
+        Set<String> copied = new HashSet<>();
+        int languageRows = old.languageRows;
+        for (String code : recount) {
+            List<LanguageRow> before = old.languagesByCountry.getOrDefault(code, List.of());
+            Map<String, LanguageRow> after = new LinkedHashMap<>();
+            for (LanguageRow cl : before) after.put(cl.language, cl);
+            languageChanges.getOrDefault(code, Map.of()).forEach((language, cl) -> {
+                if (cl == null) after.remove(language);
+                else after.put(language, cl);
+            });
+
+            CountryRow oldCountry = old.countriesByCode.get(code);
+            CountryRow newCountry = byCode.get(code);
+            for (LanguageRow cl : before) {
+                copyOnWrite(languageTotals, copied, cl.language);
+                addSpeakers(languageTotals, cl, oldCountry, -1);
+            }
+            for (LanguageRow cl : after.values()) {
+                copyOnWrite(languageTotals, copied, cl.language);
+                addSpeakers(languageTotals, cl, newCountry, 1);
+            }
+
+            if (after.isEmpty()) languagesByCountry.remove(code);
+            else languagesByCountry.put(code, List.copyOf(after.values()));
+            languageRows += after.size() - before.size();
+        }
+
+        return new WorldSnapshot(countries, byCode, cities, cityRows, capitals,
+                languagesByCountry, languageTotals, languageRows, rollup);
+    }
+
+    /** Merges two lists already sorted by {@code order}; on ties the kept row comes first. */
+    static <T> List<T> merge(List<T> kept, List<T> added, Comparator<? super T> order) {
+        List<T> out = new ArrayList<>(kept.size() + added.size());
+        int i = 0;
+        int j = 0;
+        while (i < kept.size() || j < added.size()) {
+            if (j == added.size() || i < kept.size() && order.compare(kept.get(i), added.get(j)) <= 0) {
+                out.add(kept.get(i++));
+            } else {
+                out.add(added.get(j++));
+            }
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    private static <T> List<T> filter(List<T> rows, Predicate<T> keep) {
+        List<T> out = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            if (keep.test(row)) out.add(row);
+        }
+        return out;
+    }
+
+    private static <T> List<T> sorted(Iterable<T> rows, Comparator<? super T> order) {
+        List<T> out = new ArrayList<>();
+        rows.forEach(out::add);
+        out.sort(order);
+        return out;
+    }
+
+    /** Only needed for a country that did not exist before, so it is the one full pass over the cities. */
+    private static long cityPopulationOf(Map<Integer, CityRow> cityRows, String code) {
+        long total = 0;
+        for (CityRow ci : cityRows.values()) {
+            if (code.equals(ci.countryCode)) total += ci.population;
+        }
+        return total;
+    }
+
+    private static CountryTotals totals(CountryRow co) {
+        return new CountryTotals(co.name, co.continent, co.region, co.population, co.cityPopulation);
+    }
+
+    /** The old snapshot's totals are shared with the new map; copy a language's array before changing it. */
+    private static void copyOnWrite(Map<String, long[]> totals, Set<String> copied, String language) {
+        if (copied.add(language)) {
+            long[] t = totals.get(language);
+            if (t != null) totals.put(language, t.clone());
+        }
+    }
+}
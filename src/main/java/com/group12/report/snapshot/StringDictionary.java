@@ -0,0 +1,66 @@
+package com.group12.report.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shared pool of the strings a {@link CityTable} repeats on many rows (country,
+ * continent, region and district names), each stored once and referred to by
+ * an {@code int} code.
+ *
+ * <p>Codes are dense, starting at 0, in the order strings were first added.
+ * {@code null} is encoded as {@code -1}. Each string is also kept lower-cased,
+ * so case-insensitive indexes fold it once rather than once per row. Not
+ * thread-safe while it is being filled; read-only afterwards.</p>
+ */
+final class StringDictionary {
+
+    static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final List<String> folded = new ArrayList<>();
+
+    /** Code for {@code value}, adding it if it is new. */
+    int encode(String value) {
+        if (value == null) return NULL;
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+            folded.add(value.toLowerCase(Locale.ROOT));
+        }
+        return code;
+    }
+
+    /** Whether every string in {@code other} already has a code here. */
+    boolean containsAll(StringDictionary other) {
+        return codes.keySet().containsAll(other.values);
+    }
+
+    /** A dictionary with the same codes, which can then grow without affecting this one. */
+    StringDictionary copy() {
+        StringDictionary copy = new StringDictionary();
+        copy.codes.putAll(codes);
+        copy.values.addAll(values);
+        copy.folded.addAll(folded);
+        return copy;
+    }
+
+    String decode(int code) {
+        return code == NULL ? null : values.get(code);
+    }
+
+    /** The string for {@code code} in lower case (root locale). */
+    String decodeFolded(int code) {
+        return code == NULL ? null : folded.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,666 @@
+package com.group12.report.snapshot;
+
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * In-memory copy of the {@code city}, {@code country} and {@code countrylanguage}
+ * tables that can answer every report without going back to MySQL.
+ *
+ * <p>The three tables are read once (see {@link #load(Connection)}) and joined
+ * up front. Countries and cities are kept sorted by population, largest first,
+ * and a {@link ScopeIndex} per table lists the rows of each continent, region,
+ * country and district in that order. Every "organised by population" report is
+ * then a walk over just the matching rows that stops at the limit. Cities are
+ * held column by column in a {@link CityTable}; report rows are only created
+ * for the cities a report returns.</p>
+ *
+ * <p>A snapshot is immutable once built and safe to share between threads. The
+ * indexes are built in the constructor with the rows they point into, so a
+ * refreshed snapshot replaces data and indexes together in one reference swap.
+ * {@link #apply(ChangeSet)} builds that refreshed snapshot from just the rows that
+ * changed, adjusting the aggregates by the difference instead of recomputing them.</p>
+ */
+public final class WorldSnapshot {
+
+    private static final Logger LOGGER = Logger.getLogger(WorldSnapshot.class.getName());
+
+    /** Column lists of the three bulk reads; {@link ChangeLog} adds a WHERE to re-read changed rows. */
+    static final String COUNTRY_SQL = "SELECT Code, Name, Continent, Region, Population, Capital FROM country";
+    static final String CITY_SQL = "SELECT ID, Name, CountryCode, District, Population FROM city";
+    static final String LANGUAGE_SQL = "SELECT CountryCode, Language, IsOfficial, Percentage FROM countrylanguage";
+
+    /** List orders: population, largest first, ties by primary key so every row has a unique place. */
+    static final Comparator<CountryRow> COUNTRY_ORDER =
+            Comparator.comparingLong((CountryRow co) -> co.population).reversed().thenComparing(co -> co.code);
+    static final Comparator<CityRow> CITY_ORDER =
+            Comparator.comparingLong((CityRow ci) -> ci.population).reversed().thenComparingInt(ci -> ci.id);
+    static final Comparator<CapitalRow> CAPITAL_ORDER =
+            Comparator.comparingLong((CapitalRow cap) -> cap.population).reversed().thenComparing(cap -> cap.country.code);
+
+    /** Countries sorted by population, largest first. */
+    final List<CountryRow> countries;
+
+    /** Cities that have a country, sorted by population, largest first. */
+    final CityTable cities;
+
+    /** Capital / country pairs, sorted by the capital's population, largest first. */
+    final List<CapitalRow> capitals;
+
+    /** Positions in {@link #countries} and {@link #capitals} for each scope value. */
+    private final ScopeIndex countryIndex;
+    private final ScopeIndex capitalIndex;
+
+    // Raw rows by primary key, kept so that apply() can find what a change replaces.
+    // Rows are never modified once a snapshot is built; apply() copies the maps.
+
+    /** Every country by code. */
+    final Map<String, CountryRow> countriesByCode;
+
+    /** Every city by ID, including any whose country is missing. */
+    final Map<Integer, CityRow> cityRows;
+
+    /** Rows of {@code countrylanguage} by country code, including any whose country is missing. */
+    final Map<String, List<LanguageRow>> languagesByCountry;
+
+    /** Per language: SUM(population * tenths of a percent) and number of countries; see {@link #rankLanguages}. */
+    final Map<String, long[]> languageTotals;
+
+    /** Number of {@code countrylanguage} rows. */
+    final int languageRows;
+
+    /** SUM(country.Population), the denominator for all world percentages. */
+    private final long worldPopulation;
+
+    /** Every language with speakers, percent of world and country count, aggregated once at build time. */
+    private final LanguageTable languageTable;
+
+    /** World / continent / region / country breakdowns, aggregated once at build time. */
+    final PopulationRollup rollup;
+
+    WorldSnapshot(List<CountryRow> countries, Map<String, CountryRow> countriesByCode,
+                  CityTable cities, Map<Integer, CityRow> cityRows, List<CapitalRow> capitals,
+                  Map<String, List<LanguageRow>> languagesByCountry, Map<String, long[]> languageTotals,
+                  int languageRows, PopulationRollup rollup) {
+        this.countries = countries;
+        this.countriesByCode = countriesByCode;
+        this.cities = cities;
+        this.cityRows = cityRows;
+        this.capitals = capitals;
+        this.languagesByCountry = languagesByCountry;
+        this.languageTotals = languageTotals;
+        this.languageRows = languageRows;
+        this.rollup = rollup;
+
+        this.countryIndex = new ScopeIndex(countries.size(), (scope, row) -> {
+            CountryRow co = countries.get(row);
+            return switch (scope) {
+                case CONTINENT -> co.continent;
+                case REGION -> co.region;
+                case COUNTRY -> co.name;
+                case WORLD, DISTRICT -> null;
+            };
+        });
+        this.capitalIndex = new ScopeIndex(capitals.size(), (scope, row) -> {
+            CapitalRow cap = capitals.get(row);
+            return switch (scope) {
+                case CONTINENT -> cap.country.continent;
+                case REGION -> cap.country.region;
+                case COUNTRY -> cap.country.name;
+                case DISTRICT -> cap.district;
+                case WORLD -> null;
+            };
+        });
+
+        this.worldPopulation = rollup.world().getTotalPopulation();
+        this.languageTable = rankLanguages(languageTotals, worldPopulation);
+    }
+
+    /**
+     * A new snapshot with {@code changes} applied; this one is left as it was, so
+     * readers still holding it are unaffected.
+     *
+     * <p>Only the changed rows, and the countries whose totals or capital they
+     * touch, are re-joined. The sorted lists are merged with those rows rather than
+     * re-sorted, and the population rollup and language speaker totals are adjusted
+     * by the difference each changed row makes. Copying the maps and rebuilding the
+     * lists and indexes is still linear in the data set (see {@link SnapshotPatch}).</p>
+     */
+    public WorldSnapshot apply(ChangeSet changes) {
+        return changes.isEmpty() ? this : SnapshotPatch.apply(this, changes);
+    }
+
+    /**
+     * Reads the three world tables over the given connection and builds a snapshot.
+     *
+     * @param con Open connection to the {@code world} database.
+     * @return A fully joined snapshot.
+     * @throws SQLException If any of the three bulk reads fails.
+     */
+    public static WorldSnapshot load(Connection con) throws SQLException {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        read(con, builder);
+
+        WorldSnapshot snapshot = builder.build();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info(() -> String.format(
+                "Loaded world snapshot: %d countries, %d cities, %d languages in %d ms",
+                snapshot.countries.size(), snapshot.cities.size(), snapshot.languageRows, elapsedMs
+        ));
+        return snapshot;
+    }
+
+    /**
+     * Streams the three world tables, row by row, into {@code sink}.
+     *
+     * @param con  Open connection to the {@code world} database.
+     * @param sink A {@link Builder}, or anything else that takes raw rows.
+     * @throws SQLException If any of the three bulk reads fails.
+     */
+    static void read(Connection con, RowSink sink) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            try (ResultSet rs = st.executeQuery(COUNTRY_SQL)) {
+                while (rs.next()) addCountry(rs, sink);
+            }
+            try (ResultSet rs = st.executeQuery(CITY_SQL)) {
+                while (rs.next()) addCity(rs, sink);
+            }
+            try (ResultSet rs = st.executeQuery(LANGUAGE_SQL)) {
+                while (rs.next()) addLanguage(rs, sink);
+            }
+        }
+    }
+
+    /** Passes the current row of a {@link #COUNTRY_SQL} result to {@code sink}. */
+    static void addCountry(ResultSet rs, RowSink sink) throws SQLException {
+        sink.addCountry(
+                rs.getString("Code"),
+                rs.getString("Name"),
+                rs.getString("Continent"),
+                rs.getString("Region"),
+                rs.getLong("Population"),
+                (Integer) rs.getObject("Capital")
+        );
+    }
+
+    /** Passes the current row of a {@link #CITY_SQL} result to {@code sink}. */
+    static void addCity(ResultSet rs, RowSink sink) throws SQLException {
+        sink.addCity(
+                rs.getInt("ID"),
+                rs.getString("Name"),
+                rs.getString("CountryCode"),
+                rs.getString("District"),
+                rs.getLong("Population")
+        );
+    }
+
+    /** Passes the current row of a {@link #LANGUAGE_SQL} result to {@code sink}. */
+    static void addLanguage(ResultSet rs, RowSink sink) throws SQLException {
+        sink.addLanguage(
+                rs.getString("CountryCode"),
+                rs.getString("Language"),
+                "T".equals(rs.getString("IsOfficial")),
+                rs.getDouble("Percentage")
+        );
+    }
+
+    // ========================= COUNTRY / CITY / CAPITAL =========================
+
+    /**
+     * Countries in the given scope, ordered by population (largest first).
+     *
+     * @param scope Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value Continent, region or country name; ignored for WORLD.
+     * @param limit Optional limit (null or <= 0 means no limit).
+     */
+    public List<Country> countries(Scope scope, String value, Integer limit) {
+        List<Country> out = new ArrayList<>();
+        countryIndex.forEach(scope, value, maxRows(limit), row -> out.add(countries.get(row).toCountry()));
+        return out;
+    }
+
+    /**
+     * Cities in the given scope, ordered by population (largest first).
+     *
+     * @param scope Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value Continent, region, country or district name; ignored for WORLD.
+     * @param limit Optional limit (null or <= 0 means no limit).
+     */
+    public List<City> cities(Scope scope, String value, Integer limit) {
+        List<City> out = new ArrayList<>();
+        cities.forEach(scope, value, maxRows(limit), row -> out.add(cities.city(row)));
+        return out;
+    }
+
+    /**
+     * Capital cities in the given scope, ordered by population (largest first).
+     *
+     * @param scope Level to filter on ({@link Scope#WORLD} for no filter).
+     * @param value Continent, region, country or district name; ignored for WORLD.
+     * @param limit Optional limit (null or <= 0 means no limit).
+     */
+    public List<Capital> capitals(Scope scope, String value, Integer limit) {
+        List<Capital> out = new ArrayList<>();
+        capitalIndex.forEach(scope, value, maxRows(limit), row -> {
+            CapitalRow cap = capitals.get(row);
+            out.add(new Capital(cap.name, cap.country.name, cap.population));
+        });
+        return out;
+    }
+
+    // ========================= KEYSET PAGES =========================
+
+    /**
+     * The countries after a given one in world population order (largest first,
+     * ties by code), found by binary search so any page costs the same.
+     *
+     * @param population Population of the last country already seen; null for the first page.
+     * @param code       Code of the last country already seen; ignored for the first page.
+     * @param size       Page size (at least 1).
+     */
+    public SeekPage<Country> countriesAfter(Long population, String code, int size) {
+        int from = population == null ? 0 : SeekPage.firstAfter(countries.size(), row -> {
+            CountryRow co = countries.get(row);
+            return co.population < population || co.population == population && co.code.compareTo(code) > 0;
+        });
+        return SeekPage.slice(from, size, countries.size(), row -> countries.get(row).toCountry(),
+                row -> countries.get(row).population, row -> countries.get(row).code);
+    }
+
+    /**
+     * The cities after a given one in world population order (largest first, ties by ID).
+     *
+     * @param population Population of the last city already seen; null for the first page.
+     * @param id         ID of the last city already seen; ignored for the first page.
+     * @param size       Page size (at least 1).
+     */
+    public SeekPage<City> citiesAfter(Long population, int id, int size) {
+        int from = population == null ? 0 : SeekPage.firstAfter(cities.size(), row -> {
+            long pop = cities.population(row);
+            return pop < population || pop == population && cities.id(row) > id;
+        });
+        return SeekPage.slice(from, size, cities.size(), cities::city,
+                cities::population, row -> Integer.toString(cities.id(row)));
+    }
+
+    /**
+     * The capitals after a given one in world population order (largest first, ties
+     * by the code of the country they are the capital of, since one city can be the
+     * capital of more than one country).
+     *
+     * @param population Population of the last capital already seen; null for the first page.
+     * @param code       Country code of the last capital already seen; ignored for the first page.
+     * @param size       Page size (at least 1).
+     */
+    public SeekPage<Capital> capitalsAfter(Long population, String code, int size) {
+        int from = population == null ? 0 : SeekPage.firstAfter(capitals.size(), row -> {
+            CapitalRow cap = capitals.get(row);
+            return cap.population < population || cap.population == population && cap.country.code.compareTo(code) > 0;
+        });
+        return SeekPage.slice(from, size, capitals.size(), row -> {
+            CapitalRow cap = capitals.get(row);
+            return new Capital(cap.name, cap.country.name, cap.population);
+        }, row -> capitals.get(row).population, row -> capitals.get(row).country.code);
+    }
+
+    /** Number of rows {@link #countries} would return without a limit. */
+    public long countCountries(Scope scope, String value) {
+        return countryIndex.count(scope, value);
+    }
+
+    /** Number of rows {@link #cities} would return without a limit. */
+    public long countCities(Scope scope, String value) {
+        return cities.count(scope, value);
+    }
+
+    /** Number of rows {@link #capitals} would return without a limit. */
+    public long countCapitals(Scope scope, String value) {
+        return capitalIndex.count(scope, value);
+    }
+
+    /** The cities in columnar form, largest first. */
+    public CityTable cityTable() {
+        return cities;
+    }
+
+    // ========================= POPULATION =========================
+
+    /** The full world / continent / region / country breakdown, computed when the snapshot was built. */
+    public PopulationRollup rollup() {
+        return rollup;
+    }
+
+    /** Single "World" row with the city / non-city breakdown. */
+    public List<Population> worldPopulation() {
+        return List.of(rollup.world());
+    }
+
+    /** City / non-city breakdown for each continent, largest total first. */
+    public List<Population> populationByContinent() {
+        return rollup.continents();
+    }
+
+    /** City / non-city breakdown for each region, largest total first. */
+    public List<Population> populationByRegion() {
+        return rollup.regions();
+    }
+
+    /** City / non-city breakdown for each country, largest total first. */
+    public List<Population> populationByCountry() {
+        return rollup.countries();
+    }
+
+    /**
+     * Total city population of each district in one country, largest first.
+     *
+     * @param countryName Name of the country.
+     */
+    public List<Population> populationByDistrict(String countryName) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        cities.forEach(Scope.COUNTRY, countryName, Integer.MAX_VALUE,
+                row -> totals.merge(cities.district(row), cities.population(row), Long::sum));
+
+        List<Population> out = new ArrayList<>(totals.size());
+        totals.forEach((district, total) -> out.add(new Population(district, total)));
+        out.sort(Comparator.comparingLong(Population::getTotalPopulation).reversed());
+        return out;
+    }
+
+    /** Every city with its country and district, largest first. */
+    public List<Population> populationByCity() {
+        return populationByCity(null);
+    }
+
+    /**
+     * Cities with their country and district, largest first.
+     *
+     * @param limit Optional limit (null or <= 0 means no limit).
+     */
+    public List<Population> populationByCity(Integer limit) {
+        int max = maxRows(limit);
+        int rows = Math.min(max, cities.size());
+        List<Population> out = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            out.add(cities.cityPopulation(row));
+        }
+        return out;
+    }
+
+    // ========================= LANGUAGE =========================
+
+    /** Every language, ranked by speakers, computed when the snapshot was built. */
+    public LanguageTable languageTable() {
+        return languageTable;
+    }
+
+    /**
+     * Speaker counts for the requested languages, most spoken first.
+     * Languages that do not appear in {@code countrylanguage} are left out.
+     *
+     * @param names Language names to include.
+     */
+    public List<Language> languagesBySpeakerCount(List<String> names) {
+        return languageTable.select(names);
+    }
+
+    /**
+     * Adds one {@code countrylanguage} row's speakers to its language's totals, or
+     * takes them away again ({@code sign} -1) when the row or its country changes.
+     */
+    static void addSpeakers(Map<String, long[]> totals, LanguageRow cl, CountryRow country, int sign) {
+        if (country == null) return;
+        // Percentages are stored in tenths, so population * tenths is an exact integer
+        // and the sum matches MySQL's DECIMAL arithmetic to the last digit.
+        long[] t = totals.computeIfAbsent(cl.language, k -> new long[2]);
+        t[0] += sign * country.population * cl.percentTenths;
+        t[1] += sign;
+        if (t[1] == 0) totals.remove(cl.language);
+    }
+
+    /** Ranks the per-language totals, as the language table query does. */
+    private static LanguageTable rankLanguages(Map<String, long[]> totals, long worldPopulation) {
+        LanguageTable.Builder table = new LanguageTable.Builder();
+        totals.forEach((language, t) -> {
+            long speakers = (t[0] + 500) / 1000;
+            double percent = worldPopulation == 0 ? 0.0 : PopulationRollup.round2(100.0 * t[0] / 1000.0 / worldPopulation);
+            table.add(new Language(language, speakers, percent, (int) t[1]));
+        });
+        return table.build();
+    }
+
+    // ========================= HELPERS =========================
+
+    private static int maxRows(Integer limit) {
+        return limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
+    }
+
+    // ========================= ROWS =========================
+
+    /** One row of {@code country}, with its capital and city population resolved. */
+    static final class CountryRow {
+        final String code;
+        final String name;
+        final String continent;
+        final String region;
+        final long population;
+        final Integer capitalId;
+        String capitalName;
+        long cityPopulation;
+
+        CountryRow(String code, String name, String continent, String region,
+                   long population, Integer capitalId) {
+            this.code = code;
+            this.name = name;
+            this.continent = continent;
+            this.region = region;
+            this.population = population;
+            this.capitalId = capitalId;
+        }
+
+        /** A copy with the joined fields recomputed, for a snapshot built by apply(). */
+        CountryRow withTotals(String capitalName, long cityPopulation) {
+            CountryRow copy = new CountryRow(code, name, continent, region, population, capitalId);
+            copy.capitalName = capitalName;
+            copy.cityPopulation = cityPopulation;
+            return copy;
+        }
+
+        /** Whether a city of this country is listed under the same country, continent and region as under {@code other}. */
+        boolean sameLabels(CountryRow other) {
+            return name.equals(other.name) && Objects.equals(continent, other.continent)
+                    && Objects.equals(region, other.region);
+        }
+
+        Country toCountry() {
+            return new Country(code, name, continent, region, population,
+                    capitalId, capitalName);
+        }
+    }
+
+    /** A capital city paired with one country it is the capital of. */
+    static final class CapitalRow {
+        final String name;
+        final String district;
+        final long population;
+        final CountryRow country;
+
+        CapitalRow(String name, String district, long population, CountryRow country) {
+            this.name = name;
+            this.district = district;
+            this.population = population;
+            this.country = country;
+        }
+    }
+
+    /** One row of {@code city} while the snapshot is being built, with its country resolved. */
+    static final class CityRow {
+        final int id;
+        final String name;
+        final String countryCode;
+        final String district;
+        final long population;
+        // Joins resolved by Builder.build(); not kept up to date by apply().
+        CountryRow country;
+        List<CountryRow> capitalOf;
+
+        CityRow(int id, String name, String countryCode, String district, long population) {
+            this.id = id;
+            this.name = name;
+            this.countryCode = countryCode;
+            this.district = district;
+            this.population = population;
+        }
+    }
+
+    /** One row of {@code countrylanguage}; the percentage is kept in tenths of a percent. */
+    static final class LanguageRow {
+        final String countryCode;
+        final String language;
+        final boolean official;
+        final int percentTenths;
+
+        LanguageRow(String countryCode, String language, boolean official, int percentTenths) {
+            this.countryCode = countryCode;
+            this.language = language;
+            this.official = official;
+            this.percentTenths = percentTenths;
+        }
+    }
+
+    // ========================= BUILDER =========================
+
+    /**
+     * Receives the raw rows of {@code country}, {@code city} and
+     * {@code countrylanguage}, one call per row, in any order.
+     */
+    public interface RowSink {
+        RowSink addCountry(String code, String name, String continent, String region,
+                           long population, Integer capitalId);
+
+        RowSink addCity(int id, String name, String countryCode, String district, long population);
+
+        /** {@code percentage} has one decimal place, as in the {@code Percentage} column. */
+        RowSink addLanguage(String countryCode, String language, boolean official, double percentage);
+    }
+
+    /**
+     * Collects raw table rows and joins them into a {@link WorldSnapshot}.
+     * Rows may be added in any order; foreign keys are resolved in {@link #build()}.
+     */
+    public static final class Builder implements RowSink {
+        private final List<CountryRow> countries = new ArrayList<>();
+        private final List<CityRow> cities = new ArrayList<>();
+        private final List<LanguageRow> languages = new ArrayList<>();
+
+        @Override
+        public Builder addCountry(String code, String name, String continent, String region,
+                                  long population, Integer capitalId) {
+            countries.add(new CountryRow(code, name, continent, region, population, capitalId));
+            return this;
+        }
+
+        @Override
+        public Builder addCity(int id, String name, String countryCode, String district, long population) {
+            cities.add(new CityRow(id, name, countryCode, district, population));
+            return this;
+        }
+
+        @Override
+        public Builder addLanguage(String countryCode, String language, boolean official, double percentage) {
+            languages.add(new LanguageRow(countryCode, language, official, (int) Math.round(percentage * 10)));
+            return this;
+        }
+
+        public WorldSnapshot build() {
+            Map<String, CountryRow> byCode = new HashMap<>(countries.size() * 2);
+            for (CountryRow co : countries) {
+                byCode.put(co.code, co);
+                co.cityPopulation = 0;
+            }
+
+            Map<Integer, CityRow> byId = new HashMap<>(cities.size() * 2);
+            for (CityRow ci : cities) {
+                byId.put(ci.id, ci);
+                ci.country = byCode.get(ci.countryCode);
+                if (ci.country != null) {
+                    ci.country.cityPopulation += ci.population;
+                }
+            }
+
+            for (CityRow ci : cities) {
+                ci.capitalOf = null;
+            }
+            for (CountryRow co : countries) {
+                co.capitalName = null;
+                if (co.capitalId == null) continue;
+                CityRow capital = byId.get(co.capitalId);
+                if (capital != null) {
+                    co.capitalName = capital.name;
+                    if (capital.capitalOf == null) capital.capitalOf = new ArrayList<>(1);
+                    capital.capitalOf.add(co);
+                }
+            }
+
+            Map<String, List<LanguageRow>> languagesByCountry = new HashMap<>();
+            Map<String, long[]> languageTotals = new HashMap<>();
+            for (LanguageRow cl : languages) {
+                languagesByCountry.computeIfAbsent(cl.countryCode, k -> new ArrayList<>(4)).add(cl);
+                addSpeakers(languageTotals, cl, byCode.get(cl.countryCode), 1);
+            }
+
+            PopulationRollup.Builder rollup = new PopulationRollup.Builder();
+            for (CountryRow co : countries) {
+                rollup.addCountry(co.name, co.continent, co.region, co.population, co.cityPopulation);
+            }
+
+            // Ties are broken by primary key, so every row has a unique place for the keyset pages.
+            List<CountryRow> sortedCountries = new ArrayList<>(countries);
+            sortedCountries.sort(COUNTRY_ORDER);
+
+            List<CityRow> sortedCities = new ArrayList<>(cities);
+            sortedCities.sort(CITY_ORDER);
+
+            // Same inner join as the SQL: cities without a country are never reported.
+            CityTable.Builder table = new CityTable.Builder();
+            List<CapitalRow> capitals = new ArrayList<>();
+            for (CityRow ci : sortedCities) {
+                if (ci.country != null) {
+                    table.add(ci.id, ci.name, ci.country.name, ci.country.continent, ci.country.region,
+                            ci.district, ci.population);
+                }
+                if (ci.capitalOf != null) {
+                    // A city can be the capital of more than one country row; report each pairing.
+                    for (CountryRow co : ci.capitalOf) {
+                        capitals.add(new CapitalRow(ci.name, ci.district, ci.population, co));
+                    }
+                }
+            }
+            capitals.sort(CAPITAL_ORDER);
+
+            return new WorldSnapshot(
+                    List.copyOf(sortedCountries), byCode,
+                    table.build(), byId,
+                    List.copyOf(capitals),
+                    languagesByCountry, languageTotals, languages.size(),
+                    rollup.build()
+            );
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.group12.report.snapshot;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Reads a MySQL dump of the {@code world} database, such as
+ * {@code world-db/world-db/world.sql}, straight into a {@link WorldSnapshot},
+ * with no MySQL server involved.
+ *
+ * <p>The dump is scanned once, character by character, through a fixed-size
+ * buffer. Only {@code CREATE TABLE} (for the column order) and
+ * {@code INSERT INTO ... VALUES} for {@code city}, {@code country} and
+ * {@code countrylanguage} are parsed. Other statements, other tables and
+ * comments are skipped. Each row goes to a {@link WorldSnapshot.RowSink} as
+ * soon as it is read. Columns are found by name, so extra columns or a
+ * different column order do not matter.</p>
+ *
+ * <p>Quoted values follow MySQL's rules: backslash escapes and doubled quotes.
+ * An unquoted {@code NULL} is a null value.</p>
+ */
+public final class WorldSqlLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(WorldSqlLoader.class.getName());
+
+    /** The three tables a snapshot is built from, and the columns each needs. */
+    private enum Table {
+        CITY("ID", "Name", "CountryCode", "District", "Population"),
+        COUNTRY("Code", "Name", "Continent", "Region", "Population", "Capital"),
+        COUNTRYLANGUAGE("CountryCode", "Language", "IsOfficial", "Percentage");
+
+        final String[] columns;
+
+        Table(String... columns) {
+            this.columns = columns;
+        }
+
+        static Table of(String name) {
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "city" -> CITY;
+                case "country" -> COUNTRY;
+                case "countrylanguage" -> COUNTRYLANGUAGE;
+                default -> null;
+            };
+        }
+    }
+
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final WorldSnapshot.RowSink sink;
+    private final char[] buf = new char[1 << 16];
+    private int pos;
+    private int len;
+    private int line = 1;
+
+    /** Column names per table, from its CREATE TABLE. */
+    private final Map<Table, List<String>> schema = new HashMap<>();
+    private final List<String> row = new ArrayList<>();
+    private final StringBuilder token = new StringBuilder(64);
+    private long rows;
+
+    private WorldSqlLoader(Reader in, WorldSnapshot.RowSink sink) {
+        this.in = in;
+        this.sink = sink;
+    }
+
+    /**
+     * Builds a snapshot from a dump file.
+     *
+     * @throws IOException If the file cannot be read or is not a dump this loader understands.
+     */
+    public static WorldSnapshot load(Path file) throws IOException {
+        long start = System.nanoTime();
+        WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+        long rows;
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+            rows = read(reader, builder);
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        WorldSnapshot snapshot = builder.build();
+        LOGGER.info(() -> String.format("Loaded %d rows from %s in %d ms",
+                rows, file, (System.nanoTime() - start) / 1_000_000));
+        return snapshot;
+    }
+
+    /**
+     * Streams every {@code city}, {@code country} and {@code countrylanguage} row
+     * of a dump into {@code sink}. The reader is not closed.
+     *
+     * @return Number of rows passed to the sink.
+     * @throws IOException If reading fails or the dump is malformed; the message gives the line.
+     */
+    public static long read(Reader in, WorldSnapshot.RowSink sink) throws IOException {
+        WorldSqlLoader loader = new WorldSqlLoader(in, sink);
+        try {
+            loader.statements();
+        } catch (NumberFormatException e) {
+            throw loader.error("bad number " + e.getMessage());
+        }
+        return loader.rows;
+    }
+
+    // ======================== STATEMENTS ========================
+
+    private void statements() throws IOException {
+        while (true) {
+            skipSpaceAndComments();
+            if (peek() == EOF) return;
+            String word = word();
+            if (word.equals("CREATE")) {
+                skipSpaceAndComments();
+                if (word().equals("TABLE")) createTable();
+                else skipStatement();
+            } else if (word.equals("INSERT")) {
+                insert();
+            } else {
+                skipStatement();
+            }
+        }
+    }
+
+    /** {@code CREATE TABLE `t` (`col` type ..., KEY ..., ...) ...;} - records the column names. */
+    private void createTable() throws IOException {
+        skipSpaceAndComments();
+        Table table = Table.of(identifier());
+        skipSpaceAndComments();
+        expect('(');
+
+        List<String> columns = new ArrayList<>();
+        while (true) {
+            skipSpaceAndComments();
+            if (peek() == '`') columns.add(identifier());
+            // Skip the rest of the definition, including parenthesised enum lists.
+            int depth = 0;
+            int c;
+            while ((c = peek()) != EOF) {
+                if (c == '\'' || c == '"' || c == '`') {
+                    quoted(read());
+                    continue;
+                }
+                read();
+                if (c == '(') depth++;
+                else if (c == ')' && depth-- == 0) break;
+                else if (c == ',' && depth == 0) break;
+            }
+            if (c == ')' || c == EOF) break;
+        }
+        if (table != null) schema.put(table, columns);
+        skipStatement();
+    }
+
+    /** {@code INSERT INTO `t` [(`col`, ...)] VALUES (...), (...);} */
+    private void insert() throws IOException {
+        String word;
+        do {
+            skipSpaceAndComments();
+            word = word();
+        } while (!word.equals("INTO") && !word.isEmpty());
+        skipSpaceAndComments();
+        String name = identifier();
+        Table table = Table.of(name);
+
+        skipSpaceAndComments();
+        List<String> columns = table == null ? null : schema.get(table);
+        if (peek() == '(') {
+            read();
+            columns = new ArrayList<>();
+            while (true) {
+                skipSpaceAndComments();
+                columns.add(identifier());
+                skipSpaceAndComments();
+                if (read() == ')') break;
+            }
+            skipSpaceAndComments();
+        }
+        if (table == null) {
+            skipStatement();
+            return;
+        }
+        if (columns == null) throw error("INSERT into `" + name + "` before its CREATE TABLE");
+        int[] positions = positions(table, columns);
+
+        if (!word().equals("VALUES")) throw error("expected VALUES");
+        while (true) {
+            skipSpaceAndComments();
+            expect('(');
+            row.clear();
+            while (true) {
+                skipSpaceAndComments();
+                row.add(value());
+                skipSpaceAndComments();
+                int c = read();
+                if (c == ')') break;
+                if (c != ',') throw error("expected ',' or ')' in VALUES");
+            }
+            if (row.size() != columns.size()) {
+                throw error("`" + name + "` row has " + row.size() + " values for " + columns.size() + " columns");
+            }
+            emit(table, positions);
+
+            skipSpaceAndComments();
+            int c = read();
+            if (c == ';' || c == EOF) return;
+            if (c != ',') throw error("expected ',' or ';' after a row");
+        }
+    }
+
+    private int[] positions(Table table, List<String> columns) throws IOException {
+        int[] positions = new int[table.columns.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = -1;
+            for (int j = 0; j < columns.size(); j++) {
+                if (columns.get(j).equalsIgnoreCase(table.columns[i])) positions[i] = j;
+            }
+            if (positions[i] < 0) {
+                throw error("`" + table.name().toLowerCase(Locale.ROOT) + "` has no column " + table.columns[i]);
+            }
+        }
+        return positions;
+    }
+
+    private void emit(Table table, int[] p) {
+        switch (table) {
+            case CITY -> sink.addCity(Integer.parseInt(row.get(p[0])), row.get(p[1]), row.get(p[2]),
+                    row.get(p[3]), Long.parseLong(row.get(p[4])));
+            case COUNTRY -> {
+                String capital = row.get(p[5]);
+                sink.addCountry(row.get(p[0]), row.get(p[1]), row.get(p[2]), row.get(p[3]),
+                        Long.parseLong(row.get(p[4])), capital == null ? null : Integer.valueOf(capital));
+            }
+            case COUNTRYLANGUAGE -> sink.addLanguage(row.get(p[0]), row.get(p[1]),
+                    "T".equals(row.get(p[2])), Double.parseDouble(row.get(p[3])));
+        }
+        rows++;
+    }
+
+    // ======================== TOKENS ========================
+
+    /** A quoted string, {@code NULL} (as null), or a bare number. */
+    private String value() throws IOException {
+        int c = peek();
+        if (c == '\'' || c == '"') return quoted(read());
+
+        token.setLength(0);
+        while ((c = peek()) != EOF && c != ',' && c != ')' && !Character.isWhitespace(c)) {
+            token.append((char) read());
+        }
+        if (token.isEmpty()) throw error("expected a value");
+        return token.length() == 4 && "NULL".contentEquals(token) ? null : token.toString();
+    }
+
+    /** Reads up to the closing {@code quote}, undoing backslash escapes and doubled quotes. */
+    private String quoted(int quote) throws IOException {
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == EOF) throw error("unterminated quoted value");
+            if (c == quote) {
+                if (peek() != quote) return token.toString();
+                read();
+            } else if (c == '\\' && quote != '`') {
+                c = read();
+                switch (c) {
+                    case 'n' -> c = '\n';
+                    case 'r' -> c = '\r';
+                    case 't' -> c = '\t';
+                    case '0' -> c = '\0';
+                    case 'Z' -> c = 26;
+                    case EOF -> throw error("unterminated quoted value");
+                    default -> { }
+                }
+            }
+            token.append((char) c);
+        }
+    }
+
+    /** A backquoted or bare name. */
+    private String identifier() throws IOException {
+        if (peek() == '`') return quoted(read());
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.')) {
+            token.append((char) read());
+        }
+        if (token.isEmpty()) throw error("expected a name");
+        return token.toString();
+    }
+
+    /** Upper-cased keyword, or "" if the next character does not start one. */
+    private String word() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && Character.isLetter(c)) {
+            token.append((char) read());
+        }
+        return token.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private void skipStatement() throws IOException {
+        int c;
+        while ((c = read()) != EOF && c != ';') {
+            if (c == '\'' || c == '"' || c == '`') quoted(c);
+        }
+    }
+
+    /** Whitespace, {@code -- } and {@code #} line comments, and {@code /* *}{@code /} blocks (including {@code /*!...*}{@code /}). */
+    private void skipSpaceAndComments() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == EOF) return;
+            if (Character.isWhitespace(c)) {
+                read();
+            } else if (c == '#' || (c == '-' && peek(1) == '-')) {
+                while ((c = read()) != EOF && c != '\n') { }
+            } else if (c == '/' && peek(1) == '*') {
+                read();
+                read();
+                int prev = 0;
+                while ((c = read()) != EOF && !(prev == '*' && c == '/')) prev = c;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = read();
+        if (c != expected) throw error("expected '" + expected + "'");
+    }
+
+    private IOException error(String message) {
+        return new IOException("line " + line + ": " + message);
+    }
+
+    // ======================== INPUT ========================
+
+    private int read() throws IOException {
+        if (pos == len && !fill()) return EOF;
+        char c = buf[pos++];
+        if (c == '\n') line++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        return peek(0);
+    }
+
+    private int peek(int ahead) throws IOException {
+        if (pos + ahead >= len && !fill()) return EOF;
+        return pos + ahead < len ? buf[pos + ahead] : EOF;
+    }
+
+    /** Keeps unread characters and reads more after them; false at end of input. */
+    private boolean fill() throws IOException {
+        int keep = len - pos;
+        System.arraycopy(buf, pos, buf, 0, keep);
+        pos = 0;
+        len = keep;
+        int n = in.read(buf, len, buf.length - len);
+        if (n <= 0) return len > 0;
+        len += n;
+        return true;
+    }
+}
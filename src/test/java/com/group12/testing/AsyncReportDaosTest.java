@@ -0,0 +1,112 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.AsyncReportDaos;
+import com.group12.report.data_access.ReportDaos;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AsyncReportDaos.
+ *  - several reports fan out and combine into one result
+ *  - no more than maxConcurrency calls run at once
+ *  - a DAO exception, or an executor that refuses work, fails the future
+ */
+class AsyncReportDaosTest {
+
+    static final WorldSnapshot SNAPSHOT = new WorldSnapshot.Builder()
+            .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710)
+            .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+            .addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974)
+            .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+            .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+            .addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L)
+            .addLanguage("MMR", "Burmese", true, 69.0)
+            .addLanguage("THA", "Thai", true, 52.6)
+            .addLanguage("FRA", "French", true, 93.6)
+            .build();
+
+    ExecutorService executor;
+
+    @BeforeEach
+    void start() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fanOut_CombinesReports() {
+        AsyncReportDaos async = new AsyncReportDaos(() -> ReportDaos.of(SNAPSHOT), executor, 4);
+
+        CompletableFuture<List<Country>> asia = async.getCountriesByContinent("Asia", null);
+        CompletableFuture<List<Population>> continents = async.getPopulationByContinent();
+        CompletableFuture<List<Language>> ranking = async.getLanguageRanking(0, 1);
+
+        String summary = asia.thenCombine(continents, (countries, rollup) ->
+                        countries.size() + " countries, " + rollup.get(0).getName())
+                .thenCombine(ranking, (s, languages) -> s + ", " + languages.get(0).getName())
+                .join();
+
+        assertEquals("2 countries, Asia, French", summary);
+        assertEquals(3L, (long) async.countCities(Scope.WORLD, null).join());
+    }
+
+    @Test
+    void submit_RunsAtMostMaxConcurrency() {
+        AsyncReportDaos async = new AsyncReportDaos(() -> ReportDaos.of(SNAPSHOT), executor, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(async.submit(d -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return d.cities().getAllCitiesByPopulation(null).size();
+            }));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(2, peak.get());
+        calls.forEach(c -> assertEquals(3, (int) c.join()));
+    }
+
+    @Test
+    void failures_CompleteExceptionally() {
+        AsyncReportDaos async = new AsyncReportDaos(() -> ReportDaos.of(SNAPSHOT), executor, 1);
+
+        CompletionException bad = assertThrows(CompletionException.class,
+                () -> async.getCitiesPage("not a token!", 10).join());
+        assertTrue(bad.getCause() instanceof IllegalArgumentException);
+
+        executor.shutdown();
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> async.getWorldPopulation().join());
+        assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+    }
+}
@@ -0,0 +1,72 @@
+package com.group12.testing;
+
+import com.group12.report.models.City;
+import com.group12.report.snapshot.CityTable;
+import com.group12.report.snapshot.Scope;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CityTable.
+ *  - rows come out sorted by population, ties in load order
+ *  - repeated names are stored once in the shared dictionary
+ *  - scope counts match case-insensitively, like MySQL
+ *  - rows materialise back into the same City values
+ */
+class CityTableTest {
+
+    static CityTable table;
+
+    @BeforeAll
+    static void init() {
+        table = new CityTable.Builder()
+                .add(2711, "Mandalay", "Myanmar", "Asia", "Southeast Asia", "Mandalay", 885_300L)
+                .add(3320, "Bangkok", "Thailand", "Asia", "Southeast Asia", "Bangkok", 6_320_174L)
+                .add(2710, "Rangoon (Yangon)", "Myanmar", "Asia", "Southeast Asia", "Rangoon [Yangon]", 3_361_700L)
+                .add(2712, "Moulmein (Mawlamyine)", "Myanmar", "Asia", "Southeast Asia", "Mon", 307_900L)
+                .add(2713, "Pegu (Bago)", "Myanmar", "Asia", "Southeast Asia", "Pegu [Bago]", 190_900L)
+                .add(2714, "Bassein (Pathein)", "Myanmar", "Asia", "Southeast Asia", "Irrawaddy [Ayeyarwad", 183_900L)
+                .add(2974, "Paris", "France", "Europe", "Western Europe", "Île-de-France", 2_125_246L)
+                .add(2975, "Marseille", "France", "Europe", "Western Europe", "Provence-Alpes-Côte", 798_430L)
+                .build();
+    }
+
+    @Test
+    void rows_SortedByPopulationDescending() {
+        assertEquals(8, table.size());
+        assertEquals("Bangkok", table.name(0));
+        assertEquals(3320, table.id(0));
+        assertEquals("Bassein (Pathein)", table.name(table.size() - 1));
+        for (int row = 1; row < table.size(); row++) {
+            assertTrue(table.population(row - 1) >= table.population(row));
+        }
+    }
+
+    @Test
+    void dictionary_StoresRepeatedNamesOnce() {
+        // 3 countries + 2 continents + 2 regions + 8 districts, from 32 coded cells.
+        assertEquals(15, table.dictionarySize());
+    }
+
+    @Test
+    void count_IgnoresCaseAndMatchesTheRightColumn() {
+        assertEquals(5, table.count(Scope.COUNTRY, "MYANMAR"));
+        assertEquals(1, table.count(Scope.DISTRICT, "bangkok"));
+        assertEquals(0, table.count(Scope.COUNTRY, "Bangkok"));
+        assertEquals(0, table.count(Scope.REGION, "Atlantis"));
+        assertEquals(2, table.count(Scope.CONTINENT, "europe"));
+    }
+
+    @Test
+    void city_MaterialisesRow() {
+        City paris = table.city(2);
+
+        assertEquals("Paris", paris.getName());
+        assertEquals("France", paris.getCountry());
+        assertEquals("Île-de-France", paris.getDistrict());
+        assertEquals(2_125_246L, paris.getPopulation());
+        assertEquals("Paris", table.cityPopulation(2).getName());
+    }
+}
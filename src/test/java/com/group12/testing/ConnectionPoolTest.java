@@ -0,0 +1,200 @@
+package com.group12.testing;
+
+import com.group12.report.db.ConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConnectionPool's statement cache, against a fake JDBC driver
+ * that only counts how many statements were prepared and closed.
+ *  - same SQL on the next borrow: served from the cache
+ *  - same SQL twice at once: second copy is not shared
+ *  - cache size 1: least recently used statement is closed
+ *  - cache size 0: every call prepares
+ *  - leased connections and statements are equal only to themselves
+ */
+class ConnectionPoolTest {
+
+    static final AtomicInteger prepared = new AtomicInteger();
+    static final AtomicInteger closedStatements = new AtomicInteger();
+
+    ConnectionPool pool;
+
+    @BeforeAll
+    static void registerFakeDriver() throws SQLException {
+        DriverManager.registerDriver(new FakeDriver());
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        prepared.set(0);
+        closedStatements.set(0);
+    }
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) pool.close();
+    }
+
+    @Test
+    void prepareStatement_SameSqlOnNextBorrow_ReusesStatement() throws SQLException {
+        pool = ConnectionPool.builder("jdbc:fake:world", "u", "p").maxSize(1).build();
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection con = pool.getConnection();
+                 PreparedStatement ps = con.prepareStatement("SELECT 1")) {
+                assertSame(con, ps.getConnection());
+            }
+        }
+
+        assertEquals(1, prepared.get());
+        assertEquals(0, closedStatements.get());
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(1, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void prepareStatement_SameSqlWhileInUse_GetsSeparateStatement() throws SQLException {
+        pool = ConnectionPool.builder("jdbc:fake:world", "u", "p").maxSize(1).build();
+
+        try (Connection con = pool.getConnection();
+             PreparedStatement first = con.prepareStatement("SELECT 1");
+             PreparedStatement second = con.prepareStatement("SELECT 1")) {
+            assertNotSame(first, second);
+        }
+
+        assertEquals(2, prepared.get());
+        assertEquals(1, closedStatements.get());
+        // The uncached copy is really closed; the cached one stays open.
+    }
+
+    @Test
+    void prepareStatement_OverCapacity_ClosesLeastRecentlyUsed() throws SQLException {
+        pool = ConnectionPool.builder("jdbc:fake:world", "u", "p").maxSize(1).statementCacheSize(1).build();
+
+        try (Connection con = pool.getConnection()) {
+            con.prepareStatement("SELECT 1").close();
+            con.prepareStatement("SELECT 2").close();
+            con.prepareStatement("SELECT 1").close();
+        }
+
+        assertEquals(3, prepared.get());
+        assertEquals(2, closedStatements.get());
+        assertEquals(0, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void prepareStatement_CacheDisabled_AlwaysPrepares() throws SQLException {
+        pool = ConnectionPool.builder("jdbc:fake:world", "u", "p").maxSize(1).statementCacheSize(0).build();
+
+        for (int i = 0; i < 2; i++) {
+            try (Connection con = pool.getConnection()) {
+                con.prepareStatement("SELECT 1").close();
+            }
+        }
+
+        assertEquals(2, prepared.get());
+        assertEquals(0, pool.getStatementCacheMisses());
+    }
+
+    /** Accepts {@code jdbc:fake:} URLs and hands out connections that do nothing but count statements. */
+    static final class FakeDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            boolean[] closed = { false };
+            return FakeJdbc.proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> fakeStatement();
+                        case "close" -> { closed[0] = true; yield null; }
+                        case "isClosed" -> closed[0];
+                        case "isValid", "getAutoCommit" -> true;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "FakeConnection";
+                        default -> null;
+                    });
+        }
+
+        private static PreparedStatement fakeStatement() {
+            prepared.incrementAndGet();
+            boolean[] closed = { false };
+            return FakeJdbc.proxy(PreparedStatement.class, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (!closed[0]) closedStatements.incrementAndGet();
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "FakeStatement";
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:fake:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+
+    @Test
+    void proxies_EqualOnlyToThemselves() throws SQLException {
+        pool = ConnectionPool.builder("jdbc:fake:world", "u", "p").maxSize(2).build();
+
+        try (Connection con = pool.getConnection();
+             Connection other = pool.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT 1");
+             PreparedStatement ps2 = other.prepareStatement("SELECT 2")) {
+            assertEquals(con, con);
+            assertEquals(System.identityHashCode(con), con.hashCode());
+            assertNotEquals(con, other);
+            assertEquals(ps, ps);
+            assertEquals(System.identityHashCode(ps), ps.hashCode());
+            assertNotEquals(ps, ps2);
+            assertTrue(Set.of(con, other).contains(con));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.group12.testing;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Minimal JDBC fakes shared by the unit tests, built from dynamic proxies.
+ *  - {@link #proxy} implements any JDBC interface with a switch over method names
+ *  - {@link #dataSource} / {@link #connection} answer each query with rows chosen by its SQL
+ *    ({@link #answering}: by its SQL and bound values) and log every statement with its bound values
+ *  - {@link #resultSet} serves rows keyed by column label
+ *  - {@link #failing} is a database that is down
+ * Methods a fake does not handle return null (or the primitive default for the caller to unbox).
+ */
+final class FakeJdbc {
+
+    private FakeJdbc() { }
+
+    /** One statement seen by a fake connection: its SQL and the values bound to it. */
+    static final class Query {
+        final String sql;
+        final Map<Integer, Object> params = new TreeMap<>();
+
+        Query(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public String toString() {
+            return sql + " " + params;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    /**
+     * A data source whose connections answer every query with {@code rows.apply(sql)}.
+     *
+     * @param log Receives each prepared or executed statement, in order; may be null.
+     */
+    static DataSource dataSource(Function<String, List<Map<String, Object>>> rows, List<Query> log) {
+        return proxy(DataSource.class, (p, m, a) -> switch (m.getName()) {
+            case "getConnection" -> connection(rows, log);
+            default -> null;
+        });
+    }
+
+    /** As {@link #dataSource(Function, List)}, for rows that depend on the bound values as well. */
+    static DataSource answering(Function<Query, List<Map<String, Object>>> rows, List<Query> log) {
+        return proxy(DataSource.class, (p, m, a) -> switch (m.getName()) {
+            case "getConnection" -> answeringConnection(rows, log);
+            default -> null;
+        });
+    }
+
+    /** A data source that always serves the same rows. */
+    static DataSource dataSource(List<Map<String, Object>> rows, List<Query> log) {
+        return dataSource(sql -> rows, log);
+    }
+
+    /** A connection answering prepared and plain statements with {@code rows.apply(sql)}. */
+    static Connection connection(Function<String, List<Map<String, Object>>> rows, List<Query> log) {
+        return answeringConnection(query -> rows.apply(query.sql), log);
+    }
+
+    private static Connection answeringConnection(Function<Query, List<Map<String, Object>>> rows, List<Query> log) {
+        return proxy(Connection.class, (p, m, a) -> switch (m.getName()) {
+            case "prepareStatement" -> {
+                Query query = record(log, (String) a[0]);
+                yield proxy(PreparedStatement.class, (ps, sm, sa) -> switch (sm.getName()) {
+                    case "setLong", "setInt", "setString", "setObject", "setDouble" -> query.params.put((Integer) sa[0], sa[1]);
+                    case "executeQuery" -> resultSet(rows.apply(query));
+                    default -> null;
+                });
+            }
+            case "createStatement" -> proxy(Statement.class, (st, sm, sa) -> switch (sm.getName()) {
+                case "executeQuery" -> resultSet(rows.apply(record(log, (String) sa[0])));
+                case "execute" -> {
+                    record(log, (String) sa[0]);
+                    yield false;
+                }
+                default -> null;
+            });
+            case "isValid" -> true;
+            default -> null;
+        });
+    }
+
+    /** A data source that cannot hand out a connection. */
+    static DataSource failing(String message) {
+        return proxy(DataSource.class, (p, m, a) -> switch (m.getName()) {
+            case "getConnection" -> throw new SQLException(message);
+            default -> null;
+        });
+    }
+
+    /**
+     * Rows keyed by column label; numbers are converted to whatever getter the caller uses.
+     * A one-column row, such as a count, can also be read by position.
+     */
+    static ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[] at = { -1 };
+        Object[] last = { null };
+        return proxy(ResultSet.class, (p, m, a) -> {
+            if (m.getName().equals("next")) return ++at[0] < rows.size();
+            if (!m.getName().startsWith("get") || a == null || !(a[0] instanceof String || a[0] instanceof Integer)) {
+                return m.getName().equals("wasNull") ? last[0] == null : null;
+            }
+            Map<String, Object> row = rows.get(at[0]);
+            Object value = a[0] instanceof String label ? row.get(label) : row.values().iterator().next();
+            last[0] = value;
+            return switch (m.getName()) {
+                case "getString" -> value == null ? null : String.valueOf(value);
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getDouble" -> value == null ? 0.0 : ((Number) value).doubleValue();
+                case "getBoolean" -> value != null && (Boolean) value;
+                default -> value;
+            };
+        });
+    }
+
+    private static Query record(List<Query> log, String sql) {
+        Query query = new Query(sql);
+        if (log != null) {
+            synchronized (log) {
+                log.add(query);
+            }
+        }
+        return query;
+    }
+}
@@ -0,0 +1,148 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.ReportQueries;
+import com.group12.report.db.IndexCheck;
+import com.group12.report.db.IndexCheck.Index;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IndexCheck.
+ *  - world_indexes.sql creates exactly the indexes the check looks for
+ *  - indexes match by columns and direction (or the full reverse), not by name
+ *  - create mode issues the CREATE INDEX statements for the missing ones
+ *  - EXPLAIN rows are compared with the expected keys, under the names the indexes exist as
+ *  - the plans explain the DAOs' own statements, with a value for each placeholder
+ */
+class IndexCheckTest {
+
+    @Test
+    void migration_CreatesRequiredIndexes() throws IOException {
+        String sql = Files.readString(Path.of("world-db", "world-db", "world_indexes.sql"));
+
+        for (Index index : IndexCheck.REQUIRED) {
+            assertTrue(sql.contains(index.ddl() + ";"), index.name());
+        }
+        assertEquals(IndexCheck.REQUIRED.size(), sql.split("CREATE INDEX", -1).length - 1);
+    }
+
+    @Test
+    void missing_MatchesByColumnsNotName() throws SQLException {
+        List<String[]> statistics = List.of(
+                new String[] { "city", "PRIMARY", "ID", "A" },
+                new String[] { "city", "by_pop", "Population", "D" },
+                new String[] { "city", "by_pop", "ID", "A" },
+                new String[] { "country", "pop_asc", "Population", "A" },
+                new String[] { "country", "pop_asc", "Code", "D" },
+                new String[] { "country", "name_first", "Name", "A" },
+                new String[] { "country", "name_first", "Continent", "A" },
+                new String[] { "country", "region_only", "Region", "A" });
+        Connection con = fakeConnection(statistics, List.of(), new ArrayList<>());
+
+        List<String> missing = IndexCheck.missing(con, IndexCheck.REQUIRED).stream().map(Index::name).toList();
+
+        assertFalse(missing.contains("idx_city_population"));
+        assertFalse(missing.contains("idx_country_population"));
+        assertFalse(missing.contains("idx_country_name"));
+        assertTrue(missing.contains("idx_country_region_population"));
+        assertEquals(5, missing.size());
+
+        Map<String, String> names = IndexCheck.matches(con, IndexCheck.REQUIRED);
+        assertEquals("by_pop", names.get("idx_city_population"));
+        assertEquals("name_first", names.get("idx_country_name"));
+        assertFalse(names.containsKey("idx_country_region_population"));
+    }
+
+    @Test
+    void verify_CreateModeCreatesMissing() {
+        List<FakeJdbc.Query> log = new ArrayList<>();
+        Connection con = fakeConnection(List.of(), List.of(), log);
+
+        assertEquals(8, IndexCheck.verify(con, IndexCheck.Mode.WARN).size());
+        assertTrue(created(log).isEmpty());
+
+        assertTrue(IndexCheck.verify(con, IndexCheck.Mode.CREATE).isEmpty());
+        assertEquals(IndexCheck.REQUIRED.stream().map(Index::ddl).toList(), created(log));
+        assertTrue(IndexCheck.verify(con, IndexCheck.Mode.OFF).isEmpty());
+    }
+
+    @Test
+    void explain_ComparesChosenKeys() throws SQLException {
+        IndexCheck.PlanCheck byCountry = IndexCheck.PLANS.stream()
+                .filter(p -> p.name().equals("city.top.country")).findFirst().orElseThrow();
+
+        IndexCheck.Plan good = IndexCheck.explain(fakeConnection(List.of(), List.of(
+                explainRow("co", "ref", "idx_country_name", null),
+                explainRow("ci", "ref", "idx_city_country_population", "Using index")), new ArrayList<>()), byCountry);
+        assertTrue(good.ok());
+        assertEquals("co: ref idx_country_name; ci: ref idx_city_country_population (Using index)", good.detail());
+
+        IndexCheck.Plan bad = IndexCheck.explain(fakeConnection(List.of(), List.of(
+                explainRow("co", "ALL", null, "Using where; Using temporary; Using filesort"),
+                explainRow("ci", "ref", "CountryCode", null)), new ArrayList<>()), byCountry);
+        assertFalse(bad.ok());
+        assertTrue(bad.detail().startsWith("co: ALL - (Using where"));
+
+        Connection renamed = fakeConnection(List.of(), List.of(
+                explainRow("co", "ref", "name_first", null),
+                explainRow("ci", "ref", "idx_city_country_population", null)), new ArrayList<>());
+        assertFalse(IndexCheck.explain(renamed, byCountry).ok());
+        IndexCheck.Plan matched = IndexCheck.explain(renamed, byCountry, Map.of("idx_country_name", "name_first"));
+        assertTrue(matched.ok());
+        assertEquals(List.of("name_first", "idx_city_country_population"), matched.expected());
+    }
+
+    @Test
+    void plans_ExplainTheDaoStatements() {
+        List<String> names = IndexCheck.PLANS.stream().map(IndexCheck.PlanCheck::name).toList();
+        assertTrue(names.containsAll(List.of("city.top.continent", "city.top.region",
+                "capital.top.world", "capital.top.continent", "capital.top.region")));
+
+        for (IndexCheck.PlanCheck plan : IndexCheck.PLANS) {
+            long placeholders = plan.sql().chars().filter(c -> c == '?').count();
+            assertEquals(placeholders, plan.params().size(), plan.name());
+        }
+        IndexCheck.PlanCheck page = IndexCheck.PLANS.stream()
+                .filter(p -> p.name().equals("city.page")).findFirst().orElseThrow();
+        assertEquals(ReportQueries.cityPage().sql(), page.sql());
+        assertTrue(page.sql().contains("ci.Population < ? OR (ci.Population = ? AND ci.ID > ?)"));
+    }
+
+    private static Map<String, Object> explainRow(String table, String type, String key, String extra) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("table", table);
+        row.put("type", type);
+        row.put("key", key);
+        row.put("Extra", extra);
+        return row;
+    }
+
+    /** The CREATE statements among those a fake connection logged. */
+    private static List<String> created(List<FakeJdbc.Query> log) {
+        return log.stream().map(q -> q.sql).filter(sql -> sql.startsWith("CREATE")).toList();
+    }
+
+    /**
+     * A connection whose statistics query returns {@code statistics} (table, index,
+     * column, collation) and whose EXPLAINs return {@code plan}; every statement goes to {@code log}.
+     */
+    private static Connection fakeConnection(List<String[]> statistics, List<Map<String, Object>> plan,
+                                             List<FakeJdbc.Query> log) {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (String[] s : statistics) {
+            stats.add(Map.of("TABLE_NAME", s[0], "INDEX_NAME", s[1], "COLUMN_NAME", s[2], "COLLATION", s[3]));
+        }
+        return FakeJdbc.connection(sql -> sql.startsWith("EXPLAIN") ? plan : stats, log);
+    }
+}
@@ -0,0 +1,116 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.CapitalDAO;
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.data_access.CountryDAO;
+import com.group12.report.data_access.Page;
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for keyset (seek) pagination.
+ *  - walking the snapshot a page at a time yields the full list, ties by key
+ *  - a city that is the capital of two countries appears once per country
+ *  - the SQL pages seek past the previous page's last row and fetch one extra row
+ *  - tokens from another listing, edited tokens and empty pages are rejected
+ */
+class KeysetPageTest {
+
+    static WorldSnapshot snapshot;
+
+    @BeforeAll
+    static void init() {
+        snapshot = new WorldSnapshot.Builder()
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710)
+                .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+                .addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974)
+                .addCountry("MCO", "Monaco", "Europe", "Western Europe", 34_000L, 2974)
+                .addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null)
+                .addCountry("ATF", "French Southern territories", "Antarctica", "Antarctica", 0L, null)
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+                .addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L)
+                .addCity(2713, "Pathein", "MMR", "Irrawaddy", 144_100L)
+                .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+                .addCity(2712, "Bago", "MMR", "Pegu", 150_500L)
+                .addCity(2711, "Moulmein", "MMR", "Mon", 150_500L)
+                .addCity(2714, "Sittwe", "MMR", "Rakhine", 150_500L)
+                .build();
+    }
+
+    @Test
+    void citiesPage_WalkMatchesFullListWithTiesById() {
+        CityDAO dao = new CityDAO(snapshot);
+        List<String> walked = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<City> page = dao.getCitiesPage(token, 2);
+            page.rows().forEach(c -> walked.add(c.getName()));
+            token = page.next();
+            pages++;
+        } while (token != null);
+
+        assertEquals(4, pages);
+        assertEquals(snapshot.cities(Scope.WORLD, null, null).stream().map(City::getName).toList(), walked);
+        assertEquals(List.of("Moulmein", "Bago", "Sittwe"), walked.subList(3, 6));
+    }
+
+    @Test
+    void capitalsPage_SharedCapitalOncePerCountry() {
+        CapitalDAO dao = new CapitalDAO(snapshot);
+        Page<Capital> first = dao.getCapitalsPage(null, 2);
+        Page<Capital> second = dao.getCapitalsPage(first.next(), 2);
+
+        assertEquals(List.of("Thailand", "Myanmar"), first.rows().stream().map(Capital::getCountry).toList());
+        assertEquals(List.of("France", "Monaco"), second.rows().stream().map(Capital::getCountry).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void citiesPage_SqlSeeksPastLastRow() {
+        List<FakeJdbc.Query> log = new ArrayList<>();
+        List<Map<String, Object>> rows = List.of(
+                city("Bago", 150_500L, "2712"),
+                city("Moulmein", 150_500L, "2711"),
+                city("Pathein", 144_100L, "2713"));
+        CityDAO dao = new CityDAO(FakeJdbc.dataSource(rows, log));
+
+        Page<City> first = dao.getCitiesPage(null, 2);
+        assertEquals(List.of("Bago", "Moulmein"), first.rows().stream().map(City::getName).toList());
+        assertTrue(first.hasNext());
+        assertFalse(log.get(0).sql.contains("WHERE"));
+        assertTrue(log.get(0).sql.contains("ORDER BY ci.Population DESC, ci.ID LIMIT ?"));
+        assertEquals(Map.of(1, 3L), log.get(0).params);
+
+        dao.getCitiesPage(first.next(), 2);
+        assertTrue(log.get(1).sql.contains("WHERE (ci.Population < ? OR (ci.Population = ? AND ci.ID > ?))"));
+        assertEquals(Map.of(1, 150_500L, 2, 150_500L, 3, 2711, 4, 3L), log.get(1).params);
+    }
+
+    @Test
+    void page_RejectsForeignOrEditedTokens() {
+        String countryToken = new CountryDAO(snapshot).getCountriesPage(null, 1).next();
+        CityDAO cities = new CityDAO(snapshot);
+
+        assertThrows(IllegalArgumentException.class, () -> cities.getCitiesPage(countryToken, 10));
+        assertThrows(IllegalArgumentException.class, () -> cities.getCitiesPage("not a token!", 10));
+        assertThrows(IllegalArgumentException.class, () -> cities.getCitiesPage(null, 0));
+        assertEquals(7, cities.getCitiesPage("", 10).rows().size());
+    }
+
+    /** One row of the city page projection, all in Myanmar. */
+    private static Map<String, Object> city(String name, long population, String key) {
+        return Map.of("Name", name, "Country", "Myanmar", "District", "Myanmar",
+                "Population", population, "PageKey", key);
+    }
+}
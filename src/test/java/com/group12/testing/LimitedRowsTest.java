@@ -0,0 +1,51 @@
+package com.group12.testing;
+
+import com.group12.report.runner.LimitedRows;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LimitedRows.
+ *  - the limit is passed to the query
+ *  - fewer rows than the limit: no count query
+ *  - a full page: total comes from the count query
+ *  - a failed count (0) never hides fetched rows
+ */
+class LimitedRowsTest {
+
+    @Test
+    void fetch_FewerRowsThanLimit_SkipsCount() {
+        AtomicInteger counts = new AtomicInteger();
+
+        LimitedRows<String> result = LimitedRows.fetch(10,
+                limit -> List.of("a", "b", "c"),
+                () -> { counts.incrementAndGet(); return 999; });
+
+        assertEquals(3, result.total());
+        assertEquals(0, counts.get());
+    }
+
+    @Test
+    void fetch_FullPage_UsesCount() {
+        LimitedRows<Integer> result = LimitedRows.fetch(10,
+                limit -> IntStream.range(0, limit).boxed().toList(),
+                () -> 4_079);
+
+        assertEquals(10, result.rows().size());
+        assertEquals(4_079, result.total());
+    }
+
+    @Test
+    void fetch_FailedCount_FallsBackToRowCount() {
+        LimitedRows<Integer> result = LimitedRows.fetch(5,
+                limit -> IntStream.range(0, limit).boxed().toList(),
+                () -> 0);
+
+        assertEquals(5, result.total());
+    }
+}
@@ -0,0 +1,226 @@
+package com.group12.testing;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.data_access.CountryDAO;
+import com.group12.report.data_access.LanguageDAO;
+import com.group12.report.data_access.PopulationDAO;
+import com.group12.report.models.City;
+import com.group12.report.snapshot.Scope;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryCache, with a manual clock instead of real time.
+ *  - same SQL and parameters: loaded once
+ *  - different parameters (limit, language list): separate entries
+ *  - TTL passed: reloaded and counted as expired
+ *  - entry or byte budget exceeded: least recently used dropped
+ *  - empty results, disabled cache and manual invalidation: not served from cache
+ *  - a load overtaken by an invalidation is returned but not stored
+ *  - the population rollup and language table expire with the TTL and on refresh
+ *  - a count with a null scope value binds NULL, with the cache on or off
+ */
+class QueryCacheTest {
+
+    static final String SQL = "SELECT Name FROM city WHERE District = ? LIMIT ?";
+
+    final AtomicLong now = new AtomicLong();
+    final AtomicInteger loads = new AtomicInteger();
+
+    QueryCache.Builder cache() {
+        return QueryCache.builder().ttl(Duration.ofSeconds(10)).clock(now::get);
+    }
+
+    List<City> load(String name) {
+        loads.incrementAndGet();
+        return new ArrayList<>(List.of(new City(name, "Myanmar", "Mandalay", 885_300L)));
+    }
+
+    @Test
+    void get_SameSqlAndParams_LoadsOnce() {
+        QueryCache cache = cache().build();
+
+        List<City> first = cache.get(SQL, Arrays.asList("Mandalay", 10), () -> load("Mandalay"));
+        List<City> second = cache.get(SQL, Arrays.asList("Mandalay", 10), () -> load("Mandalay"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(null));
+    }
+
+    @Test
+    void get_DifferentParams_SeparateEntries() {
+        QueryCache cache = cache().build();
+
+        cache.get(SQL, Arrays.asList("Mandalay", 10), () -> load("a"));
+        cache.get(SQL, Arrays.asList("Mandalay", 5), () -> load("b"));
+        cache.get(SQL, Arrays.asList("Mandalay", null), () -> load("c"));
+        cache.get(SQL, List.of(List.of("English", "Thai")), () -> load("d"));
+        cache.get(SQL, List.of(List.of("Thai", "English")), () -> load("e"));
+
+        assertEquals(5, loads.get());
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    void get_AfterTtl_ReloadsAndCountsExpiration() {
+        QueryCache cache = cache().build();
+
+        cache.get(SQL, List.of("Mandalay"), () -> load("old"));
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("old", cache.get(SQL, List.of("Mandalay"), () -> load("new")).get(0).getName());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals("new", cache.get(SQL, List.of("Mandalay"), () -> load("new")).get(0).getName());
+        assertEquals(1, cache.getExpirations());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_OverEntryBudget_EvictsLeastRecentlyUsed() {
+        QueryCache cache = cache().maxEntries(2).build();
+
+        cache.get(SQL, List.of("a"), () -> load("a"));
+        cache.get(SQL, List.of("b"), () -> load("b"));
+        cache.get(SQL, List.of("a"), () -> load("a"));     // "a" is now the most recent
+        cache.get(SQL, List.of("c"), () -> load("c"));     // evicts "b"
+
+        assertEquals(1, cache.getEvictions());
+        cache.get(SQL, List.of("a"), () -> load("a"));
+        assertEquals(3, loads.get());
+        cache.get(SQL, List.of("b"), () -> load("b"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_OverByteBudget_KeepsEstimateWithinBudget() {
+        QueryCache cache = cache().maxBytes(1_000).build();
+
+        for (int i = 0; i < 10; i++) {
+            String district = "District " + i;
+            cache.get(SQL, List.of(district), () -> load(district));
+        }
+
+        assertTrue(cache.estimatedBytes() <= 1_000);
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.size() < 10);
+    }
+
+    @Test
+    void get_EmptyResultOrZeroCount_NotCached() {
+        QueryCache cache = cache().build();
+
+        cache.get(SQL, List.of("x"), List::of);
+        cache.get(SQL, List.of("y"), () -> 0L);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidate_DropsMatchingEntries() {
+        QueryCache cache = cache().build();
+        cache.get(SQL, List.of("a"), () -> load("a"));
+        cache.get("SELECT COUNT(*) FROM country", List.of(), () -> 239L);
+
+        assertEquals(1, cache.invalidateIf(sql -> sql.contains("FROM city")));
+        assertEquals(1, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void invalidate_DuringLoad_NotStored() {
+        QueryCache cache = cache().build();
+
+        List<City> stale = cache.get(SQL, List.of("a"), () -> {
+            cache.invalidateIf(sql -> sql.contains("FROM city"));
+            return load("old");
+        });
+        List<City> fresh = cache.get(SQL, List.of("a"), () -> load("new"));
+
+        assertEquals("old", stale.get(0).getName());
+        assertEquals("new", fresh.get(0).getName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void disabled_AlwaysLoads() {
+        QueryCache cache = cache().ttl(Duration.ZERO).build();
+
+        cache.get(SQL, List.of("a"), () -> load("a"));
+        cache.get(SQL, List.of("a"), () -> load("a"));
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void populationRollup_ExpiresWithTtlAndRefresh() {
+        List<FakeJdbc.Query> log = new ArrayList<>();
+        PopulationDAO dao = new PopulationDAO(FakeJdbc.dataSource(List.of(
+                Map.of("Name", "Myanmar", "Continent", "Asia", "Region", "Southeast Asia",
+                        "Population", 45_611_000L, "CityPopulation", 4_247_000L)), log), cache().build());
+
+        assertEquals("Asia", dao.getPopulationByContinent().get(0).getName());
+        dao.getPopulationByRegion();
+        assertEquals(1, log.size());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        dao.getPopulationByContinent();
+        assertEquals(2, log.size());
+
+        dao.refreshRollup();
+        dao.getPopulationByCountry();
+        assertEquals(3, log.size());
+    }
+
+    @Test
+    void languageTable_ExpiresWithTtlAndRefresh() {
+        List<FakeJdbc.Query> log = new ArrayList<>();
+        LanguageDAO dao = new LanguageDAO(FakeJdbc.dataSource(List.of(
+                Map.of("Language", "Burmese", "Speakers", 31_471_590L, "PercentOfWorld", 0.52, "Countries", 1)), log),
+                cache().build());
+
+        assertEquals("Burmese", dao.getLanguageRanking(0, 1).get(0).getName());
+        dao.getLanguagesBySpeakerCount(List.of("Burmese"));
+        assertEquals(1, log.size());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        dao.getLanguageRanking(0, 1);
+        assertEquals(2, log.size());
+
+        dao.refreshLanguages();
+        dao.getLanguageRanking(0, 1);
+        assertEquals(3, log.size());
+    }
+
+    @Test
+    void count_NullScopeValue_BindsNull() {
+        for (QueryCache cache : List.of(cache().build(), QueryCache.disabled())) {
+            List<FakeJdbc.Query> log = new ArrayList<>();
+            DataSource db = FakeJdbc.dataSource(List.of(Map.of("COUNT(*)", 0L)), log);
+
+            assertEquals(0L, new CityDAO(db, cache).countCities(Scope.CONTINENT, null));
+            assertEquals(0L, new CountryDAO(db, cache).countCountries(Scope.REGION, null));
+            assertEquals(2, log.size());
+            assertTrue(log.get(0).params.containsKey(1));
+            assertNull(log.get(0).params.get(1));
+        }
+    }
+}
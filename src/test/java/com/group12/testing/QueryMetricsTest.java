@@ -0,0 +1,89 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.metrics.LatencyHistogram;
+import com.group12.report.metrics.QueryMetric;
+import com.group12.report.metrics.QueryMetrics;
+import com.group12.report.models.City;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the query metrics.
+ *  - percentiles are within a bucket's width of the recorded values
+ *  - recording from many threads at once loses nothing
+ *  - a query's rows, bytes and errors are counted, and show up over JMX
+ *  - a DAO query that fails is recorded as an error under its metric name
+ */
+class QueryMetricsTest {
+
+    @Test
+    void percentile_WithinBucketWidth() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentile(0.5));
+        for (long us = 1; us <= 1_000; us++) h.record(us);
+
+        assertEquals(1_000, h.count());
+        assertEquals(500, h.percentile(0.50), 500 / 8.0);
+        assertEquals(990, h.percentile(0.99), 990 / 8.0);
+        assertEquals(7, h.percentile(0.007));
+    }
+
+    @Test
+    void record_FromManyThreadsLosesNothing() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) h.record(i % 3_000);
+            }));
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(80_000, h.count());
+    }
+
+    @Test
+    void metric_CountsRowsBytesErrorsAndPublishesToJmx() throws Exception {
+        QueryMetrics registry = new QueryMetrics();
+        QueryMetric metric = registry.metric("test.metrics.jmx");
+        assertSame(metric, registry.metric("test.metrics.jmx"));
+
+        metric.success(metric.start(), List.of(new City("Yangon", "Myanmar", "Rangoon", 3_361_700L),
+                new City("Mandalay", "Myanmar", "Mandalay", 885_300L)));
+        metric.success(metric.start(), 12L);
+        metric.failure(metric.start());
+
+        assertEquals(3, metric.getCalls());
+        assertEquals(1, metric.getErrors());
+        assertEquals(3, metric.getRows());
+        assertTrue(metric.getBytes() > 0);
+        assertTrue(metric.getMaxMillis() >= metric.getP50Millis());
+        assertTrue(registry.summary().contains("test.metrics.jmx"));
+
+        registry.publishToJmx();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.group12.report:type=QueryMetric,name=" + ObjectName.quote("test.metrics.jmx"));
+        assertEquals(3L, server.getAttribute(name, "Calls"));
+        assertEquals(1L, server.getAttribute(name, "Errors"));
+        server.unregisterMBean(name);
+    }
+
+    @Test
+    void dao_RecordsFailedQueryAsError() {
+        DataSource down = FakeJdbc.failing("database is down");
+        QueryMetric metric = QueryMetrics.shared().metric("city.list.district");
+        long errors = metric.getErrors();
+
+        assertTrue(new CityDAO(down).getCitiesByDistrict("California", 10).isEmpty());
+        assertEquals(errors + 1, metric.getErrors());
+    }
+}
@@ -0,0 +1,59 @@
+package com.group12.testing;
+
+import com.group12.report.db.ReadinessProbe;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReadinessProbe.
+ *  - ready database: one attempt, no waiting
+ *  - database that comes up later: retried until it succeeds
+ *  - database that never comes up: gives up at the deadline
+ */
+class ReadinessProbeTest {
+
+    @Test
+    void await_ReadyImmediately_SingleAttempt() throws Exception {
+        ReadinessProbe probe = new ReadinessProbe(1_000, 5_000, 10_000);
+
+        long start = System.nanoTime();
+        String result = probe.await(() -> "connected");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("connected", result);
+        assertEquals(1, probe.getAttempts());
+        assertTrue(elapsedMs < 500, "First attempt must not wait, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void await_ReadyAfterFailures_Retries() throws Exception {
+        ReadinessProbe probe = new ReadinessProbe(5, 20, 5_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = probe.await(() -> {
+            if (calls.incrementAndGet() < 3) throw new SQLException("Connection refused");
+            return "connected";
+        });
+
+        assertEquals("connected", result);
+        assertEquals(3, probe.getAttempts());
+    }
+
+    @Test
+    void await_NeverReady_ThrowsAfterDeadline() {
+        ReadinessProbe probe = new ReadinessProbe(10, 50, 200);
+
+        long start = System.nanoTime();
+        SQLException e = assertThrows(SQLException.class,
+                () -> probe.await(() -> { throw new SQLException("Connection refused"); }));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("Connection refused", e.getMessage());
+        assertTrue(probe.getAttempts() > 1);
+        assertTrue(elapsedMs < 2_000, "Should give up near the 200 ms deadline, took " + elapsedMs + " ms");
+    }
+}
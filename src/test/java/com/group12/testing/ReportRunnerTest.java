@@ -0,0 +1,180 @@
+package com.group12.testing;
+
+import com.group12.report.db.QueryDeadline;
+import com.group12.report.db.SharedConnectionDataSource;
+import com.group12.report.runner.ReportRunner;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportRunner.
+ *  - results print in the order they were added, not the order they finish
+ *  - a failing query does not stop the others
+ *  - no more than maxConcurrency queries run at once
+ *  - a query past its timeout is reported as timed out without holding up the rest
+ *  - the watchdog cancels the statement in flight, and later statements fail at once
+ */
+class ReportRunnerTest {
+
+    private static String sleepThenReturn(String value, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    @Test
+    void run_RendersInAddedOrder() {
+        List<String> printed = new ArrayList<>();
+
+        try (ReportRunner runner = new ReportRunner(4)) {
+            runner.add(() -> printed.add("header"));
+            runner.add("slow", () -> sleepThenReturn("1", 200), printed::add);
+            runner.add("fast", () -> sleepThenReturn("2", 0), printed::add);
+            runner.add("medium", () -> sleepThenReturn("3", 50), printed::add);
+            runner.run();
+        }
+
+        assertEquals(List.of("header", "1", "2", "3"), printed);
+    }
+
+    @Test
+    void run_FailedQuery_OthersStillRender() {
+        List<String> printed = new ArrayList<>();
+
+        try (ReportRunner runner = new ReportRunner(2)) {
+            runner.add("ok", () -> "before", printed::add);
+            runner.<String>add("broken", () -> { throw new IllegalStateException("boom"); }, printed::add);
+            runner.add("ok", () -> "after", printed::add);
+            runner.run();
+        }
+
+        assertEquals(List.of("before", "after"), printed);
+    }
+
+    @Test
+    void run_NeverExceedsMaxConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (ReportRunner runner = new ReportRunner(2)) {
+            for (int i = 0; i < 8; i++) {
+                runner.add("task" + i, () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleepThenReturn("", 30);
+                    running.decrementAndGet();
+                    return "";
+                }, ignored -> { });
+            }
+            runner.run();
+        }
+
+        assertTrue(peak.get() <= 2, "At most 2 queries should run at once, saw " + peak.get());
+    }
+
+    @Test
+    void run_TimedOutQuery_OthersStillRender() {
+        List<String> printed = new ArrayList<>();
+        List<String> timedOut = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (ReportRunner runner = new ReportRunner(4, Duration.ofMillis(100), timedOut::add)) {
+            runner.add("before", () -> "1", printed::add);
+            runner.add("stuck", () -> sleepThenReturn("2", 2_000), printed::add);
+            runner.add("after", () -> sleepThenReturn("3", 20), printed::add);
+            runner.run();
+        }
+
+        assertEquals(List.of("1", "3"), printed);
+        assertEquals(List.of("stuck"), timedOut);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1_500), "Should not wait for the stuck query");
+    }
+
+    /** A connection whose queries block until the statement is cancelled. */
+    private static Connection blockingConnection(CountDownLatch cancelled, List<Integer> timeouts) {
+        PreparedStatement ps = FakeJdbc.proxy(PreparedStatement.class, (proxy, method, args) -> switch (method.getName()) {
+                    case "setQueryTimeout" -> timeouts.add((Integer) args[0]);
+                    case "cancel" -> { cancelled.countDown(); yield null; }
+                    case "executeQuery" -> {
+                        cancelled.await(5, TimeUnit.SECONDS);
+                        throw new SQLException("Statement cancelled due to client request");
+                    }
+                    default -> null;
+                });
+        return FakeJdbc.proxy(Connection.class, (proxy, method, args) -> "prepareStatement".equals(method.getName()) ? ps : null);
+    }
+
+    @Test
+    void run_WatchdogCancelsStatementInFlight() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        List<Integer> timeouts = new ArrayList<>();
+        SharedConnectionDataSource db = new SharedConnectionDataSource(blockingConnection(cancelled, timeouts));
+        List<String> errors = new ArrayList<>();
+        List<String> timedOut = new ArrayList<>();
+
+        try (ReportRunner runner = new ReportRunner(1, Duration.ofMillis(100), timedOut::add)) {
+            runner.add("slow query", () -> {
+                try (Connection con = db.getConnection();
+                     PreparedStatement ps = con.prepareStatement("SELECT SLEEP(60)");
+                     ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? "rows" : "";
+                } catch (SQLException e) {
+                    errors.add(e.getMessage());
+                }
+                try (Connection con = db.getConnection()) {
+                    // Expected to fail: the deadline has passed.
+                    con.prepareStatement("SELECT 1").close();
+                } catch (SQLException e) {
+                    errors.add(e.getClass().getSimpleName());
+                }
+                finished.countDown();
+                return "";
+            }, ignored -> fail("A timed-out report must not render"));
+            runner.run();
+            // run() returns without waiting for the cancelled query; let it finish before closing.
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, cancelled.getCount());
+        assertEquals(List.of(1), timeouts);
+        assertEquals(List.of("slow query"), timedOut);
+        assertEquals(List.of("Statement cancelled due to client request", "SQLTimeoutException"), errors);
+    }
+
+    @Test
+    void deadline_OnlyAppliesToItsOwnThread() throws SQLException {
+        List<Integer> timeouts = new ArrayList<>();
+        SharedConnectionDataSource db = new SharedConnectionDataSource(blockingConnection(new CountDownLatch(0), timeouts));
+
+        db.getConnection().prepareStatement("SELECT 1");
+        try (QueryDeadline deadline = QueryDeadline.open(Duration.ofSeconds(5))) {
+            db.getConnection().prepareStatement("SELECT 1");
+            assertTrue(deadline.expire());
+            assertThrows(SQLTimeoutException.class, () -> db.getConnection().prepareStatement("SELECT 1"));
+        }
+        db.getConnection().prepareStatement("SELECT 1");
+
+        assertEquals(List.of(5), timeouts);
+    }
+
+    @Test
+    void constructor_RejectsZeroConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new ReportRunner(0));
+    }
+}
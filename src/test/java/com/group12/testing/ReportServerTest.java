@@ -0,0 +1,167 @@
+package com.group12.testing;
+
+import com.group12.report.cache.QueryCache;
+import com.group12.report.data_access.ReportDaos;
+import com.group12.report.server.ReportServer;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReportServer, serving the tiny world from SnapshotFileTest on a free port.
+ *  - list, top-N, count and population endpoints answer with JSON
+ *  - bad parameters are a 400, unknown paths a 404 and other methods a 405
+ *  - failed lists and counts are a 500 or 503 and timed-out ones a 504, never an empty 200
+ *  - a streamed list whose cursor fails mid-way is cut off, not closed as valid JSON
+ */
+class ReportServerTest {
+
+    ReportServer server;
+    HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void start() throws IOException {
+        WorldSnapshot world = SnapshotFileTest.fill(new WorldSnapshot.Builder()).build();
+        server = ReportServer.start(new InetSocketAddress("localhost", 0), ReportDaos.of(world), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path)).GET().build());
+    }
+
+    HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    @Test
+    void get_ReturnsReportsAsJson() throws Exception {
+        HttpResponse<String> cities = get("/cities?country=Myanmar&limit=1");
+        assertEquals(200, cities.statusCode());
+        assertEquals("application/json; charset=utf-8", cities.headers().firstValue("Content-Type").orElse(""));
+        assertEquals("[\n{\"name\":\"Rangoon (Yangon)\",\"country\":\"Myanmar\",\"district\":\"Rangoon [Yangon]\",\"population\":3361700}\n]\n",
+                cities.body());
+
+        assertEquals("{\"count\":1}\n", get("/countries/count?continent=Asia").body());
+        assertEquals("{\"count\":3}\n", get("/countries/count").body());
+        assertTrue(get("/countries").body().contains("\"capital\":\"Paris\""));
+        assertTrue(get("/capitals?region=Western%20Europe").body().contains("\"name\":\"Paris\""));
+        assertTrue(get("/population/district?country=France").body().contains("{\"district\":\"Île-de-France\",\"population\":2125246}"));
+        assertTrue(get("/population/world").body().contains("\"cityPopulationPercent\":"));
+        assertTrue(get("/languages?name=French").body().contains("\"name\":\"French\""));
+        assertEquals("[]\n", get("/cities?district=Nowhere").body());
+    }
+
+    @Test
+    void get_RejectsBadRequests() throws Exception {
+        HttpResponse<String> twoScopes = get("/cities?continent=Asia&region=Southeast%20Asia");
+        assertEquals(400, twoScopes.statusCode());
+        assertTrue(twoScopes.body().startsWith("{\"error\":"));
+
+        assertEquals(400, get("/cities?limit=0").statusCode());
+        assertEquals(400, get("/countries?district=Mandalay").statusCode());
+        assertEquals(400, get("/population/district").statusCode());
+        assertEquals(404, get("/planets").statusCode());
+
+        HttpResponse<String> post = send(HttpRequest.newBuilder(uri("/cities"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+        assertEquals(405, post.statusCode());
+        assertEquals("GET", post.headers().firstValue("Allow").orElse(""));
+    }
+
+    @Test
+    void get_FailedQueriesAreErrorsNotEmptyResults() throws Exception {
+        server.close();
+        server = start(FakeJdbc.failing("database is down"), Duration.ofSeconds(5));
+        assertEquals(500, get("/cities/count").statusCode());
+        HttpResponse<String> list = get("/countries?limit=3");
+        assertEquals(500, list.statusCode());
+        assertTrue(list.body().startsWith("{\"error\":"));
+
+        server.close();
+        server = start(failing(new SQLTransientConnectionException("Connection pool exhausted")), Duration.ofSeconds(5));
+        assertEquals(503, get("/cities/count?continent=Asia").statusCode());
+        assertEquals(503, get("/cities").statusCode());
+        assertEquals(503, get("/cities/page").statusCode());
+
+        server.close();
+        server = start(failing(new SQLTimeoutException("Report deadline has passed")), Duration.ofSeconds(5));
+        assertEquals(504, get("/countries/count").statusCode());
+        assertEquals(504, get("/population/world").statusCode());
+    }
+
+    @Test
+    void get_SlowCountTimesOut() throws Exception {
+        server.close();
+        server = start(FakeJdbc.dataSource(sql -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(Map.of("COUNT(*)", 4079L));
+        }, null), Duration.ofMillis(100));
+
+        HttpResponse<String> count = get("/cities/count");
+        assertEquals(504, count.statusCode());
+        assertEquals("{\"error\":\"Report timed out after 100 ms\"}\n", count.body());
+    }
+
+    @Test
+    void get_StreamFailingMidwayIsCutOff() throws Exception {
+        server.close();
+        Map<String, Object> city = Map.of("Name", "Tokyo", "Country", "Japan", "District", "Tokyo-to", "Population", 7_980_230L);
+        ResultSet rows = FakeJdbc.resultSet(List.of(city, city));
+        int[] read = { 0 };
+        ResultSet breaking = FakeJdbc.proxy(ResultSet.class, (p, m, a) -> {
+            if (m.getName().equals("next") && read[0]++ == 2) throw new SQLException("Lost connection during query", "08S01");
+            return m.invoke(rows, a);
+        });
+        server = start(FakeJdbc.proxy(DataSource.class, (p, m, a) -> FakeJdbc.proxy(Connection.class, (c, cm, ca) ->
+                cm.getName().equals("prepareStatement")
+                        ? FakeJdbc.proxy(PreparedStatement.class, (s, sm, sa) -> sm.getName().equals("executeQuery") ? breaking : null)
+                        : null)), Duration.ofSeconds(5));
+
+        assertThrows(IOException.class, () -> get("/cities"));
+    }
+
+    private static ReportServer start(DataSource dataSource, Duration timeout) throws IOException {
+        return ReportServer.start(new InetSocketAddress("localhost", 0),
+                ReportDaos.pooled(dataSource, QueryCache.disabled()), timeout);
+    }
+
+    /** A data source whose every connection attempt fails with {@code error}. */
+    private static DataSource failing(SQLException error) {
+        return FakeJdbc.proxy(DataSource.class, (p, m, a) -> {
+            throw error;
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.ReportQueries;
+import com.group12.report.export.ExportFormat;
+import com.group12.report.export.ReportExporter;
+import com.group12.report.export.ResultSetExporter;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResultSetExporter, against a fake result set, and for the
+ * ReportQueries catalog it is fed from.
+ *  - CSV: header from column labels, quoting only where needed, NULL as an empty field
+ *  - NDJSON: numeric columns unquoted, strings escaped, NULL as null
+ *  - every one of the 32 reports is listed once, with a value for each placeholder
+ *  - ReportExporter: a query failing mid-way replaces no file and stops a stream, and is thrown
+ */
+class ResultSetExporterTest {
+
+    static final String[] LABELS = { "Name", "District", "Population", "Percent" };
+    static final int[] TYPES = { Types.CHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL };
+
+    static final String[][] ROWS = {
+            { "Yangon", "Rangoon [Yangon]", "3361700", "19.61" },
+            { "Washington, D.C.", "District \"of\" Columbia", "572059", null },
+            { "Line\nBreak", null, null, "0.00" },
+    };
+
+    /** Serves {@link #ROWS} through the few ResultSet methods the exporter calls. */
+    static ResultSet fakeResultSet() {
+        ResultSetMetaData meta = FakeJdbc.proxy(ResultSetMetaData.class, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> LABELS.length;
+                    case "getColumnLabel" -> LABELS[(Integer) args[0] - 1];
+                    case "getColumnType" -> TYPES[(Integer) args[0] - 1];
+                    default -> null;
+                });
+        int[] row = { -1 };
+        return FakeJdbc.proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> meta;
+                    case "next" -> ++row[0] < ROWS.length;
+                    case "getString" -> ROWS[row[0]][(Integer) args[0] - 1];
+                    default -> null;
+                });
+    }
+
+    static String export(ExportFormat format, long expectedRows) throws Exception {
+        StringWriter out = new StringWriter();
+        assertEquals(expectedRows, new ResultSetExporter(format).write(fakeResultSet(), out));
+        return out.toString();
+    }
+
+    @Test
+    void csv_QuotesOnlyWhenNeeded() throws Exception {
+        assertEquals("""
+                Name,District,Population,Percent
+                Yangon,Rangoon [Yangon],3361700,19.61
+                "Washington, D.C.","District ""of"" Columbia",572059,
+                "Line
+                Break",,,0.00
+                """, export(ExportFormat.CSV, 3));
+    }
+
+    @Test
+    void ndjson_WritesNumbersUnquotedAndEscapesStrings() throws Exception {
+        assertEquals("""
+                {"Name":"Yangon","District":"Rangoon [Yangon]","Population":3361700,"Percent":19.61}
+                {"Name":"Washington, D.C.","District":"District \\"of\\" Columbia","Population":572059,"Percent":null}
+                {"Name":"Line\\nBreak","District":null,"Population":null,"Percent":0.00}
+                """, export(ExportFormat.NDJSON, 3));
+    }
+
+    @Test
+    void format_ParsesIgnoringCase() {
+        assertEquals(ExportFormat.NDJSON, ExportFormat.parse(" ndJSON "));
+        assertEquals("csv", ExportFormat.parse("CSV").extension());
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.parse("xml"));
+    }
+
+    @Test
+    void reportQueries_CoverAll32Reports() {
+        List<ReportQueries.Query> all = ReportQueries.all();
+        assertEquals(32, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            ReportQueries.Query q = all.get(i);
+            assertEquals(i + 1, q.number());
+            assertSame(q, ReportQueries.get(i + 1));
+            long placeholders = q.sql().chars().filter(c -> c == '?').count();
+            assertEquals(placeholders, q.params().size(), q.name());
+        }
+        assertFalse(ReportQueries.get(7).sql().contains("LIMIT"));
+        assertTrue(ReportQueries.get(12).sql().contains("LIMIT ?"));
+        assertThrows(IllegalArgumentException.class, () -> ReportQueries.get(33));
+    }
+
+    @Test
+    void reportExporter_FailedQueryLeavesNoPartialFile() throws Exception {
+        ReportExporter exporter = new ReportExporter(failingOn(ReportQueries.get(7)), ExportFormat.CSV, false);
+        Path dir = Files.createTempDirectory("export");
+        try {
+            Path cities = dir.resolve(exporter.fileName(ReportQueries.get(7)));
+            Files.writeString(cities, "previous export\n");
+
+            IOException e = assertThrows(IOException.class, () -> exporter.exportTo(dir,
+                    List.of(ReportQueries.get(1), ReportQueries.get(7), ReportQueries.get(8))));
+
+            assertTrue(e.getCause() instanceof SQLException);
+            assertEquals("previous export\n", Files.readString(cities));
+            assertEquals(export(ExportFormat.CSV, 3), Files.readString(dir.resolve(exporter.fileName(ReportQueries.get(8)))));
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(3, files.count());
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.toList()) Files.delete(file);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void reportExporter_StreamStopsAtFailedQuery() throws Exception {
+        ReportExporter exporter = new ReportExporter(failingOn(ReportQueries.get(7)), ExportFormat.CSV, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(IOException.class, () -> exporter.exportTo(out,
+                List.of(ReportQueries.get(1), ReportQueries.get(7), ReportQueries.get(8))));
+
+        assertEquals(export(ExportFormat.CSV, 3) + "Name,District,Population,Percent\nYangon,Rangoon [Yangon],3361700,19.61\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /** Serves {@link #ROWS} for every report, except that {@code failing} breaks after its first row. */
+    static DataSource failingOn(ReportQueries.Query failing) {
+        return FakeJdbc.proxy(DataSource.class, (p, m, a) -> FakeJdbc.proxy(Connection.class, (c, cm, ca) ->
+                !cm.getName().equals("prepareStatement") ? null
+                        : FakeJdbc.proxy(PreparedStatement.class, (s, sm, sa) -> {
+                            if (!sm.getName().equals("executeQuery")) return null;
+                            if (!ca[0].equals(failing.sql())) return fakeResultSet();
+                            ResultSet rows = fakeResultSet();
+                            int[] read = { 0 };
+                            return FakeJdbc.proxy(ResultSet.class, (r, rm, ra) -> {
+                                if (rm.getName().equals("next") && read[0]++ == 1) {
+                                    throw new SQLException("Lost connection during query", "08S01");
+                                }
+                                return rm.invoke(rows, ra);
+                            });
+                        })));
+    }
+}
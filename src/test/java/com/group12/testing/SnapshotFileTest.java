@@ -0,0 +1,122 @@
+package com.group12.testing;
+
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.SnapshotFile;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SnapshotFile, writing a tiny world to a temporary directory.
+ *  - a written file opens to a snapshot with the same answers, NULLs included
+ *  - a flipped byte, a truncated file or another version is rejected
+ */
+class SnapshotFileTest {
+
+    Path dir;
+
+    @BeforeEach
+    void createDir() throws IOException {
+        dir = Files.createTempDirectory("snapshot-file-test");
+    }
+
+    @AfterEach
+    void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    static <T extends WorldSnapshot.RowSink> T fill(T sink) {
+        sink.addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710);
+        sink.addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974);
+        sink.addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null);
+        sink.addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L);
+        sink.addCity(2711, "Mandalay", "MMR", "Mandalay", 885_300L);
+        sink.addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L);
+        sink.addCity(9999, "Nowhere", "XXX", null, 10L);
+        sink.addLanguage("MMR", "Burmese", true, 69.0);
+        sink.addLanguage("FRA", "French", true, 93.6);
+        sink.addLanguage("FRA", "Arabic", false, 2.5);
+        return sink;
+    }
+
+    Path written() throws IOException {
+        Path file = dir.resolve("world.snapshot");
+        fill(new SnapshotFile.Writer()).write(file);
+        return file;
+    }
+
+    @Test
+    void open_MatchesSnapshotBuiltFromSameRows() throws IOException {
+        WorldSnapshot expected = fill(new WorldSnapshot.Builder()).build();
+        WorldSnapshot opened = SnapshotFile.open(written());
+
+        List<Country> countries = opened.countries(Scope.WORLD, null, null);
+        assertEquals(3, countries.size());
+        assertEquals("France", countries.get(0).getName());
+        assertNull(countries.get(2).getCapitalName());
+        assertEquals("Paris", countries.get(0).getCapitalName());
+
+        List<City> cities = opened.cities(Scope.WORLD, null, null);
+        assertEquals(expected.cities(Scope.WORLD, null, null).size(), cities.size());
+        assertEquals("Île-de-France", opened.cities(Scope.COUNTRY, "France", null).get(0).getDistrict());
+
+        assertEquals(expected.worldPopulation().get(0).getCityPopulation(),
+                opened.worldPopulation().get(0).getCityPopulation());
+
+        List<Language> languages = opened.languagesBySpeakerCount(List.of("French", "Arabic", "Burmese"));
+        List<Language> want = expected.languagesBySpeakerCount(List.of("French", "Arabic", "Burmese"));
+        assertEquals(want.size(), languages.size());
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.get(i).getName(), languages.get(i).getName());
+            assertEquals(want.get(i).getSpeakers(), languages.get(i).getSpeakers());
+        }
+    }
+
+    @Test
+    void open_RejectsCorruptedFile() throws IOException {
+        Path file = written();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 20] ^= 0x40;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.open(file));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+    }
+
+    @Test
+    void open_RejectsTruncatedFile() throws IOException {
+        Path file = written();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> SnapshotFile.open(file));
+    }
+
+    @Test
+    void open_RejectsOtherVersion() throws IOException {
+        Path file = written();
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.open(file));
+        assertTrue(e.getMessage().contains("version 99"), e.getMessage());
+    }
+}
@@ -0,0 +1,284 @@
+package com.group12.testing;
+
+import com.group12.report.models.Capital;
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.models.Population;
+import com.group12.report.cache.QueryCache;
+import com.group12.report.data_access.ReportDaos;
+import com.group12.report.snapshot.ChangeFeed;
+import com.group12.report.snapshot.ChangeLog;
+import com.group12.report.snapshot.ChangeSet;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for incremental snapshot refresh.
+ *  - applying a change set gives the same answers as building the final data from scratch
+ *  - renaming a country re-lists its cities; deleting one drops its rows from every total
+ *  - the snapshot a change set is applied to is left as it was
+ *  - repeated patches do not grow the city table's string dictionary without bound
+ *  - ChangeLog re-reads changed rows by key, treats missing rows as deletes and stops at gaps
+ *  - ChangeFeed waits on a gap, then skips it and marks the set so everything is dropped
+ *  - in pooled mode a polled change reaches the cached queries, the rollup and the language table
+ */
+class SnapshotRefreshTest {
+
+    private static WorldSnapshot.Builder world() {
+        return new WorldSnapshot.Builder()
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710)
+                .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+                .addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974)
+                .addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null)
+                .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+                .addCity(2711, "Mandalay", "MMR", "Mandalay", 885_300L)
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+                .addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L)
+                .addCity(2975, "Marseille", "FRA", "Provence-Alpes-Côte", 798_430L)
+                .addLanguage("MMR", "Burmese", true, 69.0)
+                .addLanguage("THA", "Thai", true, 52.6)
+                .addLanguage("FRA", "French", true, 93.6)
+                .addLanguage("FRA", "Arabic", false, 2.5);
+    }
+
+    @Test
+    void apply_MatchesFreshBuild() {
+        WorldSnapshot patched = world().build().apply(new ChangeSet()
+                .addCity(2711, "Mandalay", "MMR", "Mandalay", 1_225_546L)
+                .addCity(2712, "Naypyidaw", "MMR", "Naypyidaw", 924_608L)
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 54_410_000L, 2712)
+                .deleteCity(2975)
+                .addCountry("NZL", "New Zealand", "Oceania", "Australia and New Zealand", 3_862_000L, 3499)
+                .addCity(3499, "Wellington", "NZL", "Wellington", 166_700L)
+                .addLanguage("NZL", "English", true, 87.0)
+                .addLanguage("FRA", "French", true, 95.0)
+                .deleteLanguage("FRA", "Arabic"));
+
+        WorldSnapshot expected = new WorldSnapshot.Builder()
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 54_410_000L, 2712)
+                .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+                .addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974)
+                .addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null)
+                .addCountry("NZL", "New Zealand", "Oceania", "Australia and New Zealand", 3_862_000L, 3499)
+                .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+                .addCity(2711, "Mandalay", "MMR", "Mandalay", 1_225_546L)
+                .addCity(2712, "Naypyidaw", "MMR", "Naypyidaw", 924_608L)
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+                .addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L)
+                .addCity(3499, "Wellington", "NZL", "Wellington", 166_700L)
+                .addLanguage("MMR", "Burmese", true, 69.0)
+                .addLanguage("THA", "Thai", true, 52.6)
+                .addLanguage("FRA", "French", true, 95.0)
+                .addLanguage("NZL", "English", true, 87.0)
+                .build();
+
+        assertEquals(describe(expected), describe(patched));
+        assertEquals("Naypyidaw", patched.countries(Scope.COUNTRY, "Myanmar", null).get(0).getCapitalName());
+    }
+
+    @Test
+    void apply_RenamedCountryRelistsCities() {
+        WorldSnapshot patched = world().build().apply(new ChangeSet()
+                .addCountry("MMR", "Burma", "Asia", "Southeast Asia", 45_611_000L, 2710));
+
+        assertEquals(2, patched.countCities(Scope.COUNTRY, "Burma"));
+        assertEquals(0, patched.countCities(Scope.COUNTRY, "Myanmar"));
+        assertEquals("Burma", patched.capitals(Scope.WORLD, null, null).get(1).getCountry());
+        assertEquals(2, patched.populationByDistrict("Burma").size());
+    }
+
+    @Test
+    void apply_DeletedCountryLeavesEveryTotal() {
+        WorldSnapshot patched = world().build().apply(new ChangeSet()
+                .deleteCountry("FRA")
+                .deleteCity(2974)
+                .deleteCity(2975)
+                .deleteLanguage("FRA", "French")
+                .deleteLanguage("FRA", "Arabic"));
+
+        WorldSnapshot expected = new WorldSnapshot.Builder()
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710)
+                .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+                .addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null)
+                .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+                .addCity(2711, "Mandalay", "MMR", "Mandalay", 885_300L)
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+                .addLanguage("MMR", "Burmese", true, 69.0)
+                .addLanguage("THA", "Thai", true, 52.6)
+                .build();
+
+        assertEquals(describe(expected), describe(patched));
+        assertTrue(patched.populationByContinent().stream().noneMatch(p -> p.getName().equals("Europe")));
+    }
+
+    @Test
+    void apply_LeavesOriginalUnchanged() {
+        WorldSnapshot original = world().build();
+        List<String> before = describe(original);
+
+        original.apply(new ChangeSet()
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 8_305_218L)
+                .addCountry("FRA", "République française", "Europe", "Western Europe", 67_000_000L, 2974)
+                .deleteLanguage("MMR", "Burmese"));
+
+        assertEquals(before, describe(original));
+        assertSame(original, original.apply(new ChangeSet()));
+    }
+
+    @Test
+    void apply_RepeatedRenamesKeepDictionaryBounded() {
+        WorldSnapshot snapshot = world().build();
+        int initial = snapshot.cityTable().dictionarySize();
+
+        for (int i = 0; i < 50; i++) {
+            snapshot = snapshot.apply(new ChangeSet().addCity(2711, "Mandalay", "MMR", "District " + i, 885_300L));
+        }
+
+        assertEquals(1, snapshot.countCities(Scope.DISTRICT, "district 49"));
+        assertEquals(0, snapshot.countCities(Scope.DISTRICT, "Mandalay"));
+        assertTrue(snapshot.cityTable().dictionarySize() <= 2 * initial, "dictionary kept every old district");
+        assertEquals(snapshot.cityTable().dictionarySize(), snapshot.apply(new ChangeSet()
+                .addCity(2711, "Mandalay", "MMR", "District 49", 900_000L)).cityTable().dictionarySize());
+    }
+
+    @Test
+    void changeLog_ReadsChangedRowsAndStopsAtGap() throws SQLException {
+        List<Map<String, Object>> entries = List.of(
+                Map.of("Seq", 1L, "TableName", "city", "RowKey", "3320"),
+                Map.of("Seq", 2L, "TableName", "city", "RowKey", "9999"),
+                Map.of("Seq", 4L, "TableName", "city", "RowKey", "3320"));
+        List<Map<String, Object>> cities = List.of(
+                Map.of("ID", 3320, "Name", "Bangkok", "CountryCode", "THA", "District", "Bangkok", "Population", 8_305_218L));
+        List<FakeJdbc.Query> log = new ArrayList<>();
+
+        ChangeSet waiting = changeLogDb(entries, cities, log).read(0, 100);
+        assertEquals(2, waiting.position());
+        assertEquals(2, waiting.size());
+        assertTrue(log.get(1).sql.endsWith("FROM city WHERE ID IN (?,?)"));
+        assertEquals(Map.of(1, 3320, 2, 9999), log.get(1).params);
+        assertTrue(waiting.affects("SELECT Name FROM city ci"));
+        assertFalse(waiting.affects("SELECT Name FROM country c"));
+        assertFalse(new ChangeSet().affects("SELECT Name FROM city"));
+        assertTrue(new ChangeSet().deleteLanguage("FRA", "Arabic").affects("FROM COUNTRYLANGUAGE cl"));
+        assertFalse(new ChangeSet().deleteLanguage("FRA", "Arabic").affects("FROM country c"));
+
+        ChangeSet skipped = changeLogDb(entries, cities, log, Duration.ZERO).read(0, 100);
+        assertEquals(4, skipped.position());
+
+        WorldSnapshot patched = world().addCity(9999, "Gone", "THA", "Nowhere", 1L).build().apply(skipped);
+        assertEquals("Bangkok", patched.cities(Scope.WORLD, null, 1).get(0).getName());
+        assertEquals(8_305_218L, patched.cities(Scope.WORLD, null, 1).get(0).getPopulation());
+        assertEquals(5, patched.countCities(Scope.WORLD, null));
+    }
+
+    @Test
+    void pooledRefresh_ChangeShowsInBreakdowns() throws SQLException {
+        for (QueryCache cache : List.of(QueryCache.builder().build(), QueryCache.disabled())) {
+            List<Map<String, Object>> entries = new ArrayList<>();
+            Map<String, Object> myanmar = new HashMap<>(Map.of("Code", "MMR", "Name", "Myanmar",
+                    "Continent", "Asia", "Region", "Southeast Asia", "Population", 45_611_000L,
+                    "Capital", 2710, "CityPopulation", 4_247_000L));
+            List<Map<String, Object>> languages = new ArrayList<>(List.of(Map.of(
+                    "Language", "Burmese", "Speakers", 31_471_590L, "PercentOfWorld", 0.52, "Countries", 1)));
+            ReportDaos daos = ReportDaos.pooled(FakeJdbc.dataSource(
+                    sql -> sql.contains("world_change") ? entries
+                            : sql.contains("cl.Language") ? languages : List.of(myanmar), null), cache);
+            ChangeFeed feed = ChangeFeed.manual(changeLogDb(entries, List.of(myanmar), null), 0,
+                    changes -> daos.refresh(changes, cache));
+
+            assertEquals(45_611_000L, daos.population().getPopulationByContinent().get(0).getTotalPopulation());
+            assertEquals("Burmese", daos.languages().getLanguageRanking(0, 1).get(0).getName());
+            assertEquals(0, feed.poll());
+
+            myanmar.put("Population", 54_410_000L);
+            languages.set(0, Map.of("Language", "Shan", "Speakers", 4_000_000L, "PercentOfWorld", 0.07, "Countries", 1));
+            entries.add(Map.of("Seq", 1L, "TableName", "country", "RowKey", "MMR"));
+            assertEquals(1, feed.poll());
+            assertEquals(1, feed.position());
+
+            assertEquals(54_410_000L, daos.population().getPopulationByContinent().get(0).getTotalPopulation());
+            assertEquals("Shan", daos.languages().getLanguageRanking(0, 1).get(0).getName());
+        }
+    }
+
+    @Test
+    void changeFeed_WaitsOnGapThenSkipsItAndDropsEverything() throws Exception {
+        List<Map<String, Object>> entries = List.of(
+                Map.of("Seq", 1L, "TableName", "city", "RowKey", "3320"),
+                Map.of("Seq", 3L, "TableName", "city", "RowKey", "2710"));
+        List<ChangeSet> seen = new ArrayList<>();
+        ChangeFeed feed = ChangeFeed.manual(changeLogDb(entries, List.of(), null, Duration.ofMillis(50)), 0, seen::add);
+
+        // The row after the gap is passed on, but the position waits before it.
+        assertEquals(3, feed.poll());
+        assertEquals(1, feed.position());
+        assertTrue(seen.stream().noneMatch(ChangeSet::gapSkipped));
+
+        Thread.sleep(60);
+        assertEquals(1, feed.poll());
+        assertEquals(3, feed.position());
+        ChangeSet skipped = seen.get(seen.size() - 1);
+        assertTrue(skipped.gapSkipped());
+        assertEquals(0, feed.poll());
+
+        QueryCache cache = QueryCache.builder().build();
+        cache.get("SELECT COUNT(*) FROM country", List.of(), () -> 239L);
+        ReportDaos.pooled(FakeJdbc.failing("not used"), cache).refresh(skipped, cache);
+        assertEquals(0, cache.size());
+    }
+
+    /** Every listing and aggregate the reports read, one line per row. */
+    private static List<String> describe(WorldSnapshot s) {
+        List<String> lines = new ArrayList<>();
+        for (Country c : s.countries(Scope.WORLD, null, null)) {
+            lines.add("country " + c.getCode() + " " + c.getName() + " " + c.getContinent() + " "
+                    + c.getRegion() + " " + c.getPopulation() + " " + c.getCapitalName());
+        }
+        for (City c : s.cities(Scope.WORLD, null, null)) {
+            lines.add("city " + c.getName() + " " + c.getCountry() + " " + c.getDistrict() + " " + c.getPopulation());
+        }
+        for (Capital c : s.capitals(Scope.WORLD, null, null)) {
+            lines.add("capital " + c.getName() + " " + c.getCountry() + " " + c.getPopulation());
+        }
+        for (String region : List.of("Southeast Asia", "Western Europe", "Australia and New Zealand")) {
+            lines.add("count " + region + " " + s.countCities(Scope.REGION, region) + " "
+                    + s.countCountries(Scope.REGION, region) + " " + s.countCapitals(Scope.REGION, region));
+        }
+        List<Population> rollup = new ArrayList<>(s.worldPopulation());
+        rollup.addAll(s.populationByContinent());
+        rollup.addAll(s.populationByRegion());
+        rollup.addAll(s.populationByCountry());
+        for (Population p : rollup) {
+            lines.add("population " + p.getName() + " " + p.getTotalPopulation() + " " + p.getCityPopulation()
+                    + " " + p.getCityPopulationPercent() + " " + p.getNonCityPopulation());
+        }
+        for (Language l : s.languageTable().ranking(0, Integer.MAX_VALUE)) {
+            lines.add("language " + l.getName() + " " + l.getSpeakers() + " " + l.getPercentOfWorld()
+                    + " " + l.getCountryCount());
+        }
+        return lines;
+    }
+
+    /** A change log over {@code entries} (those after the requested Seq) whose row reads return {@code rows}. */
+    static ChangeLog changeLogDb(List<Map<String, Object>> entries, List<Map<String, Object>> rows,
+                                 List<FakeJdbc.Query> log) {
+        return changeLogDb(entries, rows, log, Duration.ofHours(1));
+    }
+
+    static ChangeLog changeLogDb(List<Map<String, Object>> entries, List<Map<String, Object>> rows,
+                                 List<FakeJdbc.Query> log, Duration gapTimeout) {
+        return new ChangeLog(FakeJdbc.answering(query -> !query.sql.contains("world_change") ? rows
+                : entries.stream().filter(e -> (Long) e.get("Seq") > (Long) query.params.get(1)).toList(), log), gapTimeout);
+    }
+}
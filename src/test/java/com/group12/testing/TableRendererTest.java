@@ -0,0 +1,94 @@
+package com.group12.testing;
+
+import com.group12.report.models.City;
+import com.group12.report.reports.CityReport;
+import com.group12.report.reports.TableLayout;
+import com.group12.report.reports.TableRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TableRenderer, checked against the String.format patterns the
+ * reports used before.
+ *  - text, grouped numbers and percentages pad exactly like %-Ns, %,Nd and %N.2f%%
+ *  - missing values print as "null"
+ *  - a whole report table reaches the output as one write
+ */
+class TableRendererTest {
+
+    static final TableLayout LAYOUT = TableLayout.builder()
+            .text("Name", 12).number("Total", 16).percent("Share", 10)
+            .build();
+
+    static String render(TableLayout layout, Object... cells) {
+        StringBuilder written = new StringBuilder();
+        TableRenderer out = new TableRenderer(written::append);
+        out.begin(layout);
+        for (Object cell : cells) {
+            if (cell instanceof Long n) out.number(n.longValue());
+            else if (cell instanceof Double d) out.percent(d.doubleValue());
+            else out.text((String) cell);
+        }
+        out.flush();
+        String[] lines = written.toString().split("\n");
+        return lines[lines.length - 1];
+    }
+
+    @Test
+    void row_MatchesStringFormat() {
+        long[] numbers = { 0L, 7L, 999L, 1_000L, 123_456L, 1_277_558_000L, -45_000L, Long.MAX_VALUE / 1000 };
+        double[] percents = { 0.0, 5.5, 19.61, 100.0, 80.32, -3.25, 0.07 };
+
+        for (long n : numbers) {
+            for (double p : percents) {
+                String expected = String.format(Locale.US, "| %-12s | %,16d | %9.2f%% |", "Yangon", n, p);
+                assertEquals(expected, render(LAYOUT, "Yangon", n, p), () -> n + " / " + p);
+            }
+        }
+    }
+
+    @Test
+    void header_MatchesStringFormat() {
+        StringBuilder written = new StringBuilder();
+        TableRenderer out = new TableRenderer(written::append);
+        out.begin(LAYOUT).end().flush();
+
+        String[] lines = written.toString().split("\n");
+        assertEquals("+--------------+------------------+------------+", lines[0]);
+        assertEquals(String.format("| %-12s | %16s | %10s |", "Name", "Total", "Share"), lines[1]);
+        assertEquals(lines[0], lines[3]);
+    }
+
+    @Test
+    void missingValues_PrintNull() {
+        StringBuilder written = new StringBuilder();
+        TableRenderer out = new TableRenderer(written::append);
+        out.begin(LAYOUT).text(null).number((Long) null).percent((Double) null).flush();
+
+        assertTrue(written.toString().endsWith(String.format("| %-12s | %16s | %10s |%n", null, null, null)
+                .replace(System.lineSeparator(), "\n")));
+    }
+
+    @Test
+    void report_WritesWholeTableAtOnce() {
+        List<String> writes = new ArrayList<>();
+        CityReport report = new CityReport(10, text -> writes.add(text.toString()));
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            cities.add(new City("City" + i, "Country", "District", 1_000_000L - i));
+        }
+
+        report.displayCities(cities, "Many cities");
+
+        assertEquals(1, writes.size());
+        String table = writes.get(0);
+        assertTrue(table.contains(String.format("| %-20s | %-20s | %-20s | %,15d |", "City0", "Country", "District", 1_000_000L)));
+        assertFalse(table.contains("City10"));
+        assertTrue(table.endsWith("Showing top 10 of 25 cities.\n"));
+    }
+}
@@ -0,0 +1,196 @@
+package com.group12.testing;
+
+import com.group12.report.data_access.CapitalDAO;
+import com.group12.report.data_access.CityDAO;
+import com.group12.report.data_access.LanguageDAO;
+import com.group12.report.data_access.PopulationDAO;
+import com.group12.report.data_access.TopN;
+import com.group12.report.models.*;
+import com.group12.report.snapshot.LanguageTable;
+import com.group12.report.snapshot.PopulationRollup;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorldSnapshot.
+ * Builds a tiny world by hand (no database) and checks that the
+ * in-memory answers match what the SQL reports would return.
+ */
+class WorldSnapshotTest {
+
+    static WorldSnapshot snapshot;
+
+    @BeforeAll
+    static void init() {
+        snapshot = new WorldSnapshot.Builder()
+                .addCountry("MMR", "Myanmar", "Asia", "Southeast Asia", 45_611_000L, 2710)
+                .addCountry("THA", "Thailand", "Asia", "Southeast Asia", 61_399_000L, 3320)
+                .addCountry("FRA", "France", "Europe", "Western Europe", 59_225_700L, 2974)
+                .addCountry("ATA", "Antarctica", "Antarctica", "Antarctica", 0L, null)
+                .addCity(2710, "Rangoon (Yangon)", "MMR", "Rangoon [Yangon]", 3_361_700L)
+                .addCity(2711, "Mandalay", "MMR", "Mandalay", 885_300L)
+                .addCity(3320, "Bangkok", "THA", "Bangkok", 6_320_174L)
+                .addCity(2974, "Paris", "FRA", "Île-de-France", 2_125_246L)
+                .addLanguage("MMR", "Burmese", true, 69.0)
+                .addLanguage("THA", "Thai", true, 52.6)
+                .addLanguage("FRA", "French", true, 93.6)
+                .build();
+    }
+
+    @Test
+    void cities_World_OrderedByPopulationDescending() {
+        List<City> cities = snapshot.cities(Scope.WORLD, null, null);
+
+        assertEquals(4, cities.size());
+        assertEquals("Bangkok", cities.get(0).getName());
+        assertEquals("Mandalay", cities.get(3).getName());
+    }
+
+    @Test
+    void cities_ByCountry_WithLimit() {
+        List<City> cities = snapshot.cities(Scope.COUNTRY, "Myanmar", 1);
+
+        assertEquals(1, cities.size());
+        assertEquals("Rangoon (Yangon)", cities.get(0).getName());
+    }
+
+    @Test
+    void countries_ByRegion_HaveCapitalNames() {
+        List<Country> countries = snapshot.countries(Scope.REGION, "Southeast Asia", null);
+
+        assertEquals(2, countries.size());
+        assertEquals("Thailand", countries.get(0).getName());
+        assertEquals("Bangkok", countries.get(0).getCapitalName());
+    }
+
+    @Test
+    void capitals_ByContinent_SkipsOtherContinents() {
+        List<Capital> capitals = snapshot.capitals(Scope.CONTINENT, "Europe", null);
+
+        assertEquals(1, capitals.size());
+        assertEquals("Paris", capitals.get(0).getName());
+        assertEquals("France", capitals.get(0).getCountry());
+    }
+
+    @Test
+    void counts_MatchUnlimitedListSizes() {
+        assertEquals(3, snapshot.countCities(Scope.CONTINENT, "Asia"));
+        assertEquals(4, snapshot.countCountries(Scope.WORLD, null));
+        assertEquals(2, snapshot.countCapitals(Scope.REGION, "Southeast Asia"));
+        assertEquals(2, snapshot.populationByCity(2).size());
+    }
+
+    @Test
+    void scopeIndexes_MatchNamesIgnoringCase() {
+        assertEquals(List.of("Bangkok", "Rangoon (Yangon)"),
+                snapshot.cities(Scope.REGION, "southeast asia", 2).stream().map(City::getName).toList());
+        assertEquals(1, snapshot.countCountries(Scope.COUNTRY, "FRANCE"));
+        assertEquals(1, snapshot.countCapitals(Scope.DISTRICT, "bangkok"));
+        assertEquals(0, snapshot.countCountries(Scope.DISTRICT, "Bangkok"));
+        assertTrue(snapshot.cities(Scope.CONTINENT, "Atlantis", null).isEmpty());
+    }
+
+    @Test
+    void populationByRegion_CityPlusNonCityEqualsTotal() {
+        Population seAsia = snapshot.populationByRegion().get(0);
+
+        assertEquals("Southeast Asia", seAsia.getName());
+        assertEquals(107_010_000L, seAsia.getTotalPopulation());
+        assertEquals(10_567_174L, seAsia.getCityPopulation().longValue());
+        assertEquals(seAsia.getTotalPopulation(), seAsia.getCityPopulation() + seAsia.getNonCityPopulation());
+        assertEquals(9.87, seAsia.getCityPopulationPercent(), 0.001);
+    }
+
+    @Test
+    void rollup_EveryLevelAddsUpToTheWorld() {
+        PopulationRollup rollup = snapshot.rollup();
+        long world = rollup.world().getTotalPopulation();
+
+        assertEquals(166_235_700L, world);
+        assertEquals(world, rollup.continents().stream().mapToLong(Population::getTotalPopulation).sum());
+        assertEquals(world, rollup.regions().stream().mapToLong(Population::getTotalPopulation).sum());
+        assertEquals(world, rollup.countries().stream().mapToLong(Population::getTotalPopulation).sum());
+        assertEquals("Asia", rollup.continents().get(0).getName());
+    }
+
+    @Test
+    void populationByContinent_ZeroPopulation_ReportsZeroPercent() {
+        Population antarctica = snapshot.populationByContinent().stream()
+                .filter(p -> "Antarctica".equals(p.getName()))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(0.0, antarctica.getCityPopulationPercent(), 0.001);
+        assertEquals(0.0, antarctica.getNonCityPopulationPercent(), 0.001);
+    }
+
+    @Test
+    void languagesBySpeakerCount_MatchesSqlRounding() {
+        List<Language> languages = snapshot.languagesBySpeakerCount(List.of("French", "Thai", "Klingon"));
+
+        assertEquals(2, languages.size());
+        assertEquals("French", languages.get(0).getName());
+        assertEquals(55_435_255L, languages.get(0).getSpeakers());
+        assertEquals("Thai", languages.get(1).getName());
+        assertEquals(32_295_874L, languages.get(1).getSpeakers());
+    }
+
+    @Test
+    void languageTable_RanksEveryLanguageWithPages() {
+        LanguageTable table = snapshot.languageTable();
+
+        assertEquals(3, table.size());
+        assertEquals(List.of("French", "Thai"),
+                table.ranking(0, 2).stream().map(Language::getName).toList());
+        assertEquals("Burmese", table.ranking(2, 10).get(0).getName());
+        assertTrue(table.ranking(3, 10).isEmpty());
+        assertEquals(1, table.ranking(0, 1).get(0).getCountryCount());
+        assertEquals(3, table.rankOf("burmese"));
+        assertEquals(1, new LanguageDAO(snapshot).getLanguageRanking(1, 1).size());
+        assertThrows(IllegalArgumentException.class, () -> table.ranking(-1, 5));
+    }
+
+    @Test
+    void daos_InSnapshotMode_DoNotNeedAConnection() {
+        assertEquals("Bangkok", new CityDAO(snapshot).getTop10CitiesInRegion().get(0).getName());
+        assertEquals(1, new PopulationDAO(snapshot).getWorldPopulation().size());
+        assertEquals(2, new PopulationDAO(snapshot).getPopulationByDistrict("Myanmar").size());
+        assertEquals(1, new LanguageDAO(snapshot).getLanguagesBySpeakerCount(List.of("Burmese")).size());
+    }
+
+    @Test
+    void topN_AnyEntityScopeAndN() {
+        TopN top = new TopN(snapshot);
+
+        assertEquals(List.of("Rangoon (Yangon)", "Mandalay"),
+                top.top(TopN.CITY, Scope.COUNTRY, "Myanmar", 5).stream().map(City::getName).toList());
+        assertEquals("Thailand", top.top(TopN.COUNTRY, Scope.CONTINENT, "Asia", 1).get(0).getName());
+        assertEquals("Paris", new CapitalDAO(snapshot).getTopCapitals(Scope.REGION, "Western Europe", 3).get(0).getName());
+    }
+
+    @Test
+    void topN_InvalidRequest_Rejected() {
+        TopN top = new TopN(snapshot);
+
+        assertThrows(IllegalArgumentException.class, () -> top.top(TopN.CITY, Scope.WORLD, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> top.top(TopN.COUNTRY, Scope.DISTRICT, "California", 10));
+    }
+
+    @Test
+    void streamCities_InSnapshotMode_MatchesListQuery() {
+        try (Stream<City> cities = new CityDAO(snapshot).streamCities(Scope.CONTINENT, "Asia")) {
+            assertEquals(List.of("Bangkok", "Rangoon (Yangon)", "Mandalay"),
+                    cities.map(City::getName).toList());
+        }
+        try (Stream<Population> cities = new PopulationDAO(snapshot).streamPopulationByCity()) {
+            assertEquals(4, cities.count());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.group12.testing;
+
+import com.group12.report.models.City;
+import com.group12.report.models.Country;
+import com.group12.report.models.Language;
+import com.group12.report.snapshot.Scope;
+import com.group12.report.snapshot.WorldSnapshot;
+import com.group12.report.snapshot.WorldSqlLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorldSqlLoader.
+ *  - a small dump in mysqldump's style: comments, column lists, multi-row
+ *    INSERTs, escaped quotes, NULLs and unrelated tables
+ *  - malformed input fails with the line number
+ *  - the world.sql shipped in the repository loads in full
+ */
+class WorldSqlLoaderTest {
+
+    static final String DUMP = """
+            -- MySQL dump
+            /*!40101 SET NAMES utf8mb4 */;
+            CREATE DATABASE `world`;
+            USE `world`;
+            CREATE TABLE `country` (
+              `Code` char(3) NOT NULL DEFAULT '',
+              `Name` char(52) NOT NULL DEFAULT '',
+              `Continent` enum('Asia','Europe','North America') NOT NULL DEFAULT 'Asia',
+              `Region` char(26) NOT NULL DEFAULT '',
+              `SurfaceArea` decimal(10,2) NOT NULL DEFAULT '0.00',
+              `Population` int NOT NULL DEFAULT '0',
+              `Capital` int DEFAULT NULL,
+              PRIMARY KEY (`Code`)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+            INSERT INTO `country` VALUES ('MMR','Myanmar','Asia','Southeast Asia',676578.00,45611000,2710),
+              ('CIV','Côte d\\'Ivoire','Africa','Western Africa',322463.00,14786000,NULL);
+            CREATE TABLE `notes` (`Text` text);
+            INSERT INTO `notes` VALUES ('skipped; even with ) and ,');
+            # column order given explicitly
+            INSERT INTO `city` (`Population`, `Name`, `ID`, `District`, `CountryCode`)
+              VALUES (3361700,'Rangoon (Yangon)',2710,'Rangoon [Yangon]','MMR'), (885300,'Mandalay',2711,'Mandalay','MMR');
+            CREATE TABLE `countrylanguage` (
+              `CountryCode` char(3) NOT NULL DEFAULT '',
+              `Language` char(30) NOT NULL DEFAULT '',
+              `IsOfficial` enum('T','F') NOT NULL DEFAULT 'F',
+              `Percentage` decimal(4,1) NOT NULL DEFAULT '0.0'
+            );
+            INSERT INTO `countrylanguage` VALUES ('MMR','Burmese','T',69.0),('CIV','French','T',0.0);
+            """;
+
+    static WorldSnapshot load(String dump) throws IOException {
+        WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+        WorldSqlLoader.read(new StringReader(dump), builder);
+        return builder.build();
+    }
+
+    @Test
+    void read_ParsesMysqldumpStatements() throws IOException {
+        WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+        assertEquals(6, WorldSqlLoader.read(new StringReader(DUMP), builder));
+        WorldSnapshot snapshot = builder.build();
+
+        List<Country> countries = snapshot.countries(Scope.WORLD, null, null);
+        assertEquals(2, countries.size());
+        assertEquals("Côte d'Ivoire", countries.get(1).getName());
+        assertNull(countries.get(1).getCapitalName());
+        assertEquals("Rangoon (Yangon)", countries.get(0).getCapitalName());
+
+        List<City> cities = snapshot.cities(Scope.COUNTRY, "Myanmar", null);
+        assertEquals(2, cities.size());
+        assertEquals("Rangoon [Yangon]", cities.get(0).getDistrict());
+        assertEquals(885_300L, cities.get(1).getPopulation());
+
+        List<Language> burmese = snapshot.languagesBySpeakerCount(List.of("Burmese"));
+        assertEquals(31_471_590L, burmese.get(0).getSpeakers());
+    }
+
+    @Test
+    void read_ReportsLineOfMalformedRow() {
+        String dump = DUMP.replace("(885300,'Mandalay',2711,'Mandalay','MMR')", "(885300,'Mandalay',2711,'MMR')");
+        IOException e = assertThrows(IOException.class, () -> load(dump));
+        assertTrue(e.getMessage().startsWith("line 21:"), e.getMessage());
+
+        assertThrows(IOException.class, () -> load("INSERT INTO `city` VALUES (1,'Kabul','AFG','Kabol',1780000);"));
+        assertThrows(IOException.class, () -> load(DUMP.replace("45611000", "lots")));
+    }
+
+    @Test
+    void load_ShippedWorldDump() throws IOException {
+        WorldSnapshot world = WorldSqlLoader.load(Path.of("world-db", "world-db", "world.sql"));
+
+        assertEquals(239, world.countCountries(Scope.WORLD, null));
+        assertEquals(4079, world.countCities(Scope.WORLD, null));
+        assertEquals("Mumbai (Bombay)", world.cities(Scope.WORLD, null, 1).get(0).getName());
+        Language chinese = world.languagesBySpeakerCount(List.of("Chinese")).get(0);
+        assertEquals(1_191_843_539L, chinese.getSpeakers());
+        assertEquals(19.61, chinese.getPercentOfWorld());
+    }
+}
@@ -0,0 +1,76 @@
+-- Change log for incremental refresh of the report's in-memory snapshot.
+--
+-- Every insert, update and delete of city, country and countrylanguage appends
+-- the table name and primary key of the row to world_change. The report polls
+-- the entries after the last sequence number it has seen and re-reads only the
+-- rows they name (see com.group12.report.snapshot.ChangeLog).
+--
+-- Runs after world.sql: the MySQL image runs init scripts in name order.
+
+USE `world`;
+
+CREATE TABLE IF NOT EXISTS `world_change` (
+  `Seq` bigint NOT NULL AUTO_INCREMENT,
+  `TableName` varchar(16) NOT NULL,
+  `RowKey` varchar(64) NOT NULL,
+  `ChangedAt` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`Seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- An update logs the new key, and the old one as well only when the key itself
+-- changed. The update triggers have two statements, so the script switches the
+-- delimiter; the MySQL image runs init scripts through the mysql client, which
+-- understands DELIMITER.
+
+DELIMITER $$
+
+DROP TRIGGER IF EXISTS `city_changed_insert`$$
+CREATE TRIGGER `city_changed_insert` AFTER INSERT ON `city` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('city', NEW.`ID`)$$
+DROP TRIGGER IF EXISTS `city_changed_update`$$
+CREATE TRIGGER `city_changed_update` AFTER UPDATE ON `city` FOR EACH ROW
+BEGIN
+  IF OLD.`ID` <> NEW.`ID` THEN
+    INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('city', OLD.`ID`);
+  END IF;
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('city', NEW.`ID`);
+END$$
+DROP TRIGGER IF EXISTS `city_changed_delete`$$
+CREATE TRIGGER `city_changed_delete` AFTER DELETE ON `city` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('city', OLD.`ID`)$$
+
+DROP TRIGGER IF EXISTS `country_changed_insert`$$
+CREATE TRIGGER `country_changed_insert` AFTER INSERT ON `country` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('country', NEW.`Code`)$$
+DROP TRIGGER IF EXISTS `country_changed_update`$$
+CREATE TRIGGER `country_changed_update` AFTER UPDATE ON `country` FOR EACH ROW
+BEGIN
+  IF OLD.`Code` <> NEW.`Code` THEN
+    INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('country', OLD.`Code`);
+  END IF;
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('country', NEW.`Code`);
+END$$
+DROP TRIGGER IF EXISTS `country_changed_delete`$$
+CREATE TRIGGER `country_changed_delete` AFTER DELETE ON `country` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`) VALUES ('country', OLD.`Code`)$$
+
+DROP TRIGGER IF EXISTS `countrylanguage_changed_insert`$$
+CREATE TRIGGER `countrylanguage_changed_insert` AFTER INSERT ON `countrylanguage` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`)
+  VALUES ('countrylanguage', CONCAT(NEW.`CountryCode`, ':', NEW.`Language`))$$
+DROP TRIGGER IF EXISTS `countrylanguage_changed_update`$$
+CREATE TRIGGER `countrylanguage_changed_update` AFTER UPDATE ON `countrylanguage` FOR EACH ROW
+BEGIN
+  IF OLD.`CountryCode` <> NEW.`CountryCode` OR OLD.`Language` <> NEW.`Language` THEN
+    INSERT INTO `world_change` (`TableName`, `RowKey`)
+    VALUES ('countrylanguage', CONCAT(OLD.`CountryCode`, ':', OLD.`Language`));
+  END IF;
+  INSERT INTO `world_change` (`TableName`, `RowKey`)
+  VALUES ('countrylanguage', CONCAT(NEW.`CountryCode`, ':', NEW.`Language`));
+END$$
+DROP TRIGGER IF EXISTS `countrylanguage_changed_delete`$$
+CREATE TRIGGER `countrylanguage_changed_delete` AFTER DELETE ON `countrylanguage` FOR EACH ROW
+  INSERT INTO `world_change` (`TableName`, `RowKey`)
+  VALUES ('countrylanguage', CONCAT(OLD.`CountryCode`, ':', OLD.`Language`))$$
+
+DELIMITER ;